@@ -0,0 +1,235 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+
+import org.apache.log4j.Logger;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+
+/**
+ * Process-wide LRU cache of compiled scripts, keyed by engine name and hash
+ * of the script content.
+ * <p>
+ * Only the engines which implement {@link Compilable} and declare, through the
+ * <code>THREADING</code> parameter of their factory, that they can be used by
+ * several threads are cached: a compiled script is evaluated concurrently with
+ * a distinct context for each evaluation. Each compiled script has its own
+ * engine, so that the classes generated by the engine for a script can be
+ * collected once the script is evicted.
+ * <p>
+ * The size of the cache is given by the <code>pa.scripting.compiled.cache.size</code>
+ * system property, <code>0</code> disables the cache.
+ */
+public class CompiledScriptCache {
+
+    private static final Logger logger = Logger.getLogger(CompiledScriptCache.class);
+
+    public static final String CACHE_SIZE_PROPERTY = "pa.scripting.compiled.cache.size";
+
+    private static final int DEFAULT_CACHE_SIZE = 512;
+
+    private static final List<String> THREAD_SAFE_THREADING_VALUES = Arrays.asList("MULTITHREADED",
+                                                                                   "THREAD-ISOLATED",
+                                                                                   "STATELESS");
+
+    private static final CompiledScriptCache instance = new CompiledScriptCache(Integer.getInteger(CACHE_SIZE_PROPERTY,
+                                                                                                   DEFAULT_CACHE_SIZE));
+
+    private final int maximumSize;
+
+    private final Cache<String, CompiledScript> compiledScripts;
+
+    private final ConcurrentMap<ScriptEngineFactory, Boolean> cacheableFactories = new ConcurrentHashMap<>();
+
+    private final AtomicLong compilationCount = new AtomicLong();
+
+    private final AtomicLong compilationTime = new AtomicLong();
+
+    CompiledScriptCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.compiledScripts = CacheBuilder.newBuilder().maximumSize(Math.max(maximumSize, 0)).recordStats().build();
+    }
+
+    public static CompiledScriptCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * @return true if the scripts of the engines created by this factory are cached
+     */
+    public boolean isCacheable(ScriptEngineFactory factory) {
+        if (maximumSize <= 0) {
+            return false;
+        }
+        Boolean cacheable = cacheableFactories.get(factory);
+        if (cacheable == null) {
+            Object threading = factory.getParameter("THREADING");
+            cacheable = threading != null && THREAD_SAFE_THREADING_VALUES.contains(threading.toString()) &&
+                        factory.getScriptEngine() instanceof Compilable;
+            cacheableFactories.put(factory, cacheable);
+        }
+        return cacheable;
+    }
+
+    /**
+     * Returns the compiled script, compiling it if it is not cached yet.
+     *
+     * @param factory a factory for which {@link #isCacheable(ScriptEngineFactory)} is true
+     * @param script the content of the script
+     * @throws javax.script.ScriptException if the script cannot be compiled
+     */
+    public CompiledScript get(final ScriptEngineFactory factory, final String script)
+            throws javax.script.ScriptException {
+        String key = factory.getEngineName() + ':' + Hashing.sha256().hashString(script, StandardCharsets.UTF_8);
+        try {
+            return compiledScripts.get(key, new Callable<CompiledScript>() {
+                @Override
+                public CompiledScript call() throws javax.script.ScriptException {
+                    return compile(factory, script);
+                }
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.propagateIfInstanceOf(e.getCause(), javax.script.ScriptException.class);
+            throw Throwables.propagate(e.getCause());
+        }
+    }
+
+    private CompiledScript compile(ScriptEngineFactory factory, String script) throws javax.script.ScriptException {
+        ScriptEngine engine = factory.getScriptEngine();
+        long start = System.nanoTime();
+        try {
+            return ((Compilable) engine).compile(script);
+        } finally {
+            compilationTime.addAndGet(System.nanoTime() - start);
+            if (compilationCount.incrementAndGet() % 100 == 0 && logger.isDebugEnabled()) {
+                logger.debug(getStatistics());
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        compiledScripts.invalidateAll();
+    }
+
+    public Statistics getStatistics() {
+        CacheStats stats = compiledScripts.stats();
+        return new Statistics(compiledScripts.size(),
+                              stats.hitCount(),
+                              stats.missCount(),
+                              compilationCount.get(),
+                              TimeUnit.NANOSECONDS.toMillis(compilationTime.get()));
+    }
+
+    public static class Statistics implements Serializable {
+
+        private final long size;
+
+        private final long hitCount;
+
+        private final long missCount;
+
+        private final long compilationCount;
+
+        private final long compilationTime;
+
+        Statistics(long size, long hitCount, long missCount, long compilationCount, long compilationTime) {
+            this.size = size;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.compilationCount = compilationCount;
+            this.compilationTime = compilationTime;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public double getHitRate() {
+            long requestCount = hitCount + missCount;
+            return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+        }
+
+        public long getCompilationCount() {
+            return compilationCount;
+        }
+
+        /**
+         * @return the total time spent compiling scripts, in milliseconds
+         */
+        public long getCompilationTime() {
+            return compilationTime;
+        }
+
+        /**
+         * @return the average time spent compiling a script, in milliseconds
+         */
+        public double getAverageCompilationTime() {
+            return compilationCount == 0 ? 0 : (double) compilationTime / compilationCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Compiled scripts: %d cached, hit rate %.2f (%d hits, %d misses), %d compilations in %d ms",
+                                 size,
+                                 getHitRate(),
+                                 hitCount,
+                                 missCount,
+                                 compilationCount,
+                                 compilationTime);
+        }
+    }
+
+}
@@ -39,16 +39,15 @@ import java.net.URL;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.script.Bindings;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
+import javax.script.SimpleScriptContext;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.annotation.PublicAPI;
@@ -350,17 +349,15 @@ public abstract class Script<E> implements Serializable {
             }
             return new ScriptResult<>(new Exception(stack));
         }
-        ScriptEngine engine = createScriptEngine();
+        ScriptEngineFactory factory = ScriptEngines.getEngineFactory(scriptEngineLookupName);
 
-        if (engine == null)
+        if (factory == null)
             return new ScriptResult<>(new Exception("No Script Engine Found for name or extension " +
                                                     scriptEngineLookupName));
 
         // SCHEDULING-1532: redirect script output to a buffer (keep the latest DEFAULT_OUTPUT_MAX_SIZE)
         BoundedStringWriter outputBoundedWriter = new BoundedStringWriter(outputSink, DEFAULT_OUTPUT_MAX_SIZE);
         BoundedStringWriter errorBoundedWriter = new BoundedStringWriter(errorSink, DEFAULT_OUTPUT_MAX_SIZE);
-        engine.getContext().setWriter(new PrintWriter(outputBoundedWriter));
-        engine.getContext().setErrorWriter(new PrintWriter(errorBoundedWriter));
         Reader closedInput = new Reader() {
             @Override
             public int read(char[] cbuf, int off, int len) throws IOException {
@@ -372,11 +369,29 @@ public abstract class Script<E> implements Serializable {
 
             }
         };
-        engine.getContext().setReader(closedInput);
-        engine.getContext().setAttribute(ScriptEngine.FILENAME, scriptName, ScriptContext.ENGINE_SCOPE);
 
         try {
-            Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+            // compiled scripts are shared, each evaluation uses its own context
+            CompiledScriptCache compiledScriptCache = CompiledScriptCache.getInstance();
+            CompiledScript compiledScript = null;
+            ScriptEngine engine;
+            ScriptContext context;
+            if (script != null && compiledScriptCache.isCacheable(factory)) {
+                compiledScript = compiledScriptCache.get(factory, script);
+                engine = compiledScript.getEngine();
+                context = new SimpleScriptContext();
+                context.setBindings(engine.createBindings(), ScriptContext.ENGINE_SCOPE);
+            } else {
+                engine = factory.getScriptEngine();
+                context = engine.getContext();
+            }
+
+            context.setWriter(new PrintWriter(outputBoundedWriter));
+            context.setErrorWriter(new PrintWriter(errorBoundedWriter));
+            context.setReader(closedInput);
+            context.setAttribute(ScriptEngine.FILENAME, scriptName, ScriptContext.ENGINE_SCOPE);
+
+            Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
             //add additional bindings
             if (aBindings != null) {
                 for (Entry<String, Object> e : aBindings.entrySet()) {
@@ -384,10 +399,15 @@ public abstract class Script<E> implements Serializable {
                 }
             }
             prepareBindings(bindings);
-            Object evalResult = engine.eval(getReader());
+            Object evalResult;
+            if (compiledScript != null) {
+                evalResult = compiledScript.eval(context);
+            } else {
+                evalResult = engine.eval(getReader());
+            }
 
-            engine.getContext().getErrorWriter().flush();
-            engine.getContext().getWriter().flush();
+            context.getErrorWriter().flush();
+            context.getWriter().flush();
 
             // Add output to the script result
             ScriptResult<E> result = this.getResult(evalResult, bindings);
@@ -479,54 +499,7 @@ public abstract class Script<E> implements Serializable {
 
     /** The Script Engine used to evaluate the script. */
     protected ScriptEngine createScriptEngine() {
-
-        Map<ScriptEngine, Integer> scriptEngineCandidates;
-        final boolean findByName = true;
-        scriptEngineCandidates = findScriptEngineCandidates(findByName);
-
-        if (scriptEngineCandidates.isEmpty()) {
-            scriptEngineCandidates = findScriptEngineCandidates(!findByName);
-        }
-
-        return findBestScriptEngine(scriptEngineCandidates);
-    }
-
-    private Map<ScriptEngine, Integer> findScriptEngineCandidates(boolean findByName) {
-        Map<ScriptEngine, Integer> matchPositionPerScriptEngineCandidate = new HashMap<>();
-        int matchPosition;
-        List<String> lookupCriteria;
-
-        for (ScriptEngineFactory factory : new ScriptEngineManager().getEngineFactories()) {
-            matchPosition = 0;
-            if (findByName) {
-                lookupCriteria = factory.getNames();
-            } else {
-                lookupCriteria = factory.getExtensions();
-            }
-
-            for (String criteria : lookupCriteria) {
-                if (criteria.equalsIgnoreCase(scriptEngineLookupName)) {
-                    matchPositionPerScriptEngineCandidate.put(factory.getScriptEngine(), matchPosition);
-                }
-                matchPosition++;
-            }
-        }
-
-        return matchPositionPerScriptEngineCandidate;
-    }
-
-    private ScriptEngine findBestScriptEngine(Map<ScriptEngine, Integer> scriptEngineCandidates) {
-        int minimumMatchingIndex = Integer.MAX_VALUE;
-        ScriptEngine bestScriptEngine = null;
-
-        for (Entry<ScriptEngine, Integer> candidate : scriptEngineCandidates.entrySet()) {
-            if (candidate.getValue() < minimumMatchingIndex) {
-                minimumMatchingIndex = candidate.getValue();
-                bestScriptEngine = candidate.getKey();
-            }
-        }
-
-        return bestScriptEngine;
+        return ScriptEngines.createScriptEngine(scriptEngineLookupName);
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptEngineManager;
+
+
+/**
+ * Process-wide registry of the script engine factories.
+ * <p>
+ * Listing the factories with a {@link ScriptEngineManager} scans the service
+ * loaders of the classpath, so the factories are listed once and the factory
+ * found for each engine name or extension is remembered. When no factory is
+ * found, the classpath of the current context class loader is scanned again
+ * as engines may be visible from it only.
+ */
+public final class ScriptEngines {
+
+    private static volatile List<ScriptEngineFactory> engineFactories;
+
+    private static final ConcurrentMap<String, ScriptEngineFactory> engineFactoriesByLookupName = new ConcurrentHashMap<>();
+
+    private ScriptEngines() {
+    }
+
+    /**
+     * @return the script engine factories available in this JVM
+     */
+    public static List<ScriptEngineFactory> getEngineFactories() {
+        List<ScriptEngineFactory> factories = engineFactories;
+        if (factories == null) {
+            synchronized (ScriptEngines.class) {
+                factories = engineFactories;
+                if (factories == null) {
+                    factories = Collections.unmodifiableList(new ScriptEngineManager().getEngineFactories());
+                    engineFactories = factories;
+                }
+            }
+        }
+        return factories;
+    }
+
+    /**
+     * Finds the factory of the engine matching the given name, or file
+     * extension if no engine has this name.
+     *
+     * @param lookupName the name or the extension of the engine
+     * @return the factory or null if no engine matches
+     */
+    public static ScriptEngineFactory getEngineFactory(String lookupName) {
+        if (lookupName == null) {
+            return null;
+        }
+        String key = lookupName.toLowerCase(Locale.ENGLISH);
+        ScriptEngineFactory factory = engineFactoriesByLookupName.get(key);
+        if (factory == null) {
+            factory = findEngineFactory(getEngineFactories(), lookupName);
+            if (factory != null) {
+                engineFactoriesByLookupName.put(key, factory);
+            } else {
+                factory = findEngineFactory(new ScriptEngineManager().getEngineFactories(), lookupName);
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * @param lookupName the name or the extension of the engine
+     * @return a new engine or null if no engine matches
+     */
+    public static ScriptEngine createScriptEngine(String lookupName) {
+        ScriptEngineFactory factory = getEngineFactory(lookupName);
+        if (factory == null) {
+            return null;
+        }
+        return factory.getScriptEngine();
+    }
+
+    /**
+     * Forgets the known factories, so that they are listed again on next use.
+     */
+    public static synchronized void reload() {
+        engineFactories = null;
+        engineFactoriesByLookupName.clear();
+    }
+
+    private static ScriptEngineFactory findEngineFactory(List<ScriptEngineFactory> factories, String lookupName) {
+        ScriptEngineFactory factory = findBestEngineFactory(factories, lookupName, true);
+        if (factory == null) {
+            factory = findBestEngineFactory(factories, lookupName, false);
+        }
+        return factory;
+    }
+
+    /**
+     * Returns the factory having the lookup name (or extension) at the lowest
+     * position in its list of names (or extensions).
+     */
+    private static ScriptEngineFactory findBestEngineFactory(List<ScriptEngineFactory> factories, String lookupName,
+            boolean findByName) {
+        int minimumMatchPosition = Integer.MAX_VALUE;
+        ScriptEngineFactory bestFactory = null;
+
+        for (ScriptEngineFactory factory : factories) {
+            List<String> lookupCriteria = findByName ? factory.getNames() : factory.getExtensions();
+            int matchPosition = 0;
+            for (String criteria : lookupCriteria) {
+                if (criteria.equalsIgnoreCase(lookupName) && matchPosition < minimumMatchPosition) {
+                    minimumMatchPosition = matchPosition;
+                    bestFactory = factory;
+                }
+                matchPosition++;
+            }
+        }
+
+        return bestFactory;
+    }
+
+}
@@ -32,10 +32,10 @@ import java.util.Date;
 import java.util.List;
 
 import javax.script.ScriptEngineFactory;
-import javax.script.ScriptEngineManager;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.annotation.PublicAPI;
+import org.ow2.proactive.scripting.ScriptEngines;
 
 import com.google.common.base.Joiner;
 
@@ -349,8 +349,7 @@ public class Tools {
             return;
         }
 
-        ScriptEngineManager scriptEngineManager = new ScriptEngineManager();
-        List<ScriptEngineFactory> engineFactories = scriptEngineManager.getEngineFactories();
+        List<ScriptEngineFactory> engineFactories = ScriptEngines.getEngineFactories();
 
         StringBuilder buffer = new StringBuilder();
         buffer.append("Available script engines: ");
@@ -0,0 +1,114 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scripting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptEngineFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class CompiledScriptCacheTest {
+
+    private ScriptEngineFactory groovy;
+
+    @Before
+    public void init() {
+        groovy = ScriptEngines.getEngineFactory("groovy");
+        assertNotNull(groovy);
+    }
+
+    @Test
+    public void testEngineFactoriesAreLookedUpOnce() {
+        assertSame(groovy, ScriptEngines.getEngineFactory("Groovy"));
+        assertSame(groovy, ScriptEngines.getEngineFactory("groovy"));
+        assertNull(ScriptEngines.getEngineFactory("mySuperNonExistingScriptEngine"));
+    }
+
+    @Test
+    public void testCompiledScriptIsReused() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(10);
+        assertTrue(cache.isCacheable(groovy));
+
+        CompiledScript compiled = cache.get(groovy, "result = 1");
+
+        assertSame(compiled, cache.get(groovy, "result = 1"));
+        assertEquals(1, cache.getStatistics().getHitCount());
+        assertEquals(1, cache.getStatistics().getCompilationCount());
+        assertEquals(0.5, cache.getStatistics().getHitRate(), 0.001);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedScriptIsEvicted() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(1);
+
+        cache.get(groovy, "result = 1");
+        cache.get(groovy, "result = 2");
+        cache.get(groovy, "result = 1");
+
+        assertEquals(3, cache.getStatistics().getCompilationCount());
+        assertEquals(1, cache.getStatistics().getSize());
+    }
+
+    @Test(expected = javax.script.ScriptException.class)
+    public void testCompilationErrorIsThrown() throws Exception {
+        new CompiledScriptCache(10).get(groovy, "result = ");
+    }
+
+    @Test
+    public void testCacheCanBeDisabled() {
+        assertFalse(new CompiledScriptCache(0).isCacheable(groovy));
+    }
+
+    @Test
+    public void testEvaluationsOfACompiledScriptDoNotShareBindings() throws Exception {
+        String script = "result = binding.hasVariable('counter') ? counter + 1 : 1; counter = result";
+
+        for (int i = 0; i < 3; i++) {
+            ScriptResult<Serializable> result = new TaskScript(new SimpleScript(script, "groovy")).execute();
+            assertNull(result.getException());
+            assertEquals(1, result.getResult());
+        }
+    }
+
+    @Test
+    public void testCompilationErrorIsReportedInScriptResult() throws Exception {
+        ScriptResult<Serializable> result = new TaskScript(new SimpleScript("result = ", "groovy")).execute();
+
+        assertNotNull(result.getException());
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Cache of the successful LDAP authentications.
+ * <p>
+ * Entries are keyed by a salted hash of the user name and password, so neither
+ * the password nor a reusable hash of it is kept in memory, and a login with
+ * another password is never answered by the cache. Entries expire after a
+ * fixed time, so that a password change or a group change in the directory is
+ * taken into account after at most this time, unless the cache is invalidated.
+ */
+class LDAPAuthenticationCache {
+
+    private final byte[] salt = new byte[16];
+
+    private final Cache<String, Authentication> authentications;
+
+    /**
+     * @param timeToLive time in milliseconds during which an authentication is reused
+     * @param maximumSize maximum number of authentications kept
+     */
+    LDAPAuthenticationCache(long timeToLive, int maximumSize) {
+        new SecureRandom().nextBytes(salt);
+        authentications = CacheBuilder.newBuilder()
+                                      .expireAfterWrite(timeToLive, TimeUnit.MILLISECONDS)
+                                      .maximumSize(maximumSize)
+                                      .build();
+    }
+
+    /**
+     * @return the authentication of the user with the given password, or null if it is not cached
+     */
+    Authentication get(String username, String password) {
+        return authentications.getIfPresent(key(username, password));
+    }
+
+    void put(String username, String password, String userDN, List<String> groups) {
+        authentications.put(key(username, password), new Authentication(username, userDN, groups));
+    }
+
+    /**
+     * Removes the authentications of the given user.
+     */
+    void invalidate(String username) {
+        for (Iterator<Map.Entry<String, Authentication>> iterator = authentications.asMap()
+                                                                                  .entrySet()
+                                                                                  .iterator(); iterator.hasNext();) {
+            if (iterator.next().getValue().getUsername().equals(username)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    void invalidateAll() {
+        authentications.invalidateAll();
+    }
+
+    long size() {
+        return authentications.size();
+    }
+
+    private String key(String username, String password) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        hasher.putBytes(salt);
+        hasher.putInt(username.length()).putString(username, StandardCharsets.UTF_8);
+        hasher.putString(password, StandardCharsets.UTF_8);
+        return hasher.hash().toString();
+    }
+
+    static final class Authentication {
+
+        private final String username;
+
+        private final String userDN;
+
+        private final List<String> groups;
+
+        Authentication(String username, String userDN, List<String> groups) {
+            this.username = username;
+            this.userDN = userDN;
+            this.groups = Collections.unmodifiableList(new ArrayList<>(groups));
+        }
+
+        String getUsername() {
+            return username;
+        }
+
+        String getUserDN() {
+            return userDN;
+        }
+
+        List<String> getGroups() {
+            return groups;
+        }
+    }
+}
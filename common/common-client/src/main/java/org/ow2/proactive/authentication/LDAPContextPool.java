@@ -0,0 +1,109 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import java.util.Hashtable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import javax.naming.NamingException;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Pool of the LDAP contexts used to search the entries of users and groups.
+ * <p>
+ * A context is used by a single login at a time and given back to the pool
+ * afterwards, so successive logins do not open and bind a new connection.
+ * A context on which the LDAP server reported an error is closed instead.
+ */
+class LDAPContextPool {
+
+    private static final Logger logger = Logger.getLogger(LDAPContextPool.class);
+
+    private final Hashtable<String, String> environment;
+
+    private final BlockingQueue<DirContext> idleContexts;
+
+    /**
+     * @param environment environment used to create the contexts
+     * @param maxIdleContexts maximum number of contexts kept open while unused, 0 to close each context after use
+     */
+    LDAPContextPool(Hashtable<String, String> environment, int maxIdleContexts) {
+        this.environment = new Hashtable<>(environment);
+        this.idleContexts = maxIdleContexts > 0 ? new ArrayBlockingQueue<DirContext>(maxIdleContexts) : null;
+    }
+
+    /**
+     * @return an idle context of the pool, or a new one if none is idle
+     */
+    DirContext borrow() throws NamingException {
+        DirContext context = idleContexts != null ? idleContexts.poll() : null;
+        if (context == null) {
+            context = new InitialDirContext(environment);
+        }
+        return context;
+    }
+
+    /**
+     * Gives back a context which can be used by another login.
+     */
+    void release(DirContext context) {
+        if (idleContexts == null || !idleContexts.offer(context)) {
+            close(context);
+        }
+    }
+
+    /**
+     * Closes a context which cannot be used anymore.
+     */
+    void invalidate(DirContext context) {
+        close(context);
+    }
+
+    /**
+     * Closes all the idle contexts.
+     */
+    void clear() {
+        if (idleContexts != null) {
+            DirContext context;
+            while ((context = idleContexts.poll()) != null) {
+                close(context);
+            }
+        }
+    }
+
+    private static void close(DirContext context) {
+        try {
+            context.close();
+        } catch (NamingException e) {
+            logger.warn("Problem closing LDAP connection: " + e.getMessage());
+        }
+    }
+}
@@ -25,9 +25,15 @@
  */
 package org.ow2.proactive.authentication;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import javax.naming.CommunicationException;
 import javax.naming.Context;
 import javax.naming.NamingEnumeration;
 import javax.naming.NamingException;
@@ -55,17 +61,36 @@ import org.ow2.proactive.authentication.principals.UserNamePrincipal;
  *
  * support custom filters for username and group
  *
+ * The connections used to search users and groups are pooled, and successful
+ * authentications can be cached for a limited time. Pools and caches are shared,
+ * per LDAP configuration file, by the login modules of the scheduler and the RM.
+ *
  *
  * @author The ActiveEon Team
  * @since ProActive Scheduling 2.1.1
  */
 public abstract class LDAPLoginModule extends FileLoginModule implements Loggable {
 
+    /** default maximum number of idle search connections */
+    private static final int DEFAULT_SEARCH_POOL_SIZE = 8;
+
+    /** default maximum number of cached authentications */
+    private static final int DEFAULT_AUTHENTICATION_CACHE_SIZE = 1000;
+
+    /** search connection pools, per LDAP configuration file */
+    private static final ConcurrentMap<String, LDAPContextPool> contextPools = new ConcurrentHashMap<>();
+
+    /** caches of successful authentications, per LDAP configuration file */
+    private static final ConcurrentMap<String, LDAPAuthenticationCache> authenticationCaches = new ConcurrentHashMap<>();
+
     /** connection logger */
     private final Logger logger = getLogger();
 
+    /** LDAP configuration file */
+    private final String ldapConfigFileName = getLDAPConfigFileName();
+
     /** LDAP configuration properties */
-    private LDAPProperties ldapProperties = new LDAPProperties(getLDAPConfigFileName());
+    private LDAPProperties ldapProperties = new LDAPProperties(ldapConfigFileName);
 
     /** default value for Context.SECURITY_AUTHENTICATION
      * that correspond to anonymous connection
@@ -120,6 +145,12 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
     /** authentication status */
     private boolean succeeded = false;
 
+    /** pool of the connections used to search users and groups */
+    private final LDAPContextPool contextPool;
+
+    /** cache of successful authentications, null if disabled */
+    private final LDAPAuthenticationCache authenticationCache;
+
     /**
      * Creates a new instance of LDAPLoginModule
      */
@@ -153,6 +184,77 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
             System.setProperty(SSL_TRUSTSTORE_PASSWD_PROPERTY,
                                ldapProperties.getProperty(LDAPProperties.LDAP_TRUSTSTORE_PASSWD));
         }
+
+        contextPool = getContextPool();
+        authenticationCache = getAuthenticationCache();
+    }
+
+    private LDAPContextPool getContextPool() {
+        LDAPContextPool pool = contextPools.get(ldapConfigFileName);
+        if (pool == null) {
+            LDAPContextPool newPool = new LDAPContextPool(createSearchEnvironment(),
+                                                          getIntProperty(LDAPProperties.LDAP_SEARCH_POOL_SIZE,
+                                                                         DEFAULT_SEARCH_POOL_SIZE));
+            pool = contextPools.putIfAbsent(ldapConfigFileName, newPool);
+            if (pool == null) {
+                pool = newPool;
+            }
+        }
+        return pool;
+    }
+
+    private LDAPAuthenticationCache getAuthenticationCache() {
+        int timeToLive = getIntProperty(LDAPProperties.LDAP_AUTHENTICATION_CACHE_TTL, 0);
+        if (timeToLive <= 0) {
+            return null;
+        }
+        LDAPAuthenticationCache cache = authenticationCaches.get(ldapConfigFileName);
+        if (cache == null) {
+            LDAPAuthenticationCache newCache = new LDAPAuthenticationCache(TimeUnit.SECONDS.toMillis(timeToLive),
+                                                                           getIntProperty(LDAPProperties.LDAP_AUTHENTICATION_CACHE_SIZE,
+                                                                                          DEFAULT_AUTHENTICATION_CACHE_SIZE));
+            cache = authenticationCaches.putIfAbsent(ldapConfigFileName, newCache);
+            if (cache == null) {
+                cache = newCache;
+            }
+        }
+        return cache;
+    }
+
+    private int getIntProperty(String propertyName, int defaultValue) {
+        String value = ldapProperties.getProperty(propertyName);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid value for property " + propertyName + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Removes the cached authentications of the given user, e.g. after a change of its
+     * password or of its groups in the directory. Exposed by the ManagementMBean of the
+     * scheduler and of the RM.
+     *
+     * @param username login of the user
+     */
+    public static void invalidateAuthenticationCache(String username) {
+        for (LDAPAuthenticationCache cache : authenticationCaches.values()) {
+            cache.invalidate(username);
+        }
+    }
+
+    /**
+     * Removes all the cached authentications. Exposed by the ManagementMBean of the
+     * scheduler and of the RM.
+     */
+    public static void invalidateAuthenticationCache() {
+        for (LDAPAuthenticationCache cache : authenticationCaches.values()) {
+            cache.invalidateAll();
+        }
     }
 
     /**
@@ -282,12 +384,29 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
     }
 
     private boolean internalLogUser(String username, String password) throws LoginException {
+        // an empty password would be accepted by an anonymous bind, never cache it
+        boolean cacheable = authenticationCache != null && password != null && !password.isEmpty();
+        if (cacheable) {
+            LDAPAuthenticationCache.Authentication authentication = authenticationCache.get(username, password);
+            if (authentication != null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("User " + username + " authenticated from cache as " + authentication.getUserDN());
+                }
+                addPrincipals(username, authentication.getGroups());
+                if (fallbackGroupMembership) {
+                    super.groupMembershipFromFile(username);
+                }
+                return true;
+            }
+        }
+
         // check the user name, get the RDN of the user
         // (null = not found)
         String userDN = null;
+        List<String> groups = new ArrayList<>();
         boolean passwordMatch = false;
         try {
-            userDN = getLDAPUserDN(username);
+            userDN = getLDAPUserDN(username, groups);
         } catch (NamingException e) {
             logger.error("Cannot connect to LDAP server", e);
             throw new FailedLoginException("Cannot connect to LDAP server");
@@ -306,6 +425,11 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
                 logger.debug("authentication succeeded, checking group");
             }
 
+            addPrincipals(username, groups);
+            if (cacheable) {
+                authenticationCache.put(username, password, userDN, groups);
+            }
+
             if (fallbackGroupMembership) {
                 super.groupMembershipFromFile(username);
             }
@@ -419,11 +543,19 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
         return true;
     }
 
+    private void addPrincipals(String username, List<String> groups) {
+        subject.getPrincipals().add(new UserNamePrincipal(username));
+        for (String groupName : groups) {
+            subject.getPrincipals().add(new GroupNamePrincipal(groupName));
+        }
+    }
+
     /**
-     * Connects anonymously to the LDAP server <code>url</code> and retrieve
-     * DN of the user <code>username</code>
+     * Retrieves the DN of the user <code>username</code> and its groups, using a
+     * pooled connection to the LDAP server <code>url</code>.
      *
      * <p>
+     * @param groups list filled with the groups of the user
      * @exception NamingException
      *                if a naming exception is encountered.
      * <p>
@@ -431,81 +563,92 @@ public abstract class LDAPLoginModule extends FileLoginModule implements Loggabl
      * @return the String containing the UID of the user or null if the user is
      *         not found.
      */
-    private String getLDAPUserDN(String username) throws NamingException {
+    private String getLDAPUserDN(String username, List<String> groups) throws NamingException {
+        boolean retried = false;
+        while (true) {
+            DirContext ctx = contextPool.borrow();
+            try {
+                String userDN = searchLDAPUserDN(ctx, username, groups);
+                contextPool.release(ctx);
+                return userDN;
+            } catch (CommunicationException e) {
+                contextPool.invalidate(ctx);
+                groups.clear();
+                if (retried) {
+                    logger.error("Problem with the search in mode: " + AUTHENTICATION_METHOD + e);
+                    throw e;
+                }
+                // the idle connections were probably closed by the server, use a new one
+                logger.debug("LDAP connection lost, retrying with a new connection", e);
+                contextPool.clear();
+                retried = true;
+            } catch (NamingException e) {
+                contextPool.invalidate(ctx);
+                logger.error("Problem with the search in mode: " + AUTHENTICATION_METHOD + e);
+                throw e;
+            }
+        }
+    }
 
+    private String searchLDAPUserDN(DirContext ctx, String username, List<String> groups) throws NamingException {
         String userDN = null;
-        DirContext ctx = null;
+        SearchControls sControl = new SearchControls();
+        sControl.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        String filter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_USER_FILTER), username);
+        // looking for the user dn (distinguish name)
+        NamingEnumeration<SearchResult> answer = ctx.search(USERS_DN, filter, sControl);
         try {
-
-            // Create the initial directory context
-            ctx = this.connectAndGetContext();
-            SearchControls sControl = new SearchControls();
-            sControl.setSearchScope(SearchControls.SUBTREE_SCOPE);
-            String filter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_USER_FILTER), username);
-            // looking for the user dn (distinguish name)
-            NamingEnumeration<SearchResult> answer = ctx.search(USERS_DN, filter, sControl);
             if (answer.hasMoreElements()) {
-                SearchResult result = (SearchResult) answer.next();
+                SearchResult result = answer.next();
                 userDN = result.getNameInNamespace();
                 if (logger.isDebugEnabled()) {
                     logger.debug("User " + username + " has LDAP entry " + userDN);
                 }
-                subject.getPrincipals().add(new UserNamePrincipal(username));
-
-                // looking for the user groups
-                String groupFilter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_GROUP_FILTER),
-                                                   userDN);
-
-                NamingEnumeration<SearchResult> groupResults = ctx.search(GROUPS_DN, groupFilter, sControl);
-                while (groupResults.hasMoreElements()) {
-                    SearchResult res = (SearchResult) groupResults.next();
-                    Attribute attr = res.getAttributes()
-                                        .get(ldapProperties.getProperty(LDAPProperties.LDAP_GROUPNAME_ATTR));
-                    if (attr != null) {
-                        String groupName = attr.get().toString();
-                        subject.getPrincipals().add(new GroupNamePrincipal(groupName));
-                        if (logger.isDebugEnabled()) {
-                            logger.debug("User " + username + " is a member of group " + groupName);
-                        }
-                    }
-                }
-
             } else {
                 if (logger.isDebugEnabled()) {
                     logger.debug("User DN not found");
                 }
+                return null;
             }
-        } catch (NamingException e) {
-            logger.error("Problem with the search in mode: " + AUTHENTICATION_METHOD + e);
-            throw e;
         } finally {
-            try {
-                if (ctx != null) {
-                    ctx.close();
+            answer.close();
+        }
+
+        // looking for the user groups
+        String groupFilter = String.format(ldapProperties.getProperty(LDAPProperties.LDAP_GROUP_FILTER), userDN);
+
+        NamingEnumeration<SearchResult> groupResults = ctx.search(GROUPS_DN, groupFilter, sControl);
+        try {
+            while (groupResults.hasMoreElements()) {
+                SearchResult res = groupResults.next();
+                Attribute attr = res.getAttributes().get(ldapProperties.getProperty(LDAPProperties.LDAP_GROUPNAME_ATTR));
+                if (attr != null) {
+                    String groupName = attr.get().toString();
+                    groups.add(groupName);
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("User " + username + " is a member of group " + groupName);
+                    }
                 }
-            } catch (NamingException e) {
-                logger.error("", e);
-                logger.error("Problem closing LDAP connection: " + e.getMessage());
             }
+        } finally {
+            groupResults.close();
         }
-
         return userDN;
     }
 
     /**
-     * Performs connection to LDAP with appropriate security parameters
-     * @return directory service interface.
-     * @throws NamingException
+     * Creates the environment of the connections used to search users and groups,
+     * with appropriate security parameters.
+     * @return environment of the search connections.
      */
-    private DirContext connectAndGetContext() throws NamingException {
+    private Hashtable<String, String> createSearchEnvironment() {
         Hashtable<String, String> env = createBasicEnvForInitalContext();
 
         if (!AUTHENTICATION_METHOD.equals(ANONYMOUS_LDAP_CONNECTION)) {
             env.put(Context.SECURITY_PRINCIPAL, BIND_LOGIN);
             env.put(Context.SECURITY_CREDENTIALS, BIND_PASSWD);
         }
-        // Create the initial directory context
-        return new InitialDirContext(env);
+        return env;
     }
 
     /**
@@ -95,6 +95,15 @@ public class LDAPProperties {
     /** boolean defining whether the LDAP service provider has to use connection pooling or not */
     public static final String LDAP_CONNECTION_POOLING = "pa.ldap.connection.pooling";
 
+    /** maximum number of connections used to search users and groups kept open between logins, 0 to close them after each login */
+    public static final String LDAP_SEARCH_POOL_SIZE = "pa.ldap.search.pool.size";
+
+    /** time in seconds during which a successful authentication is reused for the same login and password, 0 to disable the cache */
+    public static final String LDAP_AUTHENTICATION_CACHE_TTL = "pa.ldap.authentication.cache.ttl";
+
+    /** maximum number of successful authentications kept in the cache */
+    public static final String LDAP_AUTHENTICATION_CACHE_SIZE = "pa.ldap.authentication.cache.size";
+
     /** fall back property, check user/password and group in files if user is not found in LDAP.
      * true or false */
     public static final String FALLBACK_USER_AUTH = "pa.ldap.authentication.fallback";
@@ -29,7 +29,6 @@ import java.io.FileReader;
 import java.io.Reader;
 
 import javax.script.ScriptEngine;
-import javax.script.ScriptEngineManager;
 
 import org.objectweb.proactive.ActiveObjectCreationException;
 import org.objectweb.proactive.annotation.PublicAPI;
@@ -87,8 +86,7 @@ public class ScriptLoader {
         }
 
         Reader reader = new FileReader(args[0]);
-        ScriptEngineManager sem = new ScriptEngineManager();
-        ScriptEngine engine = sem.getEngineByExtension(split[split.length - 1]);
+        ScriptEngine engine = ScriptEngines.createScriptEngine(split[split.length - 1]);
         engine.eval(reader);
     }
 }
@@ -0,0 +1,329 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.authentication;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyException;
+import java.security.PrivateKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import javax.security.auth.Subject;
+import javax.security.auth.login.FailedLoginException;
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.authentication.principals.GroupNamePrincipal;
+import org.ow2.proactive.authentication.principals.UserNamePrincipal;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+
+
+/**
+ * Tests the LDAP login module against an in-memory LDAP server.
+ */
+public class LDAPLoginModuleTest {
+
+    private static final Logger logger = Logger.getLogger(LDAPLoginModuleTest.class);
+
+    private static final String BENCHMARK_LOGINS_PROPERTY = "pa.ldap.benchmark.logins";
+
+    private static final String BASE_DN = "dc=activeeon,dc=com";
+
+    private static final String BIND_DN = "cn=admin," + BASE_DN;
+
+    private static final String BIND_PASSWORD = "secret";
+
+    private static InMemoryDirectoryServer server;
+
+    private static final AtomicInteger connections = new AtomicInteger();
+
+    private static final AtomicInteger searches = new AtomicInteger();
+
+    /** configuration file of the login modules created by the current test */
+    private static volatile String configFile;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.addAdditionalBindCredentials(BIND_DN, BIND_PASSWORD);
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+        config.setAccessLogHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                String message = record.getMessage();
+                if (message.matches(".*\\bCONNECT conn=.*")) {
+                    connections.incrementAndGet();
+                } else if (message.contains("SEARCH REQUEST")) {
+                    searches.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        server = new InMemoryDirectoryServer(config);
+        server.add("dn: " + BASE_DN, "objectClass: top", "objectClass: domain", "dc: activeeon");
+        addUser("user", "pwd");
+        server.add("dn: cn=users," + BASE_DN,
+                   "objectClass: groupOfUniqueNames",
+                   "cn: users",
+                   "uniqueMember: uid=user," + BASE_DN);
+        server.startListening();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        server.shutDown(true);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        connections.set(0);
+        searches.set(0);
+    }
+
+    @Test
+    public void testLoginWithGroups() throws Exception {
+        useConfiguration(8, 0);
+
+        Subject subject = login("user", "pwd");
+
+        assertThat(subject.getPrincipals()).containsAllOf(new UserNamePrincipal("user"),
+                                                          new GroupNamePrincipal("users"));
+    }
+
+    @Test(expected = FailedLoginException.class)
+    public void testWrongPassword() throws Exception {
+        useConfiguration(8, 60);
+
+        login("user", "wrong");
+    }
+
+    @Test(expected = FailedLoginException.class)
+    public void testUnknownUser() throws Exception {
+        useConfiguration(8, 60);
+
+        login("unknown", "pwd");
+    }
+
+    @Test
+    public void testSearchConnectionIsReused() throws Exception {
+        useConfiguration(8, 0);
+
+        login("user", "pwd");
+        int connectionsOfFirstLogin = connections.get();
+        login("user", "pwd");
+
+        // the second login only opens the connection checking the password
+        assertThat(connections.get() - connectionsOfFirstLogin).isEqualTo(1);
+    }
+
+    @Test
+    public void testAuthenticationIsCached() throws Exception {
+        useConfiguration(8, 60);
+        addUser("cached", "pwd");
+        try {
+            login("cached", "pwd");
+            int searchesOfFirstLogin = searches.get();
+
+            Subject subject = login("cached", "pwd");
+
+            assertThat(searches.get()).isEqualTo(searchesOfFirstLogin);
+            assertThat(subject.getPrincipals()).contains(new UserNamePrincipal("cached"));
+        } finally {
+            server.delete("uid=cached," + BASE_DN);
+        }
+    }
+
+    @Test
+    public void testCacheDoesNotAcceptAnotherPassword() throws Exception {
+        useConfiguration(8, 60);
+        login("user", "pwd");
+
+        try {
+            login("user", "wrong");
+            throw new AssertionError("Login with a wrong password succeeded");
+        } catch (FailedLoginException expected) {
+            // the password is checked by the LDAP server
+        }
+    }
+
+    @Test
+    public void testCacheInvalidation() throws Exception {
+        useConfiguration(8, 60);
+        addUser("removed", "pwd");
+        login("removed", "pwd");
+        server.delete("uid=removed," + BASE_DN);
+
+        // still known by the cache
+        login("removed", "pwd");
+
+        LDAPLoginModule.invalidateAuthenticationCache("removed");
+        try {
+            login("removed", "pwd");
+            throw new AssertionError("Login of a removed user succeeded");
+        } catch (FailedLoginException expected) {
+            // not in the directory anymore
+        }
+    }
+
+    /**
+     * Compares the logins without pooling, with pooling and with the cache. Only runs when the
+     * number of logins is given by the pa.ldap.benchmark.logins system property (e.g. 500).
+     */
+    @Test
+    public void benchmarkLogins() throws Exception {
+        int logins = Integer.getInteger(BENCHMARK_LOGINS_PROPERTY, 0);
+        Assume.assumeTrue(logins > 0);
+
+        useConfiguration(0, 0);
+        long withoutPooling = runLogins(logins);
+        int connectionsWithoutPooling = connections.getAndSet(0);
+        int searchesWithoutPooling = searches.getAndSet(0);
+
+        useConfiguration(8, 0);
+        long withPooling = runLogins(logins);
+        int connectionsWithPooling = connections.getAndSet(0);
+        int searchesWithPooling = searches.getAndSet(0);
+
+        useConfiguration(8, 60);
+        long withCache = runLogins(logins);
+        int connectionsWithCache = connections.getAndSet(0);
+        int searchesWithCache = searches.getAndSet(0);
+
+        logger.info(String.format("%d logins: %d ms, %d connections, %d searches without pooling; " +
+                                  "%d ms, %d connections, %d searches with pooling; " +
+                                  "%d ms, %d connections, %d searches with pooling and cache",
+                                  logins,
+                                  withoutPooling,
+                                  connectionsWithoutPooling,
+                                  searchesWithoutPooling,
+                                  withPooling,
+                                  connectionsWithPooling,
+                                  searchesWithPooling,
+                                  withCache,
+                                  connectionsWithCache,
+                                  searchesWithCache));
+        assertThat(connectionsWithPooling).isLessThan(connectionsWithoutPooling);
+        assertThat(searchesWithCache).isLessThan(searchesWithPooling);
+    }
+
+    private long runLogins(int logins) throws LoginException {
+        long start = System.nanoTime();
+        for (int i = 0; i < logins; i++) {
+            login("user", "pwd");
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void addUser(String uid, String password) throws Exception {
+        server.add("dn: uid=" + uid + "," + BASE_DN,
+                   "objectClass: inetOrgPerson",
+                   "uid: " + uid,
+                   "cn: " + uid,
+                   "sn: " + uid,
+                   "userPassword: " + password);
+    }
+
+    /**
+     * Writes a new configuration file, so that the login modules created afterwards
+     * do not share their connections and cache with the previous ones.
+     */
+    private void useConfiguration(int searchPoolSize, int cacheTimeToLive) throws IOException {
+        File file = temporaryFolder.newFile();
+        String config = "pa.ldap.url=ldap://localhost:" + server.getListenPort() + "\n" + "pa.ldap.userssubtree=" +
+                        BASE_DN + "\n" + "pa.ldap.user.filter=(&(objectclass=inetOrgPerson)(uid=%s))\n" +
+                        "pa.ldap.group.filter=(&(objectclass=groupOfUniqueNames)(uniqueMember=%s))\n" +
+                        "pa.ldap.group.name.attr=cn\n" + "pa.ldap.authentication.method=simple\n" +
+                        "pa.ldap.bind.login=" + BIND_DN + "\n" + "pa.ldap.bind.pwd=" + BIND_PASSWORD + "\n" +
+                        "pa.ldap.connection.pooling=false\n" + "pa.ldap.search.pool.size=" + searchPoolSize + "\n" +
+                        "pa.ldap.authentication.cache.ttl=" + cacheTimeToLive + "\n" +
+                        "pa.ldap.authentication.fallback=false\n" + "pa.ldap.group.membership.fallback=false\n";
+        Files.write(file.toPath(), config.getBytes(StandardCharsets.UTF_8));
+        configFile = file.getAbsolutePath();
+    }
+
+    private Subject login(String username, String password) throws LoginException {
+        Subject subject = new Subject();
+        TestLDAPLoginModule loginModule = new TestLDAPLoginModule();
+        loginModule.initialize(subject, null, null, null);
+        loginModule.logUser(username, password);
+        return subject;
+    }
+
+    private static class TestLDAPLoginModule extends LDAPLoginModule {
+
+        @Override
+        protected String getLDAPConfigFileName() {
+            return configFile;
+        }
+
+        @Override
+        protected String getLoginFileName() {
+            return null;
+        }
+
+        @Override
+        protected String getGroupFileName() {
+            return null;
+        }
+
+        @Override
+        protected PrivateKey getPrivateKey() throws KeyException {
+            return null;
+        }
+
+        @Override
+        public Logger getLogger() {
+            return logger;
+        }
+    }
+}
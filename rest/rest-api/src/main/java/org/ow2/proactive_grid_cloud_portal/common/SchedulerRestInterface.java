@@ -50,6 +50,7 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.PathSegment;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.jboss.resteasy.annotations.GZIP;
 import org.jboss.resteasy.annotations.providers.multipart.MultipartForm;
@@ -65,6 +66,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobUsageData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobValidationData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestMapPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerChangesData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerStatusData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerUserData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultData;
@@ -164,6 +166,34 @@ public interface SchedulerRestInterface {
             @QueryParam("finished") @DefaultValue("true") boolean finished)
             throws PermissionRestException, NotConnectedRestException;
 
+    /**
+     * Returns the jobs and tasks which changed since the given revision of the
+     * scheduler state. Each job and task is returned once, with the revision of
+     * its latest change. Removed jobs are returned as tombstones.
+     * <p>
+     * The changes are kept in memory in a log of bounded size. If the changes
+     * since the given revision are not available anymore, the result is marked
+     * as not complete and the full state has to be reloaded with
+     * <code>revisionjobsinfo</code>. Only the changes of the jobs the user is
+     * allowed to see are returned.
+     * 
+     * @param sessionId
+     *            a valid session id
+     * @param sinceRevision
+     *            the revision of the scheduler state already known by the client,
+     *            as returned by <code>revisionjobsinfo</code> or by a previous call
+     * @param myJobs
+     *            fetch only the changes of the jobs owned by the user making the request
+     * @return the changes since the given revision and the revision to use for the next call
+     */
+    @GET
+    @GZIP
+    @Path("changes")
+    @Produces({ "application/json", "application/xml" })
+    SchedulerChangesData changesSinceRevision(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("since") long sinceRevision, @QueryParam("myjobs") @DefaultValue("false") boolean myJobs)
+            throws NotConnectedRestException, PermissionRestException;
+
     /**
      * Returns the revision number of the scheduler state
      * 
@@ -205,6 +235,55 @@ public interface SchedulerRestInterface {
     JobResultData jobResult(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId)
             throws NotConnectedRestException, PermissionRestException, UnknownJobRestException;
 
+    /**
+     * Returns, among the given jobs, the ids of the ones which are finished.
+     * This allows a client to reconcile the state of many awaited jobs in a
+     * single request. The ids are sent in the request body so that their
+     * number is not bounded by the maximum length of an URL. The jobs which
+     * are unknown, e.g. already removed, or which the user is not allowed to
+     * see are returned as well, as waiting for them is pointless, so that the
+     * client gets the error of each of these jobs separately.
+     * 
+     * @param sessionId
+     *            a valid session id
+     * @param jobIds
+     *            the ids of the jobs to check, as a json array
+     * @return the sublist of <code>jobIds</code> referring to jobs which are
+     *         finished, unknown or not visible
+     */
+    @POST
+    @Path("jobs/finished")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces("application/json")
+    List<String> finishedJobs(@HeaderParam("sessionid") String sessionId, List<String> jobIds)
+            throws NotConnectedRestException;
+
+    /**
+     * Returns, among the given tasks of the job <code>jobId</code>, the names
+     * of the ones which are finished. This allows a client to reconcile the
+     * state of many awaited tasks in a single request. The names are sent in
+     * the request body so that their number is not bounded by the maximum
+     * length of an URL. The names of the tasks which are unknown are returned
+     * as well, so that the client gets the error of each of these tasks
+     * separately.
+     * 
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the id of the job
+     * @param taskNames
+     *            the names of the tasks to check, as a json array
+     * @return the sublist of <code>taskNames</code> referring to tasks which
+     *         are finished or unknown
+     */
+    @POST
+    @Path("jobs/{jobid}/finishedtasks")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces("application/json")
+    List<String> finishedTasks(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId,
+            List<String> taskNames) throws NotConnectedRestException, PermissionRestException,
+            UnknownJobRestException;
+
     /**
      * Returns the job info associated to the job referenced by the id
      * <code>jobid</code>
@@ -559,6 +638,25 @@ public interface SchedulerRestInterface {
             @QueryParam("limit") @DefaultValue("50") int limit)
             throws NotConnectedRestException, UnknownJobRestException, PermissionRestException;
 
+    /**
+     * Streams the states of all the tasks of a job, page by page. The JSON
+     * document has the same structure as the one returned by
+     * <code>jobs/{jobid}/taskstates</code>, but is never fully built in memory,
+     * which makes it suitable for jobs with many tasks.
+     * 
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the job id
+     * @return the task' states of the job <code>jobId</code>, written as JSON
+     */
+    @GET
+    @GZIP
+    @Path("jobs/{jobid}/taskstates/stream")
+    @Produces("application/json")
+    StreamingOutput streamJobTaskStates(@HeaderParam("sessionid") String sessionId, @PathParam("jobid") String jobId)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException;
+
     /**
      * Returns a list of taskState of the tasks filtered by a given tag.
      * 
@@ -1508,6 +1606,22 @@ public interface SchedulerRestInterface {
     boolean isConnected(@HeaderParam("sessionid")
     final String sessionId) throws NotConnectedRestException;
 
+    /**
+     * Tests whether or not the user is allowed to handle the jobs of the other
+     * users, and thus to listen to the events of all jobs
+     * 
+     * @param sessionId
+     *            a valid session id
+     * @return true if the user can handle the jobs of the other users, false
+     *         if he can only handle his own jobs.
+     * @throws NotConnectedRestException
+     */
+    @GET
+    @Path("permissions/otheruserjobs")
+    @Produces("application/json")
+    boolean canHandleOtherUsersJobs(@HeaderParam("sessionid")
+    final String sessionId) throws NotConnectedRestException;
+
     /**
      * login to the scheduler using an form containing 2 fields (username and
      * password)
@@ -47,6 +47,25 @@ public class Zipper {
 
     private static byte[] MAGIC = { 'P', 'K', 0x3, 0x4 };
 
+    /**
+     * Signatures of formats which are already compressed and gain nothing
+     * from being compressed again before a transfer.
+     */
+    private static final byte[][] COMPRESSED_MAGICS = { MAGIC, // zip, jar, docx...
+                                                        { 0x1f, (byte) 0x8b }, // gzip
+                                                        { 'B', 'Z', 'h' }, // bzip2
+                                                        { (byte) 0xfd, '7', 'z', 'X', 'Z', 0x0 }, // xz
+                                                        { '7', 'z', (byte) 0xbc, (byte) 0xaf, 0x27, 0x1c }, // 7z
+                                                        { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd }, // zstd
+                                                        { (byte) 0x89, 'P', 'N', 'G' }, // png
+                                                        { (byte) 0xff, (byte) 0xd8, (byte) 0xff }, // jpeg
+                                                        { 'G', 'I', 'F', '8' }, // gif
+                                                        { 'R', 'a', 'r', '!' }, // rar
+                                                        { 'O', 'g', 'g', 'S' } // ogg
+    };
+
+    private static final int COMPRESSED_MAGIC_MAX_LENGTH = 6;
+
     private Zipper() {
     }
 
@@ -216,6 +235,49 @@ public class Zipper {
         return isZipStream;
     }
 
+    public static boolean isCompressedFile(File file) throws IOException {
+        try (InputStream is = new FileInputStream(file)) {
+            return isCompressed(is);
+        }
+    }
+
+    /**
+     * Checks whether the stream starts with the signature of an already
+     * compressed format. The stream is reset to its initial position.
+     */
+    public static boolean isCompressed(InputStream is) {
+        if (!is.markSupported()) {
+            is = new BufferedInputStream(is);
+        }
+        byte[] header = new byte[COMPRESSED_MAGIC_MAX_LENGTH];
+        int length;
+        try {
+            is.mark(header.length);
+            length = ByteStreams.read(is, header, 0, header.length);
+            is.reset();
+        } catch (IOException ioe) {
+            return false;
+        }
+        for (byte[] magic : COMPRESSED_MAGICS) {
+            if (startsWith(header, length, magic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(byte[] header, int length, byte[] magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static class FilesOnlyPredicate implements Predicate<File> {
         @Override
         public boolean apply(File file) {
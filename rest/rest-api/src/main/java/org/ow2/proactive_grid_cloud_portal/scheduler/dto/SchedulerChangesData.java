@@ -0,0 +1,101 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * The jobs and tasks which changed since a revision of the scheduler state.
+ * <p>
+ * When the changes since the requested revision are not available anymore,
+ * <code>complete</code> is false and the full state has to be reloaded, for
+ * instance with <code>revisionjobsinfo</code>.
+ */
+@XmlRootElement
+public class SchedulerChangesData implements Serializable {
+
+    private long revision;
+
+    private boolean complete;
+
+    private List<JobChangeData> jobs = new ArrayList<>();
+
+    private List<TaskChangeData> tasks = new ArrayList<>();
+
+    public SchedulerChangesData() {
+    }
+
+    public SchedulerChangesData(long revision, boolean complete) {
+        this.revision = revision;
+        this.complete = complete;
+    }
+
+    /**
+     * @return the revision to give when requesting the next changes
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    public List<JobChangeData> getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(List<JobChangeData> jobs) {
+        this.jobs = jobs;
+    }
+
+    public List<TaskChangeData> getTasks() {
+        return tasks;
+    }
+
+    public void setTasks(List<TaskChangeData> tasks) {
+        this.tasks = tasks;
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerChangesData{" + "revision=" + revision + ", complete=" + complete + ", jobs=" + jobs +
+               ", tasks=" + tasks + '}';
+    }
+}
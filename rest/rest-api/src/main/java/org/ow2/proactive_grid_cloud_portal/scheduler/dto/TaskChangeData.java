@@ -0,0 +1,83 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto;
+
+import java.io.Serializable;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+
+/**
+ * The latest change of a task.
+ */
+@XmlRootElement
+public class TaskChangeData implements Serializable {
+
+    private long revision;
+
+    private String jobId;
+
+    private TaskInfoData taskInfo;
+
+    public TaskChangeData() {
+    }
+
+    public TaskChangeData(long revision, String jobId, TaskInfoData taskInfo) {
+        this.revision = revision;
+        this.jobId = jobId;
+        this.taskInfo = taskInfo;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public TaskInfoData getTaskInfo() {
+        return taskInfo;
+    }
+
+    public void setTaskInfo(TaskInfoData taskInfo) {
+        this.taskInfo = taskInfo;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChangeData{" + "revision=" + revision + ", jobId='" + jobId + '\'' + ", taskInfo=" + taskInfo +
+               '}';
+    }
+}
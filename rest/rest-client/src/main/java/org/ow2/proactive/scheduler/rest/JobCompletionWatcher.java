@@ -0,0 +1,418 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.exception.UnknownTaskException;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+
+/**
+ * Tracks the completion of awaited jobs and tasks using the events pushed by
+ * the REST server, so that {@link SchedulerClient} waits do not need to poll
+ * the server for each awaited job or task.
+ * <p>
+ * A future is registered before the state of the job (or task) is reconciled
+ * through a single batch request, so a completion happening in between is
+ * never missed. The events are received through the event connection of the
+ * client, shared with the event listener of the user. When this connection is
+ * lost, it is reopened in the background and all pending futures are
+ * reconciled again. The pending futures are also reconciled periodically, as
+ * the events of the jobs of other users are not received when the user is
+ * only allowed to handle his own jobs.
+ * <p>
+ * Each wait gets its own futures, which must be unregistered with
+ * {@link #unwatchJobs(Map)} or {@link #unwatchTasks(String, Map)} once the
+ * wait is over, so that the futures of timed out waits are not kept forever.
+ */
+class JobCompletionWatcher implements DisconnectionAwareSchedulerEventListener {
+
+    private static final Logger logger = Logger.getLogger(JobCompletionWatcher.class);
+
+    private static final long RECONNECTION_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    private static final long RECONCILIATION_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
+    static final SchedulerEvent[] COMPLETION_EVENTS = { SchedulerEvent.JOB_RUNNING_TO_FINISHED,
+                                                        SchedulerEvent.JOB_PENDING_TO_FINISHED,
+                                                        SchedulerEvent.JOB_REMOVE_FINISHED,
+                                                        SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                                        SchedulerEvent.TASK_SKIPPED,
+                                                        SchedulerEvent.TASK_IN_ERROR_TO_FINISHED };
+
+    private final SchedulerClient client;
+
+    /**
+     * Guards {@link #jobFutures} and {@link #taskFutures}
+     */
+    private final Object futuresLock = new Object();
+
+    private final SetMultimap<String, SettableFuture<String>> jobFutures = HashMultimap.create();
+
+    private final Map<String, SetMultimap<String, SettableFuture<String>>> taskFutures = new HashMap<>();
+
+    private final ScheduledExecutorService executor;
+
+    private boolean connected = false;
+
+    private boolean closed = false;
+
+    private boolean reconnecting = false;
+
+    JobCompletionWatcher(SchedulerClient client) {
+        this.client = client;
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("job-completion-watcher-%d")
+                                                                .setDaemon(true)
+                                                                .build();
+        this.executor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        this.executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reconcilePendingFutures();
+                } catch (Exception e) {
+                    logger.debug("Cannot reconcile awaited jobs", e);
+                }
+            }
+        }, RECONCILIATION_PERIOD, RECONCILIATION_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns, for each given job, a future completed with the job id as soon
+     * as the job is finished.
+     */
+    Map<String, SettableFuture<String>> watchJobs(Collection<String> jobIds)
+            throws NotConnectedException, PermissionException, UnknownJobException {
+        Map<String, SettableFuture<String>> futures = new LinkedHashMap<>(jobIds.size());
+        synchronized (futuresLock) {
+            for (String jobId : jobIds) {
+                SettableFuture<String> future = SettableFuture.create();
+                jobFutures.put(jobId, future);
+                futures.put(jobId, future);
+            }
+        }
+        boolean reconciled = false;
+        try {
+            ensureConnected();
+            for (String finished : client.finishedJobs(new ArrayList<>(futures.keySet()))) {
+                jobFinished(finished);
+            }
+            reconciled = true;
+        } finally {
+            if (!reconciled) {
+                unwatchJobs(futures);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Unregisters the futures returned by {@link #watchJobs(Collection)}, which
+     * will not be completed anymore.
+     */
+    void unwatchJobs(Map<String, SettableFuture<String>> futures) {
+        synchronized (futuresLock) {
+            for (Map.Entry<String, SettableFuture<String>> entry : futures.entrySet()) {
+                jobFutures.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns, for each given task of the job, a future completed with the task
+     * name as soon as the task is finished.
+     */
+    Map<String, SettableFuture<String>> watchTasks(String jobId, Collection<String> taskNames)
+            throws NotConnectedException, PermissionException, UnknownJobException, UnknownTaskException {
+        Map<String, SettableFuture<String>> futures = new LinkedHashMap<>(taskNames.size());
+        synchronized (futuresLock) {
+            SetMultimap<String, SettableFuture<String>> jobTaskFutures = taskFutures.get(jobId);
+            if (jobTaskFutures == null) {
+                jobTaskFutures = HashMultimap.create();
+                taskFutures.put(jobId, jobTaskFutures);
+            }
+            for (String taskName : taskNames) {
+                SettableFuture<String> future = SettableFuture.create();
+                jobTaskFutures.put(taskName, future);
+                futures.put(taskName, future);
+            }
+        }
+        boolean reconciled = false;
+        try {
+            ensureConnected();
+            for (String finished : client.finishedTasks(jobId, new ArrayList<>(futures.keySet()))) {
+                taskFinished(jobId, finished);
+            }
+            reconciled = true;
+        } finally {
+            if (!reconciled) {
+                unwatchTasks(jobId, futures);
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Unregisters the futures returned by {@link #watchTasks(String, Collection)},
+     * which will not be completed anymore.
+     */
+    void unwatchTasks(String jobId, Map<String, SettableFuture<String>> futures) {
+        synchronized (futuresLock) {
+            SetMultimap<String, SettableFuture<String>> jobTaskFutures = taskFutures.get(jobId);
+            if (jobTaskFutures == null) {
+                return;
+            }
+            for (Map.Entry<String, SettableFuture<String>> entry : futures.entrySet()) {
+                jobTaskFutures.remove(entry.getKey(), entry.getValue());
+            }
+            if (jobTaskFutures.isEmpty()) {
+                taskFutures.remove(jobId);
+            }
+        }
+    }
+
+    /**
+     * @return the number of futures still waiting for a completion
+     */
+    int getPendingFuturesCount() {
+        synchronized (futuresLock) {
+            int count = jobFutures.size();
+            for (SetMultimap<String, SettableFuture<String>> jobTaskFutures : taskFutures.values()) {
+                count += jobTaskFutures.size();
+            }
+            return count;
+        }
+    }
+
+    synchronized void close() {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+        JobInfo jobInfo = notification.getData();
+        if (!jobInfo.getStatus().isJobAlive() || notification.getEventType() == SchedulerEvent.JOB_REMOVE_FINISHED) {
+            jobFinished(jobInfo.getJobId().value());
+        }
+    }
+
+    @Override
+    public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+        TaskInfo taskInfo = notification.getData();
+        if (!taskInfo.getStatus().isTaskAlive()) {
+            taskFinished(taskInfo.getJobId().value(), taskInfo.getTaskId().getReadableName());
+        }
+    }
+
+    @Override
+    public void notifyDisconnection() {
+        synchronized (this) {
+            connected = false;
+            if (closed || reconnecting) {
+                return;
+            }
+            reconnecting = true;
+        }
+        scheduleReconnection(0);
+    }
+
+    @Override
+    public void schedulerStateUpdatedEvent(SchedulerEvent eventType) {
+        // not needed to track completions
+    }
+
+    @Override
+    public void jobSubmittedEvent(JobState job) {
+        // not needed to track completions
+    }
+
+    @Override
+    public void jobUpdatedFullDataEvent(JobState job) {
+        // not needed to track completions
+    }
+
+    @Override
+    public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
+        // not needed to track completions
+    }
+
+    private void jobFinished(String jobId) {
+        List<SettableFuture<String>> finishedJobFutures;
+        SetMultimap<String, SettableFuture<String>> finishedTaskFutures;
+        synchronized (futuresLock) {
+            finishedJobFutures = new ArrayList<>(jobFutures.removeAll(jobId));
+            finishedTaskFutures = taskFutures.remove(jobId);
+        }
+        for (SettableFuture<String> future : finishedJobFutures) {
+            future.set(jobId);
+        }
+        // tasks which did not send their own event (e.g. when the job is killed) are over as well
+        if (finishedTaskFutures != null) {
+            for (Map.Entry<String, SettableFuture<String>> entry : finishedTaskFutures.entries()) {
+                entry.getValue().set(entry.getKey());
+            }
+        }
+    }
+
+    private void taskFinished(String jobId, String taskName) {
+        List<SettableFuture<String>> finishedTaskFutures = Collections.emptyList();
+        synchronized (futuresLock) {
+            SetMultimap<String, SettableFuture<String>> jobTaskFutures = taskFutures.get(jobId);
+            if (jobTaskFutures != null) {
+                finishedTaskFutures = new ArrayList<>(jobTaskFutures.removeAll(taskName));
+                if (jobTaskFutures.isEmpty()) {
+                    taskFutures.remove(jobId);
+                }
+            }
+        }
+        for (SettableFuture<String> future : finishedTaskFutures) {
+            future.set(taskName);
+        }
+    }
+
+    /**
+     * Makes sure the event connection of the client forwards the completion
+     * events to this watcher.
+     */
+    private void ensureConnected() throws NotConnectedException {
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("Job completion watcher is closed.");
+            }
+            if (connected) {
+                return;
+            }
+            connected = true;
+        }
+        boolean opened = false;
+        try {
+            // not called while holding the lock of the watcher, as the client closes it while holding its own lock
+            client.restartEventReceiver();
+            opened = true;
+        } catch (Exception e) {
+            throw new NotConnectedException("Cannot open the scheduler events connection: " + e.getMessage(), e);
+        } finally {
+            if (!opened) {
+                synchronized (this) {
+                    connected = false;
+                }
+            }
+        }
+    }
+
+    private void scheduleReconnection(long delay) {
+        try {
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    reconnectAndReconcile();
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.debug("Reconnection not scheduled, the watcher is closed", e);
+        }
+    }
+
+    private void reconnectAndReconcile() {
+        try {
+            ensureConnected();
+            reconcilePendingFutures();
+            synchronized (this) {
+                reconnecting = false;
+            }
+        } catch (Exception e) {
+            logger.warn("Cannot reconcile awaited jobs after a disconnection, retrying in " + RECONNECTION_DELAY +
+                        " ms", e);
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                connected = false;
+            }
+            scheduleReconnection(RECONNECTION_DELAY);
+        }
+    }
+
+    /**
+     * Completes the pending futures of the jobs and tasks which are finished,
+     * using one request for all jobs and one request per job for the tasks.
+     */
+    private void reconcilePendingFutures()
+            throws NotConnectedException, PermissionException, UnknownJobException, UnknownTaskException {
+        List<String> jobIds;
+        Map<String, List<String>> taskNamesByJob = new HashMap<>();
+        synchronized (futuresLock) {
+            jobIds = new ArrayList<>(jobFutures.keySet());
+            for (Map.Entry<String, SetMultimap<String, SettableFuture<String>>> entry : taskFutures.entrySet()) {
+                taskNamesByJob.put(entry.getKey(), new ArrayList<>(entry.getValue().keySet()));
+            }
+        }
+        if (!jobIds.isEmpty()) {
+            for (String finished : client.finishedJobs(jobIds)) {
+                jobFinished(finished);
+            }
+        }
+        for (Map.Entry<String, List<String>> entry : taskNamesByJob.entrySet()) {
+            List<String> finishedTasks;
+            try {
+                finishedTasks = client.finishedTasks(entry.getKey(), entry.getValue());
+            } catch (UnknownJobException e) {
+                // the job was removed, the error is reported when the task results are fetched
+                jobFinished(entry.getKey());
+                continue;
+            }
+            for (String finished : finishedTasks) {
+                taskFinished(entry.getKey(), finished);
+            }
+        }
+    }
+}
@@ -54,12 +54,15 @@ import java.net.URLConnection;
 import java.security.KeyException;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -135,10 +138,12 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestExc
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.SchedulerRestException;
 import org.ow2.proactive_grid_cloud_portal.scheduler.exception.UnknownJobRestException;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 
-public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
-    private static final long RETRY_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
     private SchedulerRestClient schedulerRestClient;
 
@@ -150,6 +155,19 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
 
     private SchedulerEventReceiver schedulerEventReceiver;
 
+    private SharedSchedulerEventListener sharedEventListener;
+
+    private SchedulerEventListener eventListener;
+
+    private boolean myEventsOnly;
+
+    private SchedulerEvent[] events;
+
+    private JobCompletionWatcher completionWatcher;
+
+    /** Whether the completion events of the jobs of all users can be received */
+    private boolean completionEventsOfAllUsers;
+
     private static final Logger logger = ProActiveLogger.getLogger(SchedulerClient.class);
 
     private SchedulerClient() {
@@ -241,6 +259,7 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         } catch (Exception e) {
             throwNCEOrPE(e);
         }
+        closeCompletionWatcher();
         initialized = false;
     }
 
@@ -804,18 +823,15 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public JobResult waitForJob(String jobId, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            if (isJobFinished(jobId)) {
-                return getJobResult(jobId);
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        JobCompletionWatcher watcher = completionWatcher();
+        Map<String, SettableFuture<String>> futures = watcher.watchJobs(Collections.singletonList(jobId));
+        try {
+            awaitAll(futures.values(), deadline, format("Timeout waiting for the job: job-id=%s", jobId));
+        } finally {
+            watcher.unwatchJobs(futures);
         }
-        throw new TimeoutException(format("Timeout waiting for the job: job-id=%s", jobId));
+        return getJobResult(jobId);
     }
 
     @Override
@@ -835,29 +851,36 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public TaskResult waitForTask(String jobId, String taskName, long timeout) throws UnknownJobException,
             NotConnectedException, PermissionException, UnknownTaskException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            if (isTaskFinished(jobId, taskName)) {
-                return getTaskResult(jobId, taskName);
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        List<String> taskNames = Collections.singletonList(taskName);
+        JobCompletionWatcher watcher = completionWatcher();
+        Map<String, SettableFuture<String>> futures = watcher.watchTasks(jobId, taskNames);
+        try {
+            awaitAll(futures.values(),
+                     deadline,
+                     format("Timeout waiting for the task: job-id=%s, task-id=%s", jobId, taskName));
+        } finally {
+            watcher.unwatchTasks(jobId, futures);
         }
-        throw new TimeoutException(format("Timeout waiting for the task: job-id=%s, task-id=%s", jobId, taskName));
+        return getTaskResult(jobId, taskName);
     }
 
     @Override
     public List<JobResult> waitForAllJobs(List<String> jobIds, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        long timestamp = 0;
+        long deadline = currentTimeMillis() + timeout;
+        JobCompletionWatcher watcher = completionWatcher();
+        Map<String, SettableFuture<String>> futures = watcher.watchJobs(jobIds);
+        try {
+            awaitAll(futures.values(),
+                     deadline,
+                     format("Timeout waiting for all jobs: jobIds=%s.", String.valueOf(jobIds)));
+        } finally {
+            watcher.unwatchJobs(futures);
+        }
         List<JobResult> results = new ArrayList<>(jobIds.size());
         for (String jobId : jobIds) {
-            timestamp = currentTimeMillis();
-            results.add(waitForJob(jobId, timeout));
-            timeout = timeout - (currentTimeMillis() - timestamp);
+            results.add(getJobResult(jobId));
         }
         return results;
     }
@@ -865,59 +888,182 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     @Override
     public Map.Entry<String, JobResult> waitForAnyJob(List<String> jobIds, long timeout)
             throws NotConnectedException, UnknownJobException, PermissionException, TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            for (String jobId : jobIds) {
-                if (isJobFinished(jobId)) {
-                    return toEntry(jobId, getJobResult(jobId));
-                }
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        JobCompletionWatcher watcher = completionWatcher();
+        Map<String, SettableFuture<String>> futures = watcher.watchJobs(jobIds);
+        String jobId;
+        try {
+            jobId = awaitAny(futures.values(),
+                             deadline,
+                             format("Timeout waiting for any job: jobIds=%s.", String.valueOf(jobIds)));
+        } finally {
+            watcher.unwatchJobs(futures);
         }
-        throw new TimeoutException(format("Timeout waiting for any job: jobIds=%s.", String.valueOf(jobIds)));
+        return toEntry(jobId, getJobResult(jobId));
     }
 
     @Override
     public Entry<String, TaskResult> waitForAnyTask(String jobId, List<String> taskNames, long timeout)
             throws UnknownJobException, NotConnectedException, PermissionException, UnknownTaskException,
             TimeoutException {
-        timeout += currentTimeMillis();
-        while (currentTimeMillis() < timeout) {
-            for (String taskName : taskNames) {
-                if (isTaskFinished(jobId, taskName)) {
-                    return toEntry(taskName, getTaskResult(jobId, taskName));
-                }
-            }
-            if (currentTimeMillis() + RETRY_INTERVAL < timeout) {
-                sleep(RETRY_INTERVAL);
-            } else {
-                break;
-            }
+        long deadline = currentTimeMillis() + timeout;
+        JobCompletionWatcher watcher = completionWatcher();
+        Map<String, SettableFuture<String>> futures = watcher.watchTasks(jobId, taskNames);
+        String taskName;
+        try {
+            taskName = awaitAny(futures.values(),
+                                deadline,
+                                format("Timeout waiting for any task: job-id=%s, task-ids=%s.",
+                                       jobId,
+                                       String.valueOf(taskNames)));
+        } finally {
+            watcher.unwatchTasks(jobId, futures);
         }
-        throw new TimeoutException(format("Timeout waiting for any task: job-id=%s, task-ids=%s.",
-                                          jobId,
-                                          String.valueOf(taskNames)));
+        return toEntry(taskName, getTaskResult(jobId, taskName));
     }
 
     @Override
     public List<Entry<String, TaskResult>> waitForAllTasks(String jobId, List<String> taskNames, long timeout)
             throws UnknownJobException, NotConnectedException, PermissionException, UnknownTaskException,
             TimeoutException {
-        long timestamp = 0;
+        long deadline = currentTimeMillis() + timeout;
+        JobCompletionWatcher watcher = completionWatcher();
+        Map<String, SettableFuture<String>> futures = watcher.watchTasks(jobId, taskNames);
+        try {
+            awaitAll(futures.values(),
+                     deadline,
+                     format("Timeout waiting for all tasks: job-id=%s, task-ids=%s.",
+                            jobId,
+                            String.valueOf(taskNames)));
+        } finally {
+            watcher.unwatchTasks(jobId, futures);
+        }
         List<Map.Entry<String, TaskResult>> taskResults = new ArrayList<>(taskNames.size());
         for (String taskName : taskNames) {
-            timestamp = currentTimeMillis();
-            Entry<String, TaskResult> taskResultEntry = toEntry(taskName, waitForTask(jobId, taskName, timeout));
-            taskResults.add(taskResultEntry);
-            timeout = timeout - (currentTimeMillis() - timestamp);
+            taskResults.add(toEntry(taskName, getTaskResult(jobId, taskName)));
         }
         return taskResults;
     }
 
+    /**
+     * Returns, among the given jobs, the ids of the finished ones using a
+     * single request.
+     */
+    List<String> finishedJobs(List<String> jobIds)
+            throws NotConnectedException, UnknownJobException, PermissionException {
+        List<String> finished = null;
+        try {
+            finished = restApi().finishedJobs(sid, jobIds);
+        } catch (Exception e) {
+            throwUJEOrNCEOrPE(e);
+        }
+        return finished;
+    }
+
+    /**
+     * Returns, among the given tasks of a job, the names of the finished ones
+     * using a single request.
+     */
+    List<String> finishedTasks(String jobId, List<String> taskNames)
+            throws NotConnectedException, UnknownJobException, PermissionException, UnknownTaskException {
+        List<String> finished = null;
+        try {
+            finished = restApi().finishedTasks(sid, jobId, taskNames);
+        } catch (Exception e) {
+            throwUJEOrNCEOrPEOrUTE(e);
+        }
+        return finished;
+    }
+
+    private synchronized JobCompletionWatcher completionWatcher() throws NotConnectedException {
+        checkInitialized();
+        if (completionWatcher == null) {
+            // the scheduler rejects the subscription to the events of all jobs without this permission
+            completionEventsOfAllUsers = canHandleOtherUsersJobs();
+            completionWatcher = new JobCompletionWatcher(this);
+        }
+        return completionWatcher;
+    }
+
+    private synchronized void closeCompletionWatcher() {
+        if (completionWatcher != null) {
+            completionWatcher.close();
+            completionWatcher = null;
+            if (eventListener == null) {
+                stopEventReceiver(null);
+            }
+        }
+    }
+
+    /**
+     * (Re)opens the event connection of this client. The scheduler keeps a
+     * single event listener per session, so this connection is shared by the
+     * event listener of the user and by the completion watcher, and it is
+     * closed when none of them remains.
+     */
+    synchronized void restartEventReceiver() throws IOException {
+        SharedSchedulerEventListener listener = null;
+        if (eventListener != null || completionWatcher != null) {
+            listener = new SharedSchedulerEventListener(eventListener, events, completionWatcher);
+        }
+        stopEventReceiver(listener);
+        if (listener == null) {
+            return;
+        }
+        // the subscription of the user prevails, the completions of the other jobs are then polled
+        boolean subscribeToMyEventsOnly = eventListener != null ? myEventsOnly : !completionEventsOfAllUsers;
+        SchedulerEventReceiver receiver = (new SchedulerEventReceiver.Builder()).restServerUrl(connectionInfo.getUrl())
+                                                                                .sessionId(sid)
+                                                                                .schedulerEventListener(listener)
+                                                                                .myEventsOnly(subscribeToMyEventsOnly)
+                                                                                .selectedEvents(listener.getSubscribedEvents())
+                                                                                .build();
+        receiver.start();
+        schedulerEventReceiver = receiver;
+        sharedEventListener = listener;
+    }
+
+    private void stopEventReceiver(SharedSchedulerEventListener replacement) {
+        if (schedulerEventReceiver != null) {
+            sharedEventListener.replacedBy(replacement);
+            schedulerEventReceiver.stop();
+            schedulerEventReceiver = null;
+            sharedEventListener = null;
+        }
+    }
+
+    private void awaitAll(Collection<SettableFuture<String>> futures, long deadline, String timeoutMessage)
+            throws TimeoutException {
+        await(Futures.allAsList(futures), deadline, timeoutMessage);
+    }
+
+    private String awaitAny(Collection<SettableFuture<String>> futures, long deadline, String timeoutMessage)
+            throws TimeoutException {
+        final SettableFuture<String> any = SettableFuture.create();
+        for (final SettableFuture<String> future : futures) {
+            future.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    any.set(Futures.getUnchecked(future));
+                }
+            }, MoreExecutors.directExecutor());
+        }
+        return await(any, deadline, timeoutMessage);
+    }
+
+    private <T> T await(Future<T> future, long deadline, String timeoutMessage) throws TimeoutException {
+        try {
+            return future.get(Math.max(0, deadline - currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TimeoutException(timeoutMessage);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TimeoutException(timeoutMessage);
+        }
+    }
+
     @Override
     public boolean pushFile(String spacename, String pathname, String filename, String file)
             throws NotConnectedException, PermissionException {
@@ -1000,34 +1146,33 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
     }
 
     @Override
-    public void addEventListener(SchedulerEventListener listener, boolean myEventsOnly, SchedulerEvent... events)
-            throws NotConnectedException, PermissionException {
+    public synchronized void addEventListener(SchedulerEventListener listener, boolean myEventsOnly,
+            SchedulerEvent... events) throws NotConnectedException, PermissionException {
+        this.eventListener = listener;
+        this.myEventsOnly = myEventsOnly;
+        this.events = events;
         try {
-            removeEventListener();
-            schedulerEventReceiver = (new SchedulerEventReceiver.Builder()).restServerUrl(connectionInfo.getUrl())
-                                                                           .sessionId(sid)
-                                                                           .schedulerEventListener(listener)
-                                                                           .myEventsOnly(myEventsOnly)
-                                                                           .selectedEvents(events)
-                                                                           .build();
-            schedulerEventReceiver.start();
+            restartEventReceiver();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
     @Override
-    public void removeEventListener() throws NotConnectedException, PermissionException {
-        if (schedulerEventReceiver != null) {
-            schedulerEventReceiver.stop();
+    public synchronized void removeEventListener() throws NotConnectedException, PermissionException {
+        if (eventListener == null) {
+            return;
         }
-    }
-
-    private void sleep(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException ie) {
-            // ignore
+        eventListener = null;
+        events = null;
+        if (completionWatcher == null) {
+            stopEventReceiver(null);
+        } else {
+            try {
+                restartEventReceiver();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
         }
     }
 
@@ -1240,6 +1385,28 @@ public class SchedulerClient extends ClientBase implements ISchedulerClient {
         return connectedUserData;
     }
 
+    @Override
+    public List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        List<JobInfo> jobsInfo = new ArrayList<>(jobIds.size());
+        for (String jobId : jobIds) {
+            try {
+                jobsInfo.add(getJobInfo(jobId));
+            } catch (UnknownJobException | PermissionException e) {
+                logger.debug("Job " + jobId + " skipped: " + e.getMessage());
+            }
+        }
+        return jobsInfo;
+    }
+
+    @Override
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        try {
+            return restApi().canHandleOtherUsersJobs(sid);
+        } catch (NotConnectedRestException e) {
+            throw new NotConnectedException(e);
+        }
+    }
+
     @Override
     public Map<String, Object> getSchedulerProperties() throws NotConnectedException, PermissionException {
 
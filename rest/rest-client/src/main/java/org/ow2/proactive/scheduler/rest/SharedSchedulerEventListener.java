@@ -0,0 +1,162 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.UserIdentification;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+
+
+/**
+ * Listener of the single event connection of a {@link SchedulerClient}. The
+ * scheduler keeps only one listener per session, so the listener added by the
+ * user and the {@link JobCompletionWatcher} share the same subscription, and
+ * this listener forwards to each of them the events it is interested in.
+ */
+class SharedSchedulerEventListener implements DisconnectionAwareSchedulerEventListener {
+
+    private final SchedulerEventListener userListener;
+
+    /** The events selected by the user listener, null when it listens to all events */
+    private final Set<SchedulerEvent> userEvents;
+
+    private final JobCompletionWatcher completionWatcher;
+
+    private volatile boolean replaced = false;
+
+    private volatile SharedSchedulerEventListener replacement;
+
+    SharedSchedulerEventListener(SchedulerEventListener userListener, SchedulerEvent[] userEvents,
+            JobCompletionWatcher completionWatcher) {
+        this.userListener = userListener;
+        if (userListener == null || userEvents == null || userEvents.length == 0) {
+            this.userEvents = null;
+        } else {
+            this.userEvents = EnumSet.copyOf(Arrays.asList(userEvents));
+        }
+        this.completionWatcher = completionWatcher;
+    }
+
+    /**
+     * Returns the events to subscribe to, or an empty array to subscribe to
+     * all events.
+     */
+    SchedulerEvent[] getSubscribedEvents() {
+        if (userListener != null && userEvents == null) {
+            return new SchedulerEvent[0];
+        }
+        Set<SchedulerEvent> events = EnumSet.noneOf(SchedulerEvent.class);
+        if (userEvents != null) {
+            events.addAll(userEvents);
+        }
+        if (completionWatcher != null) {
+            events.addAll(Arrays.asList(JobCompletionWatcher.COMPLETION_EVENTS));
+        }
+        return events.toArray(new SchedulerEvent[events.size()]);
+    }
+
+    /**
+     * Called before the event connection of this listener is deliberately
+     * closed. The disconnection is then not forwarded to the listeners which
+     * are moved to the replacement connection, if any.
+     */
+    void replacedBy(SharedSchedulerEventListener replacement) {
+        this.replacement = replacement;
+        this.replaced = true;
+    }
+
+    @Override
+    public void notifyDisconnection() {
+        SharedSchedulerEventListener next = replacement;
+        if (userListener instanceof DisconnectionAwareSchedulerEventListener &&
+            (next == null || next.userListener != userListener)) {
+            ((DisconnectionAwareSchedulerEventListener) userListener).notifyDisconnection();
+        }
+        if (completionWatcher != null && !replaced) {
+            completionWatcher.notifyDisconnection();
+        }
+    }
+
+    @Override
+    public void schedulerStateUpdatedEvent(SchedulerEvent eventType) {
+        if (isSelectedByUser(eventType)) {
+            userListener.schedulerStateUpdatedEvent(eventType);
+        }
+    }
+
+    @Override
+    public void jobSubmittedEvent(JobState job) {
+        if (isSelectedByUser(SchedulerEvent.JOB_SUBMITTED)) {
+            userListener.jobSubmittedEvent(job);
+        }
+    }
+
+    @Override
+    public void jobStateUpdatedEvent(NotificationData<JobInfo> notification) {
+        if (isSelectedByUser(notification.getEventType())) {
+            userListener.jobStateUpdatedEvent(notification);
+        }
+        if (completionWatcher != null) {
+            completionWatcher.jobStateUpdatedEvent(notification);
+        }
+    }
+
+    @Override
+    public void jobUpdatedFullDataEvent(JobState job) {
+        if (isSelectedByUser(SchedulerEvent.JOB_UPDATED)) {
+            userListener.jobUpdatedFullDataEvent(job);
+        }
+    }
+
+    @Override
+    public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
+        if (isSelectedByUser(notification.getEventType())) {
+            userListener.taskStateUpdatedEvent(notification);
+        }
+        if (completionWatcher != null) {
+            completionWatcher.taskStateUpdatedEvent(notification);
+        }
+    }
+
+    @Override
+    public void usersUpdatedEvent(NotificationData<UserIdentification> notification) {
+        if (isSelectedByUser(notification.getEventType())) {
+            userListener.usersUpdatedEvent(notification);
+        }
+    }
+
+    private boolean isSelectedByUser(SchedulerEvent event) {
+        return userListener != null && (userEvents == null || userEvents.contains(event));
+    }
+}
@@ -0,0 +1,461 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest.ds;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.log4j.Logger;
+import org.jboss.resteasy.client.jaxrs.ClientHttpEngine;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.ResteasyWebTarget;
+import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+
+/**
+ * Transfers single files to and from the REST dataspace in fixed size chunks,
+ * several chunks being transferred in parallel.
+ * <p>
+ * Transfers are resumable: uploaded chunks are kept by the server until the
+ * file is assembled, and the chunks already downloaded are recorded next to
+ * the partially downloaded file. Running the same transfer again after a
+ * failure only transfers the missing chunks.
+ */
+class ChunkedTransfer {
+
+    private static final Logger log = Logger.getLogger(ChunkedTransfer.class);
+
+    static final String PARTIAL_DOWNLOAD_SUFFIX = ".part";
+
+    static final String DOWNLOAD_STATE_SUFFIX = ".chunks";
+
+    private static final int HTTP_PARTIAL_CONTENT = 206;
+
+    private final ClientHttpEngine httpEngine;
+
+    private final String sessionId;
+
+    private final long chunkSize;
+
+    private final int parallelStreams;
+
+    ChunkedTransfer(ClientHttpEngine httpEngine, String sessionId, long chunkSize, int parallelStreams) {
+        this.httpEngine = httpEngine;
+        this.sessionId = sessionId;
+        this.chunkSize = chunkSize;
+        this.parallelStreams = parallelStreams;
+    }
+
+    /**
+     * Uploads the file as chunks which are assembled by the server once all
+     * of them have been received.
+     */
+    void upload(final File file, final String targetUrl) throws NotConnectedException, IOException {
+        final long size = file.length();
+        final String uploadId = uploadId(file, targetUrl, chunkSize);
+        Set<Long> storedOffsets = new HashSet<>(storedParts(targetUrl, uploadId));
+
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (final long chunkOffset : missingChunks(size, chunkSize, storedOffsets)) {
+            chunks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    long length = Math.min(chunkSize, size - chunkOffset);
+                    uploadChunk(file, targetUrl, uploadId, chunkOffset, length);
+                    return null;
+                }
+            });
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Uploading %d chunks of %s (%d already stored)",
+                                    chunks.size(),
+                                    file,
+                                    storedOffsets.size()));
+        }
+        runAll(chunks);
+
+        Response response = null;
+        try {
+            response = target(targetUrl).queryParam("uploadid", uploadId)
+                                        .queryParam("comp", "assemble")
+                                        .queryParam("length", size)
+                                        .request()
+                                        .header("sessionid", sessionId)
+                                        .put(Entity.entity(new byte[0], MediaType.APPLICATION_OCTET_STREAM_TYPE));
+            checkStatus(response, HttpURLConnection.HTTP_CREATED, "Cannot assemble the uploaded file.");
+        } finally {
+            close(response);
+        }
+    }
+
+    /**
+     * Downloads the remote file by byte ranges. The first range is used to
+     * discover the size of the file: if the server does not answer with a
+     * partial content (e.g. because the remote location is a folder), the
+     * response is handed to the fallback destination instead.
+     *
+     * @return true if the file has been downloaded by ranges, false if the
+     *         response has been delegated to the fallback destination
+     */
+    boolean download(String sourceUrl, File destination, ILocalDestination fallback)
+            throws NotConnectedException, IOException {
+        Response response = null;
+        try {
+            response = rangeRequest(sourceUrl, 0, chunkSize - 1);
+            if (response.getStatus() == HttpURLConnection.HTTP_OK) {
+                InputStream is = response.readEntity(InputStream.class);
+                fallback.readFrom(is, response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+                return false;
+            }
+            checkStatus(response, HTTP_PARTIAL_CONTENT, "Cannot retrieve the file.");
+            long size = totalSize(response.getHeaderString("Content-Range"));
+            String version = downloadVersion(size, response.getHeaderString(HttpHeaders.LAST_MODIFIED), chunkSize);
+
+            File partialFile = new File(destination.getPath() + PARTIAL_DOWNLOAD_SUFFIX);
+            DownloadState state = DownloadState.load(new File(destination.getPath() + DOWNLOAD_STATE_SUFFIX),
+                                                     version);
+            if (!state.isResumed() || !partialFile.isFile()) {
+                partialFile.delete();
+                state.reset();
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(partialFile, "rw")) {
+                raf.setLength(size);
+                FileChannel channel = raf.getChannel();
+                if (!state.isDone(0)) {
+                    writeAt(channel, response.readEntity(InputStream.class), 0);
+                    // the chunk must be on the disk before it is recorded as done
+                    channel.force(false);
+                    state.markDone(0);
+                }
+                close(response);
+                response = null;
+                downloadRemainingChunks(sourceUrl, channel, size, state);
+            }
+            if (destination.exists() && !destination.delete()) {
+                throw new IOException("Cannot replace " + destination);
+            }
+            if (!partialFile.renameTo(destination)) {
+                throw new IOException("Cannot move " + partialFile + " to " + destination);
+            }
+            state.delete();
+            return true;
+        } finally {
+            close(response);
+        }
+    }
+
+    private void downloadRemainingChunks(final String sourceUrl, final FileChannel channel, long size,
+            final DownloadState state) throws NotConnectedException, IOException {
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (long offset = chunkSize; offset < size; offset += chunkSize) {
+            if (!state.isDone(offset)) {
+                final long first = offset;
+                final long last = Math.min(size, offset + chunkSize) - 1;
+                chunks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        Response response = null;
+                        try {
+                            response = rangeRequest(sourceUrl, first, last);
+                            checkStatus(response, HTTP_PARTIAL_CONTENT, "Cannot retrieve the file.");
+                            writeAt(channel, response.readEntity(InputStream.class), first);
+                            channel.force(false);
+                            state.markDone(first);
+                        } finally {
+                            close(response);
+                        }
+                        return null;
+                    }
+                });
+            }
+        }
+        runAll(chunks);
+    }
+
+    private Response rangeRequest(String sourceUrl, long first, long last) {
+        return target(sourceUrl).request()
+                                .header("sessionid", sessionId)
+                                .header("Range", "bytes=" + first + "-" + last)
+                                .acceptEncoding("identity")
+                                .get();
+    }
+
+    private void uploadChunk(final File file, String targetUrl, String uploadId, final long offset, final long length)
+            throws NotConnectedException {
+        Response response = null;
+        try {
+            response = target(targetUrl).queryParam("uploadid", uploadId)
+                                        .queryParam("offset", offset)
+                                        .request()
+                                        .header("sessionid", sessionId)
+                                        .put(Entity.entity(new StreamingOutput() {
+                                            @Override
+                                            public void write(OutputStream outputStream)
+                                                    throws IOException, WebApplicationException {
+                                                try (InputStream is = new FileInputStream(file)) {
+                                                    ByteStreams.skipFully(is, offset);
+                                                    ByteStreams.copy(ByteStreams.limit(is, length), outputStream);
+                                                }
+                                            }
+                                        }, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+            checkStatus(response, HttpURLConnection.HTTP_CREATED, "File chunk upload failed.");
+        } finally {
+            close(response);
+        }
+    }
+
+    private List<Long> storedParts(String targetUrl, String uploadId) throws NotConnectedException {
+        Response response = null;
+        try {
+            response = target(targetUrl).queryParam("comp", "parts")
+                                        .queryParam("uploadid", uploadId)
+                                        .request()
+                                        .header("sessionid", sessionId)
+                                        .get();
+            checkStatus(response, HttpURLConnection.HTTP_OK, "Cannot list the stored chunks.");
+            return response.readEntity(new GenericType<List<Long>>() {
+            });
+        } finally {
+            close(response);
+        }
+    }
+
+    private void runAll(List<Callable<Void>> tasks) throws NotConnectedException, IOException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("dataspace-transfer-%d")
+                                                                .setDaemon(true)
+                                                                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelStreams, tasks.size()),
+                                                                threadFactory);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Transfer interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NotConnectedException) {
+                throw (NotConnectedException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ResteasyWebTarget target(String url) {
+        return new ResteasyClientBuilder().httpEngine(httpEngine).build().target(url);
+    }
+
+    private static void writeAt(FileChannel channel, InputStream is, long position) throws IOException {
+        try {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    static long totalSize(String contentRange) throws IOException {
+        // Content-Range: bytes first-last/total
+        int slash = contentRange == null ? -1 : contentRange.lastIndexOf('/');
+        if (slash < 0) {
+            throw new IOException("Invalid Content-Range header: " + contentRange);
+        }
+        try {
+            return Long.parseLong(contentRange.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid Content-Range header: " + contentRange, e);
+        }
+    }
+
+    /**
+     * @return the offsets of the chunks of a file of the given size which are not
+     *         stored yet, an empty file being uploaded as a single empty chunk
+     */
+    static List<Long> missingChunks(long size, long chunkSize, Set<Long> storedOffsets) {
+        List<Long> offsets = new ArrayList<>();
+        for (long offset = 0; offset < size || offset == 0; offset += chunkSize) {
+            if (!storedOffsets.contains(offset)) {
+                offsets.add(offset);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Identifies an upload, the chunks stored by the server being only reused by
+     * an upload of the same file with the same chunk size.
+     */
+    static String uploadId(File file, String targetUrl, long chunkSize) {
+        String key = file.getAbsolutePath() + "|" + file.length() + "|" + file.lastModified() + "|" + chunkSize +
+                     "|" + targetUrl;
+        return Hashing.sha1().hashUnencodedChars(key).toString();
+    }
+
+    /**
+     * Identifies a download, a partial download being only resumed for the same
+     * version of the remote file and the same chunk size.
+     */
+    static String downloadVersion(long size, String lastModified, long chunkSize) {
+        return size + "/" + lastModified + "/" + chunkSize;
+    }
+
+    private static void checkStatus(Response response, int expectedStatus, String errorMessage)
+            throws NotConnectedException {
+        if (response.getStatus() != expectedStatus) {
+            if (response.getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                throw new NotConnectedException("User not authenticated or session timeout.");
+            } else {
+                throw new RuntimeException(errorMessage + " Status code: " + response.getStatus());
+            }
+        }
+    }
+
+    private static void close(Response response) {
+        if (response != null) {
+            response.close();
+        }
+    }
+
+    /**
+     * Offsets of the chunks already written in a partially downloaded file,
+     * persisted after each chunk so that the download can be resumed. A chunk
+     * must only be marked as done once its data is forced to the disk.
+     */
+    static class DownloadState {
+
+        private static final String VERSION = "version";
+
+        private static final String DONE = "done";
+
+        private final File file;
+
+        private final String version;
+
+        private final Set<Long> doneOffsets;
+
+        private final boolean resumed;
+
+        private DownloadState(File file, String version, Set<Long> doneOffsets, boolean resumed) {
+            this.file = file;
+            this.version = version;
+            this.doneOffsets = doneOffsets;
+            this.resumed = resumed;
+        }
+
+        static DownloadState load(File file, String version) throws IOException {
+            Set<Long> doneOffsets = new HashSet<>();
+            if (file.isFile()) {
+                Properties properties = new Properties();
+                try (InputStream is = new FileInputStream(file)) {
+                    properties.load(is);
+                }
+                if (version.equals(properties.getProperty(VERSION))) {
+                    String done = properties.getProperty(DONE, "");
+                    for (String offset : Splitter.on(',').omitEmptyStrings().split(done)) {
+                        doneOffsets.add(Long.parseLong(offset));
+                    }
+                    return new DownloadState(file, version, doneOffsets, true);
+                }
+            }
+            return new DownloadState(file, version, doneOffsets, false);
+        }
+
+        boolean isResumed() {
+            return resumed;
+        }
+
+        synchronized void reset() {
+            doneOffsets.clear();
+        }
+
+        synchronized boolean isDone(long offset) {
+            return doneOffsets.contains(offset);
+        }
+
+        synchronized void markDone(long offset) throws IOException {
+            doneOffsets.add(offset);
+            Properties properties = new Properties();
+            properties.setProperty(VERSION, version);
+            properties.setProperty(DONE, Joiner.on(',').join(doneOffsets));
+            try (OutputStream os = new FileOutputStream(file)) {
+                properties.store(os, null);
+            }
+        }
+
+        void delete() {
+            file.delete();
+        }
+    }
+}
@@ -25,6 +25,8 @@
  */
 package org.ow2.proactive.scheduler.rest.ds;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -68,6 +70,17 @@ public class DataSpaceClient implements IDataSpaceClient {
 
     private static final Logger log = Logger.getLogger(DataSpaceClient.class);
 
+    /**
+     * Files bigger than this size are transferred in chunks of this size
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 32L * 1024 * 1024;
+
+    public static final int DEFAULT_PARALLEL_STREAMS = 4;
+
+    private static final int MAX_PARALLEL_STREAMS = 16;
+
+    private static final String FILE_SIZE_HEADER = "x-proactive-ds-size";
+
     private String restDataspaceUrl;
 
     private String sessionId;
@@ -76,6 +89,10 @@ public class DataSpaceClient implements IDataSpaceClient {
 
     private ISchedulerClient schedulerClient;
 
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int parallelStreams = DEFAULT_PARALLEL_STREAMS;
+
     public DataSpaceClient() {
     }
 
@@ -86,6 +103,7 @@ public class DataSpaceClient implements IDataSpaceClient {
 
     public void init(String restServerUrl, ISchedulerClient client) {
         this.httpEngine = new ApacheHttpClient4Engine(new HttpClientBuilder().disableContentCompression()
+                                                                             .maxConnections(MAX_PARALLEL_STREAMS)
                                                                              .useSystemProperties()
                                                                              .build());
         this.restDataspaceUrl = restDataspaceUrl(restServerUrl);
@@ -102,6 +120,27 @@ public class DataSpaceClient implements IDataSpaceClient {
         init(connectionInfo.getUrl(), client);
     }
 
+    /**
+     * Sets the size of the chunks used to transfer big files. Files bigger
+     * than this size are uploaded and downloaded chunk by chunk, several chunks
+     * being transferred in parallel, and an interrupted transfer of such a
+     * file is resumed when it is run again.
+     */
+    public void setChunkSize(long chunkSize) {
+        checkArgument(chunkSize > 0, "Chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the number of chunks of a file transferred in parallel.
+     */
+    public void setParallelStreams(int parallelStreams) {
+        checkArgument(parallelStreams > 0 && parallelStreams <= MAX_PARALLEL_STREAMS,
+                      "Parallel streams must be between 1 and %s",
+                      MAX_PARALLEL_STREAMS);
+        this.parallelStreams = parallelStreams;
+    }
+
     @Override
     public boolean upload(final ILocalSource source, final IRemoteDestination destination)
             throws NotConnectedException, PermissionException {
@@ -113,6 +152,19 @@ public class DataSpaceClient implements IDataSpaceClient {
         StringBuffer uriTmpl = (new StringBuffer()).append(restDataspaceUrl).append(destination.getDataspace().value());
         ResteasyClient client = new ResteasyClientBuilder().httpEngine(httpEngine).build();
         ResteasyWebTarget target = client.target(uriTmpl.toString()).path(destination.getPath());
+
+        if (source instanceof LocalFileSource && ((LocalFileSource) source).getFile().length() > chunkSize) {
+            try {
+                chunkedTransfer().upload(((LocalFileSource) source).getFile(), target.getUri().toString());
+            } catch (IOException ioe) {
+                throw Throwables.propagate(ioe);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Chunked upload from " + source + " to " + destination + " performed with success");
+            }
+            return true;
+        }
+
         Response response = null;
         try {
             response = target.request().header("sessionid", sessionId).put(Entity.entity(new StreamingOutput() {
@@ -204,6 +256,21 @@ public class DataSpaceClient implements IDataSpaceClient {
             target = target.queryParam("excludes", excludes.toArray(new Object[excludes.size()]));
         }
 
+        if (isNullOrEmpty(includes) && isNullOrEmpty(excludes) && destination instanceof LocalDestination &&
+            remoteFileSize(target) > chunkSize) {
+            try {
+                chunkedTransfer().download(target.getUri().toString(),
+                                           ((LocalDestination) destination).getFile(),
+                                           destination);
+            } catch (IOException ioe) {
+                throw Throwables.propagate(ioe);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Chunked download from " + source + " to " + destination + " performed with success");
+            }
+            return true;
+        }
+
         Response response = null;
         try {
             response = target.request().header("sessionid", sessionId).acceptEncoding("*", "gzip", "zip").get();
@@ -361,6 +428,36 @@ public class DataSpaceClient implements IDataSpaceClient {
         }
     }
 
+    /**
+     * @return the size of the remote file, or -1 if the location is not a file
+     */
+    private long remoteFileSize(ResteasyWebTarget target) throws NotConnectedException {
+        Response response = null;
+        try {
+            response = target.request().header("sessionid", sessionId).head();
+            if (response.getStatus() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+                throw new NotConnectedException("User not authenticated or session timeout.");
+            }
+            String size = response.getHeaderString(FILE_SIZE_HEADER);
+            if (response.getStatus() != HttpURLConnection.HTTP_OK || size == null) {
+                return -1;
+            }
+            return Long.parseLong(size);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+        }
+    }
+
+    private ChunkedTransfer chunkedTransfer() {
+        return new ChunkedTransfer(httpEngine, sessionId, chunkSize, parallelStreams);
+    }
+
+    private static boolean isNullOrEmpty(List<String> list) {
+        return list == null || list.isEmpty();
+    }
+
     private String restDataspaceUrl(String restServerUrl) {
         return (new StringBuffer()).append(restServerUrl)
                                    .append((restServerUrl.endsWith("/") ? "" : "/"))
@@ -44,6 +44,10 @@ public class LocalDestination implements ILocalDestination {
         this.dest = dest;
     }
 
+    File getFile() {
+        return dest;
+    }
+
     @Override
     public void readFrom(InputStream is, String encoding) throws IOException {
         if (Strings.isNullOrEmpty(encoding) || "identity".equals(encoding)) {
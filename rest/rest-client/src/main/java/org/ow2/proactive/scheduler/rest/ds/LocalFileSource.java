@@ -52,9 +52,13 @@ public class LocalFileSource implements ILocalSource {
 
     }
 
+    File getFile() {
+        return file;
+    }
+
     @Override
     public void writeTo(OutputStream outputStream) throws IOException {
-        if (Zipper.isZipFile(file)) {
+        if (Zipper.isCompressedFile(file)) {
             Files.asByteSource(file).copyTo(outputStream);
         } else {
             Zipper.GZIP.zip(file, outputStream);
@@ -63,7 +67,7 @@ public class LocalFileSource implements ILocalSource {
 
     @Override
     public String getEncoding() throws IOException {
-        return Zipper.isZipFile(file) ? null : "gzip";
+        return Zipper.isCompressedFile(file) ? null : "gzip";
     }
 
     @Override
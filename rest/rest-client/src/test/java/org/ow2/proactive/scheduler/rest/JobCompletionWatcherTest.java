@@ -0,0 +1,205 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.rest.data.JobInfoImpl;
+import org.ow2.proactive.scheduler.rest.data.TaskInfoImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+
+import com.google.common.util.concurrent.SettableFuture;
+
+
+public class JobCompletionWatcherTest {
+
+    private SchedulerClient client;
+
+    private JobCompletionWatcher watcher;
+
+    @Before
+    public void setUp() throws Exception {
+        client = mock(SchedulerClient.class);
+        watcher = new JobCompletionWatcher(client);
+    }
+
+    @After
+    public void tearDown() {
+        watcher.close();
+    }
+
+    @Test
+    public void testAlreadyFinishedJobsAreReconciledInOneRequest() throws Exception {
+        when(client.finishedJobs(anyListOf(String.class))).thenReturn(Collections.singletonList("1"));
+
+        Map<String, SettableFuture<String>> futures = watcher.watchJobs(Arrays.asList("1", "2"));
+
+        assertThat(futures.get("1").isDone()).isTrue();
+        assertThat(futures.get("2").isDone()).isFalse();
+        verify(client, times(1)).finishedJobs(Arrays.asList("1", "2"));
+    }
+
+    @Test
+    public void testJobFinishedEventCompletesFuture() throws Exception {
+        when(client.finishedJobs(anyListOf(String.class))).thenReturn(Collections.<String> emptyList());
+
+        Map<String, SettableFuture<String>> futures = watcher.watchJobs(Collections.singletonList("1"));
+        watcher.jobStateUpdatedEvent(jobEvent("1", JobStatus.RUNNING, SchedulerEvent.JOB_PENDING_TO_RUNNING));
+        assertThat(futures.get("1").isDone()).isFalse();
+
+        watcher.jobStateUpdatedEvent(jobEvent("1", JobStatus.FINISHED, SchedulerEvent.JOB_RUNNING_TO_FINISHED));
+        assertThat(futures.get("1").get()).isEqualTo("1");
+    }
+
+    @Test
+    public void testTaskFinishedEventCompletesFuture() throws Exception {
+        when(client.finishedTasks(anyString(), anyListOf(String.class))).thenReturn(Collections.<String> emptyList());
+
+        Map<String, SettableFuture<String>> futures = watcher.watchTasks("1", Arrays.asList("A", "B"));
+        watcher.taskStateUpdatedEvent(taskEvent("1", "A", TaskStatus.FINISHED));
+
+        assertThat(futures.get("A").isDone()).isTrue();
+        assertThat(futures.get("B").isDone()).isFalse();
+    }
+
+    @Test
+    public void testJobFinishedEventCompletesTaskFutures() throws Exception {
+        when(client.finishedTasks(anyString(), anyListOf(String.class))).thenReturn(Collections.<String> emptyList());
+
+        Map<String, SettableFuture<String>> futures = watcher.watchTasks("1", Collections.singletonList("A"));
+        watcher.jobStateUpdatedEvent(jobEvent("1", JobStatus.KILLED, SchedulerEvent.JOB_RUNNING_TO_FINISHED));
+
+        assertThat(futures.get("A").isDone()).isTrue();
+    }
+
+    @Test
+    public void testEventConnectionIsSharedBetweenWaits() throws Exception {
+        when(client.finishedJobs(anyListOf(String.class))).thenReturn(Collections.<String> emptyList());
+
+        watcher.watchJobs(Collections.singletonList("1"));
+        watcher.watchJobs(Collections.singletonList("2"));
+
+        verify(client, times(1)).restartEventReceiver();
+        verify(client).finishedJobs(eq(Collections.singletonList("2")));
+    }
+
+    @Test
+    public void testEventConnectionIsReopenedAfterADisconnection() throws Exception {
+        when(client.finishedJobs(anyListOf(String.class))).thenReturn(Collections.<String> emptyList())
+                                                          .thenReturn(Collections.singletonList("1"));
+
+        Map<String, SettableFuture<String>> futures = watcher.watchJobs(Collections.singletonList("1"));
+        watcher.notifyDisconnection();
+
+        // completed by the reconciliation following the reconnection
+        assertThat(futures.get("1").get(10, TimeUnit.SECONDS)).isEqualTo("1");
+        verify(client, times(2)).restartEventReceiver();
+    }
+
+    @Test
+    public void testTasksOfARemovedJobAreNotAwaitedAnymore() throws Exception {
+        when(client.finishedTasks(anyString(), anyListOf(String.class))).thenReturn(Collections.<String> emptyList())
+                                                                         .thenThrow(new UnknownJobException("removed"));
+
+        Map<String, SettableFuture<String>> futures = watcher.watchTasks("1", Collections.singletonList("A"));
+        watcher.notifyDisconnection();
+
+        assertThat(futures.get("A").get(10, TimeUnit.SECONDS)).isEqualTo("A");
+    }
+
+    @Test
+    public void testUnwatchedFuturesAreNotKept() throws Exception {
+        when(client.finishedJobs(anyListOf(String.class))).thenReturn(Collections.<String> emptyList());
+        when(client.finishedTasks(anyString(), anyListOf(String.class))).thenReturn(Collections.<String> emptyList());
+
+        Map<String, SettableFuture<String>> first = watcher.watchJobs(Collections.singletonList("1"));
+        Map<String, SettableFuture<String>> second = watcher.watchJobs(Collections.singletonList("1"));
+        Map<String, SettableFuture<String>> tasks = watcher.watchTasks("2", Arrays.asList("A", "B"));
+        assertThat(watcher.getPendingFuturesCount()).isEqualTo(4);
+
+        watcher.unwatchJobs(first);
+        watcher.unwatchTasks("2", tasks);
+        assertThat(watcher.getPendingFuturesCount()).isEqualTo(1);
+
+        // the remaining wait on the same job is still notified
+        watcher.jobStateUpdatedEvent(jobEvent("1", JobStatus.FINISHED, SchedulerEvent.JOB_RUNNING_TO_FINISHED));
+        assertThat(second.get("1").isDone()).isTrue();
+        assertThat(first.get("1").isDone()).isFalse();
+        assertThat(watcher.getPendingFuturesCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testFuturesAreUnregisteredWhenTheReconciliationFails() throws Exception {
+        when(client.finishedJobs(anyListOf(String.class))).thenThrow(new NotConnectedException("disconnected"));
+
+        try {
+            watcher.watchJobs(Collections.singletonList("1"));
+            fail("the reconciliation error should be propagated");
+        } catch (NotConnectedException e) {
+            assertThat(watcher.getPendingFuturesCount()).isEqualTo(0);
+        }
+    }
+
+    private NotificationData<JobInfo> jobEvent(String jobId, JobStatus status, SchedulerEvent event) {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(JobIdImpl.makeJobId(jobId));
+        jobInfo.setJobStatus(status);
+        return new NotificationData<JobInfo>(event, jobInfo);
+    }
+
+    private NotificationData<TaskInfo> taskEvent(String jobId, String taskName, TaskStatus status) {
+        TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setJobId(JobIdImpl.makeJobId(jobId));
+        taskInfo.setTaskId(TaskIdImpl.createTaskId(JobIdImpl.makeJobId(jobId), taskName, 0));
+        taskInfo.setStatus(status);
+        return new NotificationData<TaskInfo>(SchedulerEvent.TASK_RUNNING_TO_FINISHED, taskInfo);
+    }
+}
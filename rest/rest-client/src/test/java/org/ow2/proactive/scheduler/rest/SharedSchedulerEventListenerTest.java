@@ -0,0 +1,111 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.rest.data.JobInfoImpl;
+
+
+public class SharedSchedulerEventListenerTest {
+
+    private DisconnectionAwareSchedulerEventListener userListener;
+
+    private JobCompletionWatcher watcher;
+
+    @Before
+    public void setUp() {
+        userListener = mock(DisconnectionAwareSchedulerEventListener.class);
+        watcher = mock(JobCompletionWatcher.class);
+    }
+
+    @Test
+    public void testUserListenerOnlyReceivesTheEventsItSelected() {
+        SchedulerEvent[] userEvents = { SchedulerEvent.JOB_SUBMITTED };
+        SharedSchedulerEventListener listener = new SharedSchedulerEventListener(userListener, userEvents, watcher);
+
+        NotificationData<JobInfo> finished = jobEvent(SchedulerEvent.JOB_RUNNING_TO_FINISHED);
+        listener.jobStateUpdatedEvent(finished);
+
+        verify(watcher).jobStateUpdatedEvent(finished);
+        verify(userListener, never()).jobStateUpdatedEvent(any(NotificationData.class));
+        assertThat(Arrays.asList(listener.getSubscribedEvents())).contains(SchedulerEvent.JOB_SUBMITTED);
+        assertThat(Arrays.asList(listener.getSubscribedEvents())).contains(SchedulerEvent.JOB_RUNNING_TO_FINISHED);
+    }
+
+    @Test
+    public void testUserListenerOfAllEventsKeepsTheSubscriptionToAllEvents() {
+        SharedSchedulerEventListener listener = new SharedSchedulerEventListener(userListener, null, watcher);
+
+        NotificationData<JobInfo> finished = jobEvent(SchedulerEvent.JOB_RUNNING_TO_FINISHED);
+        listener.jobStateUpdatedEvent(finished);
+
+        verify(userListener).jobStateUpdatedEvent(finished);
+        verify(watcher).jobStateUpdatedEvent(finished);
+        assertThat(Arrays.asList(listener.getSubscribedEvents())).isEmpty();
+    }
+
+    @Test
+    public void testReplacedConnectionDoesNotNotifyTheMovedListeners() {
+        SharedSchedulerEventListener listener = new SharedSchedulerEventListener(userListener, null, watcher);
+        listener.replacedBy(new SharedSchedulerEventListener(userListener, null, watcher));
+
+        listener.notifyDisconnection();
+
+        verify(userListener, never()).notifyDisconnection();
+        verify(watcher, never()).notifyDisconnection();
+    }
+
+    @Test
+    public void testLostConnectionNotifiesAllListeners() {
+        SharedSchedulerEventListener listener = new SharedSchedulerEventListener(userListener, null, watcher);
+
+        listener.notifyDisconnection();
+
+        verify(userListener).notifyDisconnection();
+        verify(watcher).notifyDisconnection();
+    }
+
+    private NotificationData<JobInfo> jobEvent(SchedulerEvent event) {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(JobIdImpl.makeJobId("1"));
+        jobInfo.setJobStatus(JobStatus.FINISHED);
+        return new NotificationData<JobInfo>(event, jobInfo);
+    }
+}
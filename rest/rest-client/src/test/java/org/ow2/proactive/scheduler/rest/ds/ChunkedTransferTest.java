@@ -0,0 +1,108 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.rest.ds;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class ChunkedTransferTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testUploadOnlySendsMissingChunks() {
+        assertThat(ChunkedTransfer.missingChunks(25, 10, new HashSet<>(Arrays.asList(0L, 20L)))).containsExactly(10L);
+        assertThat(ChunkedTransfer.missingChunks(25, 10, Collections.<Long> emptySet())).containsExactly(0L, 10L, 20L)
+                                                                                         .inOrder();
+        assertThat(ChunkedTransfer.missingChunks(20, 10, new HashSet<>(Arrays.asList(0L, 10L)))).isEmpty();
+    }
+
+    @Test
+    public void testEmptyFileIsUploadedAsOneChunk() {
+        assertThat(ChunkedTransfer.missingChunks(0, 10, Collections.<Long> emptySet())).containsExactly(0L);
+    }
+
+    @Test
+    public void testUploadIsNotResumedWithAnotherChunkSize() throws Exception {
+        File file = folder.newFile("file");
+        String targetUrl = "http://localhost/rest/data/user/file";
+
+        String uploadId = ChunkedTransfer.uploadId(file, targetUrl, 10);
+
+        assertThat(ChunkedTransfer.uploadId(file, targetUrl, 10)).isEqualTo(uploadId);
+        assertThat(ChunkedTransfer.uploadId(file, targetUrl, 20)).isNotEqualTo(uploadId);
+    }
+
+    @Test
+    public void testDownloadIsResumed() throws Exception {
+        File stateFile = new File(folder.getRoot(), "file" + ChunkedTransfer.DOWNLOAD_STATE_SUFFIX);
+        String version = ChunkedTransfer.downloadVersion(25, "Mon, 19 Oct 2026 10:00:00 GMT", 10);
+        ChunkedTransfer.DownloadState state = ChunkedTransfer.DownloadState.load(stateFile, version);
+        assertThat(state.isResumed()).isFalse();
+        state.markDone(0);
+        state.markDone(20);
+
+        ChunkedTransfer.DownloadState resumed = ChunkedTransfer.DownloadState.load(stateFile, version);
+
+        assertThat(resumed.isResumed()).isTrue();
+        assertThat(resumed.isDone(0)).isTrue();
+        assertThat(resumed.isDone(10)).isFalse();
+        assertThat(resumed.isDone(20)).isTrue();
+    }
+
+    @Test
+    public void testDownloadIsRestartedWhenTheFileOrTheChunkSizeChanged() throws Exception {
+        File stateFile = new File(folder.getRoot(), "file" + ChunkedTransfer.DOWNLOAD_STATE_SUFFIX);
+        String lastModified = "Mon, 19 Oct 2026 10:00:00 GMT";
+        String version = ChunkedTransfer.downloadVersion(25, lastModified, 10);
+        String otherChunkSizeVersion = ChunkedTransfer.downloadVersion(25, lastModified, 20);
+        String otherFileVersion = ChunkedTransfer.downloadVersion(30, lastModified, 10);
+        ChunkedTransfer.DownloadState.load(stateFile, version).markDone(0);
+
+        ChunkedTransfer.DownloadState otherChunkSize = ChunkedTransfer.DownloadState.load(stateFile,
+                                                                                          otherChunkSizeVersion);
+        ChunkedTransfer.DownloadState otherFile = ChunkedTransfer.DownloadState.load(stateFile, otherFileVersion);
+
+        assertThat(otherChunkSize.isResumed()).isFalse();
+        assertThat(otherChunkSize.isDone(0)).isFalse();
+        assertThat(otherFile.isResumed()).isFalse();
+    }
+
+    @Test
+    public void testTotalSizeIsReadFromContentRange() throws Exception {
+        assertThat(ChunkedTransfer.totalSize("bytes 0-9/25")).isEqualTo(25L);
+    }
+}
@@ -25,17 +25,29 @@
  */
 package org.ow2.proactive_grid_cloud_portal.common;
 
+import java.security.GeneralSecurityException;
 import java.security.KeyException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
 
 import javax.security.auth.login.LoginException;
 
+import org.apache.log4j.Logger;
 import org.objectweb.proactive.ActiveObjectCreationException;
 import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.node.NodeException;
+import org.objectweb.proactive.core.util.log.ProActiveLogger;
+import org.ow2.proactive.authentication.Authentication;
 import org.ow2.proactive.authentication.crypto.CredData;
 import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.resourcemanager.frontend.RMConnection;
+import org.ow2.proactive.scheduler.common.SchedulerAuthenticationInterface;
+import org.ow2.proactive.scheduler.common.SchedulerConnection;
+import org.ow2.proactive.scheduler.common.exception.ConnectionException;
 import org.ow2.proactive.scheduler.common.exception.SchedulerException;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
@@ -43,6 +55,12 @@ import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 public class SchedulerRMProxyFactory {
 
+    private static final Logger logger = ProActiveLogger.getLogger(SchedulerRMProxyFactory.class);
+
+    private volatile PrivateKey schedulerPrivateKey;
+
+    private volatile PrivateKey rmPrivateKey;
+
     public RMProxyUserInterface connectToRM(CredData credData)
             throws ActiveObjectCreationException, NodeException, RMException, KeyException, LoginException {
         RMProxyUserInterface rm = PAActiveObject.newActive(RMProxyUserInterface.class, new Object[] {});
@@ -73,4 +91,100 @@ public class SchedulerRMProxyFactory {
         return scheduler;
     }
 
+    /**
+     * Checks the given credentials against the RM, without creating a connection.
+     *
+     * @throws LoginException if the RM rejects the credentials
+     */
+    public void authenticateToRM(CredData credData) throws RMException, KeyException, LoginException {
+        RMAuthentication auth = RMConnection.join(PortalConfiguration.RM_URL.getValueAsString());
+        auth.authenticate(Credentials.createCredentials(credData, auth.getPublicKey()));
+    }
+
+    /**
+     * Checks the given credentials against the RM, without creating a connection.
+     *
+     * @throws LoginException if the RM rejects the credentials
+     */
+    public void authenticateToRM(Credentials credentials) throws RMException, LoginException {
+        RMConnection.join(PortalConfiguration.RM_URL.getValueAsString()).authenticate(credentials);
+    }
+
+    /**
+     * Checks the given credentials against the scheduler, without creating a connection.
+     *
+     * @throws LoginException if the scheduler rejects the credentials
+     */
+    public void authenticateToScheduler(CredData credData) throws ConnectionException, KeyException, LoginException {
+        String url = PortalConfiguration.SCHEDULER_URL.getValueAsString();
+        SchedulerAuthenticationInterface auth = SchedulerConnection.join(url);
+        auth.authenticate(Credentials.createCredentials(credData, auth.getPublicKey()));
+    }
+
+    /**
+     * Checks the given credentials against the scheduler, without creating a connection.
+     *
+     * @throws LoginException if the scheduler rejects the credentials
+     */
+    public void authenticateToScheduler(Credentials credentials) throws ConnectionException, LoginException {
+        SchedulerConnection.join(PortalConfiguration.SCHEDULER_URL.getValueAsString()).authenticate(credentials);
+    }
+
+    /**
+     * Decrypts credentials encrypted for the RM with the private key of the RM.
+     */
+    public CredData decryptRMCredentials(Credentials credentials) throws RMException, KeyException, LoginException {
+        if (rmPrivateKey == null) {
+            rmPrivateKey = toPrivateKey(RMConnection.join(PortalConfiguration.RM_URL.getValueAsString()));
+        }
+        return credentials.decrypt(rmPrivateKey);
+    }
+
+    /**
+     * Decrypts credentials encrypted for the scheduler with the private key of the scheduler.
+     */
+    public CredData decryptSchedulerCredentials(Credentials credentials)
+            throws ConnectionException, KeyException, LoginException {
+        if (schedulerPrivateKey == null) {
+            String url = PortalConfiguration.SCHEDULER_URL.getValueAsString();
+            schedulerPrivateKey = toPrivateKey(SchedulerConnection.join(url));
+        }
+        return credentials.decrypt(schedulerPrivateKey);
+    }
+
+    private static PrivateKey toPrivateKey(Authentication auth) throws KeyException, LoginException {
+        try {
+            return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(auth.getPrivateKey()));
+        } catch (GeneralSecurityException e) {
+            throw new KeyException("Cannot re-generate private key", e);
+        }
+    }
+
+    /**
+     * Releases a connection created by this factory, once the session using it is terminated.
+     */
+    public void release(Object connection) {
+        if (connection != null) {
+            try {
+                PAActiveObject.terminateActiveObject(connection, true);
+            } catch (Throwable e) {
+                logger.warn("Error occurred while terminating active object " + connection, e);
+            }
+        }
+    }
+
+    /**
+     * @return true if the connections created by this factory may be used by several sessions
+     */
+    public boolean isSharingConnections() {
+        return false;
+    }
+
+    /**
+     * @return a factory creating connections used by a single session
+     */
+    public SchedulerRMProxyFactory exclusive() {
+        return this;
+    }
+
 }
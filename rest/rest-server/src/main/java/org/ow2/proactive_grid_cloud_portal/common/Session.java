@@ -31,7 +31,6 @@ import javax.security.auth.login.LoginException;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.ActiveObjectCreationException;
-import org.objectweb.proactive.api.PAActiveObject;
 import org.objectweb.proactive.core.node.NodeException;
 import org.objectweb.proactive.core.util.log.ProActiveLogger;
 import org.ow2.proactive.authentication.crypto.CredData;
@@ -39,10 +38,13 @@ import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
 import org.ow2.proactive.scheduler.common.exception.SchedulerException;
 import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
 import org.ow2.proactive_grid_cloud_portal.dataspace.FileSystem;
 import org.ow2.proactive_grid_cloud_portal.scheduler.JobsOutputController;
+import org.ow2.proactive_grid_cloud_portal.scheduler.exception.NotConnectedRestException;
+import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
 
 
 public class Session {
@@ -100,6 +102,7 @@ public class Session {
 
     public void connectToScheduler(Credentials credentials)
             throws LoginException, ActiveObjectCreationException, SchedulerException, NodeException, KeyException {
+        releaseScheduler();
         scheduler = schedulerRMProxyFactory.connectToScheduler(credentials);
         this.credentials = credentials;
         setUserName(scheduler.getCurrentUser());
@@ -109,6 +112,7 @@ public class Session {
 
     public void connectToScheduler(CredData credData)
             throws LoginException, ActiveObjectCreationException, SchedulerException, NodeException {
+        releaseScheduler();
         scheduler = schedulerRMProxyFactory.connectToScheduler(credData);
         this.credData = credData;
         setUserName(credData.getLogin());
@@ -118,6 +122,7 @@ public class Session {
 
     public void connectToRM(Credentials credentials)
             throws LoginException, ActiveObjectCreationException, KeyException, NodeException, RMException {
+        releaseRM();
         rm = schedulerRMProxyFactory.connectToRM(credentials);
         this.credentials = credentials;
         setUserName(rm.getCurrentUser().getStringValue());
@@ -127,6 +132,7 @@ public class Session {
 
     public void connectToRM(CredData credData)
             throws LoginException, ActiveObjectCreationException, KeyException, NodeException, RMException {
+        releaseRM();
         rm = schedulerRMProxyFactory.connectToRM(credData);
         this.credData = credData;
         setUserName(credData.getLogin());
@@ -134,6 +140,57 @@ public class Session {
 
     }
 
+    /**
+     * Gives this session its own connection to the scheduler when connections are shared
+     * between sessions, e.g. before registering an event listener which would otherwise
+     * replace the listener of another session of the same user.
+     * <p>
+     * If the connection cannot be created, the shared connection is released as well and
+     * the session has to connect again.
+     *
+     * @throws NotConnectedRestException if the session is not connected or the connection failed
+     * @throws PermissionRestException if the user is not allowed to connect anymore
+     */
+    public SchedulerProxyUserInterface getExclusiveScheduler()
+            throws NotConnectedRestException, PermissionRestException {
+        SchedulerProxyUserInterface sharedScheduler = getScheduler();
+        if (sharedScheduler == null) {
+            throw new NotConnectedRestException("You are not connected to the scheduler, you should log on first");
+        }
+        if (!schedulerRMProxyFactory.isSharingConnections()) {
+            return sharedScheduler;
+        }
+        synchronized (this) {
+            if (scheduler == sharedScheduler) {
+                SchedulerProxyUserInterface exclusiveScheduler = null;
+                try {
+                    SchedulerRMProxyFactory exclusiveFactory = schedulerRMProxyFactory.exclusive();
+                    exclusiveScheduler = credData != null ? exclusiveFactory.connectToScheduler(credData)
+                                                          : exclusiveFactory.connectToScheduler(credentials);
+                } catch (PermissionException e) {
+                    throw new PermissionRestException(e);
+                } catch (Exception e) {
+                    logger.warn("Failed to connect to the Scheduler", e);
+                    throw new NotConnectedRestException(e);
+                } finally {
+                    scheduler = exclusiveScheduler;
+                    schedulerRMProxyFactory.release(sharedScheduler);
+                }
+            }
+            if (scheduler == null) {
+                throw new NotConnectedRestException("You are not connected to the scheduler, you should log on first");
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * @return true if the connections of this session may be used by other sessions
+     */
+    public boolean hasSharedConnections() {
+        return schedulerRMProxyFactory.isSharingConnections();
+    }
+
     public RMProxyUserInterface getRM() {
         updateLastAccessedTime();
         if (rm == null) {
@@ -170,18 +227,22 @@ public class Session {
     }
 
     public void terminate() {
-        terminateActiveObject(rm);
-        terminateActiveObject(scheduler);
+        schedulerRMProxyFactory.release(rm);
+        schedulerRMProxyFactory.release(scheduler);
         jobsOutputController.terminate();
     }
 
-    private void terminateActiveObject(Object activeObject) {
-        if (activeObject != null) {
-            try {
-                PAActiveObject.terminateActiveObject(activeObject, true);
-            } catch (Throwable e) {
-                logger.warn("Error occurred while terminating active object tied to session " + sessionId, e);
-            }
+    private void releaseRM() {
+        if (rm != null) {
+            schedulerRMProxyFactory.release(rm);
+            rm = null;
+        }
+    }
+
+    private void releaseScheduler() {
+        if (scheduler != null) {
+            schedulerRMProxyFactory.release(scheduler);
+            scheduler = null;
         }
     }
 
@@ -30,16 +30,24 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.ow2.proactive.scheduler.common.exception.NotConnectedException;
+import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
 
 public class SessionStore {
 
     private final Map<String, Session> sessions = new ConcurrentHashMap<>();
 
-    private SchedulerRMProxyFactory schedulerRMProxyFactory = new SchedulerRMProxyFactory();
+    private SchedulerRMProxyFactory schedulerRMProxyFactory = createSchedulerRMProxyFactory();
 
     private Clock clock = new Clock();
 
+    private static SchedulerRMProxyFactory createSchedulerRMProxyFactory() {
+        if (PortalConfiguration.SESSIONS_CONNECTIONS_SHARED.getValueAsBoolean()) {
+            return new SharedSchedulerRMProxyFactory(new SchedulerRMProxyFactory());
+        }
+        return new SchedulerRMProxyFactory();
+    }
+
     public Session createUnnamedSession() {
         String sessionId = SessionIdGenerator.newSessionId();
         Session session = new Session(sessionId, schedulerRMProxyFactory, clock);
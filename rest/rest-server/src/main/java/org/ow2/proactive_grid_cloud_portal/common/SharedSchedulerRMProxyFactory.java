@@ -0,0 +1,318 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.ActiveObjectCreationException;
+import org.objectweb.proactive.core.node.NodeException;
+import org.objectweb.proactive.core.util.log.ProActiveLogger;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
+import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.scheduler.common.exception.SchedulerException;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Creates connections to the scheduler and to the RM shared by the sessions logged in
+ * with the same credentials.
+ * <p>
+ * The scheduler and the RM identify users by the connection (active object) their requests
+ * come from, so each connection keeps acting on behalf of a single user and its permission
+ * checks are unchanged. The sessions of a user (portals, clients, ...) then use a single
+ * active object, with a single body thread and event registration, instead of one each, and
+ * only the first login of a user pays for the creation of the active object.
+ * A connection is reused only by sessions presenting identical (decrypted) credentials, each
+ * login being still authenticated by the server, and is disconnected and terminated once the
+ * last session using it is terminated.
+ */
+public class SharedSchedulerRMProxyFactory extends SchedulerRMProxyFactory {
+
+    private static final Logger logger = ProActiveLogger.getLogger(SharedSchedulerRMProxyFactory.class);
+
+    private final SchedulerRMProxyFactory exclusiveFactory;
+
+    private final ConcurrentMap<String, SharedConnection> connections = new ConcurrentHashMap<>();
+
+    private final Map<Object, SharedConnection> connectionsByProxy = Collections.synchronizedMap(new IdentityHashMap<Object, SharedConnection>());
+
+    public SharedSchedulerRMProxyFactory(SchedulerRMProxyFactory exclusiveFactory) {
+        this.exclusiveFactory = exclusiveFactory;
+    }
+
+    @Override
+    public RMProxyUserInterface connectToRM(final CredData credData)
+            throws ActiveObjectCreationException, NodeException, RMException, KeyException, LoginException {
+        try {
+            return (RMProxyUserInterface) acquire("rm:" + fingerprint(credData), new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return exclusiveFactory.connectToRM(credData);
+                }
+            }, new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    exclusiveFactory.authenticateToRM(credData);
+                    return null;
+                }
+            });
+        } catch (ActiveObjectCreationException | NodeException | RMException | KeyException | LoginException
+                | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public RMProxyUserInterface connectToRM(final Credentials credentials)
+            throws ActiveObjectCreationException, NodeException, RMException, KeyException, LoginException {
+        String fingerprint;
+        try {
+            fingerprint = fingerprint(exclusiveFactory.decryptRMCredentials(credentials));
+        } catch (KeyException | LoginException e) {
+            logger.debug("Cannot decrypt the credentials, the RM connection is not shared", e);
+            return exclusiveFactory.connectToRM(credentials);
+        }
+        try {
+            return (RMProxyUserInterface) acquire("rm:" + fingerprint, new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return exclusiveFactory.connectToRM(credentials);
+                }
+            }, new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    exclusiveFactory.authenticateToRM(credentials);
+                    return null;
+                }
+            });
+        } catch (ActiveObjectCreationException | NodeException | RMException | KeyException | LoginException
+                | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public SchedulerProxyUserInterface connectToScheduler(final Credentials credentials)
+            throws LoginException, SchedulerException, ActiveObjectCreationException, NodeException {
+        String fingerprint;
+        try {
+            fingerprint = fingerprint(exclusiveFactory.decryptSchedulerCredentials(credentials));
+        } catch (KeyException | LoginException e) {
+            logger.debug("Cannot decrypt the credentials, the scheduler connection is not shared", e);
+            return exclusiveFactory.connectToScheduler(credentials);
+        }
+        try {
+            return (SchedulerProxyUserInterface) acquire("scheduler:" + fingerprint, new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return exclusiveFactory.connectToScheduler(credentials);
+                }
+            }, new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    exclusiveFactory.authenticateToScheduler(credentials);
+                    return null;
+                }
+            });
+        } catch (LoginException | SchedulerException | ActiveObjectCreationException | NodeException
+                | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public SchedulerProxyUserInterface connectToScheduler(final CredData credData)
+            throws ActiveObjectCreationException, NodeException, LoginException, SchedulerException {
+        try {
+            return (SchedulerProxyUserInterface) acquire("scheduler:" + fingerprint(credData), new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return exclusiveFactory.connectToScheduler(credData);
+                }
+            }, new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    exclusiveFactory.authenticateToScheduler(credData);
+                    return null;
+                }
+            });
+        } catch (LoginException | SchedulerException | ActiveObjectCreationException | NodeException
+                | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void release(Object connection) {
+        if (connection == null) {
+            return;
+        }
+        SharedConnection sharedConnection = connectionsByProxy.get(connection);
+        if (sharedConnection != null) {
+            synchronized (sharedConnection) {
+                if (--sharedConnection.references > 0) {
+                    return;
+                }
+                sharedConnection.released = true;
+                connections.remove(sharedConnection.key, sharedConnection);
+                connectionsByProxy.remove(connection);
+            }
+        }
+        disconnect(connection);
+        exclusiveFactory.release(connection);
+    }
+
+    @Override
+    public boolean isSharingConnections() {
+        return true;
+    }
+
+    @Override
+    public SchedulerRMProxyFactory exclusive() {
+        return exclusiveFactory;
+    }
+
+    /**
+     * @return the number of connections currently shared by the sessions
+     */
+    public int getConnectionsCount() {
+        return connectionsByProxy.size();
+    }
+
+    /**
+     * Returns the connection of the given key, created by the connector if there is none. A reused
+     * connection is returned only once the authenticator has checked the credentials of the new
+     * login against the server, so disabled accounts and changed passwords are refused as if the
+     * connection were not shared.
+     */
+    private Object acquire(String key, Callable<Object> connector, Callable<Void> authenticator) throws Exception {
+        while (true) {
+            SharedConnection connection = connections.get(key);
+            if (connection == null) {
+                SharedConnection newConnection = new SharedConnection(key);
+                connection = connections.putIfAbsent(key, newConnection);
+                if (connection == null) {
+                    connection = newConnection;
+                }
+            }
+            // only the logins of the same credentials wait for the connection to be created
+            synchronized (connection) {
+                if (connection.released) {
+                    continue;
+                }
+                if (connection.proxy == null) {
+                    try {
+                        connection.proxy = connector.call();
+                    } catch (Exception e) {
+                        connection.released = true;
+                        connections.remove(key, connection);
+                        throw e;
+                    }
+                    connectionsByProxy.put(connection.proxy, connection);
+                } else {
+                    authenticator.call();
+                }
+                connection.references++;
+                return connection.proxy;
+            }
+        }
+    }
+
+    private void disconnect(Object connection) {
+        try {
+            if (connection instanceof SchedulerProxyUserInterface) {
+                ((SchedulerProxyUserInterface) connection).disconnect();
+            } else if (connection instanceof RMProxyUserInterface) {
+                ((RMProxyUserInterface) connection).disconnect();
+            }
+        } catch (Exception e) {
+            logger.debug("Cannot disconnect " + connection, e);
+        }
+    }
+
+    static String fingerprint(CredData credData) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putString(hasher, credData.getLogin());
+        putString(hasher, credData.getDomain());
+        putString(hasher, credData.getPassword());
+        byte[] key = credData.getKey();
+        hasher.putInt(key != null ? key.length : -1);
+        if (key != null) {
+            hasher.putBytes(key);
+        }
+        for (Map.Entry<String, String> thirdPartyCredential : new TreeMap<>(credData.getThirdPartyCredentials()).entrySet()) {
+            putString(hasher, thirdPartyCredential.getKey());
+            putString(hasher, thirdPartyCredential.getValue());
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putString(Hasher hasher, String value) {
+        hasher.putInt(value != null ? value.length() : -1);
+        if (value != null) {
+            hasher.putString(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class SharedConnection {
+
+        private final String key;
+
+        private Object proxy;
+
+        private int references = 0;
+
+        private boolean released = false;
+
+        SharedConnection(String key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.apache.commons.vfs2.Selectors.SELECT_ALL;
+import static org.apache.commons.vfs2.Selectors.SELECT_SELF;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closer;
+
+
+/**
+ * Server side storage of chunked uploads.
+ * <p>
+ * Each chunk of an upload is stored as a separate part file, named after its
+ * offset, inside a hidden folder next to the target file. A part only becomes
+ * visible once it has been fully received, so the list of parts can be used
+ * by a client to resume an interrupted upload, and parts can be received in
+ * any order and in parallel. Once all the parts are there, they are assembled
+ * into the target file and the folder is removed.
+ */
+public class ChunkedUploads {
+
+    private static final Pattern UPLOAD_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,128}");
+
+    private static final String PARTS_FOLDER_SUFFIX = ".parts";
+
+    private static final String INCOMPLETE_PART_SUFFIX = ".tmp";
+
+    private ChunkedUploads() {
+    }
+
+    public static void storePart(FileObject target, String uploadId, long offset, InputStream is)
+            throws IOException {
+        checkArgument(offset >= 0, "Invalid chunk offset: %s", offset);
+        FileObject partsFolder = partsFolder(target, uploadId);
+        if (!partsFolder.exists()) {
+            partsFolder.createFolder();
+        }
+        FileObject incompletePart = partsFolder.resolveFile(offset + INCOMPLETE_PART_SUFFIX);
+        FileObject part = partsFolder.resolveFile(Long.toString(offset));
+        if (incompletePart.exists()) {
+            incompletePart.delete(SELECT_SELF);
+        }
+        incompletePart.createFile();
+        FileSystem.copy(is, incompletePart);
+        if (part.exists()) {
+            part.delete(SELECT_SELF);
+        }
+        incompletePart.moveTo(part);
+    }
+
+    /**
+     * @return the sorted offsets of the parts fully received so far
+     */
+    public static List<Long> listParts(FileObject target, String uploadId) throws FileSystemException {
+        return new ArrayList<>(parts(target, uploadId).keySet());
+    }
+
+    public static void assemble(FileObject target, String uploadId, long length) throws IOException {
+        SortedMap<Long, FileObject> parts = parts(target, uploadId);
+        long expectedOffset = 0;
+        for (SortedMap.Entry<Long, FileObject> part : parts.entrySet()) {
+            if (part.getKey() != expectedOffset) {
+                throw new IllegalArgumentException(String.format("Missing chunk at offset %d of upload %s",
+                                                                 expectedOffset,
+                                                                 uploadId));
+            }
+            expectedOffset += part.getValue().getContent().getSize();
+        }
+        if (expectedOffset != length) {
+            throw new IllegalArgumentException(String.format("Upload %s has %d bytes, expected %d",
+                                                             uploadId,
+                                                             expectedOffset,
+                                                             length));
+        }
+        if (target.exists()) {
+            target.delete(SELECT_SELF);
+        }
+        target.createFile();
+        Closer closer = Closer.create();
+        try {
+            OutputStream os = closer.register(target.getContent().getOutputStream());
+            for (FileObject part : parts.values()) {
+                InputStream is = part.getContent().getInputStream();
+                try {
+                    ByteStreams.copy(is, os);
+                } finally {
+                    is.close();
+                }
+            }
+        } catch (IOException ioe) {
+            throw closer.rethrow(ioe);
+        } finally {
+            closer.close();
+        }
+        abort(target, uploadId);
+    }
+
+    public static void abort(FileObject target, String uploadId) throws FileSystemException {
+        FileObject partsFolder = partsFolder(target, uploadId);
+        if (partsFolder.exists()) {
+            partsFolder.delete(SELECT_ALL);
+        }
+    }
+
+    private static SortedMap<Long, FileObject> parts(FileObject target, String uploadId)
+            throws FileSystemException {
+        FileObject partsFolder = partsFolder(target, uploadId);
+        SortedMap<Long, FileObject> parts = new TreeMap<>();
+        if (!partsFolder.exists() || partsFolder.getType() != FileType.FOLDER) {
+            return parts;
+        }
+        for (FileObject child : partsFolder.getChildren()) {
+            String name = child.getName().getBaseName();
+            if (!name.endsWith(INCOMPLETE_PART_SUFFIX)) {
+                try {
+                    parts.put(Long.parseLong(name), child);
+                } catch (NumberFormatException e) {
+                    // not a part, ignore it
+                }
+            }
+        }
+        return parts;
+    }
+
+    private static FileObject partsFolder(FileObject target, String uploadId) throws FileSystemException {
+        checkArgument(uploadId != null && UPLOAD_ID_PATTERN.matcher(uploadId).matches(),
+                      "Invalid upload id: '%s'.",
+                      uploadId);
+        FileObject parent = target.getParent();
+        return parent.resolveFile("." + target.getName().getBaseName() + "." + uploadId + PARTS_FOLDER_SUFFIX);
+    }
+}
@@ -163,6 +163,7 @@ public class FileSystem {
         properties.put(HttpHeaders.LAST_MODIFIED, new Date(fo.getContent().getLastModifiedTime()));
         properties.put(HttpHeaders.CONTENT_TYPE, contentType(fo));
         properties.put(HttpHeaders.CONTENT_LENGTH, fo.getContent().getSize());
+        properties.put("x-proactive-ds-size", fo.getContent().getSize());
     }
 
     public static List<FileObject> findFiles(FileObject root, List<String> includes, List<String> excludes)
@@ -32,6 +32,7 @@ import static org.apache.commons.vfs2.Selectors.SELECT_SELF;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Date;
 import java.util.List;
 
 import javax.ws.rs.*;
@@ -59,6 +60,7 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestExc
 
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
 
 
 @Path("/data/")
@@ -70,6 +72,10 @@ public class RestDataspaceImpl {
 
     public static final String GLOBAL = "global";
 
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    private static final String CONTENT_RANGE = "Content-Range";
+
     private static SessionStore sessions = SharedSessionStore.getInstance();
 
     /**
@@ -92,18 +98,39 @@ public class RestDataspaceImpl {
      * contents of the request body will be decoded before being stored.</li>
      * <li>Any file that already exists in the specified location, it will be
      * replaced.</li>
+     * <li>If an 'uploadid' query parameter is specified, the request body is
+     * stored as the chunk starting at the 'offset' query parameter of a chunked
+     * upload. Chunks are not decoded and can be sent in any order and in
+     * parallel. Once all chunks are stored, a request with 'assemble' as the
+     * 'comp' query parameter and the total size as the 'length' query
+     * parameter builds the file from the chunks.</li>
      * </ul>
      */
     @PUT
     @Path("/{dataspace}/{path-name:.*}")
     public Response store(@HeaderParam("sessionid") String sessionId, @HeaderParam("Content-Encoding") String encoding,
-            @PathParam("dataspace") String dataspace, @PathParam("path-name") String pathname, InputStream is)
-            throws NotConnectedRestException, PermissionRestException {
+            @PathParam("dataspace") String dataspace, @PathParam("path-name") String pathname,
+            @QueryParam("uploadid") String uploadId, @QueryParam("offset") @DefaultValue("0") long offset,
+            @QueryParam("comp") String component, @QueryParam("length") @DefaultValue("-1") long length,
+            InputStream is) throws NotConnectedRestException, PermissionRestException {
         Session session = checkSessionValidity(sessionId);
         try {
             checkPathParams(dataspace, pathname);
-            logger.debug(String.format("Storing %s in %s", pathname, dataspace));
-            writeFile(is, resolveFile(session, dataspace, pathname), encoding);
+            FileObject fo = resolveFile(session, dataspace, pathname);
+            if (Strings.isNullOrEmpty(uploadId)) {
+                logger.debug(String.format("Storing %s in %s", pathname, dataspace));
+                writeFile(is, fo, encoding);
+            } else if ("assemble".equals(component)) {
+                logger.debug(String.format("Assembling upload %s of %s in %s", uploadId, pathname, dataspace));
+                ChunkedUploads.assemble(fo, uploadId, length);
+            } else {
+                logger.debug(String.format("Storing chunk %d of upload %s of %s in %s",
+                                           offset,
+                                           uploadId,
+                                           pathname,
+                                           dataspace));
+                ChunkedUploads.storePart(fo, uploadId, offset, is);
+            }
         } catch (Throwable error) {
             logger.error(String.format("Cannot save the requested file to %s in %s.", pathname, dataspace), error);
             rethrow(error);
@@ -135,10 +162,15 @@ public class RestDataspaceImpl {
      * {@link ListFile} type object will be return in JSON format. It will contain a list of files and folder contained in the selected
      * path and all subfolders.
      * </li>
+     * <li>If 'parts' is specified as the 'comp' query parameter along with an
+     * 'uploadid' query parameter, the sorted offsets of the chunks of this
+     * upload already stored will be returned in JSON format.</li>
+     * <li>If the pathname represents a file and a 'Range' header is specified,
+     * the requested byte range of the file is returned, without encoding.</li>
      * <li>If the pathname represents a file its contents will be returned as:
      * <ul>
-     * <li>an octet stream, if its a compressed file or the client doesn't
-     * accept encoded content</li>
+     * <li>an octet stream, if its an already compressed file (zip, gzip,
+     * images...) or the client doesn't accept encoded content</li>
      * <li>a 'gzip' encoded stream, if the client accepts 'gzip' encoded content
      * </li>
      * <li>a 'zip' encoded stream, if the client accepts 'zip' encoded contents</li>
@@ -154,8 +186,9 @@ public class RestDataspaceImpl {
     @GET
     @Path("/{dataspace}/{path-name:.*}")
     public Response retrieve(@HeaderParam("sessionid") String sessionId,
-            @HeaderParam("Accept-Encoding") String encoding, @PathParam("dataspace") String dataspace,
-            @PathParam("path-name") String pathname, @QueryParam("comp") String component,
+            @HeaderParam("Accept-Encoding") String encoding, @HeaderParam("Range") String range,
+            @PathParam("dataspace") String dataspace, @PathParam("path-name") String pathname,
+            @QueryParam("comp") String component, @QueryParam("uploadid") String uploadId,
             @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes)
             throws NotConnectedRestException, PermissionRestException {
         Session session = checkSessionValidity(sessionId);
@@ -163,6 +196,9 @@ public class RestDataspaceImpl {
             checkPathParams(dataspace, pathname);
             FileObject fo = resolveFile(session, dataspace, pathname);
 
+            if ("parts".equals(component) && !Strings.isNullOrEmpty(uploadId)) {
+                return Response.ok(ChunkedUploads.listParts(fo, uploadId), MediaType.APPLICATION_JSON).build();
+            }
             if (!fo.exists()) {
                 return notFoundRes();
             }
@@ -170,7 +206,10 @@ public class RestDataspaceImpl {
                 return componentResponse(component, fo, includes, excludes);
             }
             if (fo.getType() == FileType.FILE) {
-                if (VFSZipper.isZipFile(fo)) {
+                if (!Strings.isNullOrEmpty(range)) {
+                    logger.debug(String.format("Retrieving range %s of file %s in %s", range, pathname, dataspace));
+                    return rangeComponentResponse(fo, range);
+                } else if (VFSZipper.isCompressedFile(fo)) {
                     logger.debug(String.format("Retrieving file %s in %s", pathname, dataspace));
                     return fileComponentResponse(fo);
                 } else if (Strings.isNullOrEmpty(encoding) || encoding.contains("*") || encoding.contains("gzip")) {
@@ -217,20 +256,29 @@ public class RestDataspaceImpl {
      * <li>File names or regular expressions can be used as 'includes' and
      * 'excludes' query parameters, in order to select which files to be deleted
      * inside the specified directory (path-name).</li>
+     * <li>If an 'uploadid' query parameter is specified, the chunks already
+     * stored for this upload are deleted instead.</li>
      * </ul>
      *
      */
     @DELETE
     @Path("/{dataspace}/{path-name:.*}")
     public Response delete(@HeaderParam("sessionid") String sessionId, @PathParam("dataspace") String dataspace,
-            @PathParam("path-name") String pathname, @QueryParam("includes") List<String> includes,
-            @QueryParam("excludes") List<String> excludes) throws NotConnectedRestException, PermissionRestException {
+            @PathParam("path-name") String pathname, @QueryParam("uploadid") String uploadId,
+            @QueryParam("includes") List<String> includes, @QueryParam("excludes") List<String> excludes)
+            throws NotConnectedRestException, PermissionRestException {
         Session session = checkSessionValidity(sessionId);
 
         try {
             checkPathParams(dataspace, pathname);
             FileObject fo = resolveFile(session, dataspace, pathname);
 
+            if (!Strings.isNullOrEmpty(uploadId)) {
+                logger.debug(String.format("Aborting upload %s of %s in %s", uploadId, pathname, dataspace));
+                ChunkedUploads.abort(fo, uploadId);
+                return noContentRes();
+            }
+
             if (!fo.exists()) {
                 return Response.status(Response.Status.NO_CONTENT).build();
             }
@@ -362,7 +410,81 @@ public class RestDataspaceImpl {
                     throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
                 }
             }
-        }).header(HttpHeaders.CONTENT_TYPE, mediaType(fo)).header(HttpHeaders.CONTENT_ENCODING, "identity").build();
+        })
+                       .header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                       .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                       .header(HttpHeaders.CONTENT_LENGTH, fo.getContent().getSize())
+                       .header(ACCEPT_RANGES, "bytes")
+                       .build();
+    }
+
+    private Response rangeComponentResponse(final FileObject fo, String range) throws FileSystemException {
+        long size = fo.getContent().getSize();
+        long[] bounds = parseRange(range, size);
+        if (bounds == null) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                           .header(CONTENT_RANGE, "bytes */" + size)
+                           .build();
+        }
+        final long start = bounds[0];
+        final long length = bounds[1] - bounds[0] + 1;
+        return Response.status(Response.Status.PARTIAL_CONTENT).entity(new StreamingOutput() {
+            @Override
+            public void write(OutputStream outputStream) throws IOException, WebApplicationException {
+                try (InputStream is = fo.getContent().getInputStream()) {
+                    ByteStreams.skipFully(is, start);
+                    ByteStreams.copy(ByteStreams.limit(is, length), outputStream);
+                } catch (IOException ioe) {
+                    throw new WebApplicationException(ioe, Response.Status.INTERNAL_SERVER_ERROR);
+                }
+            }
+        })
+                       .header(HttpHeaders.CONTENT_TYPE, mediaType(fo))
+                       .header(HttpHeaders.CONTENT_ENCODING, "identity")
+                       .header(HttpHeaders.CONTENT_LENGTH, length)
+                       .header(ACCEPT_RANGES, "bytes")
+                       .header(CONTENT_RANGE, "bytes " + bounds[0] + "-" + bounds[1] + "/" + size)
+                       .header(HttpHeaders.LAST_MODIFIED, new Date(fo.getContent().getLastModifiedTime()))
+                       .build();
+    }
+
+    /**
+     * Parses a single byte range ('bytes=first-last', 'bytes=first-' or
+     * 'bytes=-suffixLength').
+     *
+     * @return the first and last positions of the range, or null if the range
+     *         cannot be satisfied
+     */
+    static long[] parseRange(String range, long size) {
+        if (!range.startsWith("bytes=") || range.contains(",")) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            long first;
+            long last;
+            if (dash == 0) {
+                long suffixLength = Long.parseLong(spec.substring(1));
+                first = Math.max(0, size - suffixLength);
+                last = size - 1;
+            } else {
+                first = Long.parseLong(spec.substring(0, dash));
+                last = size - 1;
+                if (dash < spec.length() - 1) {
+                    last = Math.min(last, Long.parseLong(spec.substring(dash + 1)));
+                }
+            }
+            if (first < 0 || first > last) {
+                return null;
+            }
+            return new long[] { first, last };
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
     private Response deleteDir(FileObject fo, List<String> includes, List<String> excludes) throws FileSystemException {
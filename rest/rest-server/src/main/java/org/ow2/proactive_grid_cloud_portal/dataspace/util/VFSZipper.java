@@ -180,6 +180,16 @@ public class VFSZipper {
         return Zipper.isZipFile(fo.getContent().getInputStream());
     }
 
+    /**
+     * @return true if the file is stored in an already compressed format, in
+     *         which case compressing it again for a transfer is useless
+     */
+    public static boolean isCompressedFile(FileObject fo) throws IOException {
+        try (InputStream is = fo.getContent().getInputStream()) {
+            return Zipper.isCompressed(is);
+        }
+    }
+
     private static ZipEntry zipEntry(String basePath, FileObject fo) {
         String entryPath = fo.getName().getPath().substring(basePath.length() + 1);
         return new ZipEntry(entryPath);
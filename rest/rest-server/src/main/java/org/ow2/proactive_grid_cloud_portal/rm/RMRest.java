@@ -83,6 +83,8 @@ import org.ow2.proactive.resourcemanager.common.NSState;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
 import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
 import org.ow2.proactive.resourcemanager.core.jmx.RMJMXBeans;
 import org.ow2.proactive.resourcemanager.exception.RMException;
@@ -173,7 +175,10 @@ public class RMRest implements RMRestInterface {
     @Produces("application/json")
     public void rmDisconnect(@HeaderParam("sessionid") String sessionId) throws NotConnectedException {
         RMProxyUserInterface rm = checkAccess(sessionId);
-        rm.disconnect();
+        if (!sessionStore.get(sessionId).hasSharedConnections()) {
+            // shared connections are disconnected when their last session is terminated
+            rm.disconnect();
+        }
         sessionStore.terminate(sessionId);
     }
 
@@ -965,6 +970,48 @@ public class RMRest implements RMRestInterface {
         return ret;
     }
 
+    /**
+     * Returns the hosts having the highest latest value of a metric pushed by the nodes.
+     *
+     * @param sessionId a valid session
+     * @param metric the name of the metric, e.g. Combined-sigar:Type=CpuUsage
+     * @param count the maximum number of hosts to return
+     * @return the hosts, sorted by decreasing value of the metric
+     * @throws NotConnectedException
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("metrics/hosts/top")
+    @Produces("application/json")
+    public List<HostMetricValue> getTopHostsByMetric(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("metric") String metric, @QueryParam("count") @DefaultValue("10") int count)
+            throws NotConnectedException {
+        RMProxyUserInterface rm = checkAccess(sessionId);
+        return rm.getTopHostsByMetric(metric, count);
+    }
+
+    /**
+     * Returns the fleet wide average and maximum of a metric pushed by the nodes.
+     *
+     * @param sessionId a valid session
+     * @param metric the name of the metric, e.g. Combined-sigar:Type=CpuUsage
+     * @param range the time range to fetch, in milliseconds
+     * @return the history of the metric over the range
+     * @throws NotConnectedException
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("metrics/history")
+    @Produces("application/json")
+    public FleetMetricHistory getFleetMetricHistory(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("metric") String metric, @QueryParam("range") @DefaultValue("3600000") long range)
+            throws NotConnectedException {
+        RMProxyUserInterface rm = checkAccess(sessionId);
+        return rm.getFleetMetricHistory(metric, range);
+    }
+
     /**
      * Returns the version of the rest api
      * @return returns the version of the rest api
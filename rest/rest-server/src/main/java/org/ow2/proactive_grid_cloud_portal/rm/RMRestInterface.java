@@ -61,6 +61,8 @@ import org.ow2.proactive.resourcemanager.common.NSState;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
 import org.ow2.proactive.resourcemanager.nodesource.common.PluginDescriptor;
@@ -287,6 +289,22 @@ public interface RMRestInterface {
             throws InstanceNotFoundException, IntrospectionException, ReflectionException, IOException,
             MalformedObjectNameException, NullPointerException, InterruptedException, NotConnectedException;
 
+    @GET
+    @GZIP
+    @Path("metrics/hosts/top")
+    @Produces("application/json")
+    List<HostMetricValue> getTopHostsByMetric(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("metric") String metric, @QueryParam("count") @DefaultValue("10") int count)
+            throws NotConnectedException;
+
+    @GET
+    @GZIP
+    @Path("metrics/history")
+    @Produces("application/json")
+    FleetMetricHistory getFleetMetricHistory(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("metric") String metric, @QueryParam("range") @DefaultValue("3600000") long range)
+            throws NotConnectedException;
+
     @GET
     @Path("version")
     String getVersion();
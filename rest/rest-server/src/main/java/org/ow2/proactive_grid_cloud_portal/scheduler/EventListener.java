@@ -48,12 +48,16 @@ public class EventListener implements SchedulerEventListener {
 
     @Override
     public void jobStateUpdatedEvent(NotificationData<JobInfo> data) {
-        state.incrementRevision();
+        if (data.getEventType() == SchedulerEvent.JOB_REMOVE_FINISHED) {
+            state.getChangeLog().jobRemoved(data.getData().getJobId());
+        } else {
+            state.getChangeLog().jobUpdated(data.getData());
+        }
     }
 
     @Override
     public void jobSubmittedEvent(JobState jobState) {
-        state.incrementRevision();
+        state.getChangeLog().jobUpdated(jobState);
     }
 
     @Override
@@ -65,13 +69,12 @@ public class EventListener implements SchedulerEventListener {
 
     @Override
     public void jobUpdatedFullDataEvent(JobState jobState) {
-        state.incrementRevision();
-
+        state.getChangeLog().jobUpdated(jobState);
     }
 
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> event) {
-        state.incrementRevision();
+        state.getChangeLog().taskUpdated(event.getData());
     }
 
     @Override
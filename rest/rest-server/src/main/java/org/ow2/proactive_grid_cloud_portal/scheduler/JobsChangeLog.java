@@ -0,0 +1,290 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+
+
+/**
+ * In-memory log of the latest change of each job and task, used to answer
+ * requests for the changes since a given revision without querying the scheduler.
+ * <p>
+ * Each change takes a new revision from the scheduler state revision counter, and
+ * replaces the previous change of the same job or task, so the log holds at most
+ * one change per job or task. Removed jobs are kept as tombstones, their tasks
+ * being implicitly removed. The log is bounded: when its capacity is exceeded,
+ * the oldest changes are evicted and requests for changes older than the
+ * evicted ones are answered as incomplete, meaning the client must reload the
+ * full state.
+ */
+public class JobsChangeLog {
+
+    private final AtomicLong revision;
+
+    private final int capacity;
+
+    private final NavigableMap<Long, Change> changesByRevision = new TreeMap<>();
+
+    private final Map<Object, Long> revisions = new HashMap<>();
+
+    private final Map<JobId, Set<TaskId>> tasksByJob = new HashMap<>();
+
+    private final Map<JobId, String> owners = new HashMap<>();
+
+    /** Changes up to this revision (included) may have been evicted */
+    private long evictedRevision;
+
+    public JobsChangeLog(AtomicLong revision, int capacity) {
+        this.revision = revision;
+        this.capacity = capacity;
+        this.evictedRevision = revision.get();
+    }
+
+    public synchronized void jobUpdated(JobInfo jobInfo) {
+        owners.put(jobInfo.getJobId(), jobInfo.getJobOwner());
+        record(new Change(jobInfo.getJobId(), null, jobInfo.getJobOwner(), jobInfo, null, false));
+    }
+
+    public synchronized void jobUpdated(JobState jobState) {
+        jobUpdated(jobState.getJobInfo());
+        for (TaskState taskState : jobState.getTasks()) {
+            taskUpdated(taskState.getTaskInfo());
+        }
+    }
+
+    public synchronized void jobRemoved(JobId jobId) {
+        Set<TaskId> taskIds = tasksByJob.remove(jobId);
+        if (taskIds != null) {
+            for (TaskId taskId : taskIds) {
+                Long taskRevision = revisions.remove(taskId);
+                if (taskRevision != null) {
+                    changesByRevision.remove(taskRevision);
+                }
+            }
+        }
+        record(new Change(jobId, null, owners.remove(jobId), null, null, true));
+    }
+
+    public synchronized void taskUpdated(TaskInfo taskInfo) {
+        JobId jobId = taskInfo.getJobId();
+        String owner = owners.get(jobId);
+        if (owner == null && taskInfo.getJobInfo() != null) {
+            owner = taskInfo.getJobInfo().getJobOwner();
+        }
+        Set<TaskId> taskIds = tasksByJob.get(jobId);
+        if (taskIds == null) {
+            taskIds = new HashSet<>();
+            tasksByJob.put(jobId, taskIds);
+        }
+        taskIds.add(taskInfo.getTaskId());
+        record(new Change(jobId, taskInfo.getTaskId(), owner, null, taskInfo, false));
+    }
+
+    /**
+     * Returns the changes which happened after the given revision.
+     *
+     * @param sinceRevision the last revision known by the client
+     * @param owner if not null, only the changes of the jobs of this user are returned
+     */
+    public synchronized Changes changesSince(long sinceRevision, String owner) {
+        long currentRevision = revision.get();
+        if (sinceRevision < evictedRevision || sinceRevision > currentRevision) {
+            return new Changes(currentRevision, false, new ArrayList<Change>(0));
+        }
+        List<Change> changes = new ArrayList<>();
+        for (Change change : changesByRevision.tailMap(sinceRevision, false).values()) {
+            if (owner == null || owner.equals(change.getOwner())) {
+                changes.add(change);
+            }
+        }
+        return new Changes(currentRevision, true, changes);
+    }
+
+    private void record(Change change) {
+        Object key = change.getTaskId() != null ? change.getTaskId() : change.getJobId();
+        Long previous = revisions.remove(key);
+        if (previous != null) {
+            changesByRevision.remove(previous);
+        }
+        change.revision = revision.incrementAndGet();
+        changesByRevision.put(change.revision, change);
+        revisions.put(key, change.revision);
+
+        while (changesByRevision.size() > capacity) {
+            Change evicted = changesByRevision.pollFirstEntry().getValue();
+            evictedRevision = evicted.revision;
+            JobId jobId = evicted.getJobId();
+            if (evicted.getTaskId() != null) {
+                revisions.remove(evicted.getTaskId());
+                Set<TaskId> taskIds = tasksByJob.get(jobId);
+                if (taskIds != null) {
+                    taskIds.remove(evicted.getTaskId());
+                }
+            } else {
+                revisions.remove(jobId);
+            }
+            pruneJob(jobId);
+        }
+    }
+
+    /**
+     * Forgets the tasks and the owner of a job once the log holds no change of it anymore.
+     */
+    private void pruneJob(JobId jobId) {
+        Set<TaskId> taskIds = tasksByJob.get(jobId);
+        if (taskIds != null && taskIds.isEmpty()) {
+            tasksByJob.remove(jobId);
+            taskIds = null;
+        }
+        if (taskIds == null && !revisions.containsKey(jobId)) {
+            owners.remove(jobId);
+        }
+    }
+
+    /**
+     * @return the number of jobs for which the log holds some state
+     */
+    synchronized int getTrackedJobsCount() {
+        Set<JobId> jobIds = new HashSet<>(owners.keySet());
+        jobIds.addAll(tasksByJob.keySet());
+        return jobIds.size();
+    }
+
+    /**
+     * The latest change of a job or of a task.
+     */
+    public static final class Change {
+
+        private long revision;
+
+        private final JobId jobId;
+
+        private final TaskId taskId;
+
+        private final String owner;
+
+        private final JobInfo jobInfo;
+
+        private final TaskInfo taskInfo;
+
+        private final boolean removed;
+
+        Change(JobId jobId, TaskId taskId, String owner, JobInfo jobInfo, TaskInfo taskInfo, boolean removed) {
+            this.jobId = jobId;
+            this.taskId = taskId;
+            this.owner = owner;
+            this.jobInfo = jobInfo;
+            this.taskInfo = taskInfo;
+            this.removed = removed;
+        }
+
+        public long getRevision() {
+            return revision;
+        }
+
+        public JobId getJobId() {
+            return jobId;
+        }
+
+        /**
+         * @return the id of the changed task, or null if the change is about the job
+         */
+        public TaskId getTaskId() {
+            return taskId;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public JobInfo getJobInfo() {
+            return jobInfo;
+        }
+
+        public TaskInfo getTaskInfo() {
+            return taskInfo;
+        }
+
+        /**
+         * @return true if the job has been removed, its tasks being removed as well
+         */
+        public boolean isRemoved() {
+            return removed;
+        }
+    }
+
+    /**
+     * The changes since a revision.
+     */
+    public static final class Changes {
+
+        private final long revision;
+
+        private final boolean complete;
+
+        private final List<Change> changes;
+
+        Changes(long revision, boolean complete, List<Change> changes) {
+            this.revision = revision;
+            this.complete = complete;
+            this.changes = changes;
+        }
+
+        /**
+         * @return the revision up to which the changes are returned
+         */
+        public long getRevision() {
+            return revision;
+        }
+
+        /**
+         * @return false if the changes since the requested revision are not available anymore,
+         *         the full state must then be reloaded
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public List<Change> getChanges() {
+            return changes;
+        }
+    }
+}
@@ -33,8 +33,6 @@ import org.atmosphere.util.ServletContextFactory;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.SerializationConfig;
 import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
 import org.ow2.proactive.scheduler.common.NotificationData;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
@@ -42,6 +40,7 @@ import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.job.JobState;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerDataMapper;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.eventing.EventNotification;
 
@@ -55,8 +54,6 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
 
     private static final Logger log = Logger.getLogger(SchedulerEventBroadcaster.class);
 
-    private static final Mapper dozerMapper = DozerBeanMapperSingletonWrapper.getInstance();
-
     private static final ObjectMapper mapper;
 
     static {
@@ -115,7 +112,7 @@ public class SchedulerEventBroadcaster implements SchedulerEventListener {
     @Override
     public void taskStateUpdatedEvent(NotificationData<TaskInfo> notification) {
         logEvent(notification);
-        TaskInfoData taskInfoData = dozerMapper.map(notification.getData(), TaskInfoData.class);
+        TaskInfoData taskInfoData = SchedulerDataMapper.toTaskInfoData(notification.getData());
 
         broadcast(new EventNotification(EventNotification.Action.TASK_STATE_UPDATED,
                                         eventTypeName(notification),
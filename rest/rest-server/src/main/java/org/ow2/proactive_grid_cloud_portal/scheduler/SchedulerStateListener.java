@@ -57,6 +57,9 @@ public class SchedulerStateListener {
 
         private AtomicLong revision = new AtomicLong(-1);
 
+        private final JobsChangeLog changeLog = new JobsChangeLog(revision,
+                                                                  PortalConfiguration.SCHEDULER_CACHE_CHANGES_CAPACITY.getValueAsInt());
+
         private volatile SchedulerStatus status;
 
         void incrementRevision() {
@@ -67,6 +70,10 @@ public class SchedulerStateListener {
             return revision.get();
         }
 
+        JobsChangeLog getChangeLog() {
+            return changeLog;
+        }
+
         public SchedulerStatus getStatus() {
             return status;
         }
@@ -154,6 +161,16 @@ public class SchedulerStateListener {
         return state.getRevision();
     }
 
+    /**
+     * Returns the changes of the jobs and tasks since the given revision.
+     *
+     * @param sinceRevision the last revision known by the client
+     * @param owner if not null, only the changes of the jobs of this user are returned
+     */
+    public JobsChangeLog.Changes getChangesSince(long sinceRevision, String owner) {
+        return state.getChangeLog().changesSince(sinceRevision, owner);
+    }
+
     public SchedulerStatus getSchedulerStatus(Scheduler scheduler) throws PermissionException, NotConnectedException {
         SchedulerStatus status = state.getStatus();
         if (status == null) {
@@ -45,13 +45,16 @@ import java.security.KeyException;
 import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import javax.security.auth.login.LoginException;
 import javax.servlet.http.HttpServletRequest;
@@ -74,6 +77,7 @@ import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.PathSegment;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
@@ -143,12 +147,15 @@ import org.ow2.proactive.scheduler.common.util.TaskLoggerRelativePathGenerator;
 import org.ow2.proactive.scheduler.common.util.logforwarder.LogForwardingException;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+import org.ow2.proactive.scheduler.task.TaskResultStore;
 import org.ow2.proactive_grid_cloud_portal.common.SchedulerRestInterface;
 import org.ow2.proactive_grid_cloud_portal.common.Session;
 import org.ow2.proactive_grid_cloud_portal.common.SessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.SharedSessionStore;
 import org.ow2.proactive_grid_cloud_portal.common.dto.LoginForm;
 import org.ow2.proactive_grid_cloud_portal.dataspace.RestDataspaceImpl;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobChangeData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobInfoData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobResultData;
@@ -157,8 +164,11 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobUsageData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.JobValidationData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestMapPage;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerChangesData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerDataMapper;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerStatusData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerUserData;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskChangeData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskIdData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskResultData;
 import org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskStateData;
@@ -179,6 +189,9 @@ import org.ow2.proactive_grid_cloud_portal.scheduler.util.WorkflowVariablesTrans
 import org.ow2.proactive_grid_cloud_portal.webapp.DateFormatter;
 import org.ow2.proactive_grid_cloud_portal.webapp.PortalConfiguration;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 
 /**
  * This class exposes the Scheduler as a RESTful service.
@@ -206,6 +219,24 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
     private static final int TASKS_PAGE_SIZE = PASchedulerProperties.TASKS_PAGE_SIZE.getValueAsInt();
 
+    /**
+     * Time during which the visibility of the jobs of other users is cached for a session,
+     * so that permission and ownership changes are taken into account soon
+     */
+    private static final long JOB_VISIBILITY_TTL_SECONDS = 60;
+
+    /** Whether the user of a session can see the jobs of other users, per session id, see {@link #visibleJobs} */
+    private static final Cache<String, Boolean> OTHER_USERS_JOBS_VISIBILITY = CacheBuilder.newBuilder()
+                                                                                          .expireAfterWrite(JOB_VISIBILITY_TTL_SECONDS,
+                                                                                                            TimeUnit.SECONDS)
+                                                                                          .build();
+
+    /** Whether the user of a session can see a job of another user, per session id and job id */
+    private static final Cache<String, Cache<String, Boolean>> JOB_VISIBILITY = CacheBuilder.newBuilder()
+                                                                                            .expireAfterAccess(1,
+                                                                                                               TimeUnit.HOURS)
+                                                                                            .build();
+
     static {
         sortableTaskAttrMap = createSortableTaskAttrMap();
     }
@@ -309,7 +340,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                            DEFAULT_JOB_SORT_PARAMS);
             List<UserJobData> userJobInfoList = new ArrayList<UserJobData>(page.getList().size());
             for (JobInfo jobInfo : page.getList()) {
-                userJobInfoList.add(new UserJobData(mapper.map(jobInfo, JobInfoData.class)));
+                userJobInfoList.add(new UserJobData(SchedulerDataMapper.toJobInfoData(jobInfo)));
             }
 
             return new RestPage<UserJobData>(userJobInfoList, page.getSize());
@@ -362,6 +393,10 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
             boolean onlyUserJobs = (myJobs && user != null && user.trim().length() > 0);
 
+            // read before the jobs, so that the changes made while they are loaded
+            // are returned by the next changes?since= request
+            long revision = SchedulerStateListener.getInstance().getSchedulerStateRevision();
+
             Page<JobInfo> page = s.getJobs(index,
                                            limit,
                                            new JobFilterCriteria(onlyUserJobs, pending, running, finished),
@@ -369,11 +404,11 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             List<JobInfo> jobsInfo = page.getList();
             ArrayList<UserJobData> jobs = new ArrayList<>(jobsInfo.size());
             for (JobInfo jobInfo : jobsInfo) {
-                jobs.add(new UserJobData(mapper.map(jobInfo, JobInfoData.class)));
+                jobs.add(new UserJobData(SchedulerDataMapper.toJobInfoData(jobInfo)));
             }
 
             HashMap<Long, ArrayList<UserJobData>> map = new HashMap<Long, ArrayList<UserJobData>>(1);
-            map.put(SchedulerStateListener.getInstance().getSchedulerStateRevision(), jobs);
+            map.put(revision, jobs);
             RestMapPage<Long, ArrayList<UserJobData>> restMapPage = new RestMapPage<Long, ArrayList<UserJobData>>();
             restMapPage.setMap(map);
             restMapPage.setSize(page.getSize());
@@ -385,6 +420,127 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    /**
+     * Returns the jobs and tasks which changed since the given revision of the
+     * scheduler state, served from the in-memory change log.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param sinceRevision
+     *            the revision of the scheduler state already known by the client
+     * @param myJobs
+     *            fetch only the changes of the jobs owned by the user making the request
+     * @return the changes since the given revision and the revision to use for the next call
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("changes")
+    @Produces({ "application/json", "application/xml" })
+    public SchedulerChangesData changesSinceRevision(@HeaderParam("sessionid") String sessionId,
+            @QueryParam("since") long sinceRevision, @QueryParam("myjobs") @DefaultValue("false") boolean myJobs)
+            throws NotConnectedRestException, PermissionRestException {
+        Scheduler s = checkAccess(sessionId, "changes?since=" + sinceRevision);
+        String user = sessionStore.get(sessionId).getUserName();
+        boolean onlyUserJobs = (myJobs && user != null && user.trim().length() > 0);
+
+        JobsChangeLog.Changes changes;
+        try {
+            // same permission check as revisionjobsinfo
+            s.getJobs(0, 1, new JobFilterCriteria(onlyUserJobs, true, true, true), DEFAULT_JOB_SORT_PARAMS);
+            changes = SchedulerStateListener.getInstance().getChangesSince(sinceRevision, onlyUserJobs ? user : null);
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        }
+        Set<String> visibleJobs = visibleJobs(s, sessionId, user, changes.getChanges());
+        SchedulerChangesData changesData = new SchedulerChangesData(changes.getRevision(), changes.isComplete());
+        for (JobsChangeLog.Change change : changes.getChanges()) {
+            String jobId = change.getJobId().value();
+            if (!visibleJobs.contains(jobId)) {
+                continue;
+            }
+            if (change.getTaskId() != null) {
+                changesData.getTasks().add(new TaskChangeData(change.getRevision(),
+                                                              jobId,
+                                                              SchedulerDataMapper.toTaskInfoData(change.getTaskInfo())));
+            } else if (change.isRemoved()) {
+                changesData.getJobs().add(new JobChangeData(change.getRevision(), jobId, true, null));
+            } else {
+                changesData.getJobs().add(new JobChangeData(change.getRevision(),
+                                                            jobId,
+                                                            false,
+                                                            SchedulerDataMapper.toJobInfoData(change.getJobInfo())));
+            }
+        }
+        return changesData;
+    }
+
+    /**
+     * Returns the ids of the jobs of the given changes the user of the session can see.
+     * <p>
+     * All the jobs are visible when the user can handle the jobs of other users. Otherwise
+     * the jobs of other users are checked through the scheduler permissions in one call. The
+     * answers are cached for the session for a short time, as the job of a removal cannot be
+     * checked anymore.
+     */
+    private Set<String> visibleJobs(Scheduler s, String sessionId, String user, List<JobsChangeLog.Change> changes)
+            throws NotConnectedRestException {
+        Set<String> visibleJobs = new HashSet<>();
+        try {
+            Boolean otherUsersJobsVisible = OTHER_USERS_JOBS_VISIBILITY.getIfPresent(sessionId);
+            if (otherUsersJobsVisible == null) {
+                otherUsersJobsVisible = s.canHandleOtherUsersJobs();
+                OTHER_USERS_JOBS_VISIBILITY.put(sessionId, otherUsersJobsVisible);
+            }
+            Cache<String, Boolean> sessionJobVisibility = sessionJobVisibility(sessionId);
+            Set<String> jobsToCheck = new HashSet<>();
+            for (JobsChangeLog.Change change : changes) {
+                String jobId = change.getJobId().value();
+                if (otherUsersJobsVisible || (user != null && user.equals(change.getOwner()))) {
+                    visibleJobs.add(jobId);
+                    continue;
+                }
+                Boolean visible = sessionJobVisibility.getIfPresent(jobId);
+                if (visible != null) {
+                    if (visible) {
+                        visibleJobs.add(jobId);
+                    }
+                } else if (!change.isRemoved()) {
+                    jobsToCheck.add(jobId);
+                }
+            }
+            if (!jobsToCheck.isEmpty()) {
+                // unknown jobs and jobs the user cannot see are skipped
+                for (JobInfo jobInfo : s.getJobsInfoList(new ArrayList<>(jobsToCheck))) {
+                    visibleJobs.add(jobInfo.getJobId().value());
+                }
+                for (String jobId : jobsToCheck) {
+                    sessionJobVisibility.put(jobId, visibleJobs.contains(jobId));
+                }
+            }
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        }
+        return visibleJobs;
+    }
+
+    private static Cache<String, Boolean> sessionJobVisibility(String sessionId) {
+        Cache<String, Boolean> sessionJobVisibility = JOB_VISIBILITY.getIfPresent(sessionId);
+        if (sessionJobVisibility == null) {
+            Cache<String, Boolean> created = CacheBuilder.newBuilder()
+                                                         .maximumSize(100000)
+                                                         .expireAfterWrite(JOB_VISIBILITY_TTL_SECONDS, TimeUnit.SECONDS)
+                                                         .build();
+            sessionJobVisibility = JOB_VISIBILITY.asMap().putIfAbsent(sessionId, created);
+            if (sessionJobVisibility == null) {
+                sessionJobVisibility = created;
+            }
+        }
+        return sessionJobVisibility;
+    }
+
     /**
      * Returns the revision number of the scheduler state
      *
@@ -537,7 +693,11 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             throws NotConnectedRestException, PermissionRestException, UnknownJobRestException {
         try {
             Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/result");
-            return mapper.map(PAFuture.getFutureValue(s.getJobResult(jobId)), JobResultData.class);
+            JobResult jobResult = PAFuture.getFutureValue(s.getJobResult(jobId));
+            if (jobResult != null) {
+                resolveValueReferences(sessionId, jobResult.getAllResults().values());
+            }
+            return mapper.map(jobResult, JobResultData.class);
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
         } catch (UnknownJobException e) {
@@ -556,7 +716,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/info");
         JobInfoData job = null;
         try {
-            job = mapper.map(s.getJobInfo(jobId), JobInfoData.class);
+            job = SchedulerDataMapper.toJobInfoData(s.getJobInfo(jobId));
         } catch (NotConnectedException e) {
             throw new NotConnectedRestException(e);
         } catch (UnknownJobException e) {
@@ -567,6 +727,61 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         return job;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> finishedJobs(String sessionId, List<String> jobIds) throws NotConnectedRestException {
+        Scheduler s = checkAccess(sessionId, "jobs/finished");
+        Set<String> aliveJobIds = new HashSet<>();
+        try {
+            for (JobInfo jobInfo : s.getJobsInfoList(jobIds)) {
+                if (jobInfo.getStatus().isJobAlive()) {
+                    aliveJobIds.add(jobInfo.getJobId().value());
+                }
+            }
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        }
+        List<String> finished = new ArrayList<>();
+        for (String jobId : jobIds) {
+            if (!aliveJobIds.contains(jobId)) {
+                finished.add(jobId);
+            }
+        }
+        return finished;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<String> finishedTasks(String sessionId, String jobId, List<String> taskNames)
+            throws NotConnectedRestException, PermissionRestException, UnknownJobRestException {
+        Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/finishedtasks");
+        try {
+            JobState jobState = s.getJobState(jobId);
+            Map<String, TaskState> tasksByName = new HashMap<>(jobState.getTasks().size());
+            for (TaskState ts : jobState.getTasks()) {
+                tasksByName.put(ts.getId().getReadableName(), ts);
+            }
+            List<String> finished = new ArrayList<>();
+            for (String taskName : taskNames) {
+                TaskState ts = tasksByName.get(taskName);
+                if (ts == null || !ts.getStatus().isTaskAlive()) {
+                    finished.add(taskName);
+                }
+            }
+            return finished;
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        } catch (UnknownJobException e) {
+            throw new UnknownJobRestException(e);
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        }
+    }
+
     /**
      * Returns all the task results of this job as a map whose the key is the
      * name of the task and its task result.<br>
@@ -598,7 +813,8 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Map<String, String> res = new HashMap<>(allResults.size());
             for (final Entry<String, TaskResult> entry : allResults.entrySet()) {
                 TaskResult taskResult = entry.getValue();
-                String value = getTaskResultValueAsStringOrExceptionStackTrace(taskResult);
+                String value = getTaskResultValueAsStringOrExceptionStackTrace(resolveValueReference(sessionId,
+                                                                                                     taskResult));
                 res.put(entry.getKey(), value);
             }
             return res;
@@ -1149,7 +1365,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/taskstates/paginated");
             JobState jobState = s.getJobState(jobId);
             TaskStatesPage page = jobState.getTasksPaginated(offset, limit);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDataMapper.toTaskStateData(page.getTaskStates());
             return new RestPage<TaskStateData>(tasks, page.getSize());
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
@@ -1160,6 +1376,39 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
+    /**
+     * Streams the states of all the tasks of a job, page by page. The JSON
+     * document has the same structure as the one returned by
+     * <code>jobs/{jobid}/taskstates</code>, but is never fully built in memory,
+     * which makes it suitable for jobs with many tasks.
+     *
+     * @param sessionId
+     *            a valid session id
+     * @param jobId
+     *            the job id
+     * @return the task' states of the job <code>jobId</code>, written as JSON
+     */
+    @Override
+    @GET
+    @GZIP
+    @Path("jobs/{jobid}/taskstates/stream")
+    @Produces("application/json")
+    public StreamingOutput streamJobTaskStates(@HeaderParam("sessionid") String sessionId,
+            @PathParam("jobid") String jobId)
+            throws NotConnectedRestException, UnknownJobRestException, PermissionRestException {
+        try {
+            Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/taskstates/stream");
+            JobState jobState = s.getJobState(jobId);
+            return new TaskStatesStreamingOutput(jobState.getTasks(), TASKS_PAGE_SIZE);
+        } catch (PermissionException e) {
+            throw new PermissionRestException(e);
+        } catch (UnknownJobException e) {
+            throw new UnknownJobRestException(e);
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        }
+    }
+
     /**
      * Returns a list of taskState of the tasks filtered by a given tag.
      *
@@ -1184,7 +1433,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/taskstates/" + taskTag);
             JobState jobState = s.getJobState(jobId);
             TaskStatesPage page = jobState.getTaskByTagPaginated(taskTag, 0, TASKS_PAGE_SIZE);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDataMapper.toTaskStateData(page.getTaskStates());
             return new RestPage<TaskStateData>(tasks, page.getSize());
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
@@ -1213,7 +1462,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/taskstates/" + taskTag + "/paginated");
             JobState jobState = s.getJobState(jobId);
             TaskStatesPage page = jobState.getTaskByTagPaginated(taskTag, offset, limit);
-            List<TaskStateData> tasks = map(page.getTaskStates(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDataMapper.toTaskStateData(page.getTaskStates());
             return new RestPage<TaskStateData>(tasks, page.getSize());
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
@@ -1321,7 +1570,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
 
             for (TaskState ts : jobState.getTasks()) {
                 if (ts.getId().getReadableName().equals(taskname)) {
-                    return mapper.map(ts, TaskStateData.class);
+                    return SchedulerDataMapper.toTaskStateData(ts);
                 }
             }
 
@@ -1360,7 +1609,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             @PathParam("taskname") String taskname) throws Throwable {
         Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/tasks/" + taskname + "/result/value");
         TaskResult taskResult = s.getTaskResult(jobId, taskname);
-        return getTaskResultValueAsStringOrExceptionStackTrace(taskResult);
+        return getTaskResultValueAsStringOrExceptionStackTrace(resolveValueReference(sessionId, taskResult));
     }
 
     /**
@@ -1391,7 +1640,8 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         Map<String, String> result = new HashMap<String, String>(taskResults.size());
         for (TaskResult currentTaskResult : taskResults) {
             result.put(currentTaskResult.getTaskId().getReadableName(),
-                       getTaskResultValueAsStringOrExceptionStackTrace(currentTaskResult));
+                       getTaskResultValueAsStringOrExceptionStackTrace(resolveValueReference(sessionId,
+                                                                                             currentTaskResult)));
         }
         return result;
     }
@@ -1497,7 +1747,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             @PathParam("jobid") String jobId, @PathParam("taskname") String taskname) throws Throwable {
         Scheduler s = checkAccess(sessionId, "jobs/" + jobId + "/tasks/" + taskname + "/result/serializedvalue");
         TaskResult tr = s.getTaskResult(jobId, taskname);
-        tr = PAFuture.getFutureValue(tr);
+        tr = resolveValueReference(sessionId, tr);
         return tr.getSerializedValue();
     }
 
@@ -1526,7 +1776,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         List<TaskResult> trs = s.getTaskResultsByTag(jobId, taskTag);
         Map<String, byte[]> result = new HashMap<>(trs.size());
         for (TaskResult currentResult : trs) {
-            TaskResult r = PAFuture.getFutureValue(currentResult);
+            TaskResult r = resolveValueReference(sessionId, currentResult);
             result.put(r.getTaskId().getReadableName(), r.getSerializedValue());
         }
         return result;
@@ -1562,7 +1812,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                 taskResultData.setId(taskIdData);
                 return taskResultData;
             }
-            return buildTaskResultData(taskResult);
+            return buildTaskResultData(sessionId, taskResult);
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
         } catch (UnknownJobException e) {
@@ -1574,8 +1824,33 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         }
     }
 
-    private TaskResultData buildTaskResultData(TaskResult taskResult) {
-        return mapper.map(PAFuture.getFutureValue(taskResult), TaskResultData.class);
+    private TaskResultData buildTaskResultData(String sessionId, TaskResult taskResult) {
+        return mapper.map(resolveValueReference(sessionId, taskResult), TaskResultData.class);
+    }
+
+    /**
+     * Reads the values passed by reference from the USER space, as the scheduler only
+     * returns their reference, see {@link TaskResultStore}.
+     */
+    private TaskResult resolveValueReference(String sessionId, TaskResult taskResult) {
+        taskResult = PAFuture.getFutureValue(taskResult);
+        if (taskResult instanceof TaskResultImpl && ((TaskResultImpl) taskResult).getValueReference() != null) {
+            String reference = ((TaskResultImpl) taskResult).getValueReference();
+            try {
+                TaskResultStore.resolveValue((TaskResultImpl) taskResult,
+                                             pullFile(sessionId, SchedulerConstants.USERSPACE_NAME, reference));
+            } catch (Exception e) {
+                logger.warn("Cannot read the value of the result of task " + taskResult.getTaskId() + " from " +
+                            reference, e);
+            }
+        }
+        return taskResult;
+    }
+
+    private void resolveValueReferences(String sessionId, Collection<TaskResult> taskResults) {
+        for (TaskResult taskResult : taskResults) {
+            resolveValueReference(sessionId, taskResult);
+        }
     }
 
     /**
@@ -1603,7 +1878,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             List<TaskResult> taskResults = s.getTaskResultsByTag(jobId, taskTag);
             ArrayList<TaskResultData> results = new ArrayList<TaskResultData>(taskResults.size());
             for (TaskResult current : taskResults) {
-                TaskResultData r = buildTaskResultData(PAFuture.getFutureValue(current));
+                TaskResultData r = buildTaskResultData(sessionId, current);
                 results.add(r);
             }
 
@@ -2575,14 +2850,20 @@ public class SchedulerStateRest implements SchedulerRestInterface {
     final String sessionId) throws NotConnectedRestException, PermissionRestException {
         try {
             final Scheduler s = checkAccess(sessionId, "disconnect");
-            logger.info("disconnection user " + sessionStore.get(sessionId) + " to session " + sessionId);
-            s.disconnect();
+            Session session = sessionStore.get(sessionId);
+            logger.info("disconnection user " + session + " to session " + sessionId);
+            if (!session.hasSharedConnections()) {
+                // shared connections are disconnected when their last session is terminated
+                s.disconnect();
+            }
         } catch (PermissionException e) {
             throw new PermissionRestException(e);
         } catch (NotConnectedException e) {
             throw new NotConnectedRestException(e);
         } finally {
             sessionStore.terminate(sessionId);
+            OTHER_USERS_JOBS_VISIBILITY.invalidate(sessionId);
+            JOB_VISIBILITY.invalidate(sessionId);
             logger.debug("sessionid " + sessionId + " terminated");
         }
     }
@@ -2881,6 +3162,19 @@ public class SchedulerStateRest implements SchedulerRestInterface {
         return s.isConnected();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canHandleOtherUsersJobs(String sessionId) throws NotConnectedRestException {
+        Scheduler s = checkAccess(sessionId, "permissions/otheruserjobs");
+        try {
+            return s.canHandleOtherUsersJobs();
+        } catch (NotConnectedException e) {
+            throw new NotConnectedRestException(e);
+        }
+    }
+
     /**
      * Login to the scheduler using a form containing 2 fields (username and
      * password).
@@ -3402,7 +3696,8 @@ public class SchedulerStateRest implements SchedulerRestInterface {
             throws NotConnectedRestException, PermissionRestException {
         HttpSession session = req.getSession();
         String broadcasterId = (String) session.getAttribute(ATM_BROADCASTER_ID);
-        final SchedulerProxyUserInterface scheduler = checkAccess(broadcasterId);
+        checkAccess(broadcasterId);
+        final SchedulerProxyUserInterface scheduler = sessionStore.get(broadcasterId).getExclusiveScheduler();
         SchedulerEventBroadcaster eventListener = new SchedulerEventBroadcaster(broadcasterId);
         try {
             final SchedulerEventBroadcaster activedEventListener = PAActiveObject.turnActive(eventListener);
@@ -3562,7 +3857,7 @@ public class SchedulerStateRest implements SchedulerRestInterface {
                                    boundaries.getOffset(),
                                    boundaries.getLimit(),
                                    sortParams);
-            List<TaskStateData> tasks = map(page.getList(), TaskStateData.class);
+            List<TaskStateData> tasks = SchedulerDataMapper.toTaskStateData(page.getList());
             return new RestPage<TaskStateData>(tasks, page.getSize());
         } catch (NotConnectedException e) {
             throw new NotConnectedRestException(e);
@@ -0,0 +1,91 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import javax.ws.rs.core.StreamingOutput;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.AnnotationIntrospector;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.introspect.JacksonAnnotationIntrospector;
+import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive_grid_cloud_portal.scheduler.dto.SchedulerDataMapper;
+
+
+/**
+ * Writes the states of tasks as JSON, with the same structure as a
+ * {@link org.ow2.proactive_grid_cloud_portal.scheduler.dto.RestPage} of
+ * {@link org.ow2.proactive_grid_cloud_portal.scheduler.dto.TaskStateData}.
+ * <p>
+ * Each task is mapped and written as soon as it is reached, and the output is
+ * flushed after each page of tasks, so neither the whole list of data objects
+ * nor the whole JSON document is held in memory, whatever the number of tasks.
+ */
+public class TaskStatesStreamingOutput implements StreamingOutput {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    static {
+        AnnotationIntrospector introspector = new JaxbAnnotationIntrospector();
+        AnnotationIntrospector secondary = new JacksonAnnotationIntrospector();
+        mapper.setAnnotationIntrospector(new AnnotationIntrospector.Pair(introspector, secondary));
+        mapper.configure(SerializationConfig.Feature.FAIL_ON_EMPTY_BEANS, false);
+    }
+
+    private final List<TaskState> taskStates;
+
+    private final int pageSize;
+
+    public TaskStatesStreamingOutput(List<TaskState> taskStates, int pageSize) {
+        this.taskStates = taskStates;
+        this.pageSize = pageSize;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        JsonGenerator generator = mapper.getJsonFactory().createJsonGenerator(output, JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeNumberField("size", taskStates.size());
+        generator.writeArrayFieldStart("list");
+        int written = 0;
+        for (TaskState taskState : taskStates) {
+            generator.writeObject(SchedulerDataMapper.toTaskStateData(taskState));
+            if (++written % pageSize == 0) {
+                generator.flush();
+            }
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.flush();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.task.ParallelEnvironment;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+
+
+/**
+ * Maps the most frequently returned scheduler objects to their REST data
+ * objects with plain accessor calls.
+ * <p>
+ * The result is the same as the one of the Dozer mapping defined in
+ * <code>dozer-mappings.xml</code>, without the reflection cost, which matters
+ * for jobs with many tasks and for pages of jobs which are refreshed often.
+ * Any field added to the data objects must be added here as well.
+ */
+public class SchedulerDataMapper {
+
+    private SchedulerDataMapper() {
+    }
+
+    public static JobIdData toJobIdData(JobId jobId) {
+        if (jobId == null) {
+            return null;
+        }
+        JobIdData data = new JobIdData();
+        data.setId(jobId.longValue());
+        data.setReadableName(jobId.getReadableName());
+        return data;
+    }
+
+    public static TaskIdData toTaskIdData(TaskId taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        TaskIdData data = new TaskIdData();
+        data.setId(taskId.longValue());
+        data.setReadableName(taskId.getReadableName());
+        return data;
+    }
+
+    public static JobInfoData toJobInfoData(JobInfo jobInfo) {
+        if (jobInfo == null) {
+            return null;
+        }
+        JobInfoData data = new JobInfoData();
+        data.setJobId(toJobIdData(jobInfo.getJobId()));
+        data.setJobOwner(jobInfo.getJobOwner());
+        data.setStartTime(jobInfo.getStartTime());
+        data.setInErrorTime(jobInfo.getInErrorTime());
+        data.setFinishedTime(jobInfo.getFinishedTime());
+        data.setSubmittedTime(jobInfo.getSubmittedTime());
+        data.setRemovedTime(jobInfo.getRemovedTime());
+        if (jobInfo.getStatus() != null) {
+            data.setStatus(JobStatusData.valueOf(jobInfo.getStatus().name()));
+        }
+        if (jobInfo.getPriority() != null) {
+            data.setPriority(JobPriorityData.valueOf(jobInfo.getPriority().name()));
+        }
+        data.setTotalNumberOfTasks(jobInfo.getTotalNumberOfTasks());
+        data.setNumberOfPendingTasks(jobInfo.getNumberOfPendingTasks());
+        data.setNumberOfRunningTasks(jobInfo.getNumberOfRunningTasks());
+        data.setNumberOfFinishedTasks(jobInfo.getNumberOfFinishedTasks());
+        data.setNumberOfFailedTasks(jobInfo.getNumberOfFailedTasks());
+        data.setNumberOfFaultyTasks(jobInfo.getNumberOfFaultyTasks());
+        data.setNumberOfInErrorTasks(jobInfo.getNumberOfInErrorTasks());
+        if (jobInfo.isToBeRemoved()) {
+            data.setToBeRemoved();
+        }
+        data.setGenericInformation(copy(jobInfo.getGenericInformation()));
+        data.setVariables(copy(jobInfo.getVariables()));
+        return data;
+    }
+
+    public static TaskInfoData toTaskInfoData(TaskInfo taskInfo) {
+        if (taskInfo == null) {
+            return null;
+        }
+        TaskInfoData data = new TaskInfoData();
+        data.setJobId(toJobIdData(taskInfo.getJobId()));
+        data.setTaskId(toTaskIdData(taskInfo.getTaskId()));
+        data.setStartTime(taskInfo.getStartTime());
+        data.setFinishedTime(taskInfo.getFinishedTime());
+        data.setInErrorTime(taskInfo.getInErrorTime());
+        data.setScheduledTime(taskInfo.getScheduledTime());
+        data.setExecutionDuration(taskInfo.getExecutionDuration());
+        if (taskInfo.getStatus() != null) {
+            data.setTaskStatus(TaskStatusData.valueOf(taskInfo.getStatus().name()));
+        }
+        data.setExecutionHostName(taskInfo.getExecutionHostName());
+        data.setNumberOfExecutionLeft(taskInfo.getNumberOfExecutionLeft());
+        data.setNumberOfExecutionOnFailureLeft(taskInfo.getNumberOfExecutionOnFailureLeft());
+        data.setProgress(taskInfo.getProgress());
+        return data;
+    }
+
+    public static TaskStateData toTaskStateData(TaskState taskState) {
+        if (taskState == null) {
+            return null;
+        }
+        TaskStateData data = new TaskStateData();
+        data.setName(taskState.getName());
+        data.setDescription(taskState.getDescription());
+        data.setTag(taskState.getTag());
+        data.setIterationIndex(taskState.getIterationIndex());
+        data.setReplicationIndex(taskState.getReplicationIndex());
+        data.setMaxNumberOfExecution(taskState.getMaxNumberOfExecution());
+        data.setMaxNumberOfExecutionOnFailure(taskState.getMaxNumberOfExecutionOnFailure());
+        data.setTaskInfo(toTaskInfoData(taskState.getTaskInfo()));
+        ParallelEnvironment parallelEnvironment = taskState.getParallelEnvironment();
+        if (parallelEnvironment != null) {
+            ParallelEnvironmentData parallelEnvironmentData = new ParallelEnvironmentData();
+            parallelEnvironmentData.setNodesNumber(parallelEnvironment.getNodesNumber());
+            data.setParallelEnvironment(parallelEnvironmentData);
+        }
+        data.setGenericInformation(copy(taskState.getGenericInformation()));
+        return data;
+    }
+
+    public static List<TaskStateData> toTaskStateData(List<TaskState> taskStates) {
+        List<TaskStateData> result = new ArrayList<>(taskStates.size());
+        for (TaskState taskState : taskStates) {
+            result.add(toTaskStateData(taskState));
+        }
+        return result;
+    }
+
+    private static Map<String, String> copy(Map<String, String> map) {
+        return map == null ? null : new HashMap<>(map);
+    }
+}
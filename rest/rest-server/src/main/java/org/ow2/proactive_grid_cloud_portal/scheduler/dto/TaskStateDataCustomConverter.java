@@ -56,7 +56,7 @@ public class TaskStateDataCustomConverter extends DozerConverter<Map, Map> imple
 
         Map<String, TaskStateData> converted = new HashMap<>();
         for (Map.Entry<TaskId, TaskState> entry : ((Map<TaskId, TaskState>) source).entrySet()) {
-            converted.put(entry.getKey().value(), mapper.map(entry.getValue(), TaskStateData.class));
+            converted.put(entry.getKey().value(), SchedulerDataMapper.toTaskStateData(entry.getValue()));
         }
         return converted;
     }
@@ -47,6 +47,8 @@ public enum PortalConfiguration implements PACommonProperties {
 
     SCHEDULER_CACHE_CREDENTIALS("scheduler.cache.credential", PropertyType.STRING),
 
+    SCHEDULER_CACHE_CHANGES_CAPACITY("scheduler.cache.changes.capacity", PropertyType.INTEGER, "10000"),
+
     SCHEDULER_LOGINFORWARDINGSERVICE_PROVIDER(
             "scheduler.logforwardingservice.provider",
             PropertyType.STRING,
@@ -62,6 +64,8 @@ public enum PortalConfiguration implements PACommonProperties {
 
     RM_CACHE_REFRESHRATE("rm.cache.refreshrate", PropertyType.INTEGER, "3500"),
 
+    SESSIONS_CONNECTIONS_SHARED("sessions.connections.shared", PropertyType.BOOLEAN, "false"),
+
     NOVNC_ENABLED("novnc.enabled", PropertyType.BOOLEAN, "false"),
 
     NOVNC_PORT("novnc.port", PropertyType.INTEGER, "5900"),
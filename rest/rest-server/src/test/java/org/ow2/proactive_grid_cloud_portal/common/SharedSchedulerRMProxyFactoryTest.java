@@ -0,0 +1,297 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.common;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.login.LoginException;
+
+import org.apache.log4j.Logger;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.common.util.RMProxyUserInterface;
+import org.ow2.proactive.scheduler.common.exception.PermissionException;
+import org.ow2.proactive.scheduler.common.util.SchedulerProxyUserInterface;
+import org.ow2.proactive_grid_cloud_portal.scheduler.exception.PermissionRestException;
+
+
+public class SharedSchedulerRMProxyFactoryTest {
+
+    private static final Logger logger = Logger.getLogger(SharedSchedulerRMProxyFactoryTest.class);
+
+    private static final String BENCHMARK_USERS_PROPERTY = "pa.rest.sessions.benchmark.users";
+
+    private SchedulerRMProxyFactory exclusiveFactory;
+
+    private SharedSchedulerRMProxyFactory sharedFactory;
+
+    private Clock clock;
+
+    @Before
+    public void setUp() throws Exception {
+        exclusiveFactory = mock(SchedulerRMProxyFactory.class);
+        when(exclusiveFactory.connectToScheduler(Matchers.<CredData> any())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                CredData credData = (CredData) invocation.getArguments()[0];
+                if ("wrong".equals(credData.getPassword())) {
+                    throw new LoginException("Authentication failed");
+                }
+                return mock(SchedulerProxyUserInterface.class);
+            }
+        });
+        when(exclusiveFactory.connectToRM(Matchers.<CredData> any())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return mock(RMProxyUserInterface.class);
+            }
+        });
+        sharedFactory = new SharedSchedulerRMProxyFactory(exclusiveFactory);
+        clock = new Clock();
+    }
+
+    @Test
+    public void testSessionsWithSameCredentialsShareConnection() throws Exception {
+        Session session1 = login("user", "pwd");
+        Session session2 = login("user", "pwd");
+
+        assertThat(session1.getScheduler()).isSameAs(session2.getScheduler());
+        assertThat(session1.getRM()).isSameAs(session2.getRM());
+        verify(exclusiveFactory, times(1)).connectToScheduler(Matchers.<CredData> any());
+        verify(exclusiveFactory, times(1)).connectToRM(Matchers.<CredData> any());
+        assertThat(sharedFactory.getConnectionsCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSessionsWithOtherCredentialsDoNotShareConnection() throws Exception {
+        Session session1 = login("user", "pwd");
+        Session session2 = login("user", "other");
+        Session session3 = login("admin", "pwd");
+
+        assertThat(session1.getScheduler()).isNotSameAs(session2.getScheduler());
+        assertThat(session1.getScheduler()).isNotSameAs(session3.getScheduler());
+        verify(exclusiveFactory, times(3)).connectToScheduler(Matchers.<CredData> any());
+    }
+
+    @Test
+    public void testFailedLoginIsNotShared() throws Exception {
+        try {
+            login("user", "wrong");
+        } catch (LoginException expected) {
+            // authentication failed
+        }
+
+        assertThat(sharedFactory.getConnectionsCount()).isEqualTo(0);
+        try {
+            login("user", "wrong");
+        } catch (LoginException expected) {
+            // each login is checked by the scheduler
+        }
+        verify(exclusiveFactory, times(2)).connectToScheduler(Matchers.<CredData> any());
+    }
+
+    @Test
+    public void testEachLoginSharingAConnectionIsAuthenticated() throws Exception {
+        Session session1 = login("user", "pwd");
+        SchedulerProxyUserInterface scheduler = session1.getScheduler();
+        doThrow(new LoginException("Account disabled")).when(exclusiveFactory)
+                                                        .authenticateToScheduler(Matchers.<CredData> any());
+
+        try {
+            login("user", "pwd");
+            fail("the login should be refused although the connection is shared");
+        } catch (LoginException expected) {
+            // the account was disabled after the first login
+        }
+
+        verify(exclusiveFactory, times(1)).connectToScheduler(Matchers.<CredData> any());
+        session1.terminate();
+        verify(scheduler).disconnect();
+        verify(exclusiveFactory).release(scheduler);
+    }
+
+    @Test
+    public void testEncryptedCredentialsAreSharedByTheirDecryptedContent() throws Exception {
+        Credentials credentials1 = mock(Credentials.class);
+        Credentials credentials2 = mock(Credentials.class);
+        Credentials credentials3 = mock(Credentials.class);
+        when(exclusiveFactory.decryptSchedulerCredentials(credentials1)).thenReturn(new CredData("user", "pwd"));
+        when(exclusiveFactory.decryptSchedulerCredentials(credentials2)).thenReturn(new CredData("user", "pwd"));
+        when(exclusiveFactory.decryptSchedulerCredentials(credentials3)).thenReturn(new CredData("user", "other"));
+        when(exclusiveFactory.connectToScheduler(Matchers.<Credentials> any())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                return mock(SchedulerProxyUserInterface.class);
+            }
+        });
+
+        SchedulerProxyUserInterface scheduler1 = sharedFactory.connectToScheduler(credentials1);
+        SchedulerProxyUserInterface scheduler2 = sharedFactory.connectToScheduler(credentials2);
+        SchedulerProxyUserInterface scheduler3 = sharedFactory.connectToScheduler(credentials3);
+
+        assertThat(scheduler2).isSameAs(scheduler1);
+        assertThat(scheduler3).isNotSameAs(scheduler1);
+        verify(exclusiveFactory, times(2)).connectToScheduler(Matchers.<Credentials> any());
+        verify(exclusiveFactory).authenticateToScheduler(credentials2);
+    }
+
+    @Test
+    public void testConnectionIsReleasedWithItsLastSession() throws Exception {
+        Session session1 = login("user", "pwd");
+        Session session2 = login("user", "pwd");
+        SchedulerProxyUserInterface scheduler = session1.getScheduler();
+
+        session1.terminate();
+        verify(exclusiveFactory, never()).release(scheduler);
+        verify(scheduler, never()).disconnect();
+
+        session2.terminate();
+        verify(scheduler).disconnect();
+        verify(exclusiveFactory).release(scheduler);
+        assertThat(sharedFactory.getConnectionsCount()).isEqualTo(0);
+
+        login("user", "pwd");
+        verify(exclusiveFactory, times(2)).connectToScheduler(Matchers.<CredData> any());
+    }
+
+    @Test
+    public void testExclusiveSchedulerForEventListeners() throws Exception {
+        when(exclusiveFactory.exclusive()).thenReturn(exclusiveFactory);
+        Session session1 = login("user", "pwd");
+        Session session2 = login("user", "pwd");
+        SchedulerProxyUserInterface sharedScheduler = session1.getScheduler();
+
+        SchedulerProxyUserInterface exclusiveScheduler = session1.getExclusiveScheduler();
+
+        assertThat(exclusiveScheduler).isNotSameAs(sharedScheduler);
+        assertThat(session1.getExclusiveScheduler()).isSameAs(exclusiveScheduler);
+        assertThat(session2.getScheduler()).isSameAs(sharedScheduler);
+
+        session1.terminate();
+        verify(exclusiveFactory).release(exclusiveScheduler);
+        verify(exclusiveFactory, never()).release(sharedScheduler);
+    }
+
+    @Test
+    public void testFailedExclusiveConnectionReleasesTheSharedOne() throws Exception {
+        Session session = login("user", "pwd");
+        SchedulerProxyUserInterface sharedScheduler = session.getScheduler();
+        doThrow(new PermissionException("denied")).when(exclusiveFactory)
+                                                  .connectToScheduler(Matchers.<CredData> any());
+
+        try {
+            session.getExclusiveScheduler();
+            fail("the permission error should be propagated");
+        } catch (PermissionRestException expected) {
+            // the user is not allowed to connect anymore
+        }
+
+        verify(exclusiveFactory).release(sharedScheduler);
+        assertThat(sharedFactory.getConnectionsCount()).isEqualTo(0);
+    }
+
+    /**
+     * Measures the time taken by many sessions to log in concurrently. Only runs when the
+     * number of users is given by the pa.rest.sessions.benchmark.users system property (e.g. 20).
+     */
+    @Test
+    public void benchmarkLogins() throws Exception {
+        int users = Integer.getInteger(BENCHMARK_USERS_PROPERTY, 0);
+        Assume.assumeTrue(users > 0);
+        int sessionsPerUser = 100;
+        final long connectionTime = 5;
+        final AtomicInteger activeObjects = new AtomicInteger();
+        when(exclusiveFactory.connectToScheduler(Matchers.<CredData> any())).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                // creation of the active object and login
+                Thread.sleep(connectionTime);
+                activeObjects.incrementAndGet();
+                return mock(SchedulerProxyUserInterface.class);
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(50);
+        try {
+            List<Callable<Session>> logins = new ArrayList<>(users * sessionsPerUser);
+            for (int i = 0; i < users; i++) {
+                final String user = "user" + i;
+                for (int j = 0; j < sessionsPerUser; j++) {
+                    logins.add(new Callable<Session>() {
+                        @Override
+                        public Session call() throws Exception {
+                            return login(user, "pwd");
+                        }
+                    });
+                }
+            }
+
+            long start = System.nanoTime();
+            for (Future<Session> session : executor.invokeAll(logins)) {
+                assertThat(session.get().getScheduler()).isNotNull();
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            logger.info(String.format("%d sessions of %d users logged in in %d ms using %d active objects (%d without sharing)",
+                                      users * sessionsPerUser,
+                                      users,
+                                      elapsed,
+                                      activeObjects.get(),
+                                      users * sessionsPerUser));
+            assertThat(activeObjects.get()).isEqualTo(users);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Session login(String user, String password) throws Exception {
+        Session session = new Session(SessionIdGenerator.newSessionId(), sharedFactory, clock);
+        session.connectToScheduler(new CredData(user, password));
+        return session;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.dataspace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.VFS;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit tests related to {@link ChunkedUploads} and to the byte ranges served by
+ * {@link RestDataspaceImpl}.
+ */
+public class ChunkedUploadsTest {
+
+    private static final String UPLOAD_ID = "upload-1";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File targetFile;
+
+    private FileObject target;
+
+    @Before
+    public void setUp() throws IOException {
+        targetFile = new File(temporaryFolder.newFolder(), "target.bin");
+        target = VFS.getManager().resolveFile(targetFile.toURI().toString());
+    }
+
+    @Test
+    public void testChunksReceivedOutOfOrderAreAssembled() throws IOException {
+        storePart(6, "world!");
+        storePart(0, "hello ");
+
+        assertThat(ChunkedUploads.listParts(target, UPLOAD_ID)).containsExactly(0L, 6L).inOrder();
+
+        ChunkedUploads.assemble(target, UPLOAD_ID, 12);
+
+        String content = new String(Files.readAllBytes(targetFile.toPath()), StandardCharsets.UTF_8);
+        assertThat(content).isEqualTo("hello world!");
+        assertThat(ChunkedUploads.listParts(target, UPLOAD_ID)).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAssembleFailsWhenAChunkIsMissing() throws IOException {
+        storePart(6, "world!");
+
+        ChunkedUploads.assemble(target, UPLOAD_ID, 12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAssembleFailsWhenLengthDoesNotMatch() throws IOException {
+        storePart(0, "hello ");
+
+        ChunkedUploads.assemble(target, UPLOAD_ID, 12);
+    }
+
+    @Test
+    public void testAbortRemovesStoredChunks() throws IOException {
+        storePart(0, "hello ");
+
+        ChunkedUploads.abort(target, UPLOAD_ID);
+
+        assertThat(ChunkedUploads.listParts(target, UPLOAD_ID)).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUploadIdCannotEscapeTargetFolder() throws IOException {
+        ChunkedUploads.listParts(target, "../../etc");
+    }
+
+    @Test
+    public void testParseRange() {
+        assertRange("bytes=0-99", 0, 99);
+        assertRange("bytes=900-", 900, 999);
+        assertRange("bytes=-100", 900, 999);
+        assertRange("bytes=900-5000", 900, 999);
+        assertThat(RestDataspaceImpl.parseRange("bytes=1000-", 1000)).isNull();
+        assertThat(RestDataspaceImpl.parseRange("bytes=0-1,5-6", 1000)).isNull();
+        assertThat(RestDataspaceImpl.parseRange("items=0-1", 1000)).isNull();
+    }
+
+    private void assertRange(String range, long first, long last) {
+        long[] bounds = RestDataspaceImpl.parseRange(range, 1000);
+        assertThat(bounds[0]).isEqualTo(first);
+        assertThat(bounds[1]).isEqualTo(last);
+    }
+
+    private void storePart(long offset, String content) throws IOException {
+        ChunkedUploads.storePart(target,
+                                 UPLOAD_ID,
+                                 offset,
+                                 new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
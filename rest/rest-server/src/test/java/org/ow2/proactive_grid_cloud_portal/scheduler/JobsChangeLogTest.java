@@ -0,0 +1,146 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+
+
+public class JobsChangeLogTest {
+
+    private AtomicLong revision;
+
+    private JobsChangeLog changeLog;
+
+    @Before
+    public void setUp() {
+        revision = new AtomicLong(-1);
+        changeLog = new JobsChangeLog(revision, 5);
+    }
+
+    @Test
+    public void testOnlyLatestChangeOfAJobIsReturned() {
+        changeLog.jobUpdated(jobInfo("1", "alice"));
+        long sinceRevision = revision.get();
+        changeLog.jobUpdated(jobInfo("2", "bob"));
+        changeLog.jobUpdated(jobInfo("1", "alice"));
+
+        JobsChangeLog.Changes changes = changeLog.changesSince(sinceRevision, null);
+
+        assertThat(changes.isComplete()).isTrue();
+        assertThat(changes.getRevision()).isEqualTo(revision.get());
+        assertThat(jobIds(changes)).containsExactly("2", "1").inOrder();
+        assertThat(changes.getChanges().get(1).getRevision()).isEqualTo(revision.get());
+    }
+
+    @Test
+    public void testChangesAreFilteredOnOwner() {
+        changeLog.jobUpdated(jobInfo("1", "alice"));
+        changeLog.jobUpdated(jobInfo("2", "bob"));
+        changeLog.taskUpdated(taskInfo("2", "A"));
+
+        JobsChangeLog.Changes changes = changeLog.changesSince(-1, "bob");
+
+        assertThat(changes.getChanges()).hasSize(2);
+        assertThat(changes.getChanges().get(1).getTaskId().getReadableName()).isEqualTo("A");
+    }
+
+    @Test
+    public void testRemovedJobIsATombstoneHidingItsTasks() {
+        changeLog.jobUpdated(jobInfo("1", "alice"));
+        changeLog.taskUpdated(taskInfo("1", "A"));
+        changeLog.jobRemoved(JobIdImpl.makeJobId("1"));
+
+        JobsChangeLog.Changes changes = changeLog.changesSince(-1, "alice");
+
+        assertThat(changes.getChanges()).hasSize(1);
+        assertThat(changes.getChanges().get(0).isRemoved()).isTrue();
+        assertThat(changes.getChanges().get(0).getJobInfo()).isNull();
+    }
+
+    @Test
+    public void testChangesOlderThanTheLogAreIncomplete() {
+        for (int i = 0; i < 10; i++) {
+            changeLog.jobUpdated(jobInfo(Integer.toString(i), "alice"));
+        }
+
+        assertThat(changeLog.changesSince(-1, null).isComplete()).isFalse();
+        assertThat(changeLog.changesSince(revision.get() + 1, null).isComplete()).isFalse();
+
+        JobsChangeLog.Changes changes = changeLog.changesSince(revision.get() - 5, null);
+        assertThat(changes.isComplete()).isTrue();
+        assertThat(changes.getChanges()).hasSize(5);
+    }
+
+    @Test
+    public void testEvictedJobsAreForgotten() {
+        for (int i = 0; i < 10; i++) {
+            changeLog.jobUpdated(jobInfo(Integer.toString(i), "alice"));
+            changeLog.taskUpdated(taskInfo(Integer.toString(i), "A"));
+        }
+
+        // the log holds the changes of the last jobs and tasks only
+        assertThat(changeLog.getTrackedJobsCount()).isEqualTo(3);
+    }
+
+    private List<String> jobIds(JobsChangeLog.Changes changes) {
+        List<String> jobIds = new ArrayList<>();
+        for (JobsChangeLog.Change change : changes.getChanges()) {
+            jobIds.add(change.getJobId().value());
+        }
+        return jobIds;
+    }
+
+    private JobInfo jobInfo(String jobId, String owner) {
+        JobInfo jobInfo = mock(JobInfo.class);
+        when(jobInfo.getJobId()).thenReturn(JobIdImpl.makeJobId(jobId));
+        when(jobInfo.getJobOwner()).thenReturn(owner);
+        return jobInfo;
+    }
+
+    private TaskInfo taskInfo(String jobId, String taskName) {
+        JobId id = JobIdImpl.makeJobId(jobId);
+        TaskId taskId = TaskIdImpl.createTaskId(id, taskName, 0);
+        TaskInfo taskInfo = mock(TaskInfo.class);
+        when(taskInfo.getJobId()).thenReturn(id);
+        when(taskInfo.getTaskId()).thenReturn(taskId);
+        return taskInfo;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive_grid_cloud_portal.scheduler.dto;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.dozer.DozerBeanMapper;
+import org.dozer.Mapper;
+import org.junit.Assume;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.ParallelEnvironment;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskInfoImpl;
+import org.ow2.proactive_grid_cloud_portal.scheduler.TaskStatesStreamingOutput;
+import org.ow2.proactive_grid_cloud_portal.webapp.JacksonProvider;
+
+
+/**
+ * Checks that {@link SchedulerDataMapper} gives the same data objects as the Dozer mapping.
+ */
+public class SchedulerDataMapperTest {
+
+    private static final Logger logger = Logger.getLogger(SchedulerDataMapperTest.class);
+
+    private static final String BENCHMARK_MAPPINGS_PROPERTY = "pa.rest.mapper.benchmark.mappings";
+
+    private final Mapper dozerMapper = new DozerBeanMapper(Collections.singletonList("org/ow2/proactive_grid_cloud_portal/scheduler/dozer-mappings.xml"));
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+
+    @Test
+    public void testJobInfoMappingIsTheSameAsDozer() throws Exception {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(new JobIdImpl(42, "job"));
+        jobInfo.setJobOwner("admin");
+        jobInfo.setStatus(JobStatus.RUNNING);
+        jobInfo.setPriority(JobPriority.HIGH);
+        jobInfo.setStartTime(10);
+        jobInfo.setSubmittedTime(5);
+        jobInfo.setTotalNumberOfTasks(3);
+        jobInfo.setNumberOfRunningTasks(2);
+        jobInfo.setNumberOfPendingTasks(1);
+        jobInfo.setGenericInformation(Collections.singletonMap("key", "value"));
+        jobInfo.setVariables(Collections.singletonMap("variable", "value"));
+
+        assertSameJson(dozerMapper.map(jobInfo, JobInfoData.class), SchedulerDataMapper.toJobInfoData(jobInfo));
+    }
+
+    @Test
+    public void testTaskStateMappingIsTheSameAsDozer() throws Exception {
+        TaskState taskState = createTaskState();
+
+        assertSameJson(dozerMapper.map(taskState, TaskStateData.class),
+                       SchedulerDataMapper.toTaskStateData(taskState));
+    }
+
+    @Test
+    public void testStreamedTaskStatesAreTheSameAsThePage() throws Exception {
+        List<TaskState> taskStates = Collections.nCopies(3, createTaskState());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new TaskStatesStreamingOutput(taskStates, 2).write(output);
+
+        // the page is serialized the way the REST server does it
+        ObjectMapper restMapper = new JacksonProvider().getContext(RestPage.class);
+        RestPage<TaskStateData> page = new RestPage<>(SchedulerDataMapper.toTaskStateData(taskStates), 3);
+        assertThat(restMapper.readTree(output.toByteArray())).isEqualTo(restMapper.valueToTree(page));
+    }
+
+    /**
+     * Compares the time spent to map task states with Dozer and with {@link SchedulerDataMapper}.
+     * Only runs when the number of mappings is given by the pa.rest.mapper.benchmark.mappings
+     * system property (e.g. 100000).
+     */
+    @Test
+    public void benchmarkTaskStateMapping() throws Exception {
+        int mappings = Integer.getInteger(BENCHMARK_MAPPINGS_PROPERTY, 0);
+        Assume.assumeTrue(mappings > 0);
+        TaskState taskState = createTaskState();
+
+        // warm up both mappings before measuring them
+        for (int i = 0; i < Math.min(mappings, 10000); i++) {
+            dozerMapper.map(taskState, TaskStateData.class);
+            SchedulerDataMapper.toTaskStateData(taskState);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < mappings; i++) {
+            dozerMapper.map(taskState, TaskStateData.class);
+        }
+        long dozerElapsed = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < mappings; i++) {
+            SchedulerDataMapper.toTaskStateData(taskState);
+        }
+        long mapperElapsed = System.nanoTime() - start;
+
+        logger.info(String.format("%d task state mappings: Dozer in %d ms (%d ns per mapping), " +
+                                  "SchedulerDataMapper in %d ms (%d ns per mapping)",
+                                  mappings,
+                                  TimeUnit.NANOSECONDS.toMillis(dozerElapsed),
+                                  dozerElapsed / mappings,
+                                  TimeUnit.NANOSECONDS.toMillis(mapperElapsed),
+                                  mapperElapsed / mappings));
+        assertSameJson(dozerMapper.map(taskState, TaskStateData.class),
+                       SchedulerDataMapper.toTaskStateData(taskState));
+    }
+
+    private void assertSameJson(Object expected, Object actual) {
+        JsonNode expectedJson = jsonMapper.valueToTree(expected);
+        JsonNode actualJson = jsonMapper.valueToTree(actual);
+        assertThat(actualJson).isEqualTo(expectedJson);
+    }
+
+    private TaskState createTaskState() {
+        final TaskInfoImpl taskInfo = new TaskInfoImpl();
+        taskInfo.setJobId(new JobIdImpl(42, "job"));
+        taskInfo.setTaskId(TaskIdImpl.createTaskId(new JobIdImpl(42, "job"), "task", 1));
+        taskInfo.setStatus(TaskStatus.RUNNING);
+        taskInfo.setStartTime(10);
+        taskInfo.setExecutionHostName("host");
+        taskInfo.setNumberOfExecutionLeft(2);
+        taskInfo.setProgress(50);
+
+        TaskState taskState = new TaskState() {
+            @Override
+            public void update(TaskInfo taskInfo) {
+            }
+
+            @Override
+            public List<TaskState> getDependences() {
+                return null;
+            }
+
+            @Override
+            public TaskInfo getTaskInfo() {
+                return taskInfo;
+            }
+
+            @Override
+            public int getMaxNumberOfExecutionOnFailure() {
+                return 1;
+            }
+
+            @Override
+            public TaskState replicate() throws Exception {
+                return null;
+            }
+
+            @Override
+            public int getIterationIndex() {
+                return 0;
+            }
+
+            @Override
+            public int getReplicationIndex() {
+                return 0;
+            }
+        };
+        taskState.setName("task");
+        taskState.setDescription("description");
+        taskState.setTag("tag");
+        taskState.setMaxNumberOfExecution(2);
+        taskState.setParallelEnvironment(new ParallelEnvironment(4));
+        taskState.setGenericInformation(Collections.singletonMap("key", "value"));
+        return taskState;
+    }
+}
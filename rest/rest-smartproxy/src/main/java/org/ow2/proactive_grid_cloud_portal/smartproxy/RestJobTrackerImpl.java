@@ -25,7 +25,6 @@
  */
 package org.ow2.proactive_grid_cloud_portal.smartproxy;
 
-import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -111,12 +110,6 @@ public class RestJobTrackerImpl extends JobTracker {
         }
 
         jobDatabase.removeAwaitedJob(id);
-
-        try {
-            jobDatabase.commit();
-        } catch (IOException e) {
-            logger.error("Could not save status file after removing job " + id, e);
-        }
     }
 
     @Override
@@ -154,13 +147,7 @@ public class RestJobTrackerImpl extends JobTracker {
             removeAwaitedJob(id);
             return;
         } else {
-            jobDatabase.putAwaitedJob(id, awaitedJob); // this is done to ensure persistence of the operation
-        }
-
-        try {
-            jobDatabase.commit();
-        } catch (IOException e) {
-            logger.error("Could not save status file after removing task Task " + taskName + " from Job" + id, e);
+            jobDatabase.removeAwaitedTask(id, taskName);
         }
     }
 
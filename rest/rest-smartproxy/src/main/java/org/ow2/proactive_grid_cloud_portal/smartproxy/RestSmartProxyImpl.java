@@ -645,6 +645,16 @@ public class RestSmartProxyImpl extends AbstractSmartProxy<RestJobTrackerImpl>
         return ((ISchedulerClient) _getScheduler()).getCurrentUserData();
     }
 
+    @Override
+    public List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        return _getScheduler().getJobsInfoList(jobIds);
+    }
+
+    @Override
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        return _getScheduler().canHandleOtherUsersJobs();
+    }
+
     @Override
     public Map<String, Object> getSchedulerProperties() throws NotConnectedException, PermissionException {
         return ((ISchedulerClient) _getScheduler()).getSchedulerProperties();
@@ -26,6 +26,8 @@
 package org.ow2.proactive.resourcemanager.common;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -49,9 +51,25 @@ public class RMState implements Serializable {
 
     private final Long maxNumberOfNodes;
 
+    /** host of each free node whose host memory is known */
+    private final Map<String, String> freeNodesHosts;
+
+    /** memory not reserved yet on each host, in bytes */
+    private final Map<String, Long> hostsAvailableMemory;
+
+    /** memory reserved through this state on each node, in bytes */
+    private final Map<String, Long> memoryReservations = new HashMap<>();
+
     public RMState(RMStateNodeUrls rmNodeUrls, Long maxNumberOfNodes) {
+        this(rmNodeUrls, maxNumberOfNodes, new HashMap<String, String>(), new HashMap<String, Long>());
+    }
+
+    public RMState(RMStateNodeUrls rmNodeUrls, Long maxNumberOfNodes, Map<String, String> freeNodesHosts,
+            Map<String, Long> hostsAvailableMemory) {
         this.rmNodeUrls = rmNodeUrls;
         this.maxNumberOfNodes = maxNumberOfNodes;
+        this.freeNodesHosts = freeNodesHosts;
+        this.hostsAvailableMemory = hostsAvailableMemory;
     }
 
     public Long getMaxNumberOfNodes() {
@@ -125,4 +143,44 @@ public class RMState implements Serializable {
         return getRmNodeUrls().getAllNodesUrls();
     }
 
+    /**
+     * Returns the memory available on the host of a free node, i.e. the memory of the host
+     * reported by its nodes minus the memory reserved on the nodes of this host.
+     *
+     * @param nodeUrl the url of a free node
+     * @return the available memory in bytes, or -1 if it is unknown
+     */
+    public synchronized long getAvailableMemory(String nodeUrl) {
+        String host = freeNodesHosts.get(nodeUrl);
+        Long available = host == null ? null : hostsAvailableMemory.get(host);
+        return available == null ? -1 : available;
+    }
+
+    /**
+     * Reserves memory on a free node. The reservation is deducted from the memory available on
+     * the host of the node in this state. It has to be sent to the resource manager, which
+     * keeps it until the node is released, see {@link #getMemoryReservations()}.
+     *
+     * @param nodeUrl the url of a free node
+     * @param bytes the memory to reserve
+     * @return true if the memory has been reserved, false if it is not available
+     */
+    public synchronized boolean reserveMemory(String nodeUrl, long bytes) {
+        long available = getAvailableMemory(nodeUrl);
+        if (available < bytes) {
+            return false;
+        }
+        hostsAvailableMemory.put(freeNodesHosts.get(nodeUrl), available - bytes);
+        Long reserved = memoryReservations.get(nodeUrl);
+        memoryReservations.put(nodeUrl, reserved == null ? bytes : reserved + bytes);
+        return true;
+    }
+
+    /**
+     * @return the memory reserved through this state, in bytes by node url
+     */
+    public synchronized Map<String, Long> getMemoryReservations() {
+        return new HashMap<>(memoryReservations);
+    }
+
 }
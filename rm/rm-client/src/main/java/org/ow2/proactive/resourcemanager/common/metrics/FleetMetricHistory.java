@@ -0,0 +1,108 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.metrics;
+
+import java.io.Serializable;
+
+import org.objectweb.proactive.annotation.PublicAPI;
+
+
+/**
+ * History of a metric over all the hosts of the resource manager.
+ * <p>
+ * Values are aggregated by time steps, the arrays are indexed by step and only
+ * contain the steps for which samples were received.
+ */
+@PublicAPI
+public class FleetMetricHistory implements Serializable {
+
+    private String metric;
+
+    private long step;
+
+    private long[] times;
+
+    private double[] averages;
+
+    private double[] maximums;
+
+    private int[] samples;
+
+    /**
+     * ProActive Empty constructor.
+     */
+    public FleetMetricHistory() {
+    }
+
+    public FleetMetricHistory(String metric, long step, long[] times, double[] averages, double[] maximums,
+            int[] samples) {
+        this.metric = metric;
+        this.step = step;
+        this.times = times;
+        this.averages = averages;
+        this.maximums = maximums;
+        this.samples = samples;
+    }
+
+    public String getMetric() {
+        return metric;
+    }
+
+    /**
+     * @return the duration of a step, in milliseconds
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @return the start time of each step, in milliseconds
+     */
+    public long[] getTimes() {
+        return times;
+    }
+
+    /**
+     * @return the average value of the metric over the samples of each step
+     */
+    public double[] getAverages() {
+        return averages;
+    }
+
+    /**
+     * @return the maximum value of the metric over the samples of each step
+     */
+    public double[] getMaximums() {
+        return maximums;
+    }
+
+    /**
+     * @return the number of samples received during each step
+     */
+    public int[] getSamples() {
+        return samples;
+    }
+}
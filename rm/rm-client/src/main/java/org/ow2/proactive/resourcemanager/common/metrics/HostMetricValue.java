@@ -0,0 +1,76 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.metrics;
+
+import java.io.Serializable;
+
+import org.objectweb.proactive.annotation.PublicAPI;
+
+
+/**
+ * Latest value of a metric pushed by the nodes of a host.
+ */
+@PublicAPI
+public class HostMetricValue implements Serializable {
+
+    private String hostName;
+
+    private double value;
+
+    private long time;
+
+    /**
+     * ProActive Empty constructor.
+     */
+    public HostMetricValue() {
+    }
+
+    public HostMetricValue(String hostName, double value, long time) {
+        this.hostName = hostName;
+        this.value = value;
+        this.time = time;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return the time of the last sample received from the host, in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    @Override
+    public String toString() {
+        return hostName + "=" + value;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.common.metrics;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.objectweb.proactive.annotation.PublicAPI;
+
+
+/**
+ * Values of the metrics of a host, pushed by its nodes to the resource manager.
+ * <p>
+ * A full sample contains all the metrics of the host. Other samples only contain
+ * the metrics whose value changed since the previous sample sent by the node, the
+ * other metrics keeping their previous value.
+ */
+@PublicAPI
+public class NodeMetricsSample implements Serializable {
+
+    private String hostName;
+
+    private long time;
+
+    private boolean full;
+
+    private Map<String, Double> values;
+
+    /**
+     * ProActive Empty constructor.
+     */
+    public NodeMetricsSample() {
+    }
+
+    public NodeMetricsSample(String hostName, long time, boolean full, Map<String, Double> values) {
+        this.hostName = hostName;
+        this.time = time;
+        this.full = full;
+        this.values = new HashMap<>(values);
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    /**
+     * @return the time of the sample, in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return true if the sample contains all the metrics of the host
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * @return the values of the metrics, by metric name
+     */
+    public Map<String, Double> getValues() {
+        return values;
+    }
+}
@@ -28,6 +28,7 @@ package org.ow2.proactive.resourcemanager.common.util;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.management.Attribute;
@@ -51,6 +52,9 @@ import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
+import org.ow2.proactive.resourcemanager.common.metrics.NodeMetricsSample;
 import org.ow2.proactive.resourcemanager.frontend.RMMonitoring;
 import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
 import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
@@ -212,6 +216,31 @@ public class RMProxyUserInterface extends RMListenerProxy implements ResourceMan
         return target.setNodesAvailable(nodeUrls);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @ImmediateService
+    @Override
+    public BooleanWrapper pushNodeMetrics(NodeMetricsSample sample) {
+        return target.pushNodeMetrics(sample);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<HostMetricValue> getTopHostsByMetric(String metric, int count) {
+        return target.getTopHostsByMetric(metric, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FleetMetricHistory getFleetMetricHistory(String metric, long range) {
+        return target.getFleetMetricHistory(metric, range);
+    }
+
     /**
      * @see org.ow2.proactive.resourcemanager.frontend.ResourceManager#releaseNode(org.objectweb.proactive.core.node.Node)
      */
@@ -226,6 +255,14 @@ public class RMProxyUserInterface extends RMListenerProxy implements ResourceMan
         return target.releaseNodes(arg0);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BooleanWrapper reserveNodesMemory(Map<String, Long> memoryByNodeUrl) {
+        return target.reserveNodesMemory(memoryByNodeUrl);
+    }
+
     /**
      * @see org.ow2.proactive.resourcemanager.frontend.ResourceManager#removeNode(java.lang.String, boolean)
      */
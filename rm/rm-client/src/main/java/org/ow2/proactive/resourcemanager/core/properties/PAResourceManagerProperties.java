@@ -59,6 +59,15 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Ping frequency in ms used by node source for keeping a watch on handled nodes */
     RM_NODE_SOURCE_PING_FREQUENCY("pa.rm.node.source.ping.frequency", PropertyType.INTEGER, "45000"),
 
+    /** Frequency in ms at which node sources check the heartbeats received from their nodes */
+    RM_NODE_FAILURE_DETECTOR_CHECK_FREQUENCY("pa.rm.node.failure.detector.check.frequency", PropertyType.INTEGER, "5000"),
+
+    /** Suspicion level (phi) above which a node whose heartbeats are late is pinged to check if it is down */
+    RM_NODE_FAILURE_DETECTOR_PHI_THRESHOLD("pa.rm.node.failure.detector.phi.threshold", PropertyType.INTEGER, "8"),
+
+    /** Number of heartbeat intervals per node used to estimate the suspicion level */
+    RM_NODE_FAILURE_DETECTOR_WINDOW_SIZE("pa.rm.node.failure.detector.window.size", PropertyType.INTEGER, "100"),
+
     /** Ping frequency used by resource manager to ping connected clients (in ms) */
     RM_CLIENT_PING_FREQUENCY("pa.rm.client.ping.frequency", PropertyType.INTEGER, "45000"),
 
@@ -147,6 +156,21 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** RRD data base step in seconds */
     RM_RRD_STEP("pa.rm.jmx.rrd.step", PropertyType.INTEGER, "4"),
 
+    /** If true, nodes push the metrics of their host to the resource manager along with their heartbeats */
+    RM_NODE_METRICS_PUSH("pa.rm.node.metrics.push", PropertyType.BOOLEAN, "true"),
+
+    /**
+     * Metrics pushed by the nodes, separated by ';'. Each metric is an mbean attribute
+     * written as 'attribute-objectname', the object name can be a pattern.
+     */
+    RM_NODE_METRICS_ATTRIBUTES("pa.rm.node.metrics.attributes", PropertyType.LIST, "Combined-sigar:Type=CpuUsage;UsedPercent-sigar:Type=Mem;ActualFree-sigar:Type=Mem;SystemLoadAverage-java.lang:type=OperatingSystem;TotalPhysicalMemorySize-java.lang:type=OperatingSystem"),
+
+    /**
+     * Metric pushed by the nodes giving the memory of their host in bytes, the memory reserved
+     * on the nodes of a host is deducted from it to give the memory available on the host.
+     */
+    RM_NODE_METRICS_MEMORY("pa.rm.node.metrics.memory", PropertyType.STRING, "TotalPhysicalMemorySize-java.lang:type=OperatingSystem"),
+
     /** Resource Manager node source infrastructures file*/
     RM_NODESOURCE_INFRASTRUCTURE_FILE("pa.rm.nodesource.infrastructures", PropertyType.STRING, "config/rm/nodesource/infrastructures"),
 
@@ -162,6 +186,15 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Max number of threads in node source for parallel task execution */
     RM_NODESOURCE_MAX_THREAD_NUMBER("pa.rm.nodesource.maxthreadnumber", PropertyType.INTEGER, "50"),
 
+    /** Max number of hosts deployed at the same time by a host list based infrastructure */
+    RM_HOSTS_DEPLOYMENT_MAX_CONCURRENT_LAUNCHES("pa.rm.nodesource.hosts.deployment.maxconcurrent", PropertyType.INTEGER, "20"),
+
+    /** Max time (ms) to wait before retrying a failed deployment on a host, the wait doubling after each failure */
+    RM_HOSTS_DEPLOYMENT_MAX_BACKOFF("pa.rm.nodesource.hosts.deployment.maxbackoff", PropertyType.INTEGER, "300000"),
+
+    /** Whether batch job infrastructures submit their nodes as job arrays */
+    RM_NODESOURCE_BATCH_JOB_ARRAY("pa.rm.nodesource.batchjob.array", PropertyType.BOOLEAN, "false"),
+
     /** The full class name of the policy selected nodes */
     RM_SELECTION_POLICY("pa.rm.selection.policy", PropertyType.STRING, "org.ow2.proactive.resourcemanager.selection.policies.ShufflePolicy"),
 
@@ -174,6 +207,12 @@ public enum PAResourceManagerProperties implements PACommonProperties {
     /** Max number of threads in the core for cleaning nodes after computations */
     RM_CLEANING_MAX_THREAD_NUMBER("pa.rm.cleaning.maxthreadnumber", PropertyType.INTEGER, "5"),
 
+    /** Timeout (ms) after which a node whose cleaning did not end is quarantined */
+    RM_CLEANING_TIMEOUT("pa.rm.cleaning.timeout", PropertyType.INTEGER, "60000"),
+
+    /** Timeout (ms) after which a quarantined node whose cleaning still did not end is declared down */
+    RM_CLEANING_QUARANTINE_TIMEOUT("pa.rm.cleaning.quarantine.timeout", PropertyType.INTEGER, "600000"),
+
     /** Maximum node history period in seconds (Default: disabled) */
     RM_HISTORY_MAX_PERIOD("pa.rm.history.maxperiod", PropertyType.INTEGER),
 
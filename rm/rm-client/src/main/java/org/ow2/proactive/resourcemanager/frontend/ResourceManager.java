@@ -27,6 +27,7 @@ package org.ow2.proactive.resourcemanager.frontend;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.objectweb.proactive.annotation.PublicAPI;
@@ -38,6 +39,9 @@ import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.resourcemanager.common.event.RMEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
+import org.ow2.proactive.resourcemanager.common.metrics.NodeMetricsSample;
 import org.ow2.proactive.resourcemanager.frontend.topology.Topology;
 import org.ow2.proactive.resourcemanager.nodesource.common.PluginDescriptor;
 import org.ow2.proactive.scripting.Script;
@@ -210,6 +214,36 @@ public interface ResourceManager {
      */
     Set<String> setNodesAvailable(Set<String> nodeUrls);
 
+    /**
+     * This method is called periodically by ProActive Nodes to push the metrics
+     * of their host to the Resource Manager.
+     *
+     * @param sample the values of the metrics of the host
+     *
+     * @return false if the Resource Manager needs a full sample of the host metrics, true otherwise
+     */
+    BooleanWrapper pushNodeMetrics(NodeMetricsSample sample);
+
+    /**
+     * Returns the hosts having the highest latest value of a metric pushed by the nodes.
+     *
+     * @param metric the name of the metric
+     * @param count the maximum number of hosts to return
+     *
+     * @return the latest values of the metric, by decreasing value
+     */
+    List<HostMetricValue> getTopHostsByMetric(String metric, int count);
+
+    /**
+     * Returns the history of a metric pushed by the nodes, aggregated over all the hosts.
+     *
+     * @param metric the name of the metric
+     * @param range the time range of the history, in milliseconds
+     *
+     * @return the history of the metric over the given time range
+     */
+    FleetMetricHistory getFleetMetricHistory(String metric, long range);
+
     /**
      * Returns true if the resource manager is operational and a client is connected.
      *
@@ -371,6 +405,19 @@ public interface ResourceManager {
      */
     BooleanWrapper releaseNodes(NodeSet nodes);
 
+    /**
+     * Reserves memory on busy nodes, e.g. memory needed by the tasks running on them. The memory
+     * reserved on the nodes of a host is deducted from the memory available on this host returned
+     * by {@link #getState()}, until the nodes are released.
+     * <p>
+     * The reservations of nodes which are not busy anymore, or which the caller is not allowed
+     * to release, are ignored.
+     *
+     * @param memoryByNodeUrl the memory to reserve in bytes, by node url
+     * @return true if all the reservations have been recorded, false otherwise
+     */
+    BooleanWrapper reserveNodesMemory(Map<String, Long> memoryByNodeUrl);
+
     /**
      * Disconnects from resource manager and releases all the nodes taken by user for computations.
      *
@@ -0,0 +1,133 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.resourcemanager.common.metrics.NodeMetricsSample;
+import org.ow2.proactive.resourcemanager.frontend.ResourceManager;
+
+
+/**
+ * Collects the metrics of the host from the local mbeans and pushes them to the
+ * resource manager.
+ * <p>
+ * Only the metrics whose value changed since the last sample accepted by the
+ * resource manager are pushed, unless the resource manager asks for a full sample
+ * (e.g. after its restart) or the set of metrics changed.
+ */
+public class NodeMetricsCollector {
+
+    private static final Logger logger = Logger.getLogger(NodeMetricsCollector.class);
+
+    private final MBeanServer mbs;
+
+    private final String hostName;
+
+    private final List<String> metrics;
+
+    private Map<String, Double> lastPushedValues = new HashMap<>();
+
+    private boolean fullSampleNeeded = true;
+
+    /**
+     * @param mbs the mbean server containing the mbeans to read
+     * @param hostName the name of the host of the node
+     * @param metrics the metrics to collect, written as attribute-objectname, the object name can be a pattern
+     */
+    public NodeMetricsCollector(MBeanServer mbs, String hostName, List<String> metrics) {
+        this.mbs = mbs;
+        this.hostName = hostName;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Pushes the metrics which changed since the last push to the resource manager.
+     * Errors are only logged, so that they do not interfere with the node heartbeats.
+     */
+    public void pushTo(ResourceManager rm) {
+        Map<String, Double> values = collect();
+        NodeMetricsSample sample = nextSample(values, System.currentTimeMillis());
+        try {
+            boolean accepted = rm.pushNodeMetrics(sample).getBooleanValue();
+            sampleSent(values, accepted);
+        } catch (Exception e) {
+            logger.debug("Cannot push the node metrics to the resource manager", e);
+            fullSampleNeeded = true;
+        }
+    }
+
+    NodeMetricsSample nextSample(Map<String, Double> values, long time) {
+        if (fullSampleNeeded || !values.keySet().equals(lastPushedValues.keySet())) {
+            return new NodeMetricsSample(hostName, time, true, values);
+        }
+        Map<String, Double> changes = new HashMap<>();
+        for (Map.Entry<String, Double> value : values.entrySet()) {
+            if (!value.getValue().equals(lastPushedValues.get(value.getKey()))) {
+                changes.put(value.getKey(), value.getValue());
+            }
+        }
+        return new NodeMetricsSample(hostName, time, false, changes);
+    }
+
+    void sampleSent(Map<String, Double> values, boolean accepted) {
+        if (accepted) {
+            lastPushedValues = values;
+            fullSampleNeeded = false;
+        } else {
+            fullSampleNeeded = true;
+        }
+    }
+
+    Map<String, Double> collect() {
+        Map<String, Double> values = new HashMap<>();
+        for (String metric : metrics) {
+            int separator = metric.indexOf('-');
+            if (separator <= 0) {
+                logger.warn("Invalid node metric, expected attribute-objectname: " + metric);
+                continue;
+            }
+            String attribute = metric.substring(0, separator);
+            try {
+                for (ObjectName objectName : mbs.queryNames(new ObjectName(metric.substring(separator + 1)), null)) {
+                    Object value = mbs.getAttribute(objectName, attribute);
+                    if (value instanceof Number) {
+                        values.put(attribute + "-" + objectName, ((Number) value).doubleValue());
+                    }
+                }
+            } catch (Exception e) {
+                logger.debug("Cannot read node metric " + metric, e);
+            }
+        }
+        return values;
+    }
+}
@@ -34,6 +34,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -229,6 +230,8 @@ public class RMNodeStarter {
 
     private boolean disabledMonitoring = false;
 
+    private NodeMetricsCollector metricsCollector;
+
     private int numberOfReconnectionAttemptsLeft;
 
     private static final long DATASPACE_CLOSE_TIMEOUT = 3 * 1000; // seconds
@@ -621,6 +624,10 @@ public class RMNodeStarter {
             killWorkerNodeIfRemovedByUser(nodes, unknownNodeUrl);
         }
 
+        if (metricsCollector != null) {
+            metricsCollector.pushTo(rm);
+        }
+
         int nodeCount = nodes.size();
 
         if (logger.isDebugEnabled()) {
@@ -1220,6 +1227,15 @@ public class RMNodeStarter {
                     }
                 }
             });
+            if (PAResourceManagerProperties.RM_NODE_METRICS_PUSH.getValueAsBoolean() && !nodes.isEmpty()) {
+                // pushed along the node heartbeats
+                Node firstNode = nodes.iterator().next();
+                String hostName = firstNode.getNodeInformation().getVMInformation().getHostName();
+                List<String> metrics = PAResourceManagerProperties.RM_NODE_METRICS_ATTRIBUTES.getValueAsList(";");
+                metricsCollector = new NodeMetricsCollector(ManagementFactory.getPlatformMBeanServer(),
+                                                            hostName,
+                                                            metrics);
+            }
         } else {
             logger.info("JMX monitoring is disabled.");
         }
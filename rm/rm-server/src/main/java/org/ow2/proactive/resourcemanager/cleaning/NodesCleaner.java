@@ -25,14 +25,22 @@
  */
 package org.ow2.proactive.resourcemanager.cleaning;
 
-import java.util.Collection;
-import java.util.LinkedList;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.Body;
@@ -41,6 +49,7 @@ import org.objectweb.proactive.Service;
 import org.objectweb.proactive.core.body.request.Request;
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.objectweb.proactive.extensions.annotation.ActiveObject;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.resourcemanager.core.RMCore;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.rmnode.RMNode;
@@ -49,17 +58,48 @@ import org.ow2.proactive.resourcemanager.rmnode.RMNode;
 /**
  * This class is responsible for the node cleaning.
  * It does it in parallel in a dedicated thread pool.
+ * <p>
+ * Each node is released as soon as its own cleaning succeeds, independently of
+ * the other nodes released at the same time. A node whose cleaning does not end
+ * within {@link PAResourceManagerProperties#RM_CLEANING_TIMEOUT} after it started,
+ * the time spent waiting for a cleaning thread not being counted, is quarantined:
+ * it stays busy, so that it is not given to another user, until its cleaning
+ * ends. If it is still not cleaned after
+ * {@link PAResourceManagerProperties#RM_CLEANING_QUARANTINE_TIMEOUT}, it is
+ * declared down.
  */
 @ActiveObject
 public class NodesCleaner implements RunActive {
     /** class' logger */
     private static final Logger logger = Logger.getLogger(NodesCleaner.class);
 
+    /** Number of release to free delays kept to compute the metrics */
+    private static final int TIME_TO_FREE_SAMPLES = 1024;
+
     private ExecutorService scriptExecutorThreadPool;
 
+    private ScheduledExecutorService timeoutTimer;
+
     /** RMCore reference to be able to set nodes free after the cleaning procedure */
     private RMCore rmcore;
 
+    private long cleaningTimeout;
+
+    private long quarantineTimeout;
+
+    /** Urls of the quarantined nodes */
+    private final Set<String> quarantinedNodes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final long[] timesToFree = new long[TIME_TO_FREE_SAMPLES];
+
+    private long cleanedNodes;
+
+    private long failedNodes;
+
+    private long totalQuarantinedNodes;
+
+    private long maxTimeToFree;
+
     /** PA Constructor */
     public NodesCleaner() {
     }
@@ -67,57 +107,141 @@ public class NodesCleaner implements RunActive {
     public NodesCleaner(RMCore rmcore) {
         this.rmcore = rmcore;
         this.scriptExecutorThreadPool = Executors.newFixedThreadPool(PAResourceManagerProperties.RM_CLEANING_MAX_THREAD_NUMBER.getValueAsInt());
+        this.timeoutTimer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Nodes cleaning timeout",
+                                                                                              true));
+        this.cleaningTimeout = PAResourceManagerProperties.RM_CLEANING_TIMEOUT.getValueAsInt();
+        this.quarantineTimeout = PAResourceManagerProperties.RM_CLEANING_QUARANTINE_TIMEOUT.getValueAsInt();
     }
 
     /**
      * Cleans nodes in parallel for the nodes specified.
+     * Each node is set free as soon as it is cleaned, or marked as down if it cannot be cleaned.
      *
      * @param nodes to be cleaned
-     * @return true if all the nodes were freed, false if error occurs on one of the node (it will be marked as down in this case)
+     * @return true once the cleaning of the nodes is started
      */
     public BooleanWrapper cleanAndRelease(List<RMNode> nodes) {
-        List<Callable<Boolean>> cleaners = new LinkedList<>();
+        long releaseTime = System.currentTimeMillis();
         for (RMNode node : nodes) {
             logger.debug("Cleaning the node " + node.getNodeURL());
-            cleaners.add(new NodeCleaner(node));
+            clean(node, releaseTime);
         }
+        return new BooleanWrapper(true);
+    }
 
-        try {
-            Collection<Future<Boolean>> cleanNodes = scriptExecutorThreadPool.invokeAll(cleaners);
+    /**
+     * @return the activity of the nodes cleaning
+     */
+    public synchronized Metrics getMetrics() {
+        int samples = (int) Math.min(cleanedNodes, TIME_TO_FREE_SAMPLES);
+        long[] sortedTimesToFree = Arrays.copyOf(timesToFree, samples);
+        Arrays.sort(sortedTimesToFree);
+        long total = 0;
+        for (long timeToFree : sortedTimesToFree) {
+            total += timeToFree;
+        }
+        return new Metrics(cleanedNodes,
+                           failedNodes,
+                           totalQuarantinedNodes,
+                           new ArrayList<>(quarantinedNodes),
+                           samples > 0 ? total / samples : 0,
+                           samples > 0 ? sortedTimesToFree[(int) Math.ceil(samples * 0.95) - 1] : 0,
+                           maxTimeToFree);
+    }
 
-            int index = 0;
-            for (Future<Boolean> cleanNode : cleanNodes) {
-                RMNode node = nodes.get(index);
+    /**
+     * @return true if the given node is quarantined
+     */
+    boolean isQuarantined(String nodeUrl) {
+        return quarantinedNodes.contains(nodeUrl);
+    }
 
-                if (!cleanNode.isCancelled()) {
-                    Boolean isClean = null;
-                    try {
-                        isClean = cleanNode.get();
-                        if (!isClean.booleanValue()) {
-                            logger.warn("Cannot clean the node " + node.getNodeURL());
-                            rmcore.setDownNode(node.getNodeURL());
-                        } else {
-                            logger.debug("The node " + node.getNodeURL() + " has been successfully cleaned");
+    private void clean(final RMNode node, final long releaseTime) {
+        // set by the first of the end of the cleaning and the end of the quarantine
+        final AtomicBoolean settled = new AtomicBoolean(false);
+        final FutureTask<Boolean> cleaning = new FutureTask<>(new NodeCleaner(node));
+        scriptExecutorThreadPool.execute(new Runnable() {
+            @Override
+            public void run() {
+                // the timeout starts with the cleaning, the nodes waiting for a thread are not quarantined
+                timeoutTimer.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!settled.get()) {
+                            quarantine(node, cleaning, settled);
                         }
-                    } catch (ExecutionException e) {
-                        logger.warn("Cannot clean the node " + node.getNodeURL(), e);
-                        rmcore.setDownNode(node.getNodeURL());
                     }
-                } else {
-                    logger.warn("Cannot clean the node " + node.getNodeURL());
-                    rmcore.setDownNode(node.getNodeURL());
+                }, cleaningTimeout, TimeUnit.MILLISECONDS);
+                cleaning.run();
+                boolean isClean;
+                try {
+                    isClean = cleaning.get();
+                } catch (CancellationException e) {
+                    // the quarantine expired, the node is already down
+                    return;
+                } catch (InterruptedException | ExecutionException e) {
+                    logger.warn("Cannot clean the node " + node.getNodeURL(), e);
+                    isClean = false;
+                }
+                if (settled.compareAndSet(false, true)) {
+                    cleaningFinished(node, releaseTime, isClean);
                 }
-                index++;
             }
+        });
+    }
 
-            // if we had any error while cleaning a node, this node would have been already marked as down
-            // in this case rmcore.setFreeNodes() will return false
-            return rmcore.setFreeNodes(nodes);
-        } catch (InterruptedException e) {
-            logger.error("", e);
+    private void cleaningFinished(RMNode node, long releaseTime, boolean isClean) {
+        boolean wasQuarantined = quarantinedNodes.remove(node.getNodeURL());
+        if (isClean) {
+            if (wasQuarantined) {
+                logger.info("The quarantined node " + node.getNodeURL() + " has been cleaned");
+            } else {
+                logger.debug("The node " + node.getNodeURL() + " has been successfully cleaned");
+            }
+            recordTimeToFree(System.currentTimeMillis() - releaseTime);
+            rmcore.setFreeNodes(Collections.singletonList(node));
+        } else {
+            logger.warn("Cannot clean the node " + node.getNodeURL());
+            synchronized (this) {
+                failedNodes++;
+            }
+            rmcore.setDownNode(node.getNodeURL());
         }
+    }
+
+    private void quarantine(final RMNode node, final Future<?> cleaning, final AtomicBoolean settled) {
+        logger.warn("The cleaning of the node " + node.getNodeURL() + " did not end after " + cleaningTimeout +
+                    " ms, the node is quarantined");
+        quarantinedNodes.add(node.getNodeURL());
+        if (settled.get()) {
+            // the cleaning ended in the meantime
+            quarantinedNodes.remove(node.getNodeURL());
+            return;
+        }
+        synchronized (this) {
+            totalQuarantinedNodes++;
+        }
+        timeoutTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (settled.compareAndSet(false, true)) {
+                    quarantinedNodes.remove(node.getNodeURL());
+                    logger.warn("The cleaning of the quarantined node " + node.getNodeURL() + " did not end after " +
+                                quarantineTimeout + " ms, the node is declared down");
+                    cleaning.cancel(true);
+                    synchronized (NodesCleaner.this) {
+                        failedNodes++;
+                    }
+                    rmcore.setDownNode(node.getNodeURL());
+                }
+            }
+        }, quarantineTimeout, TimeUnit.MILLISECONDS);
+    }
 
-        return new BooleanWrapper(false);
+    private synchronized void recordTimeToFree(long timeToFree) {
+        timesToFree[(int) (cleanedNodes % TIME_TO_FREE_SAMPLES)] = timeToFree;
+        cleanedNodes++;
+        maxTimeToFree = Math.max(maxTimeToFree, timeToFree);
     }
 
     /**
@@ -142,4 +266,74 @@ public class NodesCleaner implements RunActive {
             }
         }
     }
+
+    /**
+     * Activity of the nodes cleaning.
+     */
+    public static class Metrics implements Serializable {
+
+        private long cleanedNodes;
+
+        private long failedNodes;
+
+        private long quarantinedNodes;
+
+        private List<String> currentlyQuarantinedNodes;
+
+        private long averageTimeToFree;
+
+        private long timeToFree95thPercentile;
+
+        private long maxTimeToFree;
+
+        public Metrics() {
+            this.currentlyQuarantinedNodes = Collections.emptyList();
+        }
+
+        Metrics(long cleanedNodes, long failedNodes, long quarantinedNodes, List<String> currentlyQuarantinedNodes,
+                long averageTimeToFree, long timeToFree95thPercentile, long maxTimeToFree) {
+            this.cleanedNodes = cleanedNodes;
+            this.failedNodes = failedNodes;
+            this.quarantinedNodes = quarantinedNodes;
+            this.currentlyQuarantinedNodes = currentlyQuarantinedNodes;
+            this.averageTimeToFree = averageTimeToFree;
+            this.timeToFree95thPercentile = timeToFree95thPercentile;
+            this.maxTimeToFree = maxTimeToFree;
+        }
+
+        /** @return the number of nodes cleaned and set free */
+        public long getCleanedNodes() {
+            return cleanedNodes;
+        }
+
+        /** @return the number of nodes declared down because they could not be cleaned */
+        public long getFailedNodes() {
+            return failedNodes;
+        }
+
+        /** @return the number of nodes which have been quarantined */
+        public long getQuarantinedNodes() {
+            return quarantinedNodes;
+        }
+
+        /** @return the urls of the nodes currently quarantined */
+        public List<String> getCurrentlyQuarantinedNodes() {
+            return currentlyQuarantinedNodes;
+        }
+
+        /** @return the average time in ms between the release of a node and its return to the free state */
+        public long getAverageTimeToFree() {
+            return averageTimeToFree;
+        }
+
+        /** @return the 95th percentile of the time in ms between the release of a node and its return to the free state */
+        public long getTimeToFree95thPercentile() {
+            return timeToFree95thPercentile;
+        }
+
+        /** @return the maximum time in ms between the release of a node and its return to the free state */
+        public long getMaxTimeToFree() {
+            return maxTimeToFree;
+        }
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Memory reserved on the nodes, summed up per host.
+ * <p>
+ * A node holds at most one reservation at a time, which grows with each new
+ * reservation and is dropped when the node is released. This class is thread safe.
+ */
+class NodeMemoryReservations {
+
+    private final Map<String, Reservation> reservationsByNode = new HashMap<>();
+
+    private final Map<String, Long> reservedByHost = new HashMap<>();
+
+    synchronized void reserve(String nodeUrl, String host, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        Reservation reservation = reservationsByNode.get(nodeUrl);
+        if (reservation == null) {
+            reservation = new Reservation(host);
+            reservationsByNode.put(nodeUrl, reservation);
+        }
+        reservation.bytes += bytes;
+        addToHost(reservation.host, bytes);
+    }
+
+    /**
+     * Drops the reservation of the node, if any.
+     */
+    synchronized void release(String nodeUrl) {
+        Reservation reservation = reservationsByNode.remove(nodeUrl);
+        if (reservation != null) {
+            addToHost(reservation.host, -reservation.bytes);
+        }
+    }
+
+    /**
+     * @return the memory reserved on the nodes of the host, in bytes
+     */
+    synchronized long getReserved(String host) {
+        Long reserved = reservedByHost.get(host);
+        return reserved == null ? 0 : reserved;
+    }
+
+    /**
+     * @return the memory reserved on the node, in bytes
+     */
+    synchronized long getReservedOnNode(String nodeUrl) {
+        Reservation reservation = reservationsByNode.get(nodeUrl);
+        return reservation == null ? 0 : reservation.bytes;
+    }
+
+    private void addToHost(String host, long bytes) {
+        long reserved = getReserved(host) + bytes;
+        if (reserved <= 0) {
+            reservedByHost.remove(host);
+        } else {
+            reservedByHost.put(host, reserved);
+        }
+    }
+
+    private static class Reservation {
+
+        private final String host;
+
+        private long bytes;
+
+        Reservation(String host) {
+            this.host = host;
+        }
+    }
+}
@@ -83,9 +83,13 @@ import org.ow2.proactive.resourcemanager.common.event.RMEventType;
 import org.ow2.proactive.resourcemanager.common.event.RMInitialState;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeEvent;
 import org.ow2.proactive.resourcemanager.common.event.RMNodeSourceEvent;
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
+import org.ow2.proactive.resourcemanager.common.metrics.NodeMetricsSample;
 import org.ow2.proactive.resourcemanager.core.account.RMAccountsManager;
 import org.ow2.proactive.resourcemanager.core.history.UserHistory;
 import org.ow2.proactive.resourcemanager.core.jmx.RMJMXHelper;
+import org.ow2.proactive.resourcemanager.core.metrics.NodeMetricsStore;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.db.NodeSourceData;
 import org.ow2.proactive.resourcemanager.db.RMDBManager;
@@ -285,6 +289,12 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
     private NodesRecoveryManager nodesRecoveryManager;
 
+    /** metrics pushed by the nodes */
+    private final NodeMetricsStore nodeMetricsStore = new NodeMetricsStore();
+
+    /** memory reserved on the busy nodes */
+    private final NodeMemoryReservations memoryReservations = new NodeMemoryReservations();
+
     /**
      * ProActive Empty constructor
      */
@@ -389,6 +399,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             nodesCleaner = (NodesCleaner) PAActiveObject.newActive(NodesCleaner.class.getName(),
                                                                    new Object[] { rmCoreStub },
                                                                    nodeRM);
+            jmxHelper.setNodesCleaner(nodesCleaner);
 
             topologyManager = new TopologyManager();
 
@@ -693,6 +704,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
 
         // resetting owner here
         rmNode.setFree();
+        memoryReservations.release(rmNode.getNodeURL());
         // an eligible node is a node that is free and not locked
         if (!rmNode.isLocked()) {
             this.eligibleNodes.add(rmNode);
@@ -716,6 +728,11 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         for (RMNode node : nodes) {
             // getting the correct instance
             RMNode rmnode = this.getNodebyUrl(node.getNodeURL());
+            // nodes cleaned asynchronously may have been removed or detected down in the meantime
+            if (rmnode == null || rmnode.isDown()) {
+                result = false;
+                continue;
+            }
             // freeing it
             result &= internalSetFree(rmnode).getBooleanValue();
         }
@@ -776,6 +793,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             eligibleNodes.remove(rmnode);
         }
         this.allNodes.remove(rmnode.getNodeURL());
+        memoryReservations.release(rmnode.getNodeURL());
 
         // persist node removal
         dbManager.removeNode(rmnode);
@@ -1221,6 +1239,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         }
 
         ImmutableSet.Builder<String> nodeUrlsNotKnownByTheRM = new ImmutableSet.Builder<>();
+        Map<String, List<String>> heartbeatsByNodeSource = new HashMap<>();
 
         for (String nodeUrl : nodeUrls) {
             RMNode node = this.allNodes.get(nodeUrl);
@@ -1228,6 +1247,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             if (node == null) {
                 logger.warn("Cannot set node as available, the node is unknown: " + nodeUrl);
                 nodeUrlsNotKnownByTheRM.add(nodeUrl);
+                continue;
             } else if (node.isDown()) {
                 restoreNodeState(nodeUrl, node);
             } else {
@@ -1235,10 +1255,50 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
                     logger.debug("The node identified by " + nodeUrl + " is known but not DOWN, no action performed");
                 }
             }
+
+            List<String> heartbeats = heartbeatsByNodeSource.get(node.getNodeSourceName());
+            if (heartbeats == null) {
+                heartbeats = new ArrayList<>();
+                heartbeatsByNodeSource.put(node.getNodeSourceName(), heartbeats);
+            }
+            heartbeats.add(nodeUrl);
+        }
+
+        // feeds the failure detectors of the node sources, one call per node source
+        for (Entry<String, List<String>> heartbeats : heartbeatsByNodeSource.entrySet()) {
+            NodeSource nodeSource = this.nodeSources.get(heartbeats.getKey());
+            if (nodeSource != null) {
+                nodeSource.heartbeatReceived(heartbeats.getValue());
+            }
         }
         return nodeUrlsNotKnownByTheRM.build();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @ImmediateService
+    @Override
+    public BooleanWrapper pushNodeMetrics(NodeMetricsSample sample) {
+        return new BooleanWrapper(nodeMetricsStore.push(sample));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<HostMetricValue> getTopHostsByMetric(String metric, int count) {
+        return nodeMetricsStore.getTopHosts(metric, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public FleetMetricHistory getFleetMetricHistory(String metric, long range) {
+        return nodeMetricsStore.getHistory(metric, range);
+    }
+
     @VisibleForTesting
     void restoreNodeState(String nodeUrl, RMNode node) {
         NodeState previousNodeState = node.getLastEvent().getPreviousNodeState();
@@ -1376,6 +1436,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         RMCore.clients.put(policyId, policyService);
 
         this.nodeSources.put(nodeSourceName, nodeSource);
+        this.jmxHelper.addNodeSource(nodeSourceName, nodeSource);
 
         // generate the event of node source creation
         this.monitoring.nodeSourceEvent(new RMNodeSourceEvent(RMEventType.NODESOURCE_CREATED,
@@ -1451,6 +1512,37 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         return releaseNodes(nodes);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    public BooleanWrapper reserveNodesMemory(Map<String, Long> memoryByNodeUrl) {
+        boolean result = true;
+        for (Map.Entry<String, Long> reservation : memoryByNodeUrl.entrySet()) {
+            RMNode rmnode = getNodebyUrl(reservation.getKey());
+            // the task may already be over, the memory is released with the node
+            if (rmnode == null || !rmnode.isBusy()) {
+                logger.debug("Memory not reserved on " + reservation.getKey() + " as it is not busy");
+                result = false;
+                continue;
+            }
+            Set<? extends IdentityPrincipal> userPrincipal = rmnode.getOwner()
+                                                                   .getSubject()
+                                                                   .getPrincipals(UserNamePrincipal.class);
+            Permission ownerPermission = new PrincipalPermission(rmnode.getOwner().getName(), userPrincipal);
+            try {
+                caller.checkPermission(ownerPermission,
+                                       caller + " is not authorized to reserve memory on node " +
+                                                        rmnode.getNodeURL());
+            } catch (SecurityException ex) {
+                logger.warn(ex.getMessage());
+                result = false;
+                continue;
+            }
+            memoryReservations.reserve(rmnode.getNodeURL(), rmnode.getHostName(), reservation.getValue());
+        }
+        return new BooleanWrapper(result);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1676,6 +1768,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
      */
     public BooleanWrapper nodeSourceUnregister(String sourceName, RMNodeSourceEvent evt) {
         NodeSource nodeSource = this.nodeSources.remove(sourceName);
+        this.jmxHelper.removeNodeSource(sourceName);
 
         if (nodeSource == null) {
             logger.warn("Attempt to remove non-existing node source " + sourceName);
@@ -1780,6 +1873,7 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
             }
 
             rmNode.setDown();
+            memoryReservations.release(rmNode.getNodeURL());
 
             persistUpdatedRMNodeIfRecoveryEnabled(rmNode);
 
@@ -1896,7 +1990,24 @@ public class RMCore implements ResourceManager, InitActive, RunActive {
         RMStateNodeUrls rmStateNodeUrls = new RMStateNodeUrls(nodesListToUrlsSet(eligibleNodes),
                                                               listAliveNodeUrls(),
                                                               nodesListToUrlsSet(allNodes.values()));
-        RMState state = new RMState(rmStateNodeUrls, maximumNumberOfNodes);
+        Map<String, String> freeNodesHosts = new HashMap<>();
+        Map<String, Long> hostsAvailableMemory = new HashMap<>();
+        String memoryMetric = PAResourceManagerProperties.RM_NODE_METRICS_MEMORY.getValueAsString();
+        Map<String, Double> hostsMemory = nodeMetricsStore.getLatestValues(memoryMetric);
+        if (!hostsMemory.isEmpty()) {
+            for (RMNode node : eligibleNodes) {
+                String host = node.getHostName();
+                Double memory = hostsMemory.get(host);
+                if (memory != null) {
+                    freeNodesHosts.put(node.getNodeURL(), host);
+                    if (!hostsAvailableMemory.containsKey(host)) {
+                        hostsAvailableMemory.put(host,
+                                                 Math.max(0, memory.longValue() - memoryReservations.getReserved(host)));
+                    }
+                }
+            }
+        }
+        RMState state = new RMState(rmStateNodeUrls, maximumNumberOfNodes, freeNodesHosts, hostsAvailableMemory);
         return state;
     }
 
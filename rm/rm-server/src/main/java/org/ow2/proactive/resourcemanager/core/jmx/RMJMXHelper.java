@@ -27,6 +27,9 @@ package org.ow2.proactive.resourcemanager.core.jmx;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.management.MBeanServer;
 import javax.management.MBeanServerFactory;
@@ -37,6 +40,7 @@ import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.ow2.proactive.jmx.AbstractJMXHelper;
 import org.ow2.proactive.jmx.RRDDataStore;
+import org.ow2.proactive.resourcemanager.cleaning.NodesCleaner;
 import org.ow2.proactive.resourcemanager.core.account.RMAccountsManager;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.AllAccountsMBeanImpl;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.ManagementMBeanImpl;
@@ -45,6 +49,9 @@ import org.ow2.proactive.resourcemanager.core.jmx.mbean.RuntimeDataMBean;
 import org.ow2.proactive.resourcemanager.core.jmx.mbean.RuntimeDataMBeanImpl;
 import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.frontend.RMMonitoringImpl;
+import org.ow2.proactive.resourcemanager.nodesource.NodeFailureDetector;
+import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
+import org.ow2.proactive.resourcemanager.nodesource.infrastructure.HostsDeploymentScheduler;
 
 
 /**
@@ -64,6 +71,12 @@ public final class RMJMXHelper extends AbstractJMXHelper {
     /** The accounts manager */
     private final RMAccountsManager accountsManager;
 
+    /** The nodes cleaner, set once the RMCore has created it */
+    private volatile NodesCleaner nodesCleaner;
+
+    /** The node sources of the RMCore per name */
+    private final Map<String, NodeSource> nodeSources = new ConcurrentHashMap<>();
+
     /**
      * Creates a new instance of this class.
      * @param accountsManager the accounts manager
@@ -86,6 +99,85 @@ public final class RMJMXHelper extends AbstractJMXHelper {
         return RMJMXHelper.instance;
     }
 
+    /**
+     * Sets the nodes cleaner whose activity is published by the runtime data MBean.
+     *
+     * @param nodesCleaner the nodes cleaner of the RMCore
+     */
+    public void setNodesCleaner(final NodesCleaner nodesCleaner) {
+        this.nodesCleaner = nodesCleaner;
+    }
+
+    /**
+     * Returns the activity of the nodes cleaning.
+     *
+     * @return the activity of the nodes cleaning, empty if the nodes cleaner is not created yet
+     */
+    public NodesCleaner.Metrics getNodesCleaningMetrics() {
+        NodesCleaner cleaner = this.nodesCleaner;
+        if (cleaner == null) {
+            return new NodesCleaner.Metrics();
+        }
+        return cleaner.getMetrics();
+    }
+
+    /**
+     * Adds a node source whose activity is published by the runtime data MBean.
+     *
+     * @param name the name of the node source
+     * @param nodeSource the node source
+     */
+    public void addNodeSource(final String name, final NodeSource nodeSource) {
+        this.nodeSources.put(name, nodeSource);
+    }
+
+    /**
+     * Removes a node source whose activity is published by the runtime data MBean.
+     *
+     * @param name the name of the removed node source
+     */
+    public void removeNodeSource(final String name) {
+        this.nodeSources.remove(name);
+    }
+
+    /**
+     * Returns the deployment activity of the node sources deploying nodes on a list of hosts.
+     *
+     * @return the deployment activity of all these node sources together
+     */
+    public HostsDeploymentScheduler.Metrics getHostsDeploymentMetrics() {
+        List<HostsDeploymentScheduler.Metrics> metrics = new ArrayList<>(this.nodeSources.size());
+        for (Map.Entry<String, NodeSource> nodeSource : this.nodeSources.entrySet()) {
+            try {
+                HostsDeploymentScheduler.Metrics nodeSourceMetrics = nodeSource.getValue().getDeploymentMetrics();
+                if (nodeSourceMetrics != null) {
+                    metrics.add(nodeSourceMetrics);
+                }
+            } catch (Exception e) {
+                LOGGER.debug("Unable to get the deployment activity of the node source " + nodeSource.getKey(), e);
+            }
+        }
+        return HostsDeploymentScheduler.Metrics.sum(metrics);
+    }
+
+    /**
+     * Returns the activity of the failure detectors of the node sources.
+     *
+     * @return the activity of the failure detectors of all the node sources together
+     */
+    public NodeFailureDetector.Metrics getFailureDetectorMetrics() {
+        List<NodeFailureDetector.Metrics> metrics = new ArrayList<>(this.nodeSources.size());
+        for (Map.Entry<String, NodeSource> nodeSource : this.nodeSources.entrySet()) {
+            try {
+                metrics.add(nodeSource.getValue().getFailureDetectorMetrics());
+            } catch (Exception e) {
+                LOGGER.debug("Unable to get the failure detector activity of the node source " + nodeSource.getKey(),
+                             e);
+            }
+        }
+        return NodeFailureDetector.Metrics.sum(metrics);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -55,6 +55,18 @@ public interface ManagementMBean {
      */
     void clearAccoutingCache();
 
+    /**
+     * Clears the cached LDAP authentications, so that the next logins are checked against the directory.
+     */
+    void clearAuthenticationCache();
+
+    /**
+     * Clears the cached LDAP authentications of a user, e.g. after a change of its password or
+     * of its groups in the directory.
+     * @param username the login of the user
+     */
+    void clearUserAuthenticationCache(String username);
+
     /**
      * Returns the last duration in milliseconds of account refresh.
      * @return the last refresh duration in milliseconds
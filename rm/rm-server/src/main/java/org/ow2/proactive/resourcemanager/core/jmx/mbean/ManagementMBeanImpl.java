@@ -34,6 +34,7 @@ import javax.management.StandardMBean;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.PropertyConfigurator;
+import org.ow2.proactive.authentication.LDAPLoginModule;
 import org.ow2.proactive.resourcemanager.core.account.RMAccountsManager;
 
 
@@ -69,6 +70,14 @@ public final class ManagementMBeanImpl extends StandardMBean implements Manageme
         this.accountsManager.clearCache();
     }
 
+    public void clearAuthenticationCache() {
+        LDAPLoginModule.invalidateAuthenticationCache();
+    }
+
+    public void clearUserAuthenticationCache(String username) {
+        LDAPLoginModule.invalidateAuthenticationCache(username);
+    }
+
     public long getLastRefreshDurationInMilliseconds() {
         return this.accountsManager.getLastRefreshDurationInMilliseconds();
     }
@@ -47,6 +47,8 @@ import org.ow2.proactive.resourcemanager.common.NodeState;
  * <li>Maximum down nodes
  * <li>Average activity percentage
  * <li>Average inactivity percentage
+ * <li>Nodes cleaning activity
+ * <li>Hosts deployment activity
  * </ul>
  * <p>
  *
@@ -173,6 +175,146 @@ public interface RuntimeDataMBean {
      */
     double getAverageInactivity();
 
+    /**
+     * Returns the number of nodes cleaned and set free.
+     *
+     * @return the number of nodes cleaned and set free
+     */
+    long getCleanedNodesCount();
+
+    /**
+     * Returns the number of nodes declared down because they could not be cleaned.
+     *
+     * @return the number of nodes declared down because they could not be cleaned
+     */
+    long getCleaningFailedNodesCount();
+
+    /**
+     * Returns the number of nodes which have been quarantined because their cleaning was too long.
+     *
+     * @return the number of nodes which have been quarantined
+     */
+    long getQuarantinedNodesCount();
+
+    /**
+     * Returns the number of nodes currently quarantined.
+     *
+     * @return the number of nodes currently quarantined
+     */
+    int getCurrentlyQuarantinedNodesCount();
+
+    /**
+     * Returns the average time between the release of a node and its return to the free state.
+     *
+     * @return the average time to free a released node in milliseconds
+     */
+    long getAverageTimeToFree();
+
+    /**
+     * Returns the 95th percentile of the time between the release of a node and its return to the free state.
+     *
+     * @return the 95th percentile of the time to free a released node in milliseconds
+     */
+    long getTimeToFree95thPercentile();
+
+    /**
+     * Returns the maximum time between the release of a node and its return to the free state.
+     *
+     * @return the maximum time to free a released node in milliseconds
+     */
+    long getMaxTimeToFree();
+
+    /**
+     * Returns the number of hosts waiting for a deployment slot in the node sources deploying nodes on a list of hosts.
+     *
+     * @return the number of hosts waiting for a deployment slot
+     */
+    int getQueuedHostsCount();
+
+    /**
+     * Returns the number of hosts being deployed by the node sources deploying nodes on a list of hosts.
+     *
+     * @return the number of hosts being deployed
+     */
+    int getDeployingHostsCount();
+
+    /**
+     * Returns the number of hosts waiting before retrying a failed deployment.
+     *
+     * @return the number of hosts waiting before retrying a failed deployment
+     */
+    int getHostsWaitingForRetryCount();
+
+    /**
+     * Returns the number of failed deployment attempts on the hosts of the node sources.
+     *
+     * @return the number of failed deployment attempts
+     */
+    long getFailedHostDeploymentAttemptsCount();
+
+    /**
+     * Returns the number of hosts discarded after too many failed deployment attempts.
+     *
+     * @return the number of hosts discarded after too many failed deployment attempts
+     */
+    long getAbandonedHostsCount();
+
+    /**
+     * Returns the number of nodes deployed per minute on the hosts of the node sources.
+     *
+     * @return the number of nodes deployed per minute during the current (or last) deployments
+     */
+    double getHostsDeploymentRate();
+
+    /**
+     * Returns the number of nodes whose heartbeats are monitored by the node sources.
+     *
+     * @return the number of nodes whose heartbeats are monitored by the node sources
+     */
+    int getHeartbeatMonitoredNodesCount();
+
+    /**
+     * Returns the number of nodes currently suspected by the failure detectors.
+     *
+     * @return the number of nodes currently suspected by the failure detectors
+     */
+    int getSuspectedNodesCount();
+
+    /**
+     * Returns the number of node heartbeats received by the node sources.
+     *
+     * @return the number of node heartbeats received by the node sources
+     */
+    long getNodeHeartbeatsCount();
+
+    /**
+     * Returns the number of times a node has been suspected by the failure detectors.
+     *
+     * @return the number of times a node has been suspected by the failure detectors
+     */
+    long getNodeSuspicionsCount();
+
+    /**
+     * Returns the number of suspected nodes which answered the ping.
+     *
+     * @return the number of suspected nodes which answered the ping
+     */
+    long getFalseNodeSuspicionsCount();
+
+    /**
+     * Returns the number of nodes pinged by the failure detectors.
+     *
+     * @return the number of nodes pinged by the failure detectors
+     */
+    long getSuspectedNodePingsCount();
+
+    /**
+     * Returns the number of nodes found down by the failure detectors.
+     *
+     * @return the number of nodes found down by the failure detectors
+     */
+    long getDetectedDownNodesCount();
+
     /**
      * Sends the statistics accumulated in the RRD data base
      *
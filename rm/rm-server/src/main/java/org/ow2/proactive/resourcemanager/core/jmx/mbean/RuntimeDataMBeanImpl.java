@@ -202,6 +202,146 @@ public class RuntimeDataMBeanImpl extends StandardMBean implements RuntimeDataMB
         return this.rmStatisticsHolder.getStatistics().getInactivityTimePercentage();
     }
 
+    /**
+     * @see RuntimeDataMBean#getCleanedNodesCount()
+     */
+    public long getCleanedNodesCount() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getCleanedNodes();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getCleaningFailedNodesCount()
+     */
+    public long getCleaningFailedNodesCount() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getFailedNodes();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getQuarantinedNodesCount()
+     */
+    public long getQuarantinedNodesCount() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getQuarantinedNodes();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getCurrentlyQuarantinedNodesCount()
+     */
+    public int getCurrentlyQuarantinedNodesCount() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getCurrentlyQuarantinedNodes().size();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getAverageTimeToFree()
+     */
+    public long getAverageTimeToFree() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getAverageTimeToFree();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getTimeToFree95thPercentile()
+     */
+    public long getTimeToFree95thPercentile() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getTimeToFree95thPercentile();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getMaxTimeToFree()
+     */
+    public long getMaxTimeToFree() {
+        return RMJMXHelper.getInstance().getNodesCleaningMetrics().getMaxTimeToFree();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getQueuedHostsCount()
+     */
+    public int getQueuedHostsCount() {
+        return RMJMXHelper.getInstance().getHostsDeploymentMetrics().getQueuedHosts();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getDeployingHostsCount()
+     */
+    public int getDeployingHostsCount() {
+        return RMJMXHelper.getInstance().getHostsDeploymentMetrics().getDeployingHosts();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getHostsWaitingForRetryCount()
+     */
+    public int getHostsWaitingForRetryCount() {
+        return RMJMXHelper.getInstance().getHostsDeploymentMetrics().getHostsWaitingForRetry();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getFailedHostDeploymentAttemptsCount()
+     */
+    public long getFailedHostDeploymentAttemptsCount() {
+        return RMJMXHelper.getInstance().getHostsDeploymentMetrics().getFailedAttempts();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getAbandonedHostsCount()
+     */
+    public long getAbandonedHostsCount() {
+        return RMJMXHelper.getInstance().getHostsDeploymentMetrics().getAbandonedHosts();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getHostsDeploymentRate()
+     */
+    public double getHostsDeploymentRate() {
+        return RMJMXHelper.getInstance().getHostsDeploymentMetrics().getDeploymentRate();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getHeartbeatMonitoredNodesCount()
+     */
+    public int getHeartbeatMonitoredNodesCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getMonitoredNodes();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getSuspectedNodesCount()
+     */
+    public int getSuspectedNodesCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getSuspectedNodes();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getNodeHeartbeatsCount()
+     */
+    public long getNodeHeartbeatsCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getHeartbeats();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getNodeSuspicionsCount()
+     */
+    public long getNodeSuspicionsCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getSuspicions();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getFalseNodeSuspicionsCount()
+     */
+    public long getFalseNodeSuspicionsCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getFalseSuspicions();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getSuspectedNodePingsCount()
+     */
+    public long getSuspectedNodePingsCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getPings();
+    }
+
+    /**
+     * @see RuntimeDataMBean#getDetectedDownNodesCount()
+     */
+    public long getDetectedDownNodesCount() {
+        return RMJMXHelper.getInstance().getFailureDetectorMetrics().getDownNodes();
+    }
+
     /**
      * @see org.ow2.proactive.resourcemanager.core.jmx.mbean.RuntimeDataMBean#getStatisticHistory()
      */
@@ -0,0 +1,319 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
+import org.ow2.proactive.resourcemanager.common.metrics.NodeMetricsSample;
+
+
+/**
+ * In-memory store of the metrics pushed by the nodes, answering fleet wide queries
+ * without contacting the nodes.
+ * <p>
+ * Hosts are assigned a row, and the latest value of each metric is kept in a column
+ * indexed by row, so a query on a metric scans a single array. The fleet wide
+ * aggregates of each metric are kept in ring buffers, downsampled at two resolutions:
+ * one minute steps over the last hour and fifteen minutes steps over the last day.
+ * <p>
+ * Hosts which did not push their metrics for {@link #HOST_TIMEOUT}, measured with the
+ * clock of the resource manager, are forgotten.
+ * This class is thread safe.
+ */
+public class NodeMetricsStore {
+
+    static final long HOST_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long FINE_STEP = TimeUnit.MINUTES.toMillis(1);
+
+    private static final int FINE_STEPS = 60;
+
+    private static final long COARSE_STEP = TimeUnit.MINUTES.toMillis(15);
+
+    private static final int COARSE_STEPS = 96;
+
+    private static final int INITIAL_ROWS = 64;
+
+    private final Map<String, Integer> rows = new HashMap<>();
+
+    private final LinkedList<Integer> freeRows = new LinkedList<>();
+
+    private long[] lastUpdates = new long[INITIAL_ROWS];
+
+    private final Map<String, double[]> columns = new HashMap<>();
+
+    private final Map<String, FleetSeries[]> series = new HashMap<>();
+
+    private long lastEviction;
+
+    /**
+     * Stores a sample pushed by a node. Samples are timestamped with the time they are
+     * received, the clocks of the nodes are not trusted.
+     *
+     * @return false if the sample only contains changes and the host is not known, i.e. a
+     *         full sample is needed
+     */
+    public boolean push(NodeMetricsSample sample) {
+        return push(sample, System.currentTimeMillis());
+    }
+
+    synchronized boolean push(NodeMetricsSample sample, long receiveTime) {
+        evictStaleHosts(receiveTime);
+
+        Integer row = rows.get(sample.getHostName());
+        if (row == null) {
+            if (!sample.isFull()) {
+                return false;
+            }
+            row = allocateRow(sample.getHostName());
+        } else if (sample.isFull()) {
+            clearRow(row);
+        }
+        lastUpdates[row] = Math.max(lastUpdates[row], receiveTime);
+
+        for (Map.Entry<String, Double> value : sample.getValues().entrySet()) {
+            if (value.getValue() != null) {
+                column(value.getKey())[row] = value.getValue();
+            }
+        }
+
+        // values which did not change are accounted as well
+        for (Map.Entry<String, double[]> column : columns.entrySet()) {
+            double value = column.getValue()[row];
+            if (!Double.isNaN(value)) {
+                for (FleetSeries fleetSeries : series.get(column.getKey())) {
+                    fleetSeries.add(receiveTime, value);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the hosts having the highest latest value of the metric, by decreasing value
+     */
+    public List<HostMetricValue> getTopHosts(String metric, int count) {
+        return getTopHosts(metric, count, System.currentTimeMillis());
+    }
+
+    synchronized List<HostMetricValue> getTopHosts(String metric, int count, long now) {
+        double[] column = columns.get(metric);
+        if (column == null || count <= 0) {
+            return new ArrayList<>(0);
+        }
+        List<HostMetricValue> values = new ArrayList<>();
+        for (Map.Entry<String, Integer> row : rows.entrySet()) {
+            double value = column[row.getValue()];
+            long lastUpdate = lastUpdates[row.getValue()];
+            if (!Double.isNaN(value) && now - lastUpdate <= HOST_TIMEOUT) {
+                values.add(new HostMetricValue(row.getKey(), value, lastUpdate));
+            }
+        }
+        Collections.sort(values, new Comparator<HostMetricValue>() {
+            @Override
+            public int compare(HostMetricValue v1, HostMetricValue v2) {
+                return Double.compare(v2.getValue(), v1.getValue());
+            }
+        });
+        return new ArrayList<>(values.subList(0, Math.min(count, values.size())));
+    }
+
+    /**
+     * @return the latest value of the metric, by host name, for the hosts which pushed it recently
+     */
+    public Map<String, Double> getLatestValues(String metric) {
+        return getLatestValues(metric, System.currentTimeMillis());
+    }
+
+    synchronized Map<String, Double> getLatestValues(String metric, long now) {
+        Map<String, Double> values = new HashMap<>();
+        double[] column = columns.get(metric);
+        if (column == null) {
+            return values;
+        }
+        for (Map.Entry<String, Integer> row : rows.entrySet()) {
+            double value = column[row.getValue()];
+            if (!Double.isNaN(value) && now - lastUpdates[row.getValue()] <= HOST_TIMEOUT) {
+                values.put(row.getKey(), value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return the history of the metric aggregated over all the hosts, with the finest
+     *         resolution covering the range
+     */
+    public FleetMetricHistory getHistory(String metric, long range) {
+        return getHistory(metric, range, System.currentTimeMillis());
+    }
+
+    synchronized FleetMetricHistory getHistory(String metric, long range, long now) {
+        FleetSeries[] metricSeries = series.get(metric);
+        if (metricSeries == null) {
+            return new FleetMetricHistory(metric, FINE_STEP, new long[0], new double[0], new double[0], new int[0]);
+        }
+        FleetSeries fleetSeries = range <= FINE_STEP * FINE_STEPS ? metricSeries[0] : metricSeries[1];
+        return fleetSeries.history(metric, now - range, now);
+    }
+
+    private double[] column(String metric) {
+        double[] column = columns.get(metric);
+        if (column == null) {
+            column = new double[lastUpdates.length];
+            Arrays.fill(column, Double.NaN);
+            columns.put(metric, column);
+            series.put(metric,
+                       new FleetSeries[] { new FleetSeries(FINE_STEP, FINE_STEPS),
+                                           new FleetSeries(COARSE_STEP, COARSE_STEPS) });
+        }
+        return column;
+    }
+
+    private int allocateRow(String hostName) {
+        int row;
+        if (!freeRows.isEmpty()) {
+            row = freeRows.removeFirst();
+        } else {
+            row = rows.size();
+            if (row == lastUpdates.length) {
+                int newLength = lastUpdates.length * 2;
+                lastUpdates = Arrays.copyOf(lastUpdates, newLength);
+                for (Map.Entry<String, double[]> column : columns.entrySet()) {
+                    double[] newColumn = Arrays.copyOf(column.getValue(), newLength);
+                    Arrays.fill(newColumn, row, newLength, Double.NaN);
+                    column.setValue(newColumn);
+                }
+            }
+        }
+        rows.put(hostName, row);
+        lastUpdates[row] = 0;
+        return row;
+    }
+
+    private void clearRow(int row) {
+        for (double[] column : columns.values()) {
+            column[row] = Double.NaN;
+        }
+    }
+
+    private void evictStaleHosts(long now) {
+        if (now - lastEviction < HOST_TIMEOUT) {
+            return;
+        }
+        lastEviction = now;
+        Iterator<Map.Entry<String, Integer>> iterator = rows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            int row = iterator.next().getValue();
+            if (now - lastUpdates[row] > HOST_TIMEOUT) {
+                iterator.remove();
+                clearRow(row);
+                freeRows.add(row);
+            }
+        }
+    }
+
+    /**
+     * Ring buffer of the aggregates of a metric over all the hosts, by time step.
+     */
+    private static class FleetSeries {
+
+        private final long step;
+
+        private final long[] steps;
+
+        private final double[] sums;
+
+        private final double[] maximums;
+
+        private final int[] counts;
+
+        FleetSeries(long step, int capacity) {
+            this.step = step;
+            this.steps = new long[capacity];
+            this.sums = new double[capacity];
+            this.maximums = new double[capacity];
+            this.counts = new int[capacity];
+            Arrays.fill(steps, -1);
+        }
+
+        void add(long time, double value) {
+            long stepNumber = time / step;
+            int index = (int) (stepNumber % steps.length);
+            if (steps[index] != stepNumber) {
+                if (steps[index] > stepNumber) {
+                    // too old to be kept
+                    return;
+                }
+                steps[index] = stepNumber;
+                sums[index] = 0;
+                maximums[index] = value;
+                counts[index] = 0;
+            }
+            sums[index] += value;
+            maximums[index] = Math.max(maximums[index], value);
+            counts[index]++;
+        }
+
+        FleetMetricHistory history(String metric, long from, long to) {
+            long firstStep = Math.max(from / step, to / step - steps.length + 1);
+            long lastStep = to / step;
+            int length = (int) Math.max(lastStep - firstStep + 1, 0);
+            long[] times = new long[length];
+            double[] averages = new double[length];
+            double[] stepMaximums = new double[length];
+            int[] samples = new int[length];
+            int size = 0;
+            for (long stepNumber = firstStep; stepNumber <= lastStep; stepNumber++) {
+                int index = (int) (stepNumber % steps.length);
+                if (steps[index] == stepNumber && counts[index] > 0) {
+                    times[size] = stepNumber * step;
+                    averages[size] = sums[index] / counts[index];
+                    stepMaximums[size] = maximums[index];
+                    samples[size] = counts[index];
+                    size++;
+                }
+            }
+            return new FleetMetricHistory(metric,
+                                          step,
+                                          Arrays.copyOf(times, size),
+                                          Arrays.copyOf(averages, size),
+                                          Arrays.copyOf(stepMaximums, size),
+                                          Arrays.copyOf(samples, size));
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Accrual failure detector fed by the heartbeats the nodes send to the resource manager.
+ * <p>
+ * For each node, the intervals between its last heartbeats give an estimation of the
+ * probability that its next heartbeat is still to come. The suspicion level phi is
+ * {@code -log10} of this probability, so that a phi of 8 means that the node has one
+ * chance in 10^8 to still be alive (see "The phi accrual failure detector", Hayashibara
+ * et al.).
+ * <p>
+ * A node is monitored once two of its heartbeats have been received. Other nodes, e.g.
+ * nodes which were not started by {@code RMNodeStarter}, have to be checked by pinging
+ * them. This class is thread safe.
+ */
+public class NodeFailureDetector {
+
+    /** Lower bound of the standard deviation, as a ratio of the mean interval */
+    private static final double MIN_STD_DEVIATION_RATIO = 0.1;
+
+    private static final double MIN_STD_DEVIATION = 100;
+
+    private final int windowSize;
+
+    private final ConcurrentMap<String, HeartbeatHistory> histories = new ConcurrentHashMap<>();
+
+    private final AtomicLong heartbeats = new AtomicLong();
+
+    private final AtomicLong suspicions = new AtomicLong();
+
+    private final AtomicLong falseSuspicions = new AtomicLong();
+
+    private final AtomicLong pings = new AtomicLong();
+
+    private final AtomicLong downNodes = new AtomicLong();
+
+    public NodeFailureDetector(int windowSize) {
+        this.windowSize = Math.max(windowSize, 1);
+    }
+
+    public void heartbeat(String nodeUrl, long time) {
+        heartbeats.incrementAndGet();
+        HeartbeatHistory history = histories.get(nodeUrl);
+        if (history == null) {
+            history = new HeartbeatHistory(windowSize);
+            HeartbeatHistory existing = histories.putIfAbsent(nodeUrl, history);
+            if (existing != null) {
+                history = existing;
+            }
+        }
+        history.heartbeat(time);
+    }
+
+    /**
+     * @return true if enough heartbeats have been received from the node to compute its suspicion level
+     */
+    public boolean isMonitored(String nodeUrl) {
+        HeartbeatHistory history = histories.get(nodeUrl);
+        return history != null && history.isMonitored();
+    }
+
+    /**
+     * @return the suspicion level of the node at the given time, 0 if the node is not monitored
+     */
+    public double phi(String nodeUrl, long time) {
+        HeartbeatHistory history = histories.get(nodeUrl);
+        return history == null ? 0 : history.phi(time);
+    }
+
+    /**
+     * Marks the node as suspected.
+     *
+     * @return true if the node was not already suspected
+     */
+    public boolean suspect(String nodeUrl) {
+        HeartbeatHistory history = histories.get(nodeUrl);
+        if (history != null && history.suspect()) {
+            suspicions.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records that the node answered a ping. A suspected node stops being monitored until
+     * its heartbeats are received again.
+     */
+    public void pinged(String nodeUrl) {
+        pings.incrementAndGet();
+        HeartbeatHistory history = histories.get(nodeUrl);
+        if (history != null && history.isSuspected()) {
+            falseSuspicions.incrementAndGet();
+            histories.remove(nodeUrl, history);
+        }
+    }
+
+    /**
+     * Records that the node did not answer a ping and has been declared down.
+     */
+    public void down(String nodeUrl) {
+        pings.incrementAndGet();
+        downNodes.incrementAndGet();
+        histories.remove(nodeUrl);
+    }
+
+    public void remove(String nodeUrl) {
+        histories.remove(nodeUrl);
+    }
+
+    public Metrics getMetrics() {
+        int monitored = 0;
+        int suspected = 0;
+        for (HeartbeatHistory history : histories.values()) {
+            if (history.isMonitored()) {
+                monitored++;
+            }
+            if (history.isSuspected()) {
+                suspected++;
+            }
+        }
+        return new Metrics(monitored,
+                           suspected,
+                           heartbeats.get(),
+                           suspicions.get(),
+                           falseSuspicions.get(),
+                           pings.get(),
+                           downNodes.get());
+    }
+
+    /**
+     * Sliding window of the intervals between the heartbeats of a node.
+     */
+    private static class HeartbeatHistory {
+
+        private final long[] intervals;
+
+        private int count;
+
+        private int next;
+
+        private double sum;
+
+        private double sumOfSquares;
+
+        private long lastHeartbeat = -1;
+
+        private boolean suspected;
+
+        HeartbeatHistory(int windowSize) {
+            this.intervals = new long[windowSize];
+        }
+
+        synchronized void heartbeat(long time) {
+            if (lastHeartbeat >= 0 && time > lastHeartbeat) {
+                long interval = time - lastHeartbeat;
+                if (count == intervals.length) {
+                    sum -= intervals[next];
+                    sumOfSquares -= (double) intervals[next] * intervals[next];
+                } else {
+                    count++;
+                }
+                intervals[next] = interval;
+                next = (next + 1) % intervals.length;
+                sum += interval;
+                sumOfSquares += (double) interval * interval;
+            }
+            lastHeartbeat = Math.max(time, lastHeartbeat);
+            suspected = false;
+        }
+
+        synchronized boolean isMonitored() {
+            return count > 0;
+        }
+
+        synchronized boolean suspect() {
+            if (suspected) {
+                return false;
+            }
+            suspected = true;
+            return true;
+        }
+
+        synchronized boolean isSuspected() {
+            return suspected;
+        }
+
+        synchronized double phi(long time) {
+            if (count == 0) {
+                return 0;
+            }
+            double mean = sum / count;
+            double variance = Math.max(sumOfSquares / count - mean * mean, 0);
+            double stdDeviation = Math.max(Math.sqrt(variance),
+                                           Math.max(MIN_STD_DEVIATION, mean * MIN_STD_DEVIATION_RATIO));
+            long elapsed = time - lastHeartbeat;
+            // logistic approximation of the cumulative distribution function of the normal distribution
+            double y = (elapsed - mean) / stdDeviation;
+            double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+            if (elapsed > mean) {
+                return -Math.log10(e / (1.0 + e));
+            } else {
+                return -Math.log10(1.0 - 1.0 / (1.0 + e));
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the activity of a failure detector.
+     */
+    public static class Metrics implements Serializable {
+
+        private int monitoredNodes;
+
+        private int suspectedNodes;
+
+        private long heartbeats;
+
+        private long suspicions;
+
+        private long falseSuspicions;
+
+        private long pings;
+
+        private long downNodes;
+
+        public Metrics() {
+        }
+
+        Metrics(int monitoredNodes, int suspectedNodes, long heartbeats, long suspicions, long falseSuspicions,
+                long pings, long downNodes) {
+            this.monitoredNodes = monitoredNodes;
+            this.suspectedNodes = suspectedNodes;
+            this.heartbeats = heartbeats;
+            this.suspicions = suspicions;
+            this.falseSuspicions = falseSuspicions;
+            this.pings = pings;
+            this.downNodes = downNodes;
+        }
+
+        /** @return the number of nodes whose heartbeats are monitored */
+        public int getMonitoredNodes() {
+            return monitoredNodes;
+        }
+
+        /** @return the number of nodes currently suspected */
+        public int getSuspectedNodes() {
+            return suspectedNodes;
+        }
+
+        /** @return the number of heartbeats received */
+        public long getHeartbeats() {
+            return heartbeats;
+        }
+
+        /** @return the number of times a node has been suspected */
+        public long getSuspicions() {
+            return suspicions;
+        }
+
+        /** @return the number of suspected nodes which answered the ping */
+        public long getFalseSuspicions() {
+            return falseSuspicions;
+        }
+
+        /** @return the number of nodes pinged */
+        public long getPings() {
+            return pings;
+        }
+
+        /** @return the number of nodes which did not answer the ping */
+        public long getDownNodes() {
+            return downNodes;
+        }
+
+        /**
+         * @param metrics the activities of several failure detectors
+         * @return the activity of all the given failure detectors together
+         */
+        public static Metrics sum(List<Metrics> metrics) {
+            int monitoredNodes = 0;
+            int suspectedNodes = 0;
+            long heartbeats = 0;
+            long suspicions = 0;
+            long falseSuspicions = 0;
+            long pings = 0;
+            long downNodes = 0;
+            for (Metrics m : metrics) {
+                monitoredNodes += m.monitoredNodes;
+                suspectedNodes += m.suspectedNodes;
+                heartbeats += m.heartbeats;
+                suspicions += m.suspicions;
+                falseSuspicions += m.falseSuspicions;
+                pings += m.pings;
+                downNodes += m.downNodes;
+            }
+            return new Metrics(monitoredNodes,
+                               suspectedNodes,
+                               heartbeats,
+                               suspicions,
+                               falseSuspicions,
+                               pings,
+                               downNodes);
+        }
+
+        @Override
+        public String toString() {
+            return "monitored nodes: " + monitoredNodes + ", suspected nodes: " + suspectedNodes + ", heartbeats: " +
+                   heartbeats + ", suspicions: " + suspicions + ", false suspicions: " + falseSuspicions +
+                   ", pings: " + pings + ", down nodes: " + downNodes;
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.security.Permission;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -63,6 +64,8 @@ import org.ow2.proactive.resourcemanager.db.RMNodeData;
 import org.ow2.proactive.resourcemanager.exception.AddingNodesException;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.frontend.RMMonitoringImpl;
+import org.ow2.proactive.resourcemanager.nodesource.infrastructure.HostsDeploymentScheduler;
+import org.ow2.proactive.resourcemanager.nodesource.infrastructure.HostsFileBasedInfrastructureManager;
 import org.ow2.proactive.resourcemanager.nodesource.infrastructure.InfrastructureManager;
 import org.ow2.proactive.resourcemanager.nodesource.policy.AccessType;
 import org.ow2.proactive.resourcemanager.nodesource.policy.NodeSourcePolicy;
@@ -96,6 +99,13 @@ public class NodeSource implements InitActive, RunActive {
 
     private int pingFrequency = PAResourceManagerProperties.RM_NODE_SOURCE_PING_FREQUENCY.getValueAsInt();
 
+    private final int failureDetectorCheckFrequency = PAResourceManagerProperties.RM_NODE_FAILURE_DETECTOR_CHECK_FREQUENCY.getValueAsInt();
+
+    private final int failureDetectorPhiThreshold = PAResourceManagerProperties.RM_NODE_FAILURE_DETECTOR_PHI_THRESHOLD.getValueAsInt();
+
+    // suspects the nodes from their heartbeats, only the silent nodes are pinged
+    private final NodeFailureDetector failureDetector = new NodeFailureDetector(PAResourceManagerProperties.RM_NODE_FAILURE_DETECTOR_WINDOW_SIZE.getValueAsInt());
+
     /** Default name for NS with local nodes started with the Scheduler by default */
     public static final String DEFAULT_LOCAL_NODES_NODE_SOURCE_NAME = "LocalNodes";
 
@@ -237,23 +247,23 @@ public class NodeSource implements InitActive, RunActive {
     public void runActivity(Body body) {
         Service service = new Service(body);
 
-        long timeStamp = System.currentTimeMillis();
-        long delta = 0;
+        long lastPingTime = System.currentTimeMillis();
+        long lastCheckTime = lastPingTime;
 
-        // recalculating nodes number only once per policy period
         while (body.isActive()) {
 
             try {
-                service.blockingServeOldest(pingFrequency);
-                delta += System.currentTimeMillis() - timeStamp;
-                timeStamp = System.currentTimeMillis();
-
-                if (delta > pingFrequency) {
-                    logger.info("[" + name + "] Pinging alive nodes : " + getAliveNodes().size());
-                    for (Node node : getAliveNodes()) {
-                        pingNode(node);
-                    }
-                    delta = 0;
+                service.blockingServeOldest(Math.min(pingFrequency, failureDetectorCheckFrequency));
+                long now = System.currentTimeMillis();
+
+                if (now - lastCheckTime >= failureDetectorCheckFrequency) {
+                    checkSuspectedNodes(now);
+                    lastCheckTime = now;
+                }
+
+                if (now - lastPingTime >= pingFrequency) {
+                    pingSilentNodes();
+                    lastPingTime = now;
                 }
             } catch (InterruptedException e) {
                 logger.warn("runActivity interrupted", e);
@@ -261,6 +271,35 @@ public class NodeSource implements InitActive, RunActive {
         }
     }
 
+    /**
+     * Pings the nodes whose heartbeats are late, to confirm that they are down.
+     */
+    private void checkSuspectedNodes(long now) {
+        for (Node node : getAliveNodes()) {
+            String nodeUrl = node.getNodeInformation().getURL();
+            if (failureDetector.isMonitored(nodeUrl) && failureDetector.phi(nodeUrl, now) >= failureDetectorPhiThreshold &&
+                failureDetector.suspect(nodeUrl)) {
+                logger.info("[" + name + "] Heartbeats of node " + nodeUrl + " are late, pinging it");
+                pingNode(node);
+            }
+        }
+    }
+
+    /**
+     * Pings the nodes which do not send heartbeats.
+     */
+    private void pingSilentNodes() {
+        int silentNodes = 0;
+        for (Node node : getAliveNodes()) {
+            if (!failureDetector.isMonitored(node.getNodeInformation().getURL())) {
+                pingNode(node);
+                silentNodes++;
+            }
+        }
+        logger.info("[" + name + "] Pinging alive nodes without heartbeat : " + silentNodes +
+                    ", failure detector: " + failureDetector.getMetrics());
+    }
+
     /**
      * Updates internal node source structures.
      */
@@ -569,6 +608,7 @@ public class NodeSource implements InitActive, RunActive {
         //node could have fallen between remove request and the confirm
         if (this.nodes.containsKey(nodeUrl)) {
             logger.info("[" + name + "] removing node : " + nodeUrl);
+            failureDetector.remove(nodeUrl);
             Node node = nodes.remove(nodeUrl);
             RMCore.topologyManager.removeNode(node);
             try {
@@ -758,6 +798,7 @@ public class NodeSource implements InitActive, RunActive {
         }
 
         logger.warn("[" + name + "] Detected down node: " + nodeUrl);
+        failureDetector.remove(nodeUrl);
         Node downNode = nodes.remove(nodeUrl);
         if (downNode != null) {
             downNodes.put(nodeUrl, downNode);
@@ -811,17 +852,51 @@ public class NodeSource implements InitActive, RunActive {
 
                 try {
                     node.getNumberOfActiveObjects();
+                    failureDetector.pinged(nodeUrl);
                     if (logger.isDebugEnabled()) {
                         logger.debug("Node " + nodeUrl + " is alive");
                     }
                 } catch (Throwable t) {
                     logger.warn("Error occurred when trying to ping node " + nodeUrl, t);
+                    failureDetector.down(nodeUrl);
                     stub.detectedPingedDownNode(nodeName, nodeUrl);
                 }
             }
         });
     }
 
+    /**
+     * Records the heartbeats received by the resource manager from nodes of this node source.
+     *
+     * @param nodeUrls the urls of the nodes which sent a heartbeat
+     */
+    @ImmediateService
+    public void heartbeatReceived(List<String> nodeUrls) {
+        long now = System.currentTimeMillis();
+        for (String nodeUrl : nodeUrls) {
+            failureDetector.heartbeat(nodeUrl, now);
+        }
+    }
+
+    /**
+     * @return the activity of the failure detector of this node source
+     */
+    @ImmediateService
+    public NodeFailureDetector.Metrics getFailureDetectorMetrics() {
+        return failureDetector.getMetrics();
+    }
+
+    /**
+     * @return the deployment activity of the infrastructure if it deploys nodes on a list of hosts, null otherwise
+     */
+    @ImmediateService
+    public HostsDeploymentScheduler.Metrics getDeploymentMetrics() {
+        if (infrastructureManager instanceof HostsFileBasedInfrastructureManager) {
+            return ((HostsFileBasedInfrastructureManager) infrastructureManager).getDeploymentMetrics();
+        }
+        return null;
+    }
+
     /**
      * The provider of the node source is the resource manager client initiated
      * the node source creation.
@@ -35,8 +35,12 @@ import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.security.KeyException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
 import org.objectweb.proactive.core.node.Node;
@@ -48,6 +52,10 @@ import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.nodesource.common.Configurable;
 import org.ow2.proactive.resourcemanager.utils.CommandLineBuilder;
 
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.io.CharStreams;
+
 
 /**
  * This class implements the basics common operations that can be performed on a
@@ -70,12 +78,26 @@ import org.ow2.proactive.resourcemanager.utils.CommandLineBuilder;
  * <li>{@link #getSubmitJobCommand()}: The command required to submit a new job.
  * </li>
  * </ul>
+ * <p>
+ * When {@link PAResourceManagerProperties#RM_NODESOURCE_BATCH_JOB_ARRAY} is
+ * enabled and the implementation provides {@link #getArrayIndexVariable()}
+ * and {@link #getArrayJobOption(String, int)}, the pending node requests are submitted together as a single job array.
+ * The registration of its nodes is then tracked from
+ * {@link #notifyAcquiredNode(Node)} and from the deploying nodes timeouts,
+ * instead of having a thread waiting for each node, and the jobs of removed
+ * nodes are deleted in batches.
  */
 public abstract class BatchJobInfrastructure extends InfrastructureManager {
 
     /** The frequency in ms for the refresh of the node acquisition */
     private static final int NODE_ACQUISITION_CHECK_RATE = 1000;
 
+    /** The frequency in ms for checking the exit of the commands run on the batch system head node */
+    private static final int COMMAND_EXIT_CHECK_RATE = 100;
+
+    /** The maximum number of jobs deleted by a single delete job command */
+    private static final int MAX_JOBS_PER_DELETE_COMMAND = 100;
+
     /**
      * Path to the Java executable on the remote hosts
      */
@@ -175,12 +197,60 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
      */
     private static final String PN_TIMEOUT_KEY = "pnTimeout";
 
+    /**
+     * The nodes of the submitted job arrays which did not register yet, node
+     * name -&gt; array element. Only accessed with the write lock held.
+     */
+    private transient Map<String, ArrayElement> pendingArrayNodes = new HashMap<>();
+
+    /**
+     * The node acquisition requests waiting to be submitted in a job array
+     */
+    private transient BatchedRequests<Integer> nodeRequests = new BatchedRequests<>(new BatchedRequests.Handler<Integer>() {
+        @Override
+        public void handle(List<Integer> batch) {
+            int nbNodes = 0;
+            for (Integer requested : batch) {
+                nbNodes += requested;
+            }
+            submitNodeArray(nbNodes);
+        }
+    });
+
+    /**
+     * The ids of the jobs waiting to be deleted
+     */
+    private transient BatchedRequests<String> jobDeletions = new BatchedRequests<>(new BatchedRequests.Handler<String>() {
+        @Override
+        public void handle(List<String> batch) {
+            for (List<String> jobIDs : Lists.partition(batch, MAX_JOBS_PER_DELETE_COMMAND)) {
+                try {
+                    deleteJobs(jobIDs);
+                } catch (RMException e) {
+                    logger.warn(getDeleteJobCommand() + " command failed, cannot ensure jobs " + jobIDs +
+                                " are deleted.", e);
+                }
+            }
+        }
+    });
+
+    private transient Executor nodeSourceExecutor = new Executor() {
+        @Override
+        public void execute(Runnable task) {
+            nodeSource.executeInParallel(task);
+        }
+    };
+
     /**
      * Acquires as much nodes as possible, making one distinct reservation per
      * node
      */
     @Override
     public void acquireAllNodes() {
+        if (isArraySubmissionEnabled()) {
+            requestArrayNodes(maxNodes);
+            return;
+        }
         // deployingNodes and currentNodes updated in acquireNode
         for (; (getCurrentNodesSize() + getNbDeployingNodes()) < maxNodes;) {
             acquireNode();
@@ -192,6 +262,10 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
      */
     @Override
     public void acquireNode() {
+        if (isArraySubmissionEnabled()) {
+            requestArrayNodes(1);
+            return;
+        }
         final String bjs = getBatchinJobSystemName();
         writeLock.lock();
         try {
@@ -232,6 +306,207 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         });
     }
 
+    /**
+     * Reserves up to the given number of nodes and queues them to be submitted
+     * in a job array along with the other pending requests
+     */
+    private void requestArrayNodes(int nbNodes) {
+        int requested;
+        writeLock.lock();
+        try {
+            requested = Math.min(nbNodes, maxNodes - getCurrentNodesSize() - getNbDeployingNodes());
+            if (requested <= 0) {
+                logger.warn("Attempting to acquire nodes while maximum reached");
+                return;
+            }
+            updateDeployingNodes(requested);
+        } catch (RuntimeException e) {
+            logger.error("Exception while acquiring nodes: " + e.getMessage());
+            throw e;
+        } finally {
+            writeLock.unlock();
+        }
+        nodeRequests.add(requested, nodeSourceExecutor);
+    }
+
+    /**
+     * Submits the given number of nodes as a single job array. The call does
+     * not wait for the nodes registration: the deploying nodes are resolved by
+     * {@link #notifyAcquiredNode(Node)} or by their timeout.
+     */
+    private void submitNodeArray(int nbNodes) {
+        String bjs = getBatchinJobSystemName();
+        String arrayName = bjs + "-" + nodeSource.getName() + "-" + ProActiveCounter.getUniqID();
+        String cmd;
+        String obfuscatedCmd;
+        try {
+            CommandLineBuilder clb = new CommandLineBuilder();
+            // the index is escaped for both the local and the remote shells, so that
+            // it is only expanded when the job array element runs
+            clb.setNodeName(arrayName + "-\\\\\\$" + getArrayIndexVariable());
+            clb.setJavaPath(this.javaPath);
+            clb.setRmURL(getRmUrl());
+            clb.setRmHome(this.schedulingPath);
+            clb.setSourceName(this.nodeSource.getName());
+            clb.setPaProperties(this.javaOptions);
+            clb.setCredentialsValueAndNullOthers(new String(getCredentials().getBase64()));
+            String submit = "\\\" | " + getSubmitJobCommand() + " " + getArrayJobOption(arrayName, nbNodes) + " " +
+                            this.submitJobOpt;
+            cmd = "echo \\\"" + clb.buildCommandLine(true).replace("\"", "\\\"") + submit;
+            obfuscatedCmd = "echo \\\"" + clb.buildCommandLine(false).replace("\"", "\\\"") + submit;
+        } catch (Exception e) {
+            logger.error("Cannot build the command to submit " + nbNodes + " nodes to " + bjs, e);
+            updateDeployingNodes(-nbNodes);
+            return;
+        }
+
+        JobArray array = new JobArray(arrayName);
+        List<ArrayElement> elements = new ArrayList<>(nbNodes);
+        writeLock.lock();
+        try {
+            for (int index = 1; index <= nbNodes; index++) {
+                ArrayElement element = new ArrayElement(array, arrayName + "-" + index, index);
+                pendingArrayNodes.put(element.nodeName, element);
+                elements.add(element);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+
+        try {
+            for (ArrayElement element : elements) {
+                element.deployingNodeURL = super.addDeployingNode(element.nodeName,
+                                                                  obfuscatedCmd,
+                                                                  "Deploying node on " + bjs +
+                                                                                 " scheduler in job array " +
+                                                                                 arrayName,
+                                                                  this.nodeTimeOut);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Cannot add the deploying nodes of job array " + arrayName, e);
+            arrayNodesLost(elements, "Cannot add the deploying node: " + e.getMessage());
+            return;
+        }
+
+        String lf = System.lineSeparator();
+        String output = "";
+        String errput = "";
+        int exitCode;
+        try {
+            Process p = runCommand(cmd);
+            output = CharStreams.toString(new InputStreamReader(p.getInputStream()));
+            exitCode = waitForCommand(p, getSubmitJobCommand());
+            errput = extractProcessErrput(p);
+        } catch (Exception e) {
+            logger.error("Cannot submit job array " + arrayName + " on host " + this.serverName, e);
+            arrayNodesLost(elements, "Cannot submit the job array on " + bjs + " scheduler: " + e.getMessage());
+            return;
+        }
+
+        // as for single nodes, a valid job id is trusted even if the command did not exit normally
+        String arrayJobID = extractSubmitOutput(output);
+        if (arrayJobID == null || arrayJobID.isEmpty()) {
+            logger.error("Cannot get jobID from " + getSubmitJobCommand() + " output. Nodes of job array " +
+                         arrayName + " are not expected anymore.");
+            arrayNodesLost(elements,
+                           "Command failed to launch the job array on " + bjs + " scheduler" + lf +
+                                     "   >Error code: " + exitCode + lf + "   >Errput: " + errput + "   >Output: " +
+                                     output);
+            return;
+        }
+        if (exitCode != 0) {
+            logger.warn("Submission of job array " + arrayName + " exit code != 0 but jobID " + arrayJobID +
+                        " retrieved from the output. Waiting for its nodes to register.");
+        }
+        for (String jobID : arraySubmitted(array, elements, arrayJobID)) {
+            jobDeletions.add(jobID, nodeSourceExecutor);
+        }
+    }
+
+    /**
+     * Records the job id of a submitted job array, and completes the job id of
+     * its elements whose node already registered.
+     *
+     * @return the job ids of the elements whose node was lost or removed
+     *         before the job id was known, these jobs have to be deleted
+     */
+    private List<String> arraySubmitted(final JobArray array, final List<ArrayElement> elements,
+            final String arrayJobID) {
+        return setPersistedInfraVariable(new PersistedInfraVariablesHandler<List<String>>() {
+            @Override
+            public List<String> handle() {
+                array.jobID = arrayJobID;
+                List<String> toDelete = new ArrayList<>();
+                for (ArrayElement element : elements) {
+                    if (pendingArrayNodes.containsKey(element.nodeName)) {
+                        // still waiting for the node
+                        continue;
+                    }
+                    if (getCurrentNodes().containsKey(element.nodeName)) {
+                        getCurrentNodes().put(element.nodeName, getElementJobID(element));
+                    } else {
+                        toDelete.add(getElementJobID(element));
+                    }
+                }
+                logger.debug("Job array " + array.name + " submitted with jobID " + arrayJobID);
+                return toDelete;
+            }
+        });
+    }
+
+    /**
+     * Declares lost the given elements of a job array whose nodes are still
+     * expected
+     */
+    private void arrayNodesLost(List<ArrayElement> elements, String description) {
+        List<ArrayElement> lost = new ArrayList<>(elements.size());
+        writeLock.lock();
+        try {
+            for (ArrayElement element : elements) {
+                if (pendingArrayNodes.remove(element.nodeName) != null) {
+                    lost.add(element);
+                }
+            }
+            updateDeployingNodes(-lost.size());
+        } finally {
+            writeLock.unlock();
+        }
+        for (ArrayElement element : lost) {
+            if (element.deployingNodeURL != null) {
+                super.declareDeployingNodeLost(element.deployingNodeURL, description);
+            }
+        }
+    }
+
+    /**
+     * @return the job id of the job array element, or null if the job array
+     *         submission did not return yet
+     */
+    private String getElementJobID(ArrayElement element) {
+        if (element.array.jobID == null) {
+            return null;
+        }
+        return getArrayElementJobID(element.array.jobID, element.index);
+    }
+
+    private boolean isArraySubmissionEnabled() {
+        return PAResourceManagerProperties.RM_NODESOURCE_BATCH_JOB_ARRAY.getValueAsBoolean() &&
+               getArrayIndexVariable() != null && getArrayJobOption(getBatchinJobSystemName(), 1) != null;
+    }
+
+    /**
+     * Runs the given command on the batch system head node
+     *
+     * @param cmd
+     *            the command to run
+     * @return the process running the command
+     * @throws IOException
+     *             if the command cannot be started
+     */
+    protected Process runCommand(String cmd) throws IOException {
+        return Utils.runSSHCommand(InetAddress.getByName(this.serverName), cmd, this.sshOptions);
+    }
+
     /**
      * Builds the command line to execute on the PBS frontend and wait for every
      * launched nodes to register. If the node doesn't register (ie. runs
@@ -550,6 +825,11 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
     public void notifyAcquiredNode(Node node) throws RMException {
         String nodeName = node.getNodeInformation().getName();
         logger.debug("New expected node registered: " + nodeName);
+        // called with the write lock held by the infrastructure manager
+        ArrayElement element = pendingArrayNodes.remove(nodeName);
+        if (element != null) {
+            addNodeAndDecrementDeployingNode(nodeName, getElementJobID(element));
+        }
     }
 
     /**
@@ -559,7 +839,24 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
      */
     @Override
     protected void notifyDeployingNodeLost(String pnURL) {
-        putPnTimeout(pnURL, true);
+        String nodeName = pnURL.substring(pnURL.lastIndexOf('/') + 1);
+        String jobID;
+        writeLock.lock();
+        try {
+            ArrayElement element = pendingArrayNodes.remove(nodeName);
+            if (element == null) {
+                putPnTimeout(pnURL, true);
+                return;
+            }
+            decrementDeployingNodes();
+            jobID = getElementJobID(element);
+        } finally {
+            writeLock.unlock();
+        }
+        // if the job array submission did not return yet, the job is deleted when it does
+        if (jobID != null) {
+            jobDeletions.add(jobID, nodeSourceExecutor);
+        }
     }
 
     @Override
@@ -575,12 +872,21 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         String deleteCmd = getDeleteJobCommand();
         String jobID = null;
         String nodeName = node.getNodeInformation().getName();
-        if ((jobID = getCurrentNode(nodeName)) != null) {
-            try {
-                deleteJob(jobID);
-            } catch (RMException e) {
-                logger.warn(deleteCmd + " command failed, cannot ensure job " + jobID + " is deleted. Anyway, node " +
-                            nodeName + " is removed from the infrastructure manager.", e);
+        if ((jobID = getCurrentNode(nodeName)) != null || isCurrentNode(nodeName)) {
+            if (jobID == null) {
+                // the job of a job array element is deleted once the array submission returns
+                logger.warn("No jobID known yet for node " + nodeName +
+                            ", its job will be deleted only if it belongs to a job array being submitted.");
+            } else if (isArraySubmissionEnabled()) {
+                jobDeletions.add(jobID, nodeSourceExecutor);
+            } else {
+                try {
+                    deleteJob(jobID);
+                } catch (RMException e) {
+                    logger.warn(deleteCmd + " command failed, cannot ensure job " + jobID +
+                                " is deleted. Anyway, node " + nodeName +
+                                " is removed from the infrastructure manager.", e);
+                }
             }
             // atomic remove is important, furthermore we ensure consistent
             // trace
@@ -611,45 +917,78 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
      *             if the {@link #getDeleteJobCommand()} command failed
      */
     private void deleteJob(String jobID) throws RMException {
+        deleteJobs(Collections.singletonList(jobID));
+    }
+
+    /**
+     * Runs a single {@link #getDeleteJobCommand()} command on the remote host
+     * for all the given jobIDs and monitors the exit.
+     *
+     * @param jobIDs
+     *            the jobID strings to delete
+     * @throws RMException
+     *             if the {@link #getDeleteJobCommand()} command failed
+     */
+    private void deleteJobs(List<String> jobIDs) throws RMException {
         String deleteCmd = getDeleteJobCommand();
-        String cmd = deleteCmd + " " + jobID;
+        String jobs = Joiner.on(' ').join(jobIDs);
+        String cmd = deleteCmd + " " + jobs;
         Process del = null;
         try {
-            del = Utils.runSSHCommand(InetAddress.getByName(this.serverName), cmd, this.sshOptions);
+            del = runCommand(cmd);
         } catch (Exception e1) {
             logger.warn("Cannot ssh " + this.serverName + " to issue " + deleteCmd + " command. job with jobID: " +
-                        jobID + " won't be deleted.", e1);
+                        jobs + " won't be deleted.", e1);
             throw new RMException("Cannot ssh " + this.serverName + " to issue " + deleteCmd +
-                                  " command. job with jobID: " + jobID + " won't be deleted.", e1);
+                                  " command. job with jobID: " + jobs + " won't be deleted.", e1);
+        }
+        int exitCode;
+        try {
+            exitCode = waitForCommand(del, deleteCmd);
+        } catch (RMException e) {
+            logger.error("Cannot delete job " + jobs + ". " + e.getMessage());
+            throw new RMException("Cannot delete job " + jobs + ". " + e.getMessage());
+        }
+        if (exitCode != 0) {
+            logger.error("Cannot delete job " + jobs + ". " + deleteCmd + " command returned != 0 -> " + exitCode);
+            throw new RMException("Cannot delete job " + jobs + ". " + deleteCmd + " command returned != 0 -> " +
+                                  exitCode);
+        } else {
+            logger.debug("Job " + jobs + " deleted.");
         }
+    }
+
+    /**
+     * Waits for a command run on the remote host to exit
+     *
+     * @param p
+     *            the process running the command
+     * @param command
+     *            the name of the command, for logging
+     * @return the exit code of the command
+     * @throws RMException
+     *             if the command did not exit before {@link #nodeTimeOut}
+     */
+    private int waitForCommand(Process p, String command) throws RMException {
         long timeStamp = System.currentTimeMillis();
         while (true) {
             try {
-                int exitCode = del.exitValue();
-                if (exitCode != 0) {
-                    logger.error("Cannot delete job " + jobID + ". " + deleteCmd + " command returned != 0 -> " +
-                                 exitCode);
-                    throw new RMException("Cannot delete job " + jobID + ". " + deleteCmd +
-                                          " command returned != 0 -> " + exitCode);
-                } else {
-                    logger.debug("Job " + jobID + " deleted.");
-                    return;
-                }
+                return p.exitValue();
             } catch (IllegalThreadStateException e) {
                 // the thread hasn't exited yet... don't eat exception, trace
                 // it...
-                logger.trace("waiting for " + deleteCmd + " exit code.", e);
+                logger.trace("waiting for " + command + " exit code.", e);
             }
             try {
-                Thread.sleep(1000);
+                Thread.sleep(COMMAND_EXIT_CHECK_RATE);
             } catch (InterruptedException e) {
                 // the thread was interrupted... don't eat exception, trace
                 // it...
-                logger.trace("sleep interrupted while waiting for " + deleteCmd + " to exit.", e);
+                logger.trace("sleep interrupted while waiting for " + command + " to exit.", e);
             }
             if ((System.currentTimeMillis() - timeStamp) >= nodeTimeOut) {
-                logger.error("Cannot delete job " + jobID + ". " + deleteCmd + " command timed out.");
-                throw new RMException("Cannot delete job " + jobID + ". " + deleteCmd + " command timed out.");
+                p.destroy();
+                throw new RMException(command + " command timed out.");
             }
         }
     }
@@ -793,6 +1132,47 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
      */
     protected abstract String extractSubmitOutput(String output);
 
+    /**
+     * Returns the name of the environment variable holding the index of a job
+     * array element in the job environment. Implementations supporting job
+     * arrays override this method along with
+     * {@link #getArrayJobOption(String, int)}.
+     *
+     * @return the index variable name, or null if job arrays are not supported
+     */
+    protected String getArrayIndexVariable() {
+        return null;
+    }
+
+    /**
+     * Returns the options of the submit job command making the submitted job
+     * an array whose elements are indexed from 1 to the given size.
+     *
+     * @param arrayName
+     *            a name identifying the job array
+     * @param size
+     *            the number of elements of the job array
+     * @return the submit job command options, or null if job arrays are not
+     *         supported
+     */
+    protected String getArrayJobOption(String arrayName, int size) {
+        return null;
+    }
+
+    /**
+     * Returns the id of an element of a job array, as expected by the delete
+     * job command.
+     *
+     * @param arrayJobID
+     *            the job array id extracted by {@link #extractSubmitOutput(String)}
+     * @param index
+     *            the element index
+     * @return the job id of the element
+     */
+    protected String getArrayElementJobID(String arrayJobID, int index) {
+        return arrayJobID + "[" + index + "]";
+    }
+
     @Override
     protected void initializePersistedInfraVariables() {
         persistedInfraVariables.put(SHUTDOWN_FLAG_KEY, false);
@@ -834,21 +1214,18 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
     }
 
     private void incrementDeployingNodes() {
-        setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
-            @Override
-            public Void handle() {
-                int updated = (int) persistedInfraVariables.get(DEPLOYING_NODES_KEY) + 1;
-                persistedInfraVariables.put(DEPLOYING_NODES_KEY, updated);
-                return null;
-            }
-        });
+        updateDeployingNodes(1);
     }
 
     private void decrementDeployingNodes() {
+        updateDeployingNodes(-1);
+    }
+
+    private void updateDeployingNodes(final int delta) {
         setPersistedInfraVariable(new PersistedInfraVariablesHandler<Void>() {
             @Override
             public Void handle() {
-                int updated = (int) persistedInfraVariables.get(DEPLOYING_NODES_KEY) - 1;
+                int updated = (int) persistedInfraVariables.get(DEPLOYING_NODES_KEY) + delta;
                 persistedInfraVariables.put(DEPLOYING_NODES_KEY, updated);
                 return null;
             }
@@ -877,6 +1254,15 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         });
     }
 
+    private boolean isCurrentNode(final String key) {
+        return getPersistedInfraVariable(new PersistedInfraVariablesHandler<Boolean>() {
+            @Override
+            public Boolean handle() {
+                return getCurrentNodes().containsKey(key);
+            }
+        });
+    }
+
     private int getCurrentNodesSize() {
         return getPersistedInfraVariable(new PersistedInfraVariablesHandler<Integer>() {
             @Override
@@ -953,4 +1339,38 @@ public abstract class BatchJobInfrastructure extends InfrastructureManager {
         });
     }
 
+    /**
+     * A job array submitted to the batch system
+     */
+    private static class JobArray {
+
+        private final String name;
+
+        /** null until the submission returns, only accessed with the write lock held */
+        private String jobID;
+
+        private JobArray(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * An element of a job array, deploying one node
+     */
+    private static class ArrayElement {
+
+        private final JobArray array;
+
+        private final String nodeName;
+
+        private final int index;
+
+        private volatile String deployingNodeURL;
+
+        private ArrayElement(JobArray array, String nodeName, int index) {
+            this.array = array;
+            this.nodeName = nodeName;
+            this.index = index;
+        }
+    }
 }
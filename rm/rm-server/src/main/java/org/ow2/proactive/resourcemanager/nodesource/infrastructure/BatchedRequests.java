@@ -0,0 +1,108 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.apache.log4j.Logger;
+
+
+/**
+ * Accumulates requests so that they are handled in batches.
+ * <p>
+ * The first request added while no batch is being handled starts a handling
+ * task. This task hands all the pending requests at once to the handler, and
+ * keeps doing so until no request is pending, so the requests added while a
+ * batch is being handled are grouped in the next one.
+ */
+class BatchedRequests<T> {
+
+    private static final Logger logger = Logger.getLogger(BatchedRequests.class);
+
+    interface Handler<T> {
+
+        void handle(List<T> batch);
+
+    }
+
+    private final Handler<T> handler;
+
+    private final List<T> pending = new ArrayList<>();
+
+    private boolean handling = false;
+
+    BatchedRequests(Handler<T> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Adds a request, the given executor is used to start the handling task
+     * if none is running.
+     */
+    void add(T request, Executor executor) {
+        synchronized (pending) {
+            pending.add(request);
+            if (handling) {
+                return;
+            }
+            handling = true;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    handlePending();
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (pending) {
+                handling = false;
+            }
+            throw e;
+        }
+    }
+
+    private void handlePending() {
+        while (true) {
+            List<T> batch;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    handling = false;
+                    return;
+                }
+                batch = new ArrayList<>(pending);
+                pending.clear();
+            }
+            try {
+                handler.handle(batch);
+            } catch (RuntimeException e) {
+                logger.error("Exception while handling a batch of " + batch.size() + " requests", e);
+            }
+        }
+    }
+}
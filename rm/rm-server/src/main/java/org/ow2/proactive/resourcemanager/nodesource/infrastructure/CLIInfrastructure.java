@@ -277,6 +277,7 @@ public class CLIInfrastructure extends HostsFileBasedInfrastructureManager {
      */
     @Override
     public void shutDown() {
+        super.shutDown();
         deploymentScript.delete();
 
         // checking if we need to delete the removal script
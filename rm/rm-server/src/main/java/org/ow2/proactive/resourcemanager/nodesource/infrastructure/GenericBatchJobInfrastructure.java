@@ -138,6 +138,25 @@ public class GenericBatchJobInfrastructure extends BatchJobInfrastructure {
         return getBatchJobInfrastructure().getSubmitJobCommand();
     }
 
+    @Override
+    protected String getArrayIndexVariable() {
+        if (getBatchJobInfrastructure() != null) {
+            return getBatchJobInfrastructure().getArrayIndexVariable();
+        } else {
+            return null;
+        }
+    }
+
+    @Override
+    protected String getArrayJobOption(String arrayName, int size) {
+        return getBatchJobInfrastructure().getArrayJobOption(arrayName, size);
+    }
+
+    @Override
+    protected String getArrayElementJobID(String arrayJobID, int index) {
+        return getBatchJobInfrastructure().getArrayElementJobID(arrayJobID, index);
+    }
+
     @Override
     protected void initializePersistedInfraVariables() {
         super.initializePersistedInfraVariables();
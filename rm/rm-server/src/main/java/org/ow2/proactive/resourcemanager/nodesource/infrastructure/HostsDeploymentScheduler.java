@@ -0,0 +1,413 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
+
+
+/**
+ * Schedules the deployment of nodes on the hosts of a {@link HostsFileBasedInfrastructureManager}.
+ * <p>
+ * At most a given number of hosts are deployed at the same time, the other ones wait in a queue
+ * and are launched as soon as a deployment ends. A failed deployment is retried after an
+ * exponential backoff which is held by a timer, so that no thread is blocked while waiting.
+ */
+public class HostsDeploymentScheduler {
+
+    private static final Logger logger = Logger.getLogger(HostsDeploymentScheduler.class);
+
+    /** Shared by all the infrastructures, only used to put back the hosts to retry in the queue */
+    private static final ScheduledExecutorService retryTimer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Hosts deployment retry timer",
+                                                                                                                                  true));
+
+    /**
+     * Deploys the nodes of a host.
+     */
+    interface Deployer {
+
+        /**
+         * Makes an attempt to deploy the nodes, blocking until the nodes are acquired.
+         *
+         * @param lastAttempt true if the deployment will not be retried after a failure
+         * @throws Exception if the nodes could not be deployed
+         */
+        void deploy(HostTracker hostTracker, int nbNodes, boolean lastAttempt) throws Exception;
+
+        /**
+         * Called once the deployment on a host is over, after a success or the last failed attempt.
+         */
+        void deploymentFinished(HostTracker hostTracker, boolean deployed);
+    }
+
+    private final String name;
+
+    private final Executor executor;
+
+    private final Deployer deployer;
+
+    private final int maxConcurrentLaunches;
+
+    private final long initialBackoff;
+
+    private final long maxBackoff;
+
+    private final int maxRetries;
+
+    private final LinkedList<Launch> queue = new LinkedList<>();
+
+    private int runningLaunches;
+
+    private int waitingRetries;
+
+    private boolean shutDown;
+
+    private long deploymentStartTime;
+
+    private long lastDeploymentTime;
+
+    private long deployedNodes;
+
+    private long deployedNodesSinceStart;
+
+    private long failedAttempts;
+
+    private long abandonedHosts;
+
+    /**
+     * @param name the name used in the logs
+     * @param executor the executor running the deployments
+     * @param deployer deploys the nodes of a host
+     * @param maxConcurrentLaunches the maximum number of hosts deployed at the same time
+     * @param initialBackoff the time to wait before retrying after a first failure, in ms
+     * @param maxBackoff the maximum time to wait before retrying, in ms
+     * @param maxRetries the maximum number of retries per host, -1 for infinite retries
+     */
+    HostsDeploymentScheduler(String name, Executor executor, Deployer deployer, int maxConcurrentLaunches,
+            long initialBackoff, long maxBackoff, int maxRetries) {
+        this.name = name;
+        this.executor = executor;
+        this.deployer = deployer;
+        this.maxConcurrentLaunches = Math.max(1, maxConcurrentLaunches);
+        this.initialBackoff = Math.max(0, initialBackoff);
+        this.maxBackoff = Math.max(this.initialBackoff, maxBackoff);
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Queues the deployment of nodes on a host.
+     */
+    void deploy(HostTracker hostTracker, int nbNodes) {
+        synchronized (this) {
+            if (shutDown) {
+                return;
+            }
+            if (isIdle()) {
+                deploymentStartTime = System.currentTimeMillis();
+                deployedNodesSinceStart = 0;
+            }
+            queue.addLast(new Launch(hostTracker, nbNodes));
+        }
+        launchQueued();
+    }
+
+    /**
+     * Drops the queued deployments and the pending retries. Running deployments are not interrupted.
+     */
+    synchronized void shutDown() {
+        shutDown = true;
+        queue.clear();
+    }
+
+    synchronized Metrics getMetrics() {
+        long duration = lastDeploymentTime - deploymentStartTime;
+        double rate = duration > 0 ? deployedNodesSinceStart * 60000d / duration : 0;
+        return new Metrics(queue.size(),
+                           runningLaunches,
+                           waitingRetries,
+                           deployedNodes,
+                           failedAttempts,
+                           abandonedHosts,
+                           rate);
+    }
+
+    /**
+     * @param failures the number of failed attempts of the host so far
+     * @return the time to wait before the next attempt
+     */
+    long backoff(int failures) {
+        long backoff = initialBackoff << Math.min(Math.max(failures - 1, 0), 30);
+        return backoff < 0 ? maxBackoff : Math.min(backoff, maxBackoff);
+    }
+
+    private boolean isIdle() {
+        return queue.isEmpty() && runningLaunches == 0 && waitingRetries == 0;
+    }
+
+    private void launchQueued() {
+        List<Launch> launches = new ArrayList<>();
+        synchronized (this) {
+            while (!shutDown && runningLaunches < maxConcurrentLaunches && !queue.isEmpty()) {
+                launches.add(queue.removeFirst());
+                runningLaunches++;
+            }
+        }
+        for (final Launch launch : launches) {
+            try {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        launch(launch);
+                    }
+                });
+            } catch (RuntimeException e) {
+                logger.error("Could not launch the deployment on host " + launch.hostTracker, e);
+                synchronized (this) {
+                    runningLaunches--;
+                    abandonedHosts++;
+                }
+                deployer.deploymentFinished(launch.hostTracker, false);
+            }
+        }
+    }
+
+    private void launch(final Launch launch) {
+        boolean lastAttempt = maxRetries != -1 && launch.failures >= maxRetries;
+        try {
+            deployer.deploy(launch.hostTracker, launch.nbNodes, lastAttempt);
+            synchronized (this) {
+                deployedNodes += launch.nbNodes;
+                deployedNodesSinceStart += launch.nbNodes;
+                lastDeploymentTime = System.currentTimeMillis();
+            }
+            deployer.deploymentFinished(launch.hostTracker, true);
+        } catch (Exception e) {
+            launch.failures++;
+            synchronized (this) {
+                failedAttempts++;
+            }
+            if (lastAttempt || isShutDown()) {
+                logger.error("Could not acquire nodes on host " + launch.hostTracker + ". Tries threshold reached," +
+                             " this host is not part of the deployment process anymore.", e);
+                synchronized (this) {
+                    abandonedHosts++;
+                }
+                deployer.deploymentFinished(launch.hostTracker, false);
+            } else {
+                long backoff = backoff(launch.failures);
+                logger.warn("Failed nodes deployment on host " + launch.hostTracker + ", retrying in " + backoff +
+                            " ms", e);
+                scheduleRetry(launch, backoff);
+            }
+        } finally {
+            synchronized (this) {
+                runningLaunches--;
+            }
+            logIfDone();
+            launchQueued();
+        }
+    }
+
+    private void scheduleRetry(final Launch launch, long backoff) {
+        synchronized (this) {
+            waitingRetries++;
+        }
+        retryTimer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                synchronized (HostsDeploymentScheduler.this) {
+                    waitingRetries--;
+                    if (shutDown) {
+                        return;
+                    }
+                    queue.addLast(launch);
+                }
+                launchQueued();
+            }
+        }, backoff, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized boolean isShutDown() {
+        return shutDown;
+    }
+
+    private void logIfDone() {
+        Metrics metrics;
+        synchronized (this) {
+            if (!isIdle()) {
+                return;
+            }
+            metrics = getMetrics();
+        }
+        logger.info("Deployment of " + name + " is over: " + metrics);
+    }
+
+    private static class Launch {
+
+        private final HostTracker hostTracker;
+
+        private final int nbNodes;
+
+        private int failures;
+
+        Launch(HostTracker hostTracker, int nbNodes) {
+            this.hostTracker = hostTracker;
+            this.nbNodes = nbNodes;
+        }
+    }
+
+    /**
+     * Deployment activity of an infrastructure.
+     */
+    public static class Metrics implements Serializable {
+
+        private final int queuedHosts;
+
+        private final int deployingHosts;
+
+        private final int hostsWaitingForRetry;
+
+        private final long deployedNodes;
+
+        private final long failedAttempts;
+
+        private final long abandonedHosts;
+
+        private final double deploymentRate;
+
+        Metrics(int queuedHosts, int deployingHosts, int hostsWaitingForRetry, long deployedNodes, long failedAttempts,
+                long abandonedHosts, double deploymentRate) {
+            this.queuedHosts = queuedHosts;
+            this.deployingHosts = deployingHosts;
+            this.hostsWaitingForRetry = hostsWaitingForRetry;
+            this.deployedNodes = deployedNodes;
+            this.failedAttempts = failedAttempts;
+            this.abandonedHosts = abandonedHosts;
+            this.deploymentRate = deploymentRate;
+        }
+
+        /**
+         * @return the number of hosts waiting for a deployment slot
+         */
+        public int getQueuedHosts() {
+            return queuedHosts;
+        }
+
+        /**
+         * @return the number of hosts being deployed
+         */
+        public int getDeployingHosts() {
+            return deployingHosts;
+        }
+
+        /**
+         * @return the number of hosts waiting before retrying a failed deployment
+         */
+        public int getHostsWaitingForRetry() {
+            return hostsWaitingForRetry;
+        }
+
+        /**
+         * @return the number of nodes deployed since the infrastructure was created
+         */
+        public long getDeployedNodes() {
+            return deployedNodes;
+        }
+
+        /**
+         * @return the number of failed deployment attempts since the infrastructure was created
+         */
+        public long getFailedAttempts() {
+            return failedAttempts;
+        }
+
+        /**
+         * @return the number of hosts discarded after too many failed attempts
+         */
+        public long getAbandonedHosts() {
+            return abandonedHosts;
+        }
+
+        /**
+         * @return the number of nodes deployed per minute during the current (or last) deployment
+         */
+        public double getDeploymentRate() {
+            return deploymentRate;
+        }
+
+        /**
+         * @param metrics the deployment activities of several infrastructures
+         * @return the deployment activity of all the given infrastructures together
+         */
+        public static Metrics sum(List<Metrics> metrics) {
+            int queuedHosts = 0;
+            int deployingHosts = 0;
+            int hostsWaitingForRetry = 0;
+            long deployedNodes = 0;
+            long failedAttempts = 0;
+            long abandonedHosts = 0;
+            double deploymentRate = 0;
+            for (Metrics m : metrics) {
+                queuedHosts += m.queuedHosts;
+                deployingHosts += m.deployingHosts;
+                hostsWaitingForRetry += m.hostsWaitingForRetry;
+                deployedNodes += m.deployedNodes;
+                failedAttempts += m.failedAttempts;
+                abandonedHosts += m.abandonedHosts;
+                deploymentRate += m.deploymentRate;
+            }
+            return new Metrics(queuedHosts,
+                               deployingHosts,
+                               hostsWaitingForRetry,
+                               deployedNodes,
+                               failedAttempts,
+                               abandonedHosts,
+                               deploymentRate);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d deployed nodes (%.1f nodes/min), %d failed attempts, %d abandoned hosts, " +
+                                 "%d queued, %d deploying, %d waiting for retry",
+                                 deployedNodes,
+                                 deploymentRate,
+                                 failedAttempts,
+                                 abandonedHosts,
+                                 queuedHosts,
+                                 deployingHosts,
+                                 hostsWaitingForRetry);
+        }
+    }
+}
@@ -29,12 +29,14 @@ import java.io.*;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.util.ProActiveCounter;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
 import org.ow2.proactive.resourcemanager.exception.RMException;
 import org.ow2.proactive.resourcemanager.nodesource.common.Configurable;
 import org.ow2.proactive.utils.FileToBytesConverter;
@@ -62,7 +64,13 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
     @Configurable(description = "Maximum number of failed attempt to deploy on \na host before discarding it")
     protected int maxDeploymentFailure = HostsFileBasedInfrastructureManager.DEFAULT_NODE_DEPLOYMENT_FAILURE_THRESHOLD;
 
-    @Configurable(description = "Milliseconds to wait after each failed attempt to deploy on \na host")
+    /**
+     * Time to wait before the first retry of a failed deployment on a host. It is doubled
+     * after each new failure of the host, up to
+     * {@link PAResourceManagerProperties#RM_HOSTS_DEPLOYMENT_MAX_BACKOFF}.
+     */
+    @Configurable(description = "Milliseconds to wait after the first failed attempt\nto deploy on a host, doubled after each\n" +
+                                "new failure up to pa.rm.nodesource.hosts.deployment.maxbackoff")
     protected long waitBetweenDeploymentFailures = HostsFileBasedInfrastructureManager.DEFAULT_WAIT_TIME_BETWEEN_NODE_DEPLOYMENT_FAILURES;
 
     /**
@@ -79,6 +87,11 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
 
     protected NodeNameBuilder nodeNameBuilder = new NodeNameBuilder();
 
+    /**
+     * Bounds the number of hosts deployed at the same time and schedules the retries
+     */
+    private transient volatile HostsDeploymentScheduler deploymentScheduler;
+
     @Override
     protected void initializePersistedInfraVariables() {
         persistedInfraVariables.put(HOST_TRACKER_PER_HOST_KEY, new HashMap<String, HostTracker>());
@@ -90,7 +103,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
      * 	parameters[0] = hosts list file content
      * 	parameters[1] = timeout of the node deployment
      * 	parameters[2] = max deployment failure
-     *  parameters[3] = wait time between failures
+     *  parameters[3] = wait time after the first failure, doubled after each new failure
      */
     @Override
     protected void configure(Object... parameters) {
@@ -206,15 +219,7 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
                 final int neededNodeNumber = getNeededNodesNumberWithLock(host);
                 logger.info("Acquiring " + neededNodeNumber + " nodes on host " + hostTracker);
 
-                this.nodeSource.executeInParallel(new Runnable() {
-                    public void run() {
-                        try {
-                            startNodeImplWithRetries(hostTracker, neededNodeNumber, maxDeploymentFailure);
-                        } catch (Exception e) {
-                            logger.error("Could not acquire nodes on host " + hostTracker, e);
-                        }
-                    }
-                });
+                getDeploymentScheduler().deploy(hostTracker, neededNodeNumber);
 
                 setNeedsNodesWithLockAndPersist(host, false);
             }
@@ -298,29 +303,74 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
         logger.info("Reconnected node " + nodeUrl + " on host " + nodeHost);
     }
 
-    protected void startNodeImplWithRetries(final HostTracker hostTracker, final int nbNodes, int retries)
-            throws RMException {
-        while (true) {
-            final List<String> depNodeURLs = new ArrayList<>(nbNodes);
-            try {
-                startNodeImpl(hostTracker, nbNodes, depNodeURLs);
-                return;
-            } catch (Exception e) {
-                logger.warn("Failed nodes deployment in host : " + hostTracker.getResolvedAddress() +
-                            ", retries left : " + retries);
-                if (isInfiniteRetries(retries) || retries > 0) {
-                    removeNodes(depNodeURLs);
-                    waitPeriodBeforeRetry();
-                    retries = getRetriesLeft(retries);
-                } else {
-                    logger.error("Tries threshold reached for host " + hostTracker.getResolvedAddress() +
-                                 ". This host is not part of the deployment process anymore.");
-
-                    throw e;
+    /**
+     * @return the deployment activity of this infrastructure, null if it did not deploy any host yet
+     */
+    public HostsDeploymentScheduler.Metrics getDeploymentMetrics() {
+        HostsDeploymentScheduler scheduler = deploymentScheduler;
+        return scheduler != null ? scheduler.getMetrics() : null;
+    }
+
+    /**
+     * Drops the pending deployments. Subclasses overriding this method must call it.
+     */
+    @Override
+    protected synchronized void shutDown() {
+        if (deploymentScheduler != null) {
+            deploymentScheduler.shutDown();
+        }
+    }
+
+    /**
+     * Called once the deployment of the nodes of a host is over, successful or
+     * not, so that the resources kept between the deployment attempts on this
+     * host can be released.
+     *
+     * @param hostTracker the host on which nodes were deployed
+     */
+    protected void deploymentFinished(HostTracker hostTracker) {
+    }
+
+    private synchronized HostsDeploymentScheduler getDeploymentScheduler() {
+        if (deploymentScheduler == null) {
+            Executor executor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    nodeSource.executeInParallel(command);
                 }
-            }
+            };
+            HostsDeploymentScheduler.Deployer deployer = new HostsDeploymentScheduler.Deployer() {
+                @Override
+                public void deploy(HostTracker hostTracker, int nbNodes, boolean lastAttempt) throws Exception {
+                    startNodeImplOnce(hostTracker, nbNodes, lastAttempt);
+                }
+
+                @Override
+                public void deploymentFinished(HostTracker hostTracker, boolean deployed) {
+                    HostsFileBasedInfrastructureManager.this.deploymentFinished(hostTracker);
+                }
+            };
+            deploymentScheduler = new HostsDeploymentScheduler(nodeSource.getName(),
+                                                               executor,
+                                                               deployer,
+                                                               PAResourceManagerProperties.RM_HOSTS_DEPLOYMENT_MAX_CONCURRENT_LAUNCHES.getValueAsInt(),
+                                                               waitBetweenDeploymentFailures,
+                                                               PAResourceManagerProperties.RM_HOSTS_DEPLOYMENT_MAX_BACKOFF.getValueAsInt(),
+                                                               maxDeploymentFailure);
         }
+        return deploymentScheduler;
+    }
 
+    private void startNodeImplOnce(HostTracker hostTracker, int nbNodes, boolean lastAttempt) throws RMException {
+        List<String> depNodeURLs = new ArrayList<>(nbNodes);
+        try {
+            startNodeImpl(hostTracker, nbNodes, depNodeURLs);
+        } catch (RMException | RuntimeException e) {
+            if (!lastAttempt) {
+                removeNodes(depNodeURLs);
+            }
+            throw e;
+        }
     }
 
     protected boolean anyTimedOut(List<String> nodesUrl) {
@@ -365,24 +415,6 @@ public abstract class HostsFileBasedInfrastructureManager extends Infrastructure
         }
     }
 
-    private boolean isInfiniteRetries(int retries) {
-        return retries == -1;
-    }
-
-    private void waitPeriodBeforeRetry() {
-        try {
-
-            Thread.sleep(waitBetweenDeploymentFailures);
-        } catch (InterruptedException e1) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
-    private int getRetriesLeft(int retries) {
-        int retriesLeft = (retries > 0) ? --retries : retries;
-        return retriesLeft;
-    }
-
     /**
      * Removes nodes from the deploying nodes
      */
@@ -68,6 +68,16 @@ public class LSFInfrastructure extends BatchJobInfrastructure {
         return "bsub";
     }
 
+    @Override
+    protected String getArrayIndexVariable() {
+        return "LSB_JOBINDEX";
+    }
+
+    @Override
+    protected String getArrayJobOption(String arrayName, int size) {
+        return "-J " + arrayName + "[1-" + size + "]";
+    }
+
     @Override
     protected void initializePersistedInfraVariables() {
         super.initializePersistedInfraVariables();
@@ -87,6 +87,16 @@ public class PBSInfrastructure extends BatchJobInfrastructure {
         return null;
     }
 
+    @Override
+    protected String getArrayIndexVariable() {
+        return "PBS_ARRAYID";
+    }
+
+    @Override
+    protected String getArrayJobOption(String arrayName, int size) {
+        return "-t 1-" + size;
+    }
+
     @Override
     protected void initializePersistedInfraVariables() {
         super.initializePersistedInfraVariables();
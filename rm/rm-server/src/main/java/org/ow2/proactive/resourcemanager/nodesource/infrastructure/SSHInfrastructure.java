@@ -382,6 +382,7 @@ public class SSHInfrastructure extends HostsFileBasedInfrastructureManager {
 
     @Override
     public void shutDown() {
+        super.shutDown();
         setShutdownFlag(true);
     }
 
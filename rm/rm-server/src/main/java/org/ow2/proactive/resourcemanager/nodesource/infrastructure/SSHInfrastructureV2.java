@@ -36,6 +36,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -116,6 +118,13 @@ public class SSHInfrastructureV2 extends HostsFileBasedInfrastructureManager {
      */
     private AtomicBoolean shutDown = new AtomicBoolean(false);
 
+    private transient JSch jsch;
+
+    /**
+     * Ssh sessions per configured host address, reused between the deployment attempts on a host
+     */
+    private transient ConcurrentMap<String, Session> sessions;
+
     /**
      * Internal node acquisition method
      * <p>
@@ -224,8 +233,6 @@ public class SSHInfrastructureV2 extends HostsFileBasedInfrastructureManager {
         // in case of failure and still allow global timeout
         final int shorterTimeout = Math.round((90 * super.nodeTimeOut) / 100);
 
-        JSch jsch = new JSch();
-
         final String msg = "deploy on " + hostTracker.getResolvedAddress();
 
         final List<String> createdNodeNames = RMNodeStarter.getWorkersNodeNames(nodeName, nbNodes);
@@ -233,15 +240,8 @@ public class SSHInfrastructureV2 extends HostsFileBasedInfrastructureManager {
         addTimeouts(depNodeURLs);
 
         Session session;
-        try { // Create ssh session to the hostname
-            session = jsch.getSession(this.sshUsername, hostTracker.getResolvedAddress().getHostName(), this.sshPort);
-            if (this.sshPassword == null) {
-                jsch.addIdentity(this.sshUsername, this.sshPrivateKey, null, null);
-            } else {
-                session.setPassword(this.sshPassword);
-            }
-            session.setConfig(this.sshOptions);
-            session.connect(shorterTimeout);
+        try { // Get or create the ssh session to the hostname
+            session = getSession(hostTracker, shorterTimeout);
         } catch (JSchException e) {
             multipleDeclareDeployingNodeLost(depNodeURLs, "unable to " + msg + "\n" + getStackTraceAsString(e));
             throw new RMException("unable to " + msg, e);
@@ -302,11 +302,65 @@ public class SSHInfrastructureV2 extends HostsFileBasedInfrastructureManager {
             }
         } finally {
             removeTimeouts(depNodeURLs);
-            session.disconnect();
+            // the session is kept for the next attempts on this host, unless it is broken
+            if (!session.isConnected()) {
+                getSessions().remove(hostTracker.getConfiguredAddress(), session);
+            }
             deployService.shutdownNow();
         }
     }
 
+    /**
+     * Returns the ssh session opened to the host by a previous attempt, or opens a new one.
+     */
+    private Session getSession(HostTracker hostTracker, int connectTimeout) throws JSchException {
+        String host = hostTracker.getConfiguredAddress();
+        Session session = getSessions().get(host);
+        if (session != null && session.isConnected()) {
+            return session;
+        }
+        session = getJSch().getSession(this.sshUsername, hostTracker.getResolvedAddress().getHostName(), this.sshPort);
+        if (this.sshPassword != null) {
+            session.setPassword(this.sshPassword);
+        }
+        session.setConfig(this.sshOptions);
+        session.connect(connectTimeout);
+        Session previous = getSessions().put(host, session);
+        if (previous != null) {
+            previous.disconnect();
+        }
+        return session;
+    }
+
+    /**
+     * Closes the ssh session kept for the attempts on the host.
+     */
+    @Override
+    protected void deploymentFinished(HostTracker hostTracker) {
+        Session session = getSessions().remove(hostTracker.getConfiguredAddress());
+        if (session != null) {
+            session.disconnect();
+        }
+    }
+
+    private synchronized JSch getJSch() throws JSchException {
+        if (jsch == null) {
+            JSch newJSch = new JSch();
+            if (this.sshPassword == null) {
+                newJSch.addIdentity(this.sshUsername, this.sshPrivateKey, null, null);
+            }
+            jsch = newJSch;
+        }
+        return jsch;
+    }
+
+    private synchronized ConcurrentMap<String, Session> getSessions() {
+        if (sessions == null) {
+            sessions = new ConcurrentHashMap<>();
+        }
+        return sessions;
+    }
+
     private void declareLostAndThrow(String errMsg, List<String> nodesUrl, ChannelExec chan, ByteArrayOutputStream baos,
             Exception e) throws RMException {
         String lf = System.lineSeparator();
@@ -424,7 +478,12 @@ public class SSHInfrastructureV2 extends HostsFileBasedInfrastructureManager {
 
     @Override
     public void shutDown() {
+        super.shutDown();
         shutDown.set(true);
+        for (Session session : getSessions().values()) {
+            session.disconnect();
+        }
+        getSessions().clear();
     }
 
     @Override
@@ -0,0 +1,174 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.cleaning;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.ow2.proactive.resourcemanager.core.RMCore;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
+import org.ow2.proactive.resourcemanager.rmnode.RMNode;
+
+
+public class NodesCleanerTest {
+
+    private RMCore rmCore;
+
+    private CountDownLatch slowCleaning;
+
+    private String previousCleaningTimeout;
+
+    private String previousQuarantineTimeout;
+
+    private String previousMaxThreadNumber;
+
+    @Before
+    public void setUp() {
+        rmCore = mock(RMCore.class);
+        slowCleaning = new CountDownLatch(1);
+        previousCleaningTimeout = PAResourceManagerProperties.RM_CLEANING_TIMEOUT.getValueAsString();
+        previousQuarantineTimeout = PAResourceManagerProperties.RM_CLEANING_QUARANTINE_TIMEOUT.getValueAsString();
+        previousMaxThreadNumber = PAResourceManagerProperties.RM_CLEANING_MAX_THREAD_NUMBER.getValueAsString();
+        PAResourceManagerProperties.RM_CLEANING_TIMEOUT.updateProperty("200");
+        PAResourceManagerProperties.RM_CLEANING_QUARANTINE_TIMEOUT.updateProperty("60000");
+    }
+
+    @After
+    public void tearDown() {
+        slowCleaning.countDown();
+        PAResourceManagerProperties.RM_CLEANING_TIMEOUT.updateProperty(previousCleaningTimeout);
+        PAResourceManagerProperties.RM_CLEANING_QUARANTINE_TIMEOUT.updateProperty(previousQuarantineTimeout);
+        PAResourceManagerProperties.RM_CLEANING_MAX_THREAD_NUMBER.updateProperty(previousMaxThreadNumber);
+    }
+
+    @Test
+    public void testNodeIsFreedWithoutWaitingForOtherNodes() throws Exception {
+        RMNode fastNode = node("fast");
+        RMNode slowNode = slowNode("slow");
+        NodesCleaner cleaner = new NodesCleaner(rmCore);
+
+        assertThat(cleaner.cleanAndRelease(Arrays.asList(slowNode, fastNode)).getBooleanValue()).isTrue();
+
+        verify(rmCore, timeout(5000)).setFreeNodes(Collections.singletonList(fastNode));
+        verify(rmCore, never()).setFreeNodes(Collections.singletonList(slowNode));
+    }
+
+    @Test
+    public void testHangingNodeIsQuarantinedThenFreed() throws Exception {
+        RMNode slowNode = slowNode("slow");
+        NodesCleaner cleaner = new NodesCleaner(rmCore);
+
+        cleaner.cleanAndRelease(Collections.singletonList(slowNode));
+        Thread.sleep(1000);
+
+        assertThat(cleaner.isQuarantined("slow")).isTrue();
+        verify(rmCore, never()).setFreeNodes(Collections.singletonList(slowNode));
+
+        slowCleaning.countDown();
+
+        verify(rmCore, timeout(5000)).setFreeNodes(Collections.singletonList(slowNode));
+        assertThat(cleaner.isQuarantined("slow")).isFalse();
+        verify(rmCore, never()).setDownNode("slow");
+        NodesCleaner.Metrics metrics = cleaner.getMetrics();
+        assertThat(metrics.getCurrentlyQuarantinedNodes()).isEmpty();
+        assertThat(metrics.getQuarantinedNodes()).isEqualTo(1L);
+        assertThat(metrics.getCleanedNodes()).isEqualTo(1L);
+        assertThat(metrics.getMaxTimeToFree()).isAtLeast(1000L);
+    }
+
+    @Test
+    public void testNodeWaitingForCleaningThreadIsNotQuarantined() throws Exception {
+        PAResourceManagerProperties.RM_CLEANING_MAX_THREAD_NUMBER.updateProperty("1");
+        RMNode slowNode = slowNode("slow");
+        RMNode waitingNode = node("waiting");
+        NodesCleaner cleaner = new NodesCleaner(rmCore);
+
+        cleaner.cleanAndRelease(Arrays.asList(slowNode, waitingNode));
+        Thread.sleep(1000);
+
+        assertThat(cleaner.isQuarantined("slow")).isTrue();
+        assertThat(cleaner.isQuarantined("waiting")).isFalse();
+
+        slowCleaning.countDown();
+
+        verify(rmCore, timeout(5000)).setFreeNodes(Collections.singletonList(waitingNode));
+        assertThat(cleaner.isQuarantined("waiting")).isFalse();
+        verify(rmCore, never()).setDownNode("waiting");
+    }
+
+    @Test
+    public void testNodeWhichCannotBeCleanedIsDown() throws Exception {
+        RMNode node = node("broken");
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                throw new IllegalStateException("cleaning failure");
+            }
+        }).when(node).clean();
+        NodesCleaner cleaner = new NodesCleaner(rmCore);
+
+        cleaner.cleanAndRelease(Collections.singletonList(node));
+
+        verify(rmCore, timeout(5000)).setDownNode("broken");
+        verify(rmCore, never()).setFreeNodes(Collections.singletonList(node));
+        assertThat(cleaner.getMetrics().getFailedNodes()).isEqualTo(1L);
+        assertThat(cleaner.getMetrics().getCleanedNodes()).isEqualTo(0L);
+    }
+
+    private RMNode node(String url) {
+        RMNode node = mock(RMNode.class);
+        when(node.getNodeURL()).thenReturn(url);
+        when(node.getNodeSource()).thenReturn(mock(NodeSource.class));
+        return node;
+    }
+
+    private RMNode slowNode(String url) throws Exception {
+        RMNode node = node(url);
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                slowCleaning.await();
+                return null;
+            }
+        }).when(node).clean();
+        return node;
+    }
+}
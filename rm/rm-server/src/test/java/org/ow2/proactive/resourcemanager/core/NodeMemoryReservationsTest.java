@@ -0,0 +1,78 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class NodeMemoryReservationsTest {
+
+    private NodeMemoryReservations reservations;
+
+    @Before
+    public void setUp() {
+        reservations = new NodeMemoryReservations();
+    }
+
+    @Test
+    public void testReservationsAreSummedPerHost() {
+        reservations.reserve("node1", "host1", 100);
+        reservations.reserve("node1", "host1", 50);
+        reservations.reserve("node2", "host1", 10);
+        reservations.reserve("node3", "host2", 20);
+
+        assertThat(reservations.getReservedOnNode("node1")).isEqualTo(150L);
+        assertThat(reservations.getReserved("host1")).isEqualTo(160L);
+        assertThat(reservations.getReserved("host2")).isEqualTo(20L);
+        assertThat(reservations.getReserved("host3")).isEqualTo(0L);
+    }
+
+    @Test
+    public void testReleaseDropsTheReservationOfTheNode() {
+        reservations.reserve("node1", "host1", 100);
+        reservations.reserve("node2", "host1", 10);
+
+        reservations.release("node1");
+        assertThat(reservations.getReservedOnNode("node1")).isEqualTo(0L);
+        assertThat(reservations.getReserved("host1")).isEqualTo(10L);
+
+        reservations.release("node1");
+        reservations.release("node2");
+        assertThat(reservations.getReserved("host1")).isEqualTo(0L);
+    }
+
+    @Test
+    public void testEmptyReservationsAreIgnored() {
+        reservations.reserve("node1", "host1", 0);
+        reservations.reserve("node1", "host1", -10);
+
+        assertThat(reservations.getReservedOnNode("node1")).isEqualTo(0L);
+        assertThat(reservations.getReserved("host1")).isEqualTo(0L);
+    }
+}
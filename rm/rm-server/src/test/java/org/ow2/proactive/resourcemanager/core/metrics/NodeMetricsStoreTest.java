@@ -0,0 +1,131 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.core.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.resourcemanager.common.metrics.FleetMetricHistory;
+import org.ow2.proactive.resourcemanager.common.metrics.HostMetricValue;
+import org.ow2.proactive.resourcemanager.common.metrics.NodeMetricsSample;
+
+import com.google.common.collect.ImmutableMap;
+
+
+public class NodeMetricsStoreTest {
+
+    private static final String CPU = "Combined-sigar:Type=CpuUsage";
+
+    private static final long START = TimeUnit.HOURS.toMillis(1000);
+
+    private NodeMetricsStore store;
+
+    @Before
+    public void setUp() {
+        store = new NodeMetricsStore();
+    }
+
+    @Test
+    public void testChangesFromUnknownHostAreRejected() {
+        assertThat(store.push(sample("host1", false, 0.5), START)).isFalse();
+        assertThat(store.push(sample("host1", true, 0.5), START)).isTrue();
+        assertThat(store.push(sample("host1", false, 0.7), START + 1000)).isTrue();
+
+        List<HostMetricValue> top = store.getTopHosts(CPU, 1, START + 1000);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getValue()).isWithin(0.0).of(0.7);
+    }
+
+    @Test
+    public void testTopHostsAreSortedAndStaleHostsExcluded() {
+        store.push(sample("host1", true, 0.2), START);
+        store.push(sample("host2", true, 0.9), START);
+        store.push(sample("host3", true, 0.5), START);
+        long later = START + NodeMetricsStore.HOST_TIMEOUT + 1000;
+        store.push(sample("host4", true, 0.1), later);
+        store.push(sample("host3", true, 0.6), later);
+
+        List<HostMetricValue> top = store.getTopHosts(CPU, 2, later);
+
+        assertThat(top).hasSize(2);
+        assertThat(top.get(0).getHostName()).isEqualTo("host3");
+        assertThat(top.get(1).getHostName()).isEqualTo("host4");
+        assertThat(store.getTopHosts("unknown", 2, later)).isEmpty();
+    }
+
+    @Test
+    public void testFleetHistoryAggregatesAllHosts() {
+        store.push(sample("host1", true, 0.2), START);
+        store.push(sample("host2", true, 0.6), START + 1000);
+        store.push(sample("host1", false, 0.4), START + TimeUnit.MINUTES.toMillis(1));
+
+        FleetMetricHistory history = store.getHistory(CPU,
+                                                      TimeUnit.MINUTES.toMillis(10),
+                                                      START + TimeUnit.MINUTES.toMillis(2));
+
+        assertThat(history.getTimes()).hasLength(2);
+        assertThat(history.getAverages()[0]).isWithin(1e-9).of(0.4);
+        assertThat(history.getMaximums()[0]).isWithin(0.0).of(0.6);
+        assertThat(history.getSamples()[0]).isEqualTo(2);
+        assertThat(history.getAverages()[1]).isWithin(1e-9).of(0.4);
+        assertThat(history.getSamples()[1]).isEqualTo(1);
+    }
+
+    @Test
+    public void testLatestValuesOfRecentHosts() {
+        store.push(sample("host1", true, 0.5), START);
+        store.push(sample("host2", true, 0.7), START + NodeMetricsStore.HOST_TIMEOUT);
+
+        long now = START + NodeMetricsStore.HOST_TIMEOUT;
+        assertThat(store.getLatestValues(CPU, now)).isEqualTo(ImmutableMap.of("host1", 0.5, "host2", 0.7));
+        assertThat(store.getLatestValues(CPU, now + 1)).isEqualTo(ImmutableMap.of("host2", 0.7));
+        assertThat(store.getLatestValues("unknown", START)).isEmpty();
+    }
+
+    @Test
+    public void testReceiveTimeIsUsedRatherThanTheNodeClock() {
+        NodeMetricsSample skewed = new NodeMetricsSample("host1",
+                                                         START - TimeUnit.DAYS.toMillis(1),
+                                                         true,
+                                                         Collections.singletonMap(CPU, 0.5));
+        store.push(skewed, START);
+
+        assertThat(store.getLatestValues(CPU, START + 1000)).isEqualTo(ImmutableMap.of("host1", 0.5));
+        assertThat(store.getTopHosts(CPU, 1, START + 1000).get(0).getTime()).isEqualTo(START);
+        FleetMetricHistory history = store.getHistory(CPU, TimeUnit.MINUTES.toMillis(10), START);
+        assertThat(history.getTimes()).hasLength(1);
+        assertThat(history.getTimes()[0]).isEqualTo(START);
+    }
+
+    private NodeMetricsSample sample(String hostName, boolean full, double cpu) {
+        return new NodeMetricsSample(hostName, 0, full, Collections.singletonMap(CPU, cpu));
+    }
+}
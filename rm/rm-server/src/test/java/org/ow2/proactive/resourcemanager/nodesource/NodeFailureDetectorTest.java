@@ -0,0 +1,129 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class NodeFailureDetectorTest {
+
+    private static final String NODE_URL = "pnp://host:64738/node";
+
+    private NodeFailureDetector detector;
+
+    @Before
+    public void setUp() {
+        detector = new NodeFailureDetector(10);
+    }
+
+    @Test
+    public void testNodeIsMonitoredAfterTwoHeartbeats() {
+        detector.heartbeat(NODE_URL, 0);
+        assertThat(detector.isMonitored(NODE_URL)).isFalse();
+
+        detector.heartbeat(NODE_URL, 30000);
+        assertThat(detector.isMonitored(NODE_URL)).isTrue();
+    }
+
+    @Test
+    public void testPhiIncreasesWithTheDelaySinceTheLastHeartbeat() {
+        heartbeats(0, 30000, 10);
+
+        double onTime = detector.phi(NODE_URL, 300000 + 30000);
+        double late = detector.phi(NODE_URL, 300000 + 40000);
+        double veryLate = detector.phi(NODE_URL, 300000 + 90000);
+
+        assertThat(onTime).isLessThan(1.0);
+        assertThat(late).isGreaterThan(onTime);
+        assertThat(veryLate).isAtLeast(8.0);
+    }
+
+    @Test
+    public void testSuspectedNodeIsSuspectedOnce() {
+        heartbeats(0, 30000, 3);
+
+        assertThat(detector.suspect(NODE_URL)).isTrue();
+        assertThat(detector.suspect(NODE_URL)).isFalse();
+        assertThat(detector.getMetrics().getSuspectedNodes()).isEqualTo(1);
+
+        detector.heartbeat(NODE_URL, 120000);
+        assertThat(detector.getMetrics().getSuspectedNodes()).isEqualTo(0);
+        assertThat(detector.suspect(NODE_URL)).isTrue();
+        assertThat(detector.getMetrics().getSuspicions()).isEqualTo(2);
+    }
+
+    @Test
+    public void testSuspectedNodeAnsweringThePingIsNotMonitoredAnymore() {
+        heartbeats(0, 30000, 3);
+        detector.suspect(NODE_URL);
+
+        detector.pinged(NODE_URL);
+
+        assertThat(detector.isMonitored(NODE_URL)).isFalse();
+        assertThat(detector.getMetrics().getFalseSuspicions()).isEqualTo(1);
+        assertThat(detector.getMetrics().getPings()).isEqualTo(1);
+    }
+
+    @Test
+    public void testDownNodeIsForgotten() {
+        heartbeats(0, 30000, 3);
+        detector.suspect(NODE_URL);
+
+        detector.down(NODE_URL);
+
+        assertThat(detector.isMonitored(NODE_URL)).isFalse();
+        assertThat(detector.phi(NODE_URL, 1000000)).isEqualTo(0.0);
+        assertThat(detector.getMetrics().getDownNodes()).isEqualTo(1);
+    }
+
+    @Test
+    public void testMetricsOfSeveralDetectorsAreSummed() {
+        heartbeats(0, 30000, 3);
+        detector.suspect(NODE_URL);
+        NodeFailureDetector other = new NodeFailureDetector(10);
+        other.heartbeat(NODE_URL, 0);
+        other.heartbeat(NODE_URL, 30000);
+
+        NodeFailureDetector.Metrics sum = NodeFailureDetector.Metrics.sum(Arrays.asList(detector.getMetrics(),
+                                                                                        other.getMetrics()));
+
+        assertThat(sum.getMonitoredNodes()).isEqualTo(2);
+        assertThat(sum.getSuspectedNodes()).isEqualTo(1);
+        assertThat(sum.getHeartbeats()).isEqualTo(6);
+        assertThat(sum.getSuspicions()).isEqualTo(1);
+    }
+
+    private void heartbeats(long start, long interval, int intervals) {
+        for (int i = 0; i <= intervals; i++) {
+            detector.heartbeat(NODE_URL, start + i * interval);
+        }
+    }
+}
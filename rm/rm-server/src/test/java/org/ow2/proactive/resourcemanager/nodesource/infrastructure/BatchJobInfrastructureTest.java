@@ -0,0 +1,261 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPairGenerator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.ow2.proactive.authentication.crypto.CredData;
+import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.resourcemanager.authentication.Client;
+import org.ow2.proactive.resourcemanager.core.properties.PAResourceManagerProperties;
+import org.ow2.proactive.resourcemanager.db.NodeSourceData;
+import org.ow2.proactive.resourcemanager.db.RMDBManager;
+import org.ow2.proactive.resourcemanager.nodesource.NodeSource;
+import org.ow2.proactive.resourcemanager.rmnode.RMDeployingNode;
+
+
+/**
+ * Tests the job array mode of {@link BatchJobInfrastructure} against a fake
+ * PBS whose commands are implemented by the fake-pbs.sh script.
+ */
+public class BatchJobInfrastructureTest {
+
+    private static final int MAX_NODES = 3;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private NodeSource nodeSource;
+
+    @Mock
+    private RMDBManager dbManager;
+
+    @Mock
+    private NodeSourceData nodeSourceData;
+
+    private final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<Runnable>());
+
+    private File pbsDir;
+
+    private File binDir;
+
+    private FakePBSInfrastructure infrastructure;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        PAResourceManagerProperties.RM_NODESOURCE_BATCH_JOB_ARRAY.updateProperty("true");
+
+        pbsDir = temporaryFolder.newFolder("pbs");
+        binDir = temporaryFolder.newFolder("bin");
+        for (String command : new String[] { "qsub", "qdel" }) {
+            File file = new File(binDir, command);
+            try (InputStream script = getClass().getResourceAsStream("fake-pbs.sh")) {
+                Files.copy(script, file.toPath());
+            }
+            assertThat(file.setExecutable(true)).isTrue();
+        }
+
+        when(nodeSource.getName()).thenReturn("BatchNS");
+        when(nodeSource.getStub()).thenReturn(nodeSource);
+        when(nodeSource.getAdministrator()).thenReturn(new Client());
+        when(nodeSource.getRegistrationURL()).thenReturn("pnp://localhost:64738/");
+        when(dbManager.getNodeSource(anyString())).thenReturn(nodeSourceData);
+        // the tasks are run by the test, to control how requests are grouped
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                tasks.add((Runnable) invocation.getArguments()[0]);
+                return null;
+            }
+        }).when(nodeSource).executeInParallel(any(Runnable.class));
+    }
+
+    @After
+    public void tearDown() {
+        if (infrastructure != null) {
+            infrastructure.internalShutDown();
+        }
+        PAResourceManagerProperties.RM_NODESOURCE_BATCH_JOB_ARRAY.updateProperty("false");
+    }
+
+    @Test
+    public void testNodeRequestsAreSubmittedAsOneJobArray() throws Exception {
+        createInfrastructure();
+
+        for (int i = 0; i < MAX_NODES; i++) {
+            infrastructure.acquireNode();
+        }
+        runTasks();
+
+        assertThat(readLog()).containsExactly("qsub -t 1-3 -q batch");
+        assertThat(infrastructure.getDeployingNodesDeployingState()).hasSize(MAX_NODES);
+        String jobScript = new String(Files.readAllBytes(new File(pbsDir, "1.job").toPath()), StandardCharsets.UTF_8);
+        assertThat(jobScript).contains("-$PBS_ARRAYID ");
+
+        for (String nodeName : deployingNodeNames()) {
+            infrastructure.internalRegisterAcquiredNode(mockNode(nodeName));
+        }
+        assertThat(infrastructure.getDeployingNodesDeployingState()).isEmpty();
+
+        // all the nodes are registered, no more node can be acquired
+        infrastructure.acquireNode();
+        assertThat(tasks).isEmpty();
+    }
+
+    @Test
+    public void testJobsOfRemovedNodesAreDeletedInBatch() throws Exception {
+        createInfrastructure();
+        infrastructure.acquireAllNodes();
+        runTasks();
+        List<Node> nodes = new ArrayList<>();
+        for (String nodeName : deployingNodeNames()) {
+            Node node = mockNode(nodeName);
+            infrastructure.internalRegisterAcquiredNode(node);
+            nodes.add(node);
+        }
+
+        for (Node node : nodes) {
+            infrastructure.removeNode(node);
+        }
+        runTasks();
+
+        assertThat(readLog()).containsExactly("qsub -t 1-3 -q batch", "qdel 1[1] 1[2] 1[3]").inOrder();
+    }
+
+    @Test
+    public void testJobsOfLostDeployingNodesAreDeletedInBatch() throws Exception {
+        createInfrastructure();
+        infrastructure.acquireAllNodes();
+        runTasks();
+        List<String> nodeNames = deployingNodeNames();
+        infrastructure.internalRegisterAcquiredNode(mockNode(nodeNames.get(0)));
+
+        // removing a deploying node notifies its loss as its timeout does
+        for (String nodeName : nodeNames.subList(1, MAX_NODES)) {
+            assertThat(infrastructure.internalRemoveDeployingNode("deploying://BatchNS/" + nodeName)).isTrue();
+        }
+        runTasks();
+
+        assertThat(readLog()).containsExactly("qsub -t 1-3 -q batch", "qdel 1[2] 1[3]").inOrder();
+        infrastructure.acquireNode();
+        runTasks();
+        assertThat(readLog()).contains("qsub -t 1-1 -q batch");
+    }
+
+    private void createInfrastructure() throws Exception {
+        KeyPairGenerator keyGenerator = KeyPairGenerator.getInstance("RSA");
+        keyGenerator.initialize(1024);
+        Credentials credentials = Credentials.createCredentials(new CredData("admin", "admin"),
+                                                                keyGenerator.generateKeyPair().getPublic());
+        infrastructure = new FakePBSInfrastructure();
+        infrastructure.internalConfigure("java",
+                                         "",
+                                         "/opt/scheduling",
+                                         "",
+                                         Integer.toString(MAX_NODES),
+                                         "60000",
+                                         "localhost",
+                                         credentials.getBase64(),
+                                         "-q batch");
+        infrastructure.setRmDbManager(dbManager);
+        infrastructure.setNodeSource(nodeSource);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private List<String> readLog() throws IOException {
+        File log = new File(pbsDir, "commands.log");
+        if (!log.exists()) {
+            return Collections.emptyList();
+        }
+        return Files.readAllLines(log.toPath(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> deployingNodeNames() {
+        List<String> names = new ArrayList<>();
+        for (RMDeployingNode deployingNode : infrastructure.getDeployingNodesDeployingState().values()) {
+            names.add(deployingNode.getNodeName());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    private Node mockNode(String nodeName) {
+        Node node = mock(Node.class);
+        NodeInformation nodeInformation = mock(NodeInformation.class);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        when(nodeInformation.getName()).thenReturn(nodeName);
+        when(nodeInformation.getURL()).thenReturn("pnp://localhost:64738/" + nodeName);
+        return node;
+    }
+
+    /**
+     * Runs the commands locally with the fake PBS commands in the path, through
+     * two shells as the ssh command does.
+     */
+    private class FakePBSInfrastructure extends PBSInfrastructure {
+
+        @Override
+        protected Process runCommand(String cmd) throws IOException {
+            ProcessBuilder processBuilder = new ProcessBuilder("/bin/sh", "-c", "/bin/sh -c \"" + cmd + "\"");
+            processBuilder.environment().put("PATH", binDir.getAbsolutePath() + ":" + System.getenv("PATH"));
+            processBuilder.environment().put("FAKE_PBS_DIR", pbsDir.getAbsolutePath());
+            return processBuilder.start();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.resourcemanager.nodesource.infrastructure;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.net.InetAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class HostsDeploymentSchedulerTest {
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentLaunchesAreBounded() throws Exception {
+        final int hosts = 10;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(hosts);
+        HostsDeploymentScheduler.Deployer deployer = new HostsDeploymentScheduler.Deployer() {
+            @Override
+            public void deploy(HostTracker hostTracker, int nbNodes, boolean lastAttempt) throws Exception {
+                int current = running.incrementAndGet();
+                synchronized (maxRunning) {
+                    maxRunning.set(Math.max(maxRunning.get(), current));
+                }
+                Thread.sleep(20);
+                running.decrementAndGet();
+            }
+
+            @Override
+            public void deploymentFinished(HostTracker hostTracker, boolean deployed) {
+                finished.countDown();
+            }
+        };
+        HostsDeploymentScheduler scheduler = new HostsDeploymentScheduler("test", executor, deployer, 3, 0, 0, 0);
+
+        for (int i = 0; i < hosts; i++) {
+            scheduler.deploy(host(), 2);
+        }
+
+        assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(maxRunning.get()).isAtMost(3);
+        assertThat(scheduler.getMetrics().getDeployedNodes()).isEqualTo(2L * hosts);
+    }
+
+    @Test
+    public void testFailedDeploymentIsRetried() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+        final boolean[] result = new boolean[1];
+        HostsDeploymentScheduler.Deployer deployer = new HostsDeploymentScheduler.Deployer() {
+            @Override
+            public void deploy(HostTracker hostTracker, int nbNodes, boolean lastAttempt) throws Exception {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new IllegalStateException("deployment failure");
+                }
+            }
+
+            @Override
+            public void deploymentFinished(HostTracker hostTracker, boolean deployed) {
+                result[0] = deployed;
+                finished.countDown();
+            }
+        };
+        HostsDeploymentScheduler scheduler = new HostsDeploymentScheduler("test", executor, deployer, 1, 1, 10, 5);
+
+        scheduler.deploy(host(), 1);
+
+        assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(result[0]).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(scheduler.getMetrics().getFailedAttempts()).isEqualTo(2L);
+    }
+
+    @Test
+    public void testHostIsAbandonedAfterMaxRetries() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+        final boolean[] lastAttempt = new boolean[1];
+        HostsDeploymentScheduler.Deployer deployer = new HostsDeploymentScheduler.Deployer() {
+            @Override
+            public void deploy(HostTracker hostTracker, int nbNodes, boolean last) throws Exception {
+                attempts.incrementAndGet();
+                lastAttempt[0] = last;
+                throw new IllegalStateException("deployment failure");
+            }
+
+            @Override
+            public void deploymentFinished(HostTracker hostTracker, boolean deployed) {
+                finished.countDown();
+            }
+        };
+        HostsDeploymentScheduler scheduler = new HostsDeploymentScheduler("test", executor, deployer, 1, 0, 0, 2);
+
+        scheduler.deploy(host(), 1);
+
+        assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(lastAttempt[0]).isTrue();
+        assertThat(scheduler.getMetrics().getAbandonedHosts()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testHostIsNotRetriedWithoutRetries() throws Exception {
+        assertThat(attemptsBeforeAbandon(0)).isEqualTo(1);
+    }
+
+    @Test
+    public void testHostIsRetriedUpToMaxRetries() throws Exception {
+        assertThat(attemptsBeforeAbandon(5)).isEqualTo(6);
+    }
+
+    @Test
+    public void testBackoffIsExponentialAndCapped() {
+        HostsDeploymentScheduler scheduler = new HostsDeploymentScheduler("test", executor, null, 1, 1000, 5000, -1);
+
+        assertThat(scheduler.backoff(1)).isEqualTo(1000L);
+        assertThat(scheduler.backoff(2)).isEqualTo(2000L);
+        assertThat(scheduler.backoff(3)).isEqualTo(4000L);
+        assertThat(scheduler.backoff(4)).isEqualTo(5000L);
+        assertThat(scheduler.backoff(100)).isEqualTo(5000L);
+    }
+
+    private int attemptsBeforeAbandon(int maxRetries) throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch finished = new CountDownLatch(1);
+        HostsDeploymentScheduler.Deployer deployer = new HostsDeploymentScheduler.Deployer() {
+            @Override
+            public void deploy(HostTracker hostTracker, int nbNodes, boolean lastAttempt) throws Exception {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("deployment failure");
+            }
+
+            @Override
+            public void deploymentFinished(HostTracker hostTracker, boolean deployed) {
+                finished.countDown();
+            }
+        };
+        HostsDeploymentScheduler scheduler = new HostsDeploymentScheduler("test",
+                                                                          executor,
+                                                                          deployer,
+                                                                          1,
+                                                                          0,
+                                                                          0,
+                                                                          maxRetries);
+
+        scheduler.deploy(host(), 1);
+
+        assertThat(finished.await(10, TimeUnit.SECONDS)).isTrue();
+        return attempts.get();
+    }
+
+    private HostTracker host() throws Exception {
+        return new HostTracker("localhost", 1, InetAddress.getLocalHost());
+    }
+}
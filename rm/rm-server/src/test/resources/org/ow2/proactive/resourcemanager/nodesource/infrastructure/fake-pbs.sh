@@ -0,0 +1,23 @@
+#!/bin/sh
+# Fake PBS commands used to test the batch job infrastructures, installed under the names qsub and qdel.
+# Each call is appended to $FAKE_PBS_DIR/commands.log and the submitted job scripts are stored in $FAKE_PBS_DIR.
+
+command=$(basename "$0")
+echo "$command $*" >> "$FAKE_PBS_DIR/commands.log"
+
+case "$command" in
+    qsub)
+        id=$(($(ls "$FAKE_PBS_DIR" | grep -c '\.job$') + 1))
+        cat > "$FAKE_PBS_DIR/$id.job"
+        case " $* " in
+            *" -t "*) echo "$id[].fakeserver" ;;
+            *) echo "$id.fakeserver" ;;
+        esac
+        ;;
+    qdel)
+        ;;
+    *)
+        echo "Unknown command: $command" >&2
+        exit 1
+        ;;
+esac
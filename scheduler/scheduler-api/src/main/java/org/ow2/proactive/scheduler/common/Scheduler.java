@@ -1378,6 +1378,28 @@ public interface Scheduler extends SchedulerUsage, ThirdPartyCredentials {
      */
     JobInfo getJobInfo(String jobId) throws UnknownJobException, NotConnectedException, PermissionException;
 
+    /**
+     * Retrieve the infos of several jobs at once. The jobs which are unknown or
+     * which the user is not allowed to see are skipped instead of failing the
+     * whole request.
+     *
+     * @param jobIds
+     *            the ids of the jobs we want to fetch info.
+     * @return the <code>JobInfo</code> of the known jobs the user can see
+     * @throws NotConnectedException
+     */
+    List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException;
+
+    /**
+     * Returns whether the user currently connected is allowed to handle the
+     * jobs of the other users, i.e. whether he does not have the
+     * HandleOnlyMyJobsPermission and can listen to the events of all jobs.
+     *
+     * @return true if the user can handle the jobs of the other users
+     * @throws NotConnectedException
+     */
+    boolean canHandleOtherUsersJobs() throws NotConnectedException;
+
     /**
      * Change the START_AT generic information at job level and reset the
      * scheduledAt at task level
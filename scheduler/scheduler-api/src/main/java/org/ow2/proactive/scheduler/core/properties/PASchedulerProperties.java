@@ -128,6 +128,14 @@ public enum PASchedulerProperties implements PACommonProperties {
      * a thread unlock. */
     SCHEDULER_LISTENERS_THREADNUMBER("pa.scheduler.core.listener.threadnumber", PropertyType.INTEGER, "5"),
 
+    /** Maximum number of events waiting to be sent to a client. Updates of a same job or task are merged
+     * while they wait. A client lagging behind this number of events is resynchronized from the current
+     * state of the jobs instead of receiving its backlog. */
+    SCHEDULER_LISTENERS_QUEUE_CAPACITY("pa.scheduler.core.listener.queue.capacity", PropertyType.INTEGER, "10000"),
+
+    /** Maximum number of events sent to a client at once, before the thread is released for other clients. */
+    SCHEDULER_LISTENERS_BATCH_SIZE("pa.scheduler.core.listener.batch.size", PropertyType.INTEGER, "100"),
+
     /** List of the scripts paths to execute at scheduler start. Paths are separated by a ';'. */
     SCHEDULER_STARTSCRIPTS_PATHS("pa.scheduler.startscripts.paths", PropertyType.LIST),
 
@@ -184,6 +192,18 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Remove job in dataBase when removing it from scheduler. */
     JOB_REMOVE_FROM_DB("pa.scheduler.job.removeFromDataBase", PropertyType.BOOLEAN, "true"),
 
+    /** Maximum number of jobs removed by the housekeeping in a single transaction. */
+    SCHEDULER_HOUSEKEEPING_BATCH_MAX_JOBS("pa.scheduler.core.housekeeping.batch.maxjobs", PropertyType.INTEGER, "100"),
+
+    /** Maximum number of tasks removed by the housekeeping in a single transaction (a job is never split). */
+    SCHEDULER_HOUSEKEEPING_BATCH_MAX_TASKS("pa.scheduler.core.housekeeping.batch.maxtasks", PropertyType.INTEGER, "10000"),
+
+    /** Pause between two housekeeping transactions, as a percentage of the duration of the previous one. */
+    SCHEDULER_HOUSEKEEPING_BATCH_PAUSE_PERCENT("pa.scheduler.core.housekeeping.batch.pausepercent", PropertyType.INTEGER, "100"),
+
+    /** Maximum pause between two housekeeping transactions, in milliseconds. */
+    SCHEDULER_HOUSEKEEPING_BATCH_MAX_PAUSE("pa.scheduler.core.housekeeping.batch.maxpause", PropertyType.INTEGER, "5000"),
+
     /** File encoding used by the scheduler */
     FILE_ENCODING(PAProperties.KEY_PA_FILE_ENCODING, PropertyType.STRING, "UTF-8"),
 
@@ -262,6 +282,13 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** */
     DATASPACE_DEFAULTUSER_HOSTNAME("pa.scheduler.dataspace.defaultuser.hostname", PropertyType.STRING),
 
+    /**
+     * Size in bytes above which the value of a task result is stored in the USER space of the job owner,
+     * so that only a reference to it is sent to the scheduler and to the dependent tasks. 0 or a negative
+     * value disables it.
+     */
+    DATASPACE_TASK_RESULT_REFERENCE_THRESHOLD("pa.scheduler.dataspace.task.result.reference.threshold", PropertyType.INTEGER, "0"),
+
     /* ***************************************************************** */
     /* ************************* LOGS PROPERTIES *********************** */
     /* ***************************************************************** */
@@ -320,6 +347,12 @@ public enum PASchedulerProperties implements PACommonProperties {
     /** Set a timeout for initial connection to the RM connection (in ms) */
     RESOURCE_MANAGER_CONNECTION_TIMEOUT("pa.scheduler.resourcemanager.connection.timeout", PropertyType.INTEGER, "120000"),
 
+    /**
+     * Time (in seconds) after which the RM connection of a user who does not hold any node is closed,
+     * when each user has its own connection to the RM. A value of 0 keeps the connections open.
+     */
+    RESOURCE_MANAGER_USER_CONNECTION_IDLE_TIMEOUT("pa.scheduler.resourcemanager.user.connection.idle.timeout", PropertyType.INTEGER, "1800"),
+
     /* ***************************************************************** */
     /* ********************** HIBERNATE PROPERTIES ********************* */
     /* ***************************************************************** */
@@ -354,8 +387,23 @@ public enum PASchedulerProperties implements PACommonProperties {
             PropertyType.INTEGER,
             "100"),
 
+    /** Number of threads loading the batches of jobs in parallel when the scheduler is restarted */
+    SCHEDULER_DB_RECOVERY_LOAD_JOBS_NB_THREADS("pa.scheduler.db.recovery.load.jobs.nb_threads", PropertyType.INTEGER, "4"),
+
+    /**
+     * If true, the scheduler starts scheduling as soon as the running jobs are recovered,
+     * the pending and finished jobs being loaded in the background
+     */
+    SCHEDULER_DB_RECOVERY_LAZY_LOADING("pa.scheduler.db.recovery.lazy.loading", PropertyType.BOOLEAN, "true"),
+
     SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE("pa.scheduler.db.fetch.batch_size", PropertyType.INTEGER, "50"),
 
+    /**
+     * Maximum size in bytes of the task results kept in memory once saved, so that
+     * dependent tasks do not read them again from the database. 0 disables the cache.
+     */
+    SCHEDULER_DB_TASK_RESULTS_CACHE_SIZE("pa.scheduler.db.task.results.cache.size", PropertyType.INTEGER, "67108864"),
+
     /* ***************************************************************** */
     /* ***************** EMAIL NOTIFICATION PROPERTIES ***************** */
     /* ***************************************************************** */
@@ -672,6 +672,16 @@ public class SchedulerProxyUserInterface implements Scheduler, Serializable {
         return uischeduler.getCurrentUserData();
     }
 
+    @Override
+    public List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        return uischeduler.getJobsInfoList(jobIds);
+    }
+
+    @Override
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        return uischeduler.canHandleOtherUsersJobs();
+    }
+
     @Override
     public Map getSchedulerProperties() throws NotConnectedException, PermissionException {
         return uischeduler.getSchedulerProperties();
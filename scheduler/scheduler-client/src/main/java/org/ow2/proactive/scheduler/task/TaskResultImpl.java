@@ -65,6 +65,15 @@ public class TaskResultImpl implements TaskResult {
     /** The value of the result if no exception occurred as a byte array */
     private byte[] serializedValue = null;
 
+    /**
+     * Path, relative to the USER space of the job owner, of the file holding the serialized value
+     * when it is passed by reference, see {@link TaskResultStore}
+     */
+    private String valueReference = null;
+
+    /** Local folder of the USER space from which a value passed by reference is read when first needed */
+    private String valueSpacePath = null;
+
     /** true if this result contains raw data **/
     private boolean isRaw = false;
 
@@ -364,7 +373,7 @@ public class TaskResultImpl implements TaskResult {
      * @throws IOException
      */
     private Serializable instanciateValue(ClassLoader cl) throws IOException, ClassNotFoundException {
-        if (this.serializedValue != null && this.value == null) {
+        if (this.loadSerializedValue() != null && this.value == null) {
             if (this.isRaw) {
                 return this.serializedValue;
             } else {
@@ -394,7 +403,63 @@ public class TaskResultImpl implements TaskResult {
      * @return the serializedValue.
      */
     public byte[] getSerializedValue() {
-        return serializedValue;
+        try {
+            return loadSerializedValue();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read result of the task " + this.id + " : " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Return the serialized value, reading it from the USER space if it is passed
+     * by reference and can be read from this side.
+     */
+    private byte[] loadSerializedValue() throws IOException {
+        if (this.serializedValue == null && this.valueReference != null && this.valueSpacePath != null) {
+            this.serializedValue = TaskResultStore.read(this.valueSpacePath, this.valueReference);
+        }
+        return this.serializedValue;
+    }
+
+    /**
+     * Get the path, relative to the USER space, of the value passed by reference.
+     *
+     * @return the path of the value, or null if the value is held by this result.
+     */
+    public String getValueReference() {
+        return valueReference;
+    }
+
+    /**
+     * Replace the serialized value of this result by a reference to the file of the
+     * USER space holding it.
+     *
+     * @param valueReference the path of the value, relative to the USER space.
+     */
+    public void setValueReference(String valueReference) {
+        this.valueReference = valueReference;
+        if (valueReference != null) {
+            this.serializedValue = null;
+            this.value = null;
+        }
+    }
+
+    /**
+     * Set the local folder of the USER space, from which the value passed by
+     * reference is read the first time it is accessed.
+     *
+     * @param valueSpacePath the local path of the USER space.
+     */
+    public void setValueSpacePath(String valueSpacePath) {
+        this.valueSpacePath = valueSpacePath;
+    }
+
+    boolean isValueLoaded() {
+        return serializedValue != null;
+    }
+
+    void setLoadedValue(byte[] serializedValue) {
+        this.serializedValue = serializedValue;
     }
 
     @Override
@@ -0,0 +1,155 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+
+import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
+import org.objectweb.proactive.extensions.dataspaces.api.FileSelector;
+import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
+import org.ow2.proactive.scheduler.common.job.JobId;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+
+/**
+ * Stores the values of large task results in the USER space of the job owner so
+ * that only a reference to them is sent to the scheduler and to the dependent
+ * tasks. Unlike the GLOBAL space, the USER space is only readable by its owner
+ * and by the scheduler, so the results of a job cannot be read by other users.
+ * <p>
+ * Values are stored in a folder per job and named after the SHA-256 digest of
+ * their content, so identical values produced by the tasks of a job are stored
+ * once, and a value can be checked when it is read back.
+ * <p>
+ * The scheduler returns such results with their reference only, so that large values
+ * never go through its heap: the clients read the values from the USER space.
+ */
+public class TaskResultStore {
+
+    /** Folder of the USER space holding the values of the results passed by reference */
+    public static final String RESULTS_FOLDER = ".task-results";
+
+    private static final String INCOMPLETE_SUFFIX = ".tmp";
+
+    private TaskResultStore() {
+    }
+
+    /**
+     * Stores the serialized value of the given result in the given space if it is
+     * larger than the given threshold, and replaces it by a reference.
+     *
+     * @return true if the value is now passed by reference
+     */
+    public static boolean storeValueIfLarger(TaskResultImpl result, DataSpacesFileObject space, long threshold)
+            throws FileSystemException, IOException {
+        byte[] serializedValue = result.getSerializedValue();
+        if (threshold <= 0 || space == null || serializedValue == null || serializedValue.length <= threshold) {
+            return false;
+        }
+        String reference = RESULTS_FOLDER + "/" + result.getTaskId().getJobId().value() + "/" +
+                           digest(serializedValue);
+        DataSpacesFileObject file = space.resolveFile(reference);
+        if (!file.exists() || file.getContent().getSize() != serializedValue.length) {
+            DataSpacesFileObject incompleteFile = space.resolveFile(reference + "." + result.getTaskId().value() +
+                                                                    INCOMPLETE_SUFFIX);
+            incompleteFile.createFile();
+            OutputStream os = incompleteFile.getContent().getOutputStream();
+            try {
+                os.write(serializedValue);
+            } finally {
+                os.close();
+            }
+            if (file.exists()) {
+                file.delete();
+            }
+            incompleteFile.moveTo(file);
+        }
+        result.setValueReference(reference);
+        return true;
+    }
+
+    /**
+     * Reads the value referenced by the given result from the given space, so that
+     * it can be handed to a consumer which has no access to the space.
+     */
+    public static void resolveValue(TaskResultImpl result, DataSpacesFileObject space)
+            throws FileSystemException, IOException {
+        String reference = result.getValueReference();
+        if (reference == null || result.isValueLoaded()) {
+            return;
+        }
+        resolveValue(result, space.resolveFile(reference).getContent().getInputStream());
+    }
+
+    /**
+     * Reads the value referenced by the given result from the given stream of the
+     * referenced file, and closes it.
+     */
+    public static void resolveValue(TaskResultImpl result, InputStream is) throws IOException {
+        try {
+            String reference = result.getValueReference();
+            if (reference != null && !result.isValueLoaded()) {
+                result.setLoadedValue(verify(reference, ByteStreams.toByteArray(is)));
+            }
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Removes the values stored for the results of the given job.
+     */
+    public static void removeJobResults(DataSpacesFileObject space, JobId jobId) throws FileSystemException {
+        DataSpacesFileObject folder = space.resolveFile(RESULTS_FOLDER + "/" + jobId.value());
+        if (folder.exists()) {
+            folder.delete(FileSelector.SELECT_ALL);
+        }
+    }
+
+    /**
+     * Reads a referenced value from the local folder where the space is mounted.
+     */
+    static byte[] read(String spacePath, String reference) throws IOException {
+        return verify(reference, Files.readAllBytes(new File(spacePath, reference).toPath()));
+    }
+
+    private static byte[] verify(String reference, byte[] serializedValue) throws IOException {
+        if (!reference.endsWith("/" + digest(serializedValue))) {
+            throw new IOException("Content of the task result " + reference + " does not match its digest");
+        }
+        return serializedValue;
+    }
+
+    private static String digest(byte[] serializedValue) {
+        return Hashing.sha256().hashBytes(serializedValue).toString();
+    }
+}
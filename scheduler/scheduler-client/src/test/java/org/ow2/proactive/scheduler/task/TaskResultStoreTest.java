@@ -0,0 +1,106 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.ow2.proactive.scheduler.common.exception.InternalSchedulerException;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+
+import com.google.common.hash.Hashing;
+
+
+public class TaskResultStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TaskId taskId;
+
+    private File userSpace;
+
+    @Before
+    public void setUp() throws Exception {
+        taskId = TaskIdImpl.createTaskId(new JobIdImpl(42, "job"), "task", 1);
+        userSpace = temporaryFolder.newFolder();
+    }
+
+    @Test
+    public void testValueBelowThresholdIsKeptInline() throws Exception {
+        TaskResultImpl result = new TaskResultImpl(taskId, "small", null, 0);
+
+        assertThat(TaskResultStore.storeValueIfLarger(result, null, 1024)).isFalse();
+        assertThat(result.getValueReference()).isNull();
+        assertThat(result.value()).isEqualTo("small");
+    }
+
+    @Test
+    public void testReferencedValueIsReadLazily() throws Throwable {
+        byte[] serializedValue = new TaskResultImpl(taskId, "large", null, 0).getSerializedValue();
+        TaskResultImpl result = referencedResult(serializedValue, serializedValue);
+
+        assertThat(result.getSerializedValue()).isEqualTo(serializedValue);
+        assertThat(result.value()).isEqualTo("large");
+    }
+
+    @Test
+    public void testReferencedValueWithoutSpaceIsNotRead() throws Throwable {
+        byte[] serializedValue = new TaskResultImpl(taskId, "large", null, 0).getSerializedValue();
+        TaskResultImpl result = referencedResult(serializedValue, serializedValue);
+        result.setValueSpacePath(null);
+
+        assertThat(result.getSerializedValue()).isNull();
+    }
+
+    @Test(expected = InternalSchedulerException.class)
+    public void testCorruptedValueIsRejected() throws Throwable {
+        byte[] serializedValue = new TaskResultImpl(taskId, "large", null, 0).getSerializedValue();
+        byte[] corruptedValue = new TaskResultImpl(taskId, "other", null, 0).getSerializedValue();
+
+        referencedResult(serializedValue, corruptedValue).value();
+    }
+
+    private TaskResultImpl referencedResult(byte[] serializedValue, byte[] storedValue) throws Exception {
+        String reference = TaskResultStore.RESULTS_FOLDER + "/" + taskId.getJobId().value() + "/" +
+                           Hashing.sha256().hashBytes(serializedValue).toString();
+        File file = new File(userSpace, reference);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), storedValue);
+
+        TaskResultImpl result = new TaskResultImpl(taskId, serializedValue, null, null, false);
+        result.setValueReference(reference);
+        result.setValueSpacePath(userSpace.getAbsolutePath());
+        return result;
+    }
+}
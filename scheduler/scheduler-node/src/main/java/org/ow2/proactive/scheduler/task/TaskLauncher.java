@@ -179,6 +179,8 @@ public class TaskLauncher implements InitActive {
 
             progressFileReader.start(dataspaces.getScratchFolder(), taskId);
 
+            prepareReferencedResults(previousTasksResults, dataspaces);
+
             context = new TaskContext(executableContainer,
                                       initializer,
                                       previousTasksResults,
@@ -240,6 +242,8 @@ public class TaskLauncher implements InitActive {
             copyTaskLogsToUserSpace(taskLogFile, dataspaces);
             taskResult.setLogs(taskLogger.getLogs());
 
+            storeLargeResultValue(taskResult, dataspaces);
+
             sendResultToScheduler(rebindedTerminateNotification, taskResult);
         } catch (Throwable taskFailure) {
             if (wallTimer != null) {
@@ -353,6 +357,51 @@ public class TaskLauncher implements InitActive {
         return taskContextVariableExtractor.extractVariables(taskContext, true);
     }
 
+    /**
+     * Makes the values of the previous results passed by reference readable by the task:
+     * they are read lazily from the USER space when it is mounted on the local file
+     * system, otherwise they are read now through the dataspaces.
+     */
+    private void prepareReferencedResults(TaskResult[] previousTasksResults, TaskDataspaces dataspaces)
+            throws Exception {
+        if (previousTasksResults == null) {
+            return;
+        }
+        String userPath = dataspaces.getUserURI();
+        boolean localUserSpace = userPath != null && new File(userPath).isAbsolute();
+        for (TaskResult previousTaskResult : previousTasksResults) {
+            if (previousTaskResult instanceof TaskResultImpl &&
+                ((TaskResultImpl) previousTaskResult).getValueReference() != null) {
+                TaskResultImpl referencedResult = (TaskResultImpl) previousTaskResult;
+                if (localUserSpace) {
+                    referencedResult.setValueSpacePath(userPath);
+                } else if (dataspaces.getUserSpace() != null) {
+                    TaskResultStore.resolveValue(referencedResult, dataspaces.getUserSpace());
+                } else {
+                    throw new IllegalStateException("USER space not mounted, cannot read the result of task " +
+                                                    referencedResult.getTaskId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the value of the result in the USER space when it is larger than the
+     * configured threshold, so that only a reference to it is sent to the scheduler.
+     */
+    private void storeLargeResultValue(TaskResultImpl taskResult, TaskDataspaces dataspaces) {
+        try {
+            if (TaskResultStore.storeValueIfLarger(taskResult,
+                                                   dataspaces.getUserSpace(),
+                                                   initializer.getResultReferenceThreshold())) {
+                logger.info("Result of task " + taskId + " stored in the USER space as " +
+                            taskResult.getValueReference());
+            }
+        } catch (Exception e) {
+            logger.warn("Cannot store the result of task " + taskId + " in the USER space, sending it inline", e);
+        }
+    }
+
     private void copyTaskLogsToUserSpace(File taskLogFile, TaskDataspaces dataspaces) {
         if (initializer.isPreciousLogs()) {
             try {
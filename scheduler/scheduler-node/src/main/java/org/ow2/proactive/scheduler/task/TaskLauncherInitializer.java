@@ -104,6 +104,12 @@ public class TaskLauncherInitializer implements Serializable {
 
     private int pingAttempts = 1;
 
+    /**
+     * Size above which the value of the result is stored in the USER space of the job owner,
+     * disabled if not positive
+     */
+    private long resultReferenceThreshold = 0;
+
     private ForkEnvironment forkEnvironment;
 
     /**
@@ -365,6 +371,14 @@ public class TaskLauncherInitializer implements Serializable {
         return pingAttempts;
     }
 
+    public void setResultReferenceThreshold(long resultReferenceThreshold) {
+        this.resultReferenceThreshold = resultReferenceThreshold;
+    }
+
+    public long getResultReferenceThreshold() {
+        return resultReferenceThreshold;
+    }
+
     public List<InputSelector> getFilteredInputFiles(Map<String, Serializable> variables) {
         List<InputSelector> filteredTaskInputFiles = new ArrayList<>();
         if (taskInputFiles != null) {
@@ -761,6 +761,18 @@ public class SchedulerNodeClient implements ISchedulerClient, Serializable {
         return client.getCurrentUserData();
     }
 
+    @Override
+    public List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        renewSession();
+        return client.getJobsInfoList(jobIds);
+    }
+
+    @Override
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        renewSession();
+        return client.canHandleOtherUsersJobs();
+    }
+
     @Override
     public Map<String, Object> getSchedulerProperties() throws NotConnectedException, PermissionException {
         renewSession();
@@ -29,6 +29,7 @@ import java.io.File;
 import java.io.Serializable;
 import java.util.List;
 
+import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.ow2.proactive.scheduler.common.task.dataspaces.InputSelector;
 import org.ow2.proactive.scheduler.common.task.dataspaces.OutputSelector;
@@ -50,6 +51,11 @@ public interface TaskDataspaces extends Serializable {
 
     String getGlobalURI();
 
+    /**
+     * @return the USER space of the job owner, or null if it is not mounted
+     */
+    DataSpacesFileObject getUserSpace();
+
     void copyInputDataToScratch(List<InputSelector> inputFiles) throws FileSystemException, InterruptedException;
 
     void copyScratchDataToOutput(List<OutputSelector> outputFiles) throws FileSystemException;
@@ -365,6 +365,11 @@ public class TaskProActiveDataspaces implements TaskDataspaces {
         return convertDataSpaceURIToFileIfPossible(GLOBAL.getRealURI(), false);
     }
 
+    @Override
+    public DataSpacesFileObject getUserSpace() {
+        return USER;
+    }
+
     private enum DataspacesStatusLevel {
         ERROR,
         WARNING,
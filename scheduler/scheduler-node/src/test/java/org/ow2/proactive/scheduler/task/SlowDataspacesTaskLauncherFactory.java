@@ -30,6 +30,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Semaphore;
 
+import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
 import org.objectweb.proactive.extensions.dataspaces.core.naming.NamingService;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.ow2.proactive.scheduler.common.task.TaskId;
@@ -103,6 +104,11 @@ public class SlowDataspacesTaskLauncherFactory extends ProActiveForkedTaskLaunch
             return null;
         }
 
+        @Override
+        public DataSpacesFileObject getUserSpace() {
+            return null;
+        }
+
         @Override
         public void copyInputDataToScratch(List<InputSelector> inputFiles) throws FileSystemException {
             if (taskRunning != null) {
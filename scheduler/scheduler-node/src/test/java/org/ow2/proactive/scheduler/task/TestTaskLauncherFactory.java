@@ -34,6 +34,7 @@ import java.util.UUID;
 import java.util.concurrent.Semaphore;
 
 import org.apache.commons.io.FileUtils;
+import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
 import org.objectweb.proactive.extensions.dataspaces.core.naming.NamingService;
 import org.objectweb.proactive.extensions.dataspaces.exceptions.FileSystemException;
 import org.ow2.proactive.scheduler.common.task.TaskId;
@@ -159,6 +160,11 @@ public class TestTaskLauncherFactory extends ProActiveForkedTaskLauncherFactory
             return globalspaceFolder.getAbsolutePath();
         }
 
+        @Override
+        public DataSpacesFileObject getUserSpace() {
+            return null;
+        }
+
         @Override
         public void copyInputDataToScratch(List<InputSelector> inputFiles) throws FileSystemException {
             for (InputSelector inputFile : inputFiles) {
@@ -26,7 +26,7 @@
 package org.ow2.proactive.scheduler.core;
 
 import java.lang.reflect.Method;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -44,6 +44,11 @@ import org.ow2.proactive.threading.ReifiedMethodCall;
 /**
  * ClientRequestHandler is used to delegate event call to client.
  * This class should be used with the ThreadPoolController which handles threads.
+ * <p>
+ * Events are stored in a bounded {@link ListenerEventQueue} which conflates job and task
+ * updates, and are sent by batches. A client lagging behind the capacity of its queue
+ * is resynchronized from a snapshot of the jobs whose updates were dropped instead of
+ * receiving its backlog.
  *
  * @author The ProActive Team
  * @since ProActive Scheduling 2.0
@@ -55,6 +60,12 @@ public class ClientRequestHandler {
     /** Number of threads used by the thread pool for clients events sending */
     private static final int THREAD_NUMBER = PASchedulerProperties.SCHEDULER_LISTENERS_THREADNUMBER.getValueAsInt();
 
+    /** Maximum number of events waiting to be sent to a client */
+    private static final int QUEUE_CAPACITY = PASchedulerProperties.SCHEDULER_LISTENERS_QUEUE_CAPACITY.getValueAsInt();
+
+    /** Maximum number of events sent to a client by a task of the thread pool */
+    private static final int BATCH_SIZE = PASchedulerProperties.SCHEDULER_LISTENERS_BATCH_SIZE.getValueAsInt();
+
     /** thread pool */
     private static final ExecutorService threadPoolForNetworkCalls = Executors.newFixedThreadPool(THREAD_NUMBER,
                                                                                                   new NamedThreadFactory("ClientEventHandlerPool"));
@@ -76,6 +87,15 @@ public class ClientRequestHandler {
         }
     }
 
+    private static void updateRequestLeft(int delta) {
+        if (delta != 0 && requestLeft.addAndGet(delta) == 0) {
+            synchronized (requestLeft) {
+                //inner synchronized OK since only used during termination (= no new event)
+                requestLeft.notify();
+            }
+        }
+    }
+
     /** Busy state of this client request queue */
     private final AtomicBoolean busy = new AtomicBoolean(false);
 
@@ -86,7 +106,7 @@ public class ClientRequestHandler {
     private final SchedulerEventListener client;
 
     /** Events queue to be stored */
-    private final LinkedList<ReifiedMethodCall> eventCallsToStore;
+    private final ListenerEventQueue eventCallsToStore;
 
     /** Cross reference to the front-end : used to mark client as dirty */
     private final SchedulerFrontendState frontend;
@@ -102,7 +122,7 @@ public class ClientRequestHandler {
         this.client = client;
         this.frontend = frontend;
         this.clientId = clientId;
-        this.eventCallsToStore = new LinkedList<>();
+        this.eventCallsToStore = new ListenerEventQueue(QUEUE_CAPACITY);
     }
 
     /**
@@ -113,8 +133,9 @@ public class ClientRequestHandler {
      */
     public void addEvent(Method method, Object... args) {
         synchronized (eventCallsToStore) {
+            int sizeBefore = eventCallsToStore.size();
             eventCallsToStore.add(new ReifiedMethodCall(method, args));
-            requestLeft.incrementAndGet();
+            updateRequestLeft(eventCallsToStore.size() - sizeBefore);
         }
         tryStartTask();
     }
@@ -125,60 +146,65 @@ public class ClientRequestHandler {
      *
      * Can be called from two different thread, even if it is private!
      */
-    @SuppressWarnings("unchecked")
     private void tryStartTask() {
         synchronized (eventCallsToStore) {
-            if (eventCallsToStore.size() > 0 && !busy.get()) {
-                LinkedList<ReifiedMethodCall> tasks = (LinkedList<ReifiedMethodCall>) eventCallsToStore.clone();
-                eventCallsToStore.clear();
+            if ((!eventCallsToStore.isEmpty() || eventCallsToStore.isResyncNeeded()) && !busy.get()) {
                 busy.set(true);
-                threadPoolForNetworkCalls.execute(new TaskRunnable(tasks));
+                threadPoolForNetworkCalls.execute(new TaskRunnable());
             }
         }
     }
 
     /**
-     * TaskRunnable is the task in charge to send the events in its list.
+     * Replaces the job and task updates waiting in the queue by a snapshot of the jobs.
+     * The front-end lock is held so that no event is dispatched while the snapshot is taken.
+     */
+    private void resynchronize() {
+        synchronized (frontend) {
+            List<ReifiedMethodCall> snapshot;
+            synchronized (eventCallsToStore) {
+                snapshot = frontend.getJobsSnapshotEvents(clientId, eventCallsToStore.getJobsToResynchronize());
+                int sizeBefore = eventCallsToStore.size();
+                eventCallsToStore.resynchronize(snapshot);
+                updateRequestLeft(eventCallsToStore.size() - sizeBefore);
+            }
+            logger.warn("Events sending to the client " + clientId + " is lagging, resynchronized with " +
+                        snapshot.size() + " jobs");
+        }
+    }
+
+    /**
+     * TaskRunnable is the task in charge to send a batch of events of the queue.
      *
      * @author The ProActive Team
      * @since ProActive Scheduling 2.0
      */
     class TaskRunnable implements Runnable {
 
-        /** Events queue to be sent */
-        private final LinkedList<ReifiedMethodCall> eventCallsToSend;
-
-        /**
-         * Create a new instance of Task
-         *
-         * @param eventCallsToSend
-         */
-        public TaskRunnable(LinkedList<ReifiedMethodCall> eventCalls) {
-            if (eventCalls == null || eventCalls.size() == 0) {
-                throw new IllegalArgumentException("List argument must not be null nor empty !");
-            }
-            this.eventCallsToSend = eventCalls;
-        }
-
         /**
          * {@inheritDoc}
          */
         public void run() {
             try {
-                //unlock shutdown request if needed
-                if (requestLeft.addAndGet(-eventCallsToSend.size()) == 0) {
-                    synchronized (requestLeft) {
-                        //inner synchronized OK since only used during termination (= no new event)
-                        requestLeft.notify();
-                    }
+                boolean resyncNeeded;
+                synchronized (eventCallsToStore) {
+                    resyncNeeded = eventCallsToStore.isResyncNeeded();
+                }
+                if (resyncNeeded) {
+                    resynchronize();
                 }
+                List<ReifiedMethodCall> eventCallsToSend;
+                synchronized (eventCallsToStore) {
+                    eventCallsToSend = eventCallsToStore.poll(BATCH_SIZE);
+                }
+                //unlock shutdown request if needed
+                updateRequestLeft(-eventCallsToSend.size());
                 //loop on the list and send events
-                while (!eventCallsToSend.isEmpty()) {
-                    ReifiedMethodCall methodCall = eventCallsToSend.removeFirst();
+                for (ReifiedMethodCall methodCall : eventCallsToSend) {
                     methodCall.getMethod().invoke(client, methodCall.getArguments());
                 }
                 busy.set(false);
-                //try to empty the events list if no event comes from the core
+                //go on with the remaining events, other clients can be served in between
                 tryStartTask();
             } catch (Throwable t) {
                 if (logger.isDebugEnabled()) {
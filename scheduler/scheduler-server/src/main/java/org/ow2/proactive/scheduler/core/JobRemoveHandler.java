@@ -97,6 +97,11 @@ public class JobRemoveHandler implements Callable<Boolean> {
 
         dbManager.removeJob(jobId, jobs.get(0).getRemovedTime(), removeFromDb);
 
+        SchedulerSpacesSupport spacesSupport = service.getInfrastructure().getSpacesSupport();
+        if (removeFromDb && spacesSupport != null) {
+            spacesSupport.removeTaskResultValues(jobs.get(0).getOwner(), jobId);
+        }
+
         if (logger.isInfoEnabled()) {
             logger.info("Job " + jobId + " removed in " + (System.currentTimeMillis() - start) + "ms");
         }
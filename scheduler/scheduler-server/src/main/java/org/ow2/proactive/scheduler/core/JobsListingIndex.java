@@ -0,0 +1,375 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.ow2.proactive.db.SortOrder;
+import org.ow2.proactive.db.SortParameter;
+import org.ow2.proactive.scheduler.common.JobSortParameter;
+import org.ow2.proactive.scheduler.common.Page;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Ordering;
+
+
+/**
+ * In-memory index of the jobs known by the frontend, used to answer the paginated
+ * job listings without querying the database.
+ * <p>
+ * Jobs are indexed by status, globally and per owner, and ordered by id inside each
+ * index. The default listings (grouped by state and/or ordered by id) are answered by
+ * walking the requested page only, other sort orders by sorting the matching jobs.
+ * The results follow the semantics of {@link SchedulerDBManager#getJobs}.
+ * <p>
+ * This class is not thread safe, it is guarded by the {@link SchedulerFrontendState} monitor.
+ */
+class JobsListingIndex {
+
+    private static final Set<JobStatus> RUNNING_GROUP = ImmutableSet.of(JobStatus.RUNNING,
+                                                                        JobStatus.STALLED,
+                                                                        JobStatus.PAUSED);
+
+    private static final int STATE_GROUPS = 3;
+
+    private final Map<JobId, Entry> entries = new HashMap<>();
+
+    private final Map<JobStatus, NavigableMap<Long, Entry>> byStatus = new EnumMap<>(JobStatus.class);
+
+    private final Map<String, Map<JobStatus, NavigableMap<Long, Entry>>> byOwner = new HashMap<>();
+
+    /**
+     * Adds the job to the index, or re-indexes it if its status changed.
+     */
+    void jobUpdated(JobState job) {
+        JobInfo jobInfo = job.getJobInfo();
+        Entry entry = entries.get(jobInfo.getJobId());
+        if (entry == null) {
+            entry = new Entry(job);
+            entries.put(entry.jobId, entry);
+        } else if (entry.status != jobInfo.getStatus()) {
+            unindex(entry);
+            entry.job = job;
+        } else {
+            entry.job = job;
+            return;
+        }
+        entry.status = jobInfo.getStatus();
+        index(byStatus, entry);
+        Map<JobStatus, NavigableMap<Long, Entry>> ownerIndex = byOwner.get(entry.owner);
+        if (ownerIndex == null) {
+            ownerIndex = new EnumMap<>(JobStatus.class);
+            byOwner.put(entry.owner, ownerIndex);
+        }
+        index(ownerIndex, entry);
+    }
+
+    void jobRemoved(JobId jobId) {
+        Entry entry = entries.remove(jobId);
+        if (entry != null) {
+            unindex(entry);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns a page of jobs, with the same parameters than {@link SchedulerDBManager#getJobs}.
+     */
+    Page<JobInfo> getJobs(int offset, int limit, String user, boolean pending, boolean running, boolean finished,
+            List<SortParameter<JobSortParameter>> sortParameters) {
+        Map<JobStatus, NavigableMap<Long, Entry>> index = user == null ? byStatus : byOwner.get(user);
+        Map<JobStatus, NavigableMap<Long, Entry>> selected = new EnumMap<>(JobStatus.class);
+        int total = 0;
+        if (index != null) {
+            for (Map.Entry<JobStatus, NavigableMap<Long, Entry>> statusIndex : index.entrySet()) {
+                if (isSelected(statusIndex.getKey(), pending, running, finished)) {
+                    selected.put(statusIndex.getKey(), statusIndex.getValue());
+                    total += statusIndex.getValue().size();
+                }
+            }
+        }
+
+        Iterator<Entry> matching = walkInOrder(selected, sortParameters);
+        if (matching == null) {
+            List<Entry> sorted = new ArrayList<>(total);
+            for (NavigableMap<Long, Entry> statusIndex : selected.values()) {
+                sorted.addAll(statusIndex.values());
+            }
+            Collections.sort(sorted, comparator(sortParameters));
+            matching = sorted.iterator();
+        }
+        if (offset > 0) {
+            Iterators.advance(matching, offset);
+        }
+        if (limit > 0) {
+            matching = Iterators.limit(matching, limit);
+        }
+
+        List<JobInfo> jobs = new ArrayList<>(limit > 0 ? Math.min(limit, total) : total);
+        while (matching.hasNext()) {
+            jobs.add(toJobInfo(matching.next().job));
+        }
+        return new Page<>(jobs, total);
+    }
+
+    /**
+     * Walks the selected indexes in the requested order when it only involves the state
+     * and the id of the jobs, returns null otherwise.
+     */
+    private Iterator<Entry> walkInOrder(Map<JobStatus, NavigableMap<Long, Entry>> selected,
+            List<SortParameter<JobSortParameter>> sortParameters) {
+        SortOrder stateOrder = null;
+        SortOrder idOrder = SortOrder.ASC;
+        if (sortParameters != null) {
+            for (SortParameter<JobSortParameter> param : sortParameters) {
+                if (param.getParameter() == JobSortParameter.ID) {
+                    // ids are unique, the remaining parameters are not relevant
+                    idOrder = param.getSortOrder();
+                    break;
+                } else if (param.getParameter() == JobSortParameter.STATE) {
+                    if (stateOrder == null) {
+                        stateOrder = param.getSortOrder();
+                    }
+                } else {
+                    return null;
+                }
+            }
+        }
+
+        if (stateOrder == null) {
+            return merge(selected.values(), idOrder);
+        }
+        List<Iterator<Entry>> groups = new ArrayList<>(STATE_GROUPS);
+        for (int i = 0; i < STATE_GROUPS; i++) {
+            int group = stateOrder.isAscending() ? i : STATE_GROUPS - 1 - i;
+            List<NavigableMap<Long, Entry>> groupIndexes = new ArrayList<>();
+            for (Map.Entry<JobStatus, NavigableMap<Long, Entry>> statusIndex : selected.entrySet()) {
+                if (stateGroup(statusIndex.getKey()) == group) {
+                    groupIndexes.add(statusIndex.getValue());
+                }
+            }
+            groups.add(merge(groupIndexes, idOrder));
+        }
+        return Iterators.concat(groups.iterator());
+    }
+
+    private static Iterator<Entry> merge(Iterable<NavigableMap<Long, Entry>> indexes, SortOrder idOrder) {
+        List<Iterator<Entry>> iterators = new ArrayList<>();
+        for (NavigableMap<Long, Entry> index : indexes) {
+            Map<Long, Entry> ordered = idOrder.isAscending() ? index : index.descendingMap();
+            iterators.add(ordered.values().iterator());
+        }
+        return Iterators.mergeSorted(iterators, idComparator(idOrder));
+    }
+
+    private static Comparator<Entry> comparator(List<SortParameter<JobSortParameter>> sortParameters) {
+        List<Comparator<Entry>> comparators = new ArrayList<>();
+        for (SortParameter<JobSortParameter> param : sortParameters) {
+            Comparator<Entry> comparator;
+            switch (param.getParameter()) {
+                case ID:
+                    comparator = ID;
+                    break;
+                case NAME:
+                    comparator = NAME;
+                    break;
+                case OWNER:
+                    comparator = OWNER;
+                    break;
+                case PRIORITY:
+                    comparator = PRIORITY;
+                    break;
+                case STATE:
+                    comparator = STATE;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported sort parameter: " + param.getParameter());
+            }
+            comparators.add(param.getSortOrder().isAscending() ? comparator
+                                                               : Collections.reverseOrder(comparator));
+        }
+        comparators.add(ID);
+        return Ordering.compound(comparators);
+    }
+
+    private static Comparator<Entry> idComparator(SortOrder idOrder) {
+        return idOrder.isAscending() ? ID : Collections.reverseOrder(ID);
+    }
+
+    private static boolean isSelected(JobStatus status, boolean pending, boolean running, boolean finished) {
+        return (pending && SchedulerDBManager.PENDING_JOB_STATUSES.contains(status)) ||
+               (running && SchedulerDBManager.RUNNING_JOB_STATUSES.contains(status)) ||
+               (finished && SchedulerDBManager.FINISHED_JOB_STATUSES.contains(status));
+    }
+
+    /**
+     * Same grouping than {@link org.ow2.proactive.scheduler.core.db.GroupByStatusSortOrder}.
+     */
+    private static int stateGroup(JobStatus status) {
+        if (status == JobStatus.PENDING) {
+            return 0;
+        } else if (RUNNING_GROUP.contains(status)) {
+            return 1;
+        } else {
+            return 2;
+        }
+    }
+
+    private static JobInfo toJobInfo(JobState job) {
+        // same content than the job info loaded from the database, without the tasks changes
+        JobInfoImpl source = (JobInfoImpl) job.getJobInfo();
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(source.getJobId());
+        jobInfo.setJobOwner(source.getJobOwner());
+        jobInfo.setStatus(source.getStatus());
+        jobInfo.setTotalNumberOfTasks(source.getTotalNumberOfTasks());
+        jobInfo.setNumberOfPendingTasks(source.getNumberOfPendingTasks());
+        jobInfo.setNumberOfRunningTasks(source.getNumberOfRunningTasks());
+        jobInfo.setNumberOfFinishedTasks(source.getNumberOfFinishedTasks());
+        jobInfo.setNumberOfFailedTasks(source.getNumberOfFailedTasks());
+        jobInfo.setNumberOfFaultyTasks(source.getNumberOfFaultyTasks());
+        jobInfo.setNumberOfInErrorTasks(source.getNumberOfInErrorTasks());
+        jobInfo.setPriority(source.getPriority());
+        jobInfo.setRemovedTime(source.getRemovedTime());
+        jobInfo.setStartTime(source.getStartTime());
+        jobInfo.setInErrorTime(source.getInErrorTime());
+        jobInfo.setFinishedTime(source.getFinishedTime());
+        jobInfo.setSubmittedTime(source.getSubmittedTime());
+        jobInfo.setLastUpdatedTime(source.getLastUpdatedTime());
+        if (source.isToBeRemoved()) {
+            jobInfo.setToBeRemoved();
+        }
+        jobInfo.setGenericInformation(source.getGenericInformation());
+        jobInfo.setVariables(source.getVariables());
+        return jobInfo;
+    }
+
+    private void index(Map<JobStatus, NavigableMap<Long, Entry>> index, Entry entry) {
+        NavigableMap<Long, Entry> statusIndex = index.get(entry.status);
+        if (statusIndex == null) {
+            statusIndex = new TreeMap<>();
+            index.put(entry.status, statusIndex);
+        }
+        statusIndex.put(entry.id, entry);
+    }
+
+    private void unindex(Entry entry) {
+        unindex(byStatus, entry);
+        Map<JobStatus, NavigableMap<Long, Entry>> ownerIndex = byOwner.get(entry.owner);
+        if (ownerIndex != null) {
+            unindex(ownerIndex, entry);
+            if (ownerIndex.isEmpty()) {
+                byOwner.remove(entry.owner);
+            }
+        }
+    }
+
+    private void unindex(Map<JobStatus, NavigableMap<Long, Entry>> index, Entry entry) {
+        NavigableMap<Long, Entry> statusIndex = index.get(entry.status);
+        if (statusIndex != null) {
+            statusIndex.remove(entry.id);
+            if (statusIndex.isEmpty()) {
+                index.remove(entry.status);
+            }
+        }
+    }
+
+    private static final Comparator<Entry> ID = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return Long.compare(e1.id, e2.id);
+        }
+    };
+
+    private static final Comparator<Entry> NAME = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return Ordering.<String> natural().nullsFirst().compare(e1.jobId.getReadableName(),
+                                                                    e2.jobId.getReadableName());
+        }
+    };
+
+    private static final Comparator<Entry> OWNER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return Ordering.<String> natural().nullsFirst().compare(e1.owner, e2.owner);
+        }
+    };
+
+    private static final Comparator<Entry> PRIORITY = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return e1.job.getJobInfo().getPriority().compareTo(e2.job.getJobInfo().getPriority());
+        }
+    };
+
+    private static final Comparator<Entry> STATE = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry e1, Entry e2) {
+            return Integer.compare(stateGroup(e1.status), stateGroup(e2.status));
+        }
+    };
+
+    private static final class Entry {
+
+        private final JobId jobId;
+
+        private final long id;
+
+        private final String owner;
+
+        private JobState job;
+
+        private JobStatus status;
+
+        private Entry(JobState job) {
+            this.jobId = job.getJobInfo().getJobId();
+            this.id = jobId.longValue();
+            this.owner = job.getOwner();
+            this.job = job;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.threading.ReifiedMethodCall;
+
+
+/**
+ * Bounded queue of the events waiting to be sent to a listener.
+ * <p>
+ * Job and task updates are conflated: a new update of a job (or task) replaces
+ * the previous update of the same type still waiting in the queue, and is sent in
+ * the position of the latest update. Updates of different types, e.g. the start and
+ * the end of a task, are all sent. When the queue exceeds its capacity, the listener
+ * is considered as lagging: the job and task updates are dropped, and the listener
+ * has to be resynchronized from a snapshot of the jobs whose updates were dropped,
+ * given by {@link #getJobsToResynchronize()}, with {@link #resynchronize(List)}.
+ * <p>
+ * This class is not thread safe.
+ */
+class ListenerEventQueue {
+
+    private static final String SCHEDULER_STATE_UPDATED_EVENT_METHOD = "schedulerStateUpdatedEvent";
+
+    private static final String JOB_STATE_UPDATED_EVENT_METHOD = "jobStateUpdatedEvent";
+
+    private static final String JOB_UPDATED_FULL_DATA_EVENT_METHOD = "jobUpdatedFullDataEvent";
+
+    private static final String TASK_STATE_UPDATED_EVENT_METHOD = "taskStateUpdatedEvent";
+
+    private static final String USERS_UPDATED_EVENT_METHOD = "usersUpdatedEvent";
+
+    private final int capacity;
+
+    private final LinkedHashMap<Object, ReifiedMethodCall> events = new LinkedHashMap<>();
+
+    private boolean resyncNeeded = false;
+
+    /** jobs whose updates have been dropped since the last resynchronization */
+    private final Set<JobId> droppedJobs = new HashSet<>();
+
+    ListenerEventQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(ReifiedMethodCall event) {
+        Object key = conflationKey(event);
+        // remove first so that the event takes the position of the latest update
+        events.remove(key);
+        events.put(key, event);
+        if (events.size() > capacity) {
+            resyncNeeded = true;
+            dropUpdates();
+        }
+    }
+
+    /**
+     * Removes and returns at most the given number of events, in sending order.
+     */
+    List<ReifiedMethodCall> poll(int maxEvents) {
+        List<ReifiedMethodCall> polled = new ArrayList<>(Math.min(maxEvents, events.size()));
+        Iterator<ReifiedMethodCall> iterator = events.values().iterator();
+        while (iterator.hasNext() && polled.size() < maxEvents) {
+            polled.add(iterator.next());
+            iterator.remove();
+        }
+        return polled;
+    }
+
+    /**
+     * @return true if updates have been dropped since the last resynchronization
+     */
+    boolean isResyncNeeded() {
+        return resyncNeeded;
+    }
+
+    /**
+     * @return the jobs whose updates have been dropped or would be dropped by a
+     *         resynchronization, which the snapshot has to describe
+     */
+    Set<JobId> getJobsToResynchronize() {
+        Set<JobId> jobIds = new HashSet<>(droppedJobs);
+        for (ReifiedMethodCall event : events.values()) {
+            if (!isKeptOnResync(event)) {
+                jobIds.add(getJobId(event));
+            }
+        }
+        return jobIds;
+    }
+
+    /**
+     * Replaces the pending job and task updates by the given snapshot events, which
+     * must describe the state of the jobs given by {@link #getJobsToResynchronize()}
+     * at the time of the call.
+     */
+    void resynchronize(List<ReifiedMethodCall> snapshot) {
+        dropUpdates();
+        droppedJobs.clear();
+        LinkedHashMap<Object, ReifiedMethodCall> retained = new LinkedHashMap<>(events);
+        events.clear();
+        for (ReifiedMethodCall event : snapshot) {
+            events.put(conflationKey(event), event);
+        }
+        events.putAll(retained);
+        resyncNeeded = false;
+    }
+
+    int size() {
+        return events.size();
+    }
+
+    boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    /**
+     * Drops the job and task updates, which are covered by a snapshot of the jobs.
+     * Scheduler state, users and job removal events are kept.
+     */
+    private void dropUpdates() {
+        Iterator<Map.Entry<Object, ReifiedMethodCall>> iterator = events.entrySet().iterator();
+        while (iterator.hasNext()) {
+            ReifiedMethodCall event = iterator.next().getValue();
+            if (!isKeptOnResync(event)) {
+                droppedJobs.add(getJobId(event));
+                iterator.remove();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isKeptOnResync(ReifiedMethodCall event) {
+        String methodName = event.getMethod().getName();
+        if (JOB_STATE_UPDATED_EVENT_METHOD.equals(methodName)) {
+            NotificationData<JobInfo> notification = (NotificationData<JobInfo>) event.getArguments()[0];
+            return notification.getEventType() == SchedulerEvent.JOB_REMOVE_FINISHED;
+        }
+        return SCHEDULER_STATE_UPDATED_EVENT_METHOD.equals(methodName) ||
+               USERS_UPDATED_EVENT_METHOD.equals(methodName);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object conflationKey(ReifiedMethodCall event) {
+        String methodName = event.getMethod().getName();
+        Object argument = event.getArguments().length > 0 ? event.getArguments()[0] : null;
+        switch (methodName) {
+            case JOB_STATE_UPDATED_EVENT_METHOD:
+                NotificationData<JobInfo> jobNotification = (NotificationData<JobInfo>) argument;
+                return Arrays.asList(methodName,
+                                     jobNotification.getEventType(),
+                                     jobNotification.getData().getJobId());
+            case TASK_STATE_UPDATED_EVENT_METHOD:
+                NotificationData<TaskInfo> taskNotification = (NotificationData<TaskInfo>) argument;
+                return Arrays.asList(methodName,
+                                     taskNotification.getEventType(),
+                                     taskNotification.getData().getTaskId());
+            case JOB_UPDATED_FULL_DATA_EVENT_METHOD:
+                return Arrays.asList(methodName, ((JobState) argument).getId());
+            default:
+                // other events are never conflated
+                return new Object();
+        }
+    }
+
+    /**
+     * @return the job described by the given job or task update
+     */
+    @SuppressWarnings("unchecked")
+    private static JobId getJobId(ReifiedMethodCall event) {
+        Object argument = event.getArguments()[0];
+        switch (event.getMethod().getName()) {
+            case JOB_STATE_UPDATED_EVENT_METHOD:
+                return ((NotificationData<JobInfo>) argument).getData().getJobId();
+            case TASK_STATE_UPDATED_EVENT_METHOD:
+                return ((NotificationData<TaskInfo>) argument).getData().getJobId();
+            default:
+                return ((JobState) argument).getId();
+        }
+    }
+}
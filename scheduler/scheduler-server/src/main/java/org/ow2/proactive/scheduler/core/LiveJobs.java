@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.core;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -119,6 +120,14 @@ class LiveJobs {
         return runningTasksData.values();
     }
 
+    Set<String> getRunningTasksOwners() {
+        Set<String> owners = new HashSet<>();
+        for (RunningTaskData taskData : runningTasksData.values()) {
+            owners.add(taskData.getUser());
+        }
+        return owners;
+    }
+
     boolean canPingTask(RunningTaskData taskData) {
         return runningTasksData.get(TaskIdWrapper.wrap(taskData.getTask().getId())) == taskData;
     }
@@ -127,6 +127,7 @@ import org.ow2.proactive.scheduler.common.task.TaskStatus;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
 import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 import org.ow2.proactive.scheduler.core.account.SchedulerAccountsManager;
+import org.ow2.proactive.scheduler.core.db.LoadedJobsListener;
 import org.ow2.proactive.scheduler.core.db.RecoveredSchedulerState;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.db.SchedulerStateRecoverHelper;
@@ -201,6 +202,9 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
 
     private SchedulerFrontendState frontendState;
 
+    /** True when all the finished jobs are loaded in the frontend state */
+    private boolean finishedJobsInMemory;
+
     private SchedulerSpacesSupport spacesSupport;
 
     private PublicKey corePublicKey;
@@ -312,12 +316,19 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
                 }
             }
 
+            finishedJobsInMemory = loadJobPeriod <= 0;
+
             logger.debug("Booting jmx...");
             this.jmxHelper.boot(authentication);
 
-            RecoveredSchedulerState recoveredState = new SchedulerStateRecoverHelper(dbManager).recover(loadJobPeriod);
+            SchedulerStateRecoverHelper recoverHelper = new SchedulerStateRecoverHelper(dbManager);
+            boolean lazyRecovery = PASchedulerProperties.SCHEDULER_DB_RECOVERY_LAZY_LOADING.getValueAsBoolean();
+            RecoveredSchedulerState recoveredState = lazyRecovery ? recoverHelper.recoverRunningJobs()
+                                                                  : recoverHelper.recover(loadJobPeriod);
 
-            this.frontendState = new SchedulerFrontendState(recoveredState.getSchedulerState(), jmxHelper);
+            this.frontendState = new SchedulerFrontendState(recoveredState.getSchedulerState(),
+                                                            jmxHelper,
+                                                            lazyRecovery);
 
             SchedulingInfrastructure infrastructure = new SchedulingInfrastructureImpl(dbManager,
                                                                                        rmProxiesManager,
@@ -339,6 +350,10 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
             recoveredState.enableLiveLogsForRunningTasks(schedulingService);
             releaseBusyNodesWithNoRunningTask(rmProxy, recoveredState);
 
+            if (lazyRecovery) {
+                internalThreadPool.submit(new RemainingJobsRecovery(recoverHelper, loadJobPeriod));
+            }
+
             logger.debug("Registering scheduler...");
             PAActiveObject.registerByName(authentication, SchedulerConstants.SCHEDULER_DEFAULT_NAME);
             authentication.setActivated(true);
@@ -364,6 +379,42 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         }
     }
 
+    /**
+     * Loads pending and finished jobs once the scheduling of the recovered running jobs has restarted.
+     * Pending jobs are made schedulable batch by batch, as soon as they are loaded.
+     */
+    private class RemainingJobsRecovery implements Runnable {
+
+        private final SchedulerStateRecoverHelper recoverHelper;
+
+        private final long loadJobPeriod;
+
+        RemainingJobsRecovery(SchedulerStateRecoverHelper recoverHelper, long loadJobPeriod) {
+            this.recoverHelper = recoverHelper;
+            this.loadJobPeriod = loadJobPeriod;
+        }
+
+        @Override
+        public void run() {
+            try {
+                recoverHelper.recoverPendingJobs(new LoadedJobsListener() {
+                    @Override
+                    public void jobsLoaded(List<InternalJob> jobs) {
+                        frontendState.jobsRecovered(jobs, false);
+                        schedulingService.pendingJobsRecovered(jobs);
+                    }
+                });
+                List<InternalJob> finishedJobs = recoverHelper.recoverFinishedJobs(loadJobPeriod);
+                frontendState.jobsRecovered(finishedJobs, true);
+                schedulingService.finishedJobsRecovered(finishedJobs);
+            } catch (Exception e) {
+                logger.error("Failed to recover pending and finished jobs", e);
+            } finally {
+                frontendState.recoveryFinished();
+            }
+        }
+    }
+
     private void releaseBusyNodesWithNoRunningTask(RMProxy rmProxy, RecoveredSchedulerState recoveredState) {
         List<InternalJob> runningJobs = recoveredState.getRunningJobs();
         List<NodeSet> busyNodesWithTask = findBusyNodesCorrespondingToRunningTasks(runningJobs);
@@ -1236,6 +1287,21 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         } else {
             user = null;
         }
+
+        // live and finished jobs held by the frontend are listed from memory,
+        // the older finished jobs which are not loaded are only in the database
+        if (!filterCriteria.isFinished() || finishedJobsInMemory) {
+            Page<JobInfo> jobs = frontendState.getJobs(offset,
+                                                       limit,
+                                                       user,
+                                                       filterCriteria.isPending(),
+                                                       filterCriteria.isRunning(),
+                                                       filterCriteria.isFinished(),
+                                                       sortParameters);
+            if (jobs != null) {
+                return jobs;
+            }
+        }
         return dbManager.getJobs(offset,
                                  limit,
                                  user,
@@ -1394,6 +1460,22 @@ public class SchedulerFrontend implements InitActive, Scheduler, RunActive {
         return getJobState(JobIdImpl.makeJobId(jobId)).getJobInfo();
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        return frontendState.getJobsInfoList(jobIds);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        return frontendState.canHandleOtherUsersJobs();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -45,8 +45,11 @@ import org.objectweb.proactive.core.mop.MOP;
 import org.objectweb.proactive.core.util.converter.ProActiveMakeDeepCopy;
 import org.ow2.proactive.authentication.UserData;
 import org.ow2.proactive.authentication.crypto.Credentials;
+import org.ow2.proactive.db.SortParameter;
 import org.ow2.proactive.permissions.MethodCallPermission;
+import org.ow2.proactive.scheduler.common.JobSortParameter;
 import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.Page;
 import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
 import org.ow2.proactive.scheduler.common.SchedulerState;
@@ -75,6 +78,8 @@ import org.ow2.proactive.scheduler.job.ClientJobState;
 import org.ow2.proactive.scheduler.job.IdentifiedJob;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.InternalJobFactory;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
 import org.ow2.proactive.scheduler.job.SchedulerUserInfo;
 import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
 import org.ow2.proactive.scheduler.permissions.ChangePolicyPermission;
@@ -84,6 +89,7 @@ import org.ow2.proactive.scheduler.permissions.HandleJobsWithGenericInformationP
 import org.ow2.proactive.scheduler.permissions.HandleOnlyMyJobsPermission;
 import org.ow2.proactive.scheduler.util.JobLogger;
 import org.ow2.proactive.scheduler.util.TaskLogger;
+import org.ow2.proactive.threading.ReifiedMethodCall;
 
 
 class SchedulerFrontendState implements SchedulerStateUpdate {
@@ -216,18 +222,92 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
 
     private final Map<JobId, ClientJobState> jobsMap;
 
+    /** Index of the jobs of jobsMap, used to answer the job listings */
+    private final JobsListingIndex jobsIndex;
+
+    /**
+     * True while pending and finished jobs are still being loaded in the background
+     */
+    private boolean recovering;
+
     SchedulerFrontendState(SchedulerStateImpl sState, SchedulerJMXHelper jmxHelper) {
+        this(sState, jmxHelper, false);
+    }
+
+    SchedulerFrontendState(SchedulerStateImpl sState, SchedulerJMXHelper jmxHelper, boolean recovering) {
         this.identifications = new HashMap<>();
         this.credentials = new HashMap<>();
         this.dirtyList = new HashSet<>();
         this.jmxHelper = jmxHelper;
         this.jobsMap = new HashMap<>();
         this.jobs = new HashMap<>();
+        this.jobsIndex = new JobsListingIndex();
         this.sessionTimer = new Timer("SessionTimer");
         this.sState = sState;
+        this.recovering = recovering;
         recover(sState);
     }
 
+    /**
+     * Adds jobs loaded after the start of the frontend to its state.
+     *
+     * @param loadedJobs
+     *            the jobs which have been loaded
+     * @param finished
+     *            if the jobs are finished or not
+     */
+    synchronized void jobsRecovered(List<InternalJob> loadedJobs, boolean finished) {
+        Set<JobState> jobStates = new HashSet<>(loadedJobs.size());
+        for (InternalJob job : loadedJobs) {
+            ClientJobState js = new ClientJobState(job);
+            prepare(jobStates, js, finished);
+            if (finished) {
+                sState.getFinishedJobs().add(js);
+            } else {
+                sState.getPendingJobs().add(js);
+            }
+        }
+        // wake up the requests waiting for these jobs
+        notifyAll();
+    }
+
+    /**
+     * Signals that all the jobs have been loaded, releasing the requests waiting for them.
+     */
+    synchronized void recoveryFinished() {
+        recovering = false;
+        notifyAll();
+    }
+
+    /**
+     * Returns a page of jobs from the jobs known by the frontend, with the same
+     * parameters than {@link org.ow2.proactive.scheduler.core.db.SchedulerDBManager#getJobs}.
+     *
+     * @return the page of jobs, or null while jobs are still being loaded
+     */
+    synchronized Page<JobInfo> getJobs(int offset, int limit, String user, boolean pending, boolean running,
+            boolean finished, List<SortParameter<JobSortParameter>> sortParameters) {
+        if (recovering) {
+            return null;
+        }
+        return jobsIndex.getJobs(offset, limit, user, pending, running, finished, sortParameters);
+    }
+
+    /**
+     * Waits, while jobs are still being loaded, until the given job is known or
+     * until all the jobs have been loaded.
+     */
+    private void waitForRecoveredJob(JobId jobId) {
+        while (recovering && (jobId == null || !jobs.containsKey(jobId))) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     /**
      * Called to recover the front end state. This method may have to rebuild
      * the different list of userIdentification and job/user association.
@@ -272,6 +352,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         IdentifiedJob ij = new IdentifiedJob(js.getId(), uIdent, js.getGenericInformation());
         jobs.put(js.getId(), ij);
         jobsMap.put(js.getId(), js);
+        jobsIndex.jobUpdated(js);
         ij.setFinished(finished);
     }
 
@@ -351,6 +432,8 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         // checking permissions
         checkPermission("getState", YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE);
 
+        waitForRecoveredJob(null);
+
         ListeningUser ui = identifications.get(PAActiveObject.getContext().getCurrentRequest().getSourceBodyID());
 
         return myJobsOnly ? sState.filterOnUser(ui.getUser().getUsername()) : sState;
@@ -442,6 +525,38 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         return currentState;
     }
 
+    /**
+     * Returns the events describing the current state of the given jobs seen by the given
+     * listening client, used to resynchronize a client which is lagging behind its events.
+     * Nothing is returned if the client does not listen to {@link SchedulerEvent#JOB_UPDATED}.
+     *
+     * @param clientId
+     *            the id of the listening client
+     * @param jobIds
+     *            the jobs whose updates have been dropped
+     * @return a job updated full data event for each of the given jobs seen by the client
+     */
+    synchronized List<ReifiedMethodCall> getJobsSnapshotEvents(UniqueID clientId, Set<JobId> jobIds) {
+        List<ReifiedMethodCall> snapshot = new ArrayList<>();
+        ListeningUser listeningUser = identifications.get(clientId);
+        if (listeningUser == null || !listeningUser.isListening()) {
+            return snapshot;
+        }
+        UserIdentificationImpl userId = listeningUser.getUser();
+        if (userId.getUserEvents() != null && !userId.getUserEvents().contains(SchedulerEvent.JOB_UPDATED)) {
+            return snapshot;
+        }
+        Method method = eventMethods.get(JOB_UPDATED_FULL_DATA_EVENT_METHOD);
+        for (JobId jobId : jobIds) {
+            ClientJobState job = jobsMap.get(jobId);
+            // removed jobs are covered by their removal event
+            if (job != null && (!userId.isMyEventsOnly() || userId.getUsername().equals(job.getOwner()))) {
+                snapshot.add(new ReifiedMethodCall(method, new Object[] { job }));
+            }
+        }
+        return snapshot;
+    }
+
     synchronized void removeEventListener() throws NotConnectedException, PermissionException {
         // Remove the listener on that user designated by its given UniqueID,
         // then renew its user session as it is no more managed by the listener.
@@ -584,6 +699,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     }
 
     synchronized IdentifiedJob getIdentifiedJob(JobId jobId) throws UnknownJobException {
+        waitForRecoveredJob(jobId);
         IdentifiedJob ij = jobs.get(jobId);
 
         if (ij == null) {
@@ -731,6 +847,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     }
 
     synchronized TaskId getTaskId(JobId jobId, String taskName) throws UnknownTaskException, UnknownJobException {
+        waitForRecoveredJob(jobId);
         if (jobsMap.get(jobId) == null) {
             throw new UnknownJobException(jobId);
         }
@@ -1090,6 +1207,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
     public synchronized void jobSubmitted(JobState job) {
         ClientJobState storedJobState = new ClientJobState(job);
         jobsMap.put(job.getId(), storedJobState);
+        jobsIndex.jobUpdated(storedJobState);
         sState.update(storedJobState);
         dispatchJobSubmitted(job);
     }
@@ -1125,6 +1243,7 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                     // removing jobs from the global list : this job is no more managed
                     sState.removeFinished(js);
                     jobsMap.remove(js.getId());
+                    jobsIndex.jobRemoved(js.getId());
                     jobs.remove(notification.getData().getJobId());
                     logger.debug("HOUSEKEEPING removed the finished job " + js.getId() +
                                  " from the SchedulerFrontEndState");
@@ -1134,6 +1253,9 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
                                 notification.getEventType());
                     return;
             }
+            if (notification.getEventType() != SchedulerEvent.JOB_REMOVE_FINISHED) {
+                jobsIndex.jobUpdated(js);
+            }
             dispatchJobStateUpdated(owner, notification);
             new JobEmailNotification(js, notification).checkAndSend();
         }
@@ -1209,6 +1331,47 @@ class SchedulerFrontendState implements SchedulerStateUpdate {
         return userData;
     }
 
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        UniqueID id = checkAccess();
+
+        UserIdentificationImpl ident = identifications.get(id).getUser();
+        renewUserSession(id, ident);
+        try {
+            handleOnlyMyJobsPermission(false, ident, "canHandleOtherUsersJobs");
+            return true;
+        } catch (PermissionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the infos of the given jobs, skipping the unknown jobs and the
+     * ones the user is not allowed to see. The permissions are the ones of
+     * {@link #getJobState(JobId)}, without copying the whole job states.
+     */
+    synchronized List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        List<JobInfo> jobsInfo = new ArrayList<>(jobIds.size());
+        for (String jobId : jobIds) {
+            ClientJobState jobState;
+            try {
+                JobId id = JobIdImpl.makeJobId(jobId);
+                checkPermissions("getJobState",
+                                 getIdentifiedJob(id),
+                                 YOU_DO_NOT_HAVE_PERMISSION_TO_GET_THE_STATE_OF_THIS_JOB);
+                jobState = jobsMap.get(id);
+            } catch (NumberFormatException | UnknownJobException | PermissionException e) {
+                logger.debug("Job " + jobId + " skipped: " + e.getMessage());
+                continue;
+            }
+            if (jobState != null) {
+                synchronized (jobState) {
+                    jobsInfo.add(new JobInfoImpl((JobInfoImpl) jobState.getJobInfo()));
+                }
+            }
+        }
+        return jobsInfo;
+    }
+
     synchronized List<SchedulerUserInfo> getUsers() {
         List<SchedulerUserInfo> users = new ArrayList<>(identifications.size());
         for (ListeningUser listeningUser : identifications.values()) {
@@ -33,7 +33,9 @@ import org.apache.log4j.Logger;
 import org.objectweb.proactive.extensions.dataspaces.api.DataSpacesFileObject;
 import org.objectweb.proactive.extensions.dataspaces.api.PADataSpaces;
 import org.ow2.proactive.scheduler.common.SchedulerConstants;
+import org.ow2.proactive.scheduler.common.job.JobId;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.task.TaskResultStore;
 
 
 /**
@@ -94,6 +96,26 @@ public class SchedulerSpacesSupport {
         return this.globalSpace;
     }
 
+    /**
+     * Removes the values of the results of a job passed by reference, stored in
+     * the USER space of its owner.
+     *
+     * @param owner the owner of the job
+     * @param jobId the id of the job
+     */
+    public void removeTaskResultValues(String owner, JobId jobId) {
+        registerUserSpace(owner);
+        DataSpacesFileObject userSpace = getUserSpace(owner);
+        if (userSpace == null) {
+            return;
+        }
+        try {
+            TaskResultStore.removeJobResults(userSpace, jobId);
+        } catch (Exception e) {
+            logger.warn("Cannot remove the result values of job " + jobId + " from the USER space of " + owner, e);
+        }
+    }
+
     /**
      * This method creates a dedicated USER space for the user which successfully connected
      * This USER space is a subspace of the scheduler default USER space,
@@ -188,7 +188,9 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
             List<JobDescriptor> descriptors = new ArrayList<>(jobMap.values());
 
             //get rmState and update it in scheduling policy
-            Set<String> freeResources = getFreeResources(currentPolicy);
+            RMState rmState = getRMProxiesManager().getRmProxy().getState();
+            currentPolicy.setRMState(rmState);
+            Set<String> freeResources = getFreeResources(rmState);
             //if there is no free resources, stop it right now without starting any task
             if (freeResources.isEmpty()) {
                 return 0;
@@ -204,7 +206,14 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
 
             toUnlock = unlockResources(toUnlock);
 
-            return getNumberOfTaskStarted(currentPolicy, jobMap, freeResources, fullListOfTaskRetrievedFromPolicy);
+            try {
+                return getNumberOfTaskStarted(currentPolicy,
+                                              jobMap,
+                                              freeResources,
+                                              fullListOfTaskRetrievedFromPolicy);
+            } finally {
+                reserveNodesMemory(rmState);
+            }
         } finally {
             if (toUnlock != null) {
                 schedulingService.unlockJobsToSchedule(toUnlock.values());
@@ -224,9 +233,7 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         return toUnlock;
     }
 
-    private Set<String> getFreeResources(Policy currentPolicy) {
-        RMState rmState = getRMProxiesManager().getRmProxy().getState();
-        currentPolicy.setRMState(rmState);
+    private Set<String> getFreeResources(RMState rmState) {
         Set<String> freeResources = rmState.getFreeNodes();
         if (logger.isDebugEnabled()) {
             logger.debug("eligible nodes : " + (freeResources.size() < 5 ? freeResources : freeResources.size()));
@@ -234,6 +241,21 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
         return freeResources;
     }
 
+    /**
+     * Sends to the RM the memory reserved by the policy on the nodes of the started tasks,
+     * so that it is not available anymore in the next states given by the RM.
+     */
+    private void reserveNodesMemory(RMState rmState) {
+        Map<String, Long> memoryReservations = rmState.getMemoryReservations();
+        if (!memoryReservations.isEmpty()) {
+            try {
+                getRMProxiesManager().getRmProxy().reserveNodesMemory(memoryReservations);
+            } catch (Exception e) {
+                logger.warn("Cannot reserve memory on nodes " + memoryReservations.keySet(), e);
+            }
+        }
+    }
+
     private void logSelectedJobs(Map<JobId, JobDescriptor> jobMap) {
         if (logger.isTraceEnabled() && jobMap == null || jobMap.isEmpty()) {
             logger.trace("No jobs selected to be scheduled");
@@ -309,7 +331,16 @@ public final class SchedulingMethodImpl implements SchedulingMethod {
                             //create launcher and try to start the task
                             node = nodeSet.get(0);
 
-                            if (createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor)) {
+                            boolean started = false;
+                            try {
+                                started = createExecution(nodeSet, node, currentJob, internalTask, taskDescriptor);
+                            } finally {
+                                if (!started) {
+                                    // give back what the policy booked for a task which is not running
+                                    currentPolicy.taskTerminated(taskDescriptor.getTaskId());
+                                }
+                            }
+                            if (started) {
                                 numberOfTaskStarted++;
                             }
 
@@ -32,6 +32,7 @@ import java.security.PublicKey;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +40,7 @@ import java.util.Set;
 import java.util.Vector;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 import org.objectweb.proactive.core.node.Node;
@@ -64,6 +66,7 @@ import org.ow2.proactive.scheduler.common.util.logforwarder.AppenderProvider;
 import org.ow2.proactive.scheduler.core.db.RecoveredSchedulerState;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.JobInfoImpl;
@@ -126,6 +129,12 @@ public class SchedulingService {
         this.infrastructure = infrastructure;
         this.listener = listener;
         this.jobs = new LiveJobs(infrastructure.getDBManager(), listener);
+        infrastructure.getRMProxiesManager().setRunningTasksOwners(new RMProxiesManager.RunningTasksOwners() {
+            @Override
+            public Set<String> getRunningTasksOwners() {
+                return jobs.getRunningTasksOwners();
+            }
+        });
         if (recoveredState != null) {
             recover(recoveredState);
         }
@@ -962,9 +971,35 @@ public class SchedulingService {
 
         recoverTasksState(pendingJobs, true);
 
+        scheduleRemoveOfRecoveredJobs(finishedJobs);
+    }
+
+    /**
+     * Makes pending jobs loaded after the start of the service schedulable.
+     *
+     * @param pendingJobs the recovered pending jobs
+     */
+    public void pendingJobsRecovered(List<InternalJob> pendingJobs) {
+        // restore the tasks state before the jobs become visible to the scheduling thread
+        recoverTasksState(pendingJobs, true);
+        jobsRecovered(pendingJobs);
+        wakeUpSchedulingThread();
+    }
+
+    /**
+     * Takes into account finished jobs loaded after the start of the service.
+     *
+     * @param finishedJobs the recovered finished jobs
+     */
+    public void finishedJobsRecovered(List<InternalJob> finishedJobs) {
+        recoverTasksState(finishedJobs, false);
+        scheduleRemoveOfRecoveredJobs(finishedJobs);
+    }
+
+    private void scheduleRemoveOfRecoveredJobs(List<InternalJob> finishedJobs) {
         if (SCHEDULER_REMOVED_JOB_DELAY > 0 || SCHEDULER_AUTO_REMOVED_JOB_DELAY > 0) {
             logger.debug("Removing non-managed jobs");
-            Iterator<InternalJob> iterJob = recoveredState.getFinishedJobs().iterator();
+            Iterator<InternalJob> iterJob = finishedJobs.iterator();
 
             while (iterJob.hasNext()) {
                 final InternalJob job = iterJob.next();
@@ -1107,7 +1142,10 @@ public class SchedulingService {
      */
     public class HousekeepingRunner implements Runnable {
 
-        private List<Long> removeFromContext(List<JobId> jobIdList) {
+        /** set while a run is in progress, a throttled run may last longer than the cron period */
+        private final AtomicBoolean running = new AtomicBoolean(false);
+
+        private List<Long> removeFromContext(List<JobId> jobIdList, Map<JobId, String> owners) {
             List<Long> longList = new ArrayList<>(jobIdList.size());
             for (JobId jobId : jobIdList) {
                 TerminationData terminationData = jobs.removeJob(jobId);
@@ -1130,6 +1168,7 @@ public class SchedulingService {
                                                                                 new JobInfoImpl((JobInfoImpl) job.getJobInfo())));
                     getListener().jobUpdatedFullData(job);
                     longList.add(job.getId().longValue());
+                    owners.put(job.getId(), job.getOwner());
                     logger.info("HOUSEKEEPING sent JOB_REMOVE_FINISHED notification for job " + job.getId());
                 }
             }
@@ -1138,28 +1177,38 @@ public class SchedulingService {
             return longList;
         }
 
-        private void removeFromDB(List<Long> longJobIdList) {
+        private void removeFromDB(List<Long> longJobIdList, Map<JobId, String> owners) {
             if (!longJobIdList.isEmpty()) {
-                getInfrastructure().getDBManager()
-                                   .executeHousekeepingInDB(longJobIdList,
-                                                            PASchedulerProperties.JOB_REMOVE_FROM_DB.getValueAsBoolean());
+                boolean removeFromDb = PASchedulerProperties.JOB_REMOVE_FROM_DB.getValueAsBoolean();
+                getInfrastructure().getDBManager().executeHousekeepingInDB(longJobIdList, removeFromDb);
+                SchedulerSpacesSupport spacesSupport = getInfrastructure().getSpacesSupport();
+                if (removeFromDb && spacesSupport != null) {
+                    for (Map.Entry<JobId, String> owner : owners.entrySet()) {
+                        spacesSupport.removeTaskResultValues(owner.getValue(), owner.getKey());
+                    }
+                }
             }
         }
 
         @Override
         public void run() {
+            if (!running.compareAndSet(false, true)) {
+                logger.info("HOUSEKEEPING skipped as the previous run is still in progress");
+                return;
+            }
             long timeNow = System.currentTimeMillis();
             try {
                 List<JobId> jobIdList = getInfrastructure().getDBManager().getJobsToRemove(timeNow);
 
                 // remove from the memory context
                 long inMemoryTimeStart = System.currentTimeMillis();
-                List<Long> longJobIdList = removeFromContext(jobIdList);
+                Map<JobId, String> owners = new HashMap<>(jobIdList.size());
+                List<Long> longJobIdList = removeFromContext(jobIdList, owners);
                 long inMemoryTimeStop = System.currentTimeMillis();
 
                 // set the removedTime and also remove if required by the JOB_REMOVE_FROM_DB setting
                 long dbTimeStart = System.currentTimeMillis();
-                removeFromDB(longJobIdList);
+                removeFromDB(longJobIdList, owners);
                 long dbTimeStop = System.currentTimeMillis();
 
                 logger.info("HOUSEKEEPING of jobs " + longJobIdList + " performed (Hibernate context removal took " +
@@ -1167,6 +1216,8 @@ public class SchedulingService {
                             (dbTimeStop - dbTimeStart) + " ms)");
             } catch (Throwable e) {
                 logger.error("Error performing HOUSEKEEPING of jobs", e);
+            } finally {
+                running.set(false);
             }
         }
     }
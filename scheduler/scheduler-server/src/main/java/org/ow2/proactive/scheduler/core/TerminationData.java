@@ -52,6 +52,7 @@ import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.core.rmproxies.RMProxiesManager;
 import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.policy.Policy;
 import org.ow2.proactive.scheduler.task.SchedulerVars;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scheduler.task.internal.InternalTask;
@@ -170,6 +171,8 @@ final class TerminationData {
 
     void handleTermination(final SchedulingService service) throws IOException, ClassNotFoundException {
 
+        notifyPolicy(service);
+
         terminateTasks(service);
 
         restartWaitingTasks(service);
@@ -177,6 +180,20 @@ final class TerminationData {
         terminateJobs(service);
     }
 
+    private void notifyPolicy(final SchedulingService service) {
+        Policy policy = service.getPolicy();
+        if (policy == null) {
+            return;
+        }
+        for (TaskIdWrapper taskIdWrapper : tasksToTerminate.keySet()) {
+            try {
+                policy.taskTerminated(taskIdWrapper.getTaskId());
+            } catch (Exception e) {
+                logger.warn("Policy failed to handle the termination of task " + taskIdWrapper.getTaskId(), e);
+            }
+        }
+    }
+
     private void terminateJobs(final SchedulingService service) {
         for (JobId jobId : jobsToTerminate) {
             service.terminateJobHandling(jobId);
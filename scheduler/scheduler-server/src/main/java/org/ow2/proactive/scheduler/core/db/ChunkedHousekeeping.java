@@ -0,0 +1,241 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.ow2.proactive.db.SessionWork;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * Performs the housekeeping of a list of jobs in bounded batches, each one
+ * committed in its own transaction, so that removing a large number of jobs
+ * does not lock the job and task tables in a single long transaction.
+ * <p>
+ * A batch holds at most {@code maxJobs} jobs and {@code maxTasks} tasks, a
+ * job with more tasks being handled on its own. After each batch, the
+ * housekeeping pauses for {@code pausePercent} % of the duration of its
+ * transaction (at most {@code maxPause} milliseconds): the more the database
+ * is loaded, the longer the other transactions of the scheduler are given to
+ * run in between.
+ * <p>
+ * The progress of the housekeeping is exposed through counters, read by
+ * the runtime data MBean.
+ */
+public class ChunkedHousekeeping {
+
+    private static final Logger logger = Logger.getLogger(ChunkedHousekeeping.class);
+
+    private final SchedulerDBManager dbManager;
+
+    private final TaskResultCache taskResultCache;
+
+    private final int maxJobs;
+
+    private final int maxTasks;
+
+    private final int pausePercent;
+
+    private final long maxPause;
+
+    private final AtomicLong pendingJobsCount = new AtomicLong();
+
+    private final AtomicLong removedJobsCount = new AtomicLong();
+
+    private final AtomicLong removedTasksCount = new AtomicLong();
+
+    private final AtomicLong batchesCount = new AtomicLong();
+
+    private final AtomicLong lastBatchDuration = new AtomicLong();
+
+    private final AtomicLong lastPause = new AtomicLong();
+
+    ChunkedHousekeeping(SchedulerDBManager dbManager, TaskResultCache taskResultCache, int maxJobs, int maxTasks,
+            int pausePercent, long maxPause) {
+        this.dbManager = dbManager;
+        this.taskResultCache = taskResultCache;
+        this.maxJobs = Math.max(1, maxJobs);
+        this.maxTasks = Math.max(1, maxTasks);
+        this.pausePercent = Math.max(0, pausePercent);
+        this.maxPause = Math.max(0, maxPause);
+    }
+
+    /**
+     * Removes the given jobs (or marks them as removed), batch after batch.
+     * <p>
+     * If the calling thread is interrupted, the jobs of the remaining batches
+     * are left untouched, to be handled by the next housekeeping.
+     */
+    void execute(List<Long> jobIdList, boolean shouldRemoveFromDb) {
+        pendingJobsCount.addAndGet(jobIdList.size());
+        long remainingJobs = jobIdList.size();
+        try {
+            for (List<Long> jobs : Lists.partition(jobIdList, maxJobs)) {
+                Map<Long, Integer> numberOfTasks = loadNumberOfTasks(jobs);
+                for (List<Long> batch : split(jobs, numberOfTasks)) {
+                    if (remainingJobs < jobIdList.size() && !pause()) {
+                        logger.warn("Housekeeping interrupted, " + remainingJobs + " jobs left for the next run");
+                        return;
+                    }
+                    long start = System.currentTimeMillis();
+                    dbManager.executeReadWriteTransaction(new HousekeepingSessionWork(batch, shouldRemoveFromDb));
+                    taskResultCache.invalidateJobs(batch);
+                    long duration = System.currentTimeMillis() - start;
+
+                    remainingJobs -= batch.size();
+                    pendingJobsCount.addAndGet(-batch.size());
+                    removedJobsCount.addAndGet(batch.size());
+                    removedTasksCount.addAndGet(countTasks(batch, numberOfTasks));
+                    batchesCount.incrementAndGet();
+                    lastBatchDuration.set(duration);
+                    lastPause.set(Math.min(maxPause, duration * pausePercent / 100));
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Housekeeping of " + batch.size() + " jobs took " + duration + " ms, " +
+                                     remainingJobs + " jobs remaining");
+                    }
+                }
+            }
+        } finally {
+            pendingJobsCount.addAndGet(-remainingJobs);
+        }
+    }
+
+    /**
+     * Splits the given jobs in batches holding at most {@code maxTasks} tasks,
+     * a job never being split.
+     */
+    List<List<Long>> split(List<Long> jobIdList, Map<Long, Integer> numberOfTasks) {
+        List<List<Long>> batches = new ArrayList<>();
+        List<Long> batch = new ArrayList<>();
+        long batchTasks = 0;
+        for (Long jobId : jobIdList) {
+            int jobTasks = numberOfTasks(jobId, numberOfTasks);
+            if (!batch.isEmpty() && batchTasks + jobTasks > maxTasks) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchTasks = 0;
+            }
+            batch.add(jobId);
+            batchTasks += jobTasks;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private boolean pause() {
+        long pause = lastPause.get();
+        if (pause > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    private Map<Long, Integer> loadNumberOfTasks(final List<Long> jobIdList) {
+        return dbManager.executeReadOnlyTransaction(new SessionWork<Map<Long, Integer>>() {
+            @Override
+            public Map<Long, Integer> doInTransaction(Session session) {
+                List<Object[]> rows = session.createQuery("select id, totalNumberOfTasks from JobData where id in :ids")
+                                             .setParameterList("ids", jobIdList)
+                                             .list();
+                Map<Long, Integer> numberOfTasks = new HashMap<>(rows.size());
+                for (Object[] row : rows) {
+                    numberOfTasks.put((Long) row[0], (Integer) row[1]);
+                }
+                return numberOfTasks;
+            }
+        });
+    }
+
+    private static long countTasks(List<Long> jobIdList, Map<Long, Integer> numberOfTasks) {
+        long count = 0;
+        for (Long jobId : jobIdList) {
+            count += numberOfTasks(jobId, numberOfTasks);
+        }
+        return count;
+    }
+
+    private static int numberOfTasks(Long jobId, Map<Long, Integer> numberOfTasks) {
+        Integer count = numberOfTasks.get(jobId);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * @return the number of jobs waiting to be handled by the running housekeeping
+     */
+    public long getPendingJobsCount() {
+        return pendingJobsCount.get();
+    }
+
+    /**
+     * @return the number of jobs handled by the housekeeping since the scheduler started
+     */
+    public long getRemovedJobsCount() {
+        return removedJobsCount.get();
+    }
+
+    /**
+     * @return the number of tasks handled by the housekeeping since the scheduler started
+     */
+    public long getRemovedTasksCount() {
+        return removedTasksCount.get();
+    }
+
+    /**
+     * @return the number of transactions committed by the housekeeping since the scheduler started
+     */
+    public long getBatchesCount() {
+        return batchesCount.get();
+    }
+
+    /**
+     * @return the duration of the last transaction of the housekeeping, in milliseconds
+     */
+    public long getLastBatchDuration() {
+        return lastBatchDuration.get();
+    }
+
+    /**
+     * @return the pause following the last transaction of the housekeeping, in milliseconds
+     */
+    public long getLastPause() {
+        return lastPause.get();
+    }
+}
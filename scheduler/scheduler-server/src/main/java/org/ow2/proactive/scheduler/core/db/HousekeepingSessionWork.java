@@ -27,6 +27,7 @@ package org.ow2.proactive.scheduler.core.db;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import org.hibernate.Session;
 import org.ow2.proactive.db.SessionWork;
@@ -40,9 +41,9 @@ import org.ow2.proactive.db.SessionWork;
  */
 public class HousekeepingSessionWork implements SessionWork<Void> {
 
-    private static List<Long> jobIdList;
+    private final List<Long> jobIdList;
 
-    private static boolean shouldRemoveFromDb;
+    private final boolean shouldRemoveFromDb;
 
     public HousekeepingSessionWork(List<Long> jobIdList, boolean shouldRemoveFromDb) {
         this.jobIdList = jobIdList;
@@ -59,6 +60,7 @@ public class HousekeepingSessionWork implements SessionWork<Void> {
     }
 
     private void removeJobScriptsInBulk(Session session, List<Long> jobIdList) {
+        Set<String> scriptContentHashes = ScriptContents.findHashes(session, jobIdList);
         session.getNamedQuery("updateTaskDataJobScriptsInBulk")
                .setParameterList("jobIdList", jobIdList)
                .executeUpdate();
@@ -66,6 +68,7 @@ public class HousekeepingSessionWork implements SessionWork<Void> {
         session.getNamedQuery("deleteSelectionScriptDataInBulk")
                .setParameterList("jobIdList", jobIdList)
                .executeUpdate();
+        ScriptContents.removeUnreferenced(session, scriptContentHashes);
     }
 
     private void removeFromDb(Session session) {
@@ -27,6 +27,7 @@ package org.ow2.proactive.scheduler.core.db;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Serializable;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.ArrayList;
@@ -41,6 +42,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
@@ -57,6 +63,7 @@ import org.hibernate.criterion.Restrictions;
 import org.hibernate.service.ServiceRegistry;
 import org.hibernate.transform.DistinctRootEntityResultTransformer;
 import org.objectweb.proactive.core.config.CentralPAPropertyRepository;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.crypto.HybridEncryptionUtil.HybridEncryptedData;
 import org.ow2.proactive.db.DatabaseManagerException;
 import org.ow2.proactive.db.SessionWork;
@@ -78,6 +85,7 @@ import org.ow2.proactive.scheduler.common.task.TaskInfo;
 import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
 import org.ow2.proactive.scheduler.common.task.dataspaces.InputSelector;
 import org.ow2.proactive.scheduler.common.task.dataspaces.OutputSelector;
 import org.ow2.proactive.scheduler.common.usage.JobUsage;
@@ -98,8 +106,10 @@ import org.ow2.proactive.scheduler.task.internal.InternalTask;
 import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.utils.FileToBytesConverter;
 
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 
 
 @SuppressWarnings("JpaQueryApiInspection")
@@ -109,6 +119,8 @@ public class SchedulerDBManager {
 
     private static final int RECOVERY_LOAD_JOBS_BATCH_SIZE = PASchedulerProperties.SCHEDULER_DB_RECOVERY_LOAD_JOBS_BATCH_SIZE.getValueAsInt();
 
+    private static final int RECOVERY_LOAD_JOBS_NB_THREADS = PASchedulerProperties.SCHEDULER_DB_RECOVERY_LOAD_JOBS_NB_THREADS.getValueAsInt();
+
     private static final Logger logger = Logger.getLogger(SchedulerDBManager.class);
 
     public static final Set<JobStatus> FINISHED_JOB_STATUSES = ImmutableSet.of(JobStatus.CANCELED,
@@ -149,6 +161,15 @@ public class SchedulerDBManager {
 
     private final TransactionHelper transactionHelper;
 
+    private final TaskResultCache taskResultCache = new TaskResultCache(PASchedulerProperties.SCHEDULER_DB_TASK_RESULTS_CACHE_SIZE.getValueAsInt());
+
+    private final ChunkedHousekeeping housekeeping = new ChunkedHousekeeping(this,
+                                                                             taskResultCache,
+                                                                             PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_JOBS.getValueAsInt(),
+                                                                             PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_TASKS.getValueAsInt(),
+                                                                             PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_PAUSE_PERCENT.getValueAsInt(),
+                                                                             PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_PAUSE.getValueAsInt());
+
     public static SchedulerDBManager createUsingProperties() {
         if (System.getProperty(JAVA_PROPERTYNAME_NODB) != null) {
             return createInMemorySchedulerDBManager();
@@ -191,6 +212,7 @@ public class SchedulerDBManager {
             configuration.addAnnotatedClass(TaskResultData.class);
             configuration.addAnnotatedClass(ScriptData.class);
             configuration.addAnnotatedClass(SelectionScriptData.class);
+            configuration.addAnnotatedClass(ScriptContentData.class);
             configuration.addAnnotatedClass(EnvironmentModifierData.class);
             configuration.addAnnotatedClass(SelectorData.class);
             configuration.addAnnotatedClass(ThirdPartyCredentialData.class);
@@ -720,9 +742,11 @@ public class SchedulerDBManager {
     }
 
     private void removeJobScripts(Session session, long jobId) {
+        Set<String> scriptContentHashes = ScriptContents.findHashes(session, Collections.singletonList(jobId));
         session.getNamedQuery("updateTaskDataJobScripts").setParameter("jobId", jobId).executeUpdate();
         session.getNamedQuery("deleteScriptData").setParameter("jobId", jobId).executeUpdate();
         session.getNamedQuery("deleteSelectionScriptData").setParameter("jobId", jobId).executeUpdate();
+        ScriptContents.removeUnreferenced(session, scriptContentHashes);
     }
 
     private void removeJobRuntimeData(Session session, long jobId) {
@@ -772,10 +796,15 @@ public class SchedulerDBManager {
     }
 
     public void executeHousekeepingInDB(final List<Long> jobIdList, final boolean shouldRemoveFromDb) {
-        executeReadWriteTransaction(new HousekeepingSessionWork(jobIdList, shouldRemoveFromDb));
+        housekeeping.execute(jobIdList, shouldRemoveFromDb);
+    }
+
+    public ChunkedHousekeeping getHousekeeping() {
+        return housekeeping;
     }
 
     public void removeJob(final JobId jobId, final long removedTime, final boolean removeData) {
+        taskResultCache.invalidateJobs(Collections.singletonList(jobId(jobId)));
         executeReadWriteTransaction(new SessionWork<Void>() {
             @Override
             public Void doInTransaction(Session session) {
@@ -812,15 +841,43 @@ public class SchedulerDBManager {
         return loadJobs(fullState, NOT_FINISHED_JOB_STATUSES, -1);
     }
 
+    public List<InternalJob> loadRunningJobs(boolean fullState) {
+        return loadJobs(fullState, RUNNING_JOB_STATUSES, -1);
+    }
+
+    /**
+     * Loads the pending jobs, handing each batch of jobs to the given listener as
+     * soon as it is loaded.
+     */
+    public void loadPendingJobs(boolean fullState, LoadedJobsListener listener) {
+        loadJobs(fullState, PENDING_JOB_STATUSES, -1, listener);
+    }
+
     public List<InternalJob> loadFinishedJobs(boolean fullState, long period) {
         return loadJobs(fullState, FINISHED_JOB_STATUSES, period);
     }
 
-    private List<InternalJob> loadJobs(final boolean fullState, final Collection<JobStatus> status, final long period) {
-        return executeReadOnlyTransaction(new SessionWork<List<InternalJob>>() {
+    private List<InternalJob> loadJobs(boolean fullState, Collection<JobStatus> status, long period) {
+        List<InternalJob> result = new ArrayList<>();
+        for (List<InternalJob> batch : loadJobs(fullState, status, period, null)) {
+            result.addAll(batch);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the jobs by batches of {@link #RECOVERY_LOAD_JOBS_BATCH_SIZE}, each batch in its
+     * own read-only session, using up to {@link #RECOVERY_LOAD_JOBS_NB_THREADS} threads.
+     *
+     * @param listener notified, from the loading thread, of each batch as soon as it is loaded, can be null
+     * @return the batches of jobs, in the order of their ids
+     */
+    private List<List<InternalJob>> loadJobs(final boolean fullState, final Collection<JobStatus> status,
+            final long period, final LoadedJobsListener listener) {
+        List<Long> ids = executeReadOnlyTransaction(new SessionWork<List<Long>>() {
             @Override
             @SuppressWarnings("unchecked")
-            public List<InternalJob> doInTransaction(Session session) {
+            public List<Long> doInTransaction(Session session) {
                 logger.info("Loading Jobs from database");
 
                 Query query;
@@ -833,11 +890,73 @@ public class SchedulerDBManager {
                     query = session.getNamedQuery("loadJobs").setParameterList("status", status).setReadOnly(true);
                 }
 
-                List<Long> ids = query.list();
+                return query.list();
+            }
+
+        });
 
-                logger.info(ids.size() + " Jobs to fetch from database");
+        logger.info(ids.size() + " Jobs to fetch from database");
+
+        final List<List<Long>> batchesIds = Lists.partition(ids, RECOVERY_LOAD_JOBS_BATCH_SIZE);
+        List<Callable<List<InternalJob>>> batchLoaders = new ArrayList<>(batchesIds.size());
+        for (int i = 0; i < batchesIds.size(); i++) {
+            final int batchIndex = i + 1;
+            batchLoaders.add(new Callable<List<InternalJob>>() {
+                @Override
+                public List<InternalJob> call() {
+                    logger.info("Loading internal Jobs, batch number " + batchIndex + "/" + batchesIds.size());
+                    List<InternalJob> jobs = loadInternalJobsBatch(fullState, batchesIds.get(batchIndex - 1));
+                    if (listener != null) {
+                        listener.jobsLoaded(jobs);
+                    }
+                    return jobs;
+                }
+            });
+        }
 
-                return loadInternalJobs(fullState, session, ids);
+        List<List<InternalJob>> batches = new ArrayList<>(batchLoaders.size());
+        int nbThreads = Math.min(RECOVERY_LOAD_JOBS_NB_THREADS, batchLoaders.size());
+        if (nbThreads <= 1) {
+            for (Callable<List<InternalJob>> batchLoader : batchLoaders) {
+                try {
+                    batches.add(batchLoader.call());
+                } catch (Exception e) {
+                    throw Throwables.propagate(e);
+                }
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(nbThreads,
+                                                                    new NamedThreadFactory("JobsRecoveryThread"));
+            try {
+                List<Future<List<InternalJob>>> futures = new ArrayList<>(batchLoaders.size());
+                for (Callable<List<InternalJob>> batchLoader : batchLoaders) {
+                    futures.add(executor.submit(batchLoader));
+                }
+                for (Future<List<InternalJob>> future : futures) {
+                    batches.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw Throwables.propagate(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DatabaseManagerException("Interrupted while loading jobs", e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        logger.info(ALL_REQUIRED_JOBS_HAVE_BEEN_FETCHED);
+
+        return batches;
+    }
+
+    private List<InternalJob> loadInternalJobsBatch(final boolean fullState, final List<Long> ids) {
+        return executeReadOnlyTransaction(new SessionWork<List<InternalJob>>() {
+            @Override
+            public List<InternalJob> doInTransaction(Session session) {
+                List<InternalJob> jobs = new ArrayList<>(ids.size());
+                batchLoadJobs(session, fullState, session.getNamedQuery("loadInternalJobs"), ids, jobs);
+                return jobs;
             }
 
         });
@@ -1070,9 +1189,9 @@ public class SchedulerDBManager {
     }
 
     public void taskRestarted(final InternalJob job, final InternalTask task, final TaskResultImpl result) {
-        executeReadWriteTransaction(new SessionWork<Void>() {
+        TaskResultImpl savedResult = executeReadWriteTransaction(new SessionWork<TaskResultImpl>() {
             @Override
-            public Void doInTransaction(Session session) {
+            public TaskResultImpl doInTransaction(Session session) {
                 long jobId = jobId(job);
 
                 JobInfo jobInfo = job.getJobInfo();
@@ -1100,21 +1219,22 @@ public class SchedulerDBManager {
                        .executeUpdate();
 
                 if (result != null) {
-                    saveTaskResult(taskId, result, session);
+                    return saveTaskResult(taskId, result, session);
                 }
 
                 return null;
             }
 
         });
+        cacheTaskResult(savedResult);
     }
 
     @SuppressWarnings("unchecked")
     public void updateAfterWorkflowTaskFinished(final InternalJob job, final ChangedTasksInfo changesInfo,
             final TaskResultImpl result) {
-        executeReadWriteTransaction(new SessionWork<Void>() {
+        TaskResultImpl savedResult = executeReadWriteTransaction(new SessionWork<TaskResultImpl>() {
             @Override
-            public Void doInTransaction(Session session) {
+            public TaskResultImpl doInTransaction(Session session) {
                 long jobId = jobId(job);
 
                 JobInfo jobInfo = job.getJobInfo();
@@ -1155,6 +1275,7 @@ public class SchedulerDBManager {
                     saveSingleTaskDependencies(session, task, taskData);
                 }
 
+                ScriptContents scriptContents = new ScriptContents(session);
                 int counter = 0;
                 for (TaskId newTaskId : newTasks) {
                     InternalTask task = job.getIHMTasks().get(newTaskId);
@@ -1166,7 +1287,7 @@ public class SchedulerDBManager {
                         }
                         task.setExecutableContainer(container);
                     }
-                    TaskData taskData = saveNewTask(session, jobRuntimeData, task);
+                    TaskData taskData = saveNewTask(session, scriptContents, jobRuntimeData, task);
                     saveSingleTaskDependencies(session, task, taskData);
                     if (++counter % 50 == 0) {
                         session.flush();
@@ -1175,16 +1296,17 @@ public class SchedulerDBManager {
                 }
 
                 TaskData.DBTaskId taskId = taskId(result.getTaskId());
-                saveTaskResult(taskId, result, session);
+                TaskResultImpl resultToCache = saveTaskResult(taskId, result, session);
 
                 if (FINISHED_JOB_STATUSES.contains(job.getStatus())) {
                     removeJobRuntimeData(session, jobId);
                 }
 
-                return null;
+                return resultToCache;
             }
 
         }, false);
+        cacheTaskResult(savedResult);
     }
 
     public void updateAfterJobKilled(InternalJob job, Set<TaskId> tasksToUpdate) {
@@ -1303,9 +1425,9 @@ public class SchedulerDBManager {
 
     private void updateAfterTaskFinished(final InternalJob job, final InternalTask finishedTask,
             final TaskResultImpl result, final Set<TaskId> tasksToUpdate) {
-        executeReadWriteTransaction(new SessionWork<Void>() {
+        TaskResultImpl savedResult = executeReadWriteTransaction(new SessionWork<TaskResultImpl>() {
             @Override
-            public Void doInTransaction(Session session) {
+            public TaskResultImpl doInTransaction(Session session) {
                 long jobId = jobId(job);
 
                 JobInfo jobInfo = job.getJobInfo();
@@ -1345,9 +1467,10 @@ public class SchedulerDBManager {
                                    .executeUpdate();
                 }
 
+                TaskResultImpl resultToCache = null;
                 if (result != null) {
                     TaskData.DBTaskId taskId = taskId(finishedTask.getId());
-                    saveTaskResult(taskId, result, session);
+                    resultToCache = saveTaskResult(taskId, result, session);
                 }
 
                 if (FINISHED_JOB_STATUSES.contains(job.getStatus())) {
@@ -1357,19 +1480,32 @@ public class SchedulerDBManager {
                     removeJobRuntimeData(session, jobId);
                 }
 
-                return null;
+                return resultToCache;
             }
 
         });
+        cacheTaskResult(savedResult);
     }
 
-    private TaskResultData saveTaskResult(TaskData.DBTaskId taskId, TaskResultImpl result, Session session) {
+    /**
+     * @return the saved result, as it would be loaded from the database
+     */
+    private TaskResultImpl saveTaskResult(TaskData.DBTaskId taskId, TaskResultImpl result, Session session) {
         TaskData taskRuntimeData = session.load(TaskData.class, taskId);
 
         TaskResultData resultData = TaskResultData.createTaskResultData(taskRuntimeData, result);
         session.save(resultData);
 
-        return resultData;
+        return resultData.toTaskResult(result.getTaskId());
+    }
+
+    /**
+     * Caches a saved task result, to be called once the transaction saving it is committed.
+     */
+    private void cacheTaskResult(TaskResultImpl savedResult) {
+        if (savedResult != null) {
+            taskResultCache.put(taskId(savedResult.getTaskId()), savedResult);
+        }
     }
 
     public void jobSetToBeRemoved(final JobId jobId) {
@@ -1389,11 +1525,74 @@ public class SchedulerDBManager {
         });
     }
 
+    /**
+     * Loads the latest results of the given tasks, from the task result cache when
+     * they are cached, from the database otherwise.
+     */
     public Map<TaskId, TaskResult> loadTasksResults(final JobId jobId, final List<TaskId> taskIds) {
         if (taskIds.isEmpty()) {
             throw new IllegalArgumentException("TaskIds list is empty");
         }
 
+        Map<TaskId, TaskResult> resultsMap = new HashMap<>(taskIds.size());
+        List<TaskId> notCachedTaskIds = new ArrayList<>(taskIds.size());
+        for (TaskId taskId : taskIds) {
+            TaskResult cachedResult = taskResultCache.getResult(taskId(taskId));
+            if (cachedResult != null) {
+                resultsMap.put(taskId, cachedResult);
+            } else {
+                notCachedTaskIds.add(taskId);
+            }
+        }
+
+        if (!notCachedTaskIds.isEmpty()) {
+            Map<TaskId, TaskResult> loadedResults = loadTasksResultsFromDB(jobId, notCachedTaskIds);
+            for (Map.Entry<TaskId, TaskResult> loadedResult : loadedResults.entrySet()) {
+                taskResultCache.put(taskId(loadedResult.getKey()), (TaskResultImpl) loadedResult.getValue());
+            }
+            resultsMap.putAll(loadedResults);
+        }
+        return resultsMap;
+    }
+
+    /**
+     * Returns the deserialized variables propagated by the latest results of the given tasks.
+     *
+     * @see #loadTasksResults(JobId, List)
+     */
+    public Map<TaskId, Map<String, Serializable>> loadTasksPropagatedVariables(final JobId jobId,
+            final List<TaskId> taskIds) {
+        Map<TaskId, Map<String, Serializable>> variablesMap = new HashMap<>(taskIds.size());
+        List<TaskId> notCachedTaskIds = new ArrayList<>(taskIds.size());
+        for (TaskId taskId : taskIds) {
+            Map<String, Serializable> cachedVariables = taskResultCache.getPropagatedVariables(taskId(taskId));
+            if (cachedVariables != null) {
+                variablesMap.put(taskId, cachedVariables);
+            } else {
+                notCachedTaskIds.add(taskId);
+            }
+        }
+
+        if (!notCachedTaskIds.isEmpty()) {
+            for (Map.Entry<TaskId, TaskResult> loadedResult : loadTasksResults(jobId, notCachedTaskIds).entrySet()) {
+                TaskData.DBTaskId taskId = taskId(loadedResult.getKey());
+                Map<String, Serializable> variables = taskResultCache.getPropagatedVariables(taskId);
+                if (variables == null) {
+                    // result too big to be cached
+                    try {
+                        variables = SerializationUtil.deserializeVariableMap(loadedResult.getValue()
+                                                                                         .getPropagatedVariables());
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Could not deserialize variable map", e);
+                    }
+                }
+                variablesMap.put(loadedResult.getKey(), variables);
+            }
+        }
+        return variablesMap;
+    }
+
+    private Map<TaskId, TaskResult> loadTasksResultsFromDB(final JobId jobId, final List<TaskId> taskIds) {
         return executeReadOnlyTransaction(new SessionWork<Map<TaskId, TaskResult>>() {
 
             @Override
@@ -1590,8 +1789,9 @@ public class SchedulerDBManager {
 
                 List<InternalTask> tasks = job.getITasks();
                 List<TaskData> taskRuntimeDataList = new ArrayList<>(tasks.size());
+                ScriptContents scriptContents = new ScriptContents(session);
                 for (InternalTask task : tasks) {
-                    taskRuntimeDataList.add(saveNewTask(session, jobRuntimeData, task));
+                    taskRuntimeDataList.add(saveNewTask(session, scriptContents, jobRuntimeData, task));
                 }
                 saveTaskDependencies(session, tasks, taskRuntimeDataList);
 
@@ -1640,10 +1840,12 @@ public class SchedulerDBManager {
         }
     }
 
-    private TaskData saveNewTask(Session session, JobData jobRuntimeData, InternalTask task) {
+    private TaskData saveNewTask(Session session, ScriptContents scriptContents, JobData jobRuntimeData,
+            InternalTask task) {
         // TODO: use double dispatch to prevent branching
         if (isScriptTask(task)) {
             TaskData taskRuntimeData = TaskData.createTaskData(jobRuntimeData, (InternalScriptTask) task);
+            scriptContents.store(taskRuntimeData);
             session.save(taskRuntimeData);
             return taskRuntimeData;
         } else {
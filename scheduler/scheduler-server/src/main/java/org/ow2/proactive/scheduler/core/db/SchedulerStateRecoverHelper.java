@@ -49,11 +49,53 @@ public class SchedulerStateRecoverHelper {
     }
 
     public RecoveredSchedulerState recover(long loadJobPeriod) {
-        List<InternalJob> notFinishedJobs = dbManager.loadNotFinishedJobs(true);
+        Vector<InternalJob> pendingJobs = new Vector<>();
+        Vector<InternalJob> runningJobs = new Vector<>();
+        Vector<InternalJob> finishedJobs = new Vector<>();
 
+        recoverNotFinishedJobs(dbManager.loadNotFinishedJobs(true), pendingJobs, runningJobs, finishedJobs);
+
+        finishedJobs.addAll(dbManager.loadFinishedJobs(false, loadJobPeriod));
+        logger.info("[Recovering counters] " + " Pending: " + pendingJobs.size() + " Running: " + runningJobs.size() +
+                    " Finished: " + finishedJobs.size());
+
+        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs);
+    }
+
+    /**
+     * Recovers only the jobs which were running, the pending and finished jobs being
+     * recovered afterwards with {@link #recoverPendingJobs(LoadedJobsListener)} and
+     * {@link #recoverFinishedJobs(long)}, once the scheduling has restarted.
+     */
+    public RecoveredSchedulerState recoverRunningJobs() {
         Vector<InternalJob> pendingJobs = new Vector<>();
         Vector<InternalJob> runningJobs = new Vector<>();
+        Vector<InternalJob> finishedJobs = new Vector<>();
+
+        recoverNotFinishedJobs(dbManager.loadRunningJobs(true), pendingJobs, runningJobs, finishedJobs);
+
+        logger.info("[Recovering counters] " + " Pending: " + pendingJobs.size() + " Running: " + runningJobs.size() +
+                    " Failed to recover: " + finishedJobs.size());
 
+        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs);
+    }
+
+    /**
+     * Loads the pending jobs, handing each batch to the listener as soon as it is loaded.
+     * Pending jobs have no running task, so they need no further recovery.
+     */
+    public void recoverPendingJobs(LoadedJobsListener listener) {
+        dbManager.loadPendingJobs(true, listener);
+    }
+
+    public List<InternalJob> recoverFinishedJobs(long loadJobPeriod) {
+        List<InternalJob> finishedJobs = dbManager.loadFinishedJobs(false, loadJobPeriod);
+        logger.info("[Recovering counters] " + " Finished: " + finishedJobs.size());
+        return finishedJobs;
+    }
+
+    private void recoverNotFinishedJobs(List<InternalJob> notFinishedJobs, Vector<InternalJob> pendingJobs,
+            Vector<InternalJob> runningJobs, Vector<InternalJob> finishedJobs) {
         for (InternalJob job : notFinishedJobs) {
             switch (job.getStatus()) {
                 case PENDING:
@@ -79,8 +121,6 @@ public class SchedulerStateRecoverHelper {
             }
         }
 
-        Vector<InternalJob> finishedJobs = new Vector<>();
-
         for (Iterator<InternalJob> iterator = runningJobs.iterator(); iterator.hasNext();) {
             InternalJob job = iterator.next();
             try {
@@ -110,12 +150,6 @@ public class SchedulerStateRecoverHelper {
                 dbManager.updateJobAndTasksState(job);
             }
         }
-
-        finishedJobs.addAll(dbManager.loadFinishedJobs(false, loadJobPeriod));
-        logger.info("[Recovering counters] " + " Pending: " + pendingJobs.size() + " Running: " + runningJobs.size() +
-                    " Finished: " + finishedJobs.size());
-
-        return new RecoveredSchedulerState(pendingJobs, runningJobs, finishedJobs);
     }
 
     private void recoverRunningTasksOrResetToPending(InternalJob job, List<InternalTask> tasks) {
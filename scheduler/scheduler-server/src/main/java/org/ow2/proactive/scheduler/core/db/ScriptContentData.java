@@ -0,0 +1,99 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.nio.charset.StandardCharsets;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.BatchSize;
+
+import com.google.common.hash.Hashing;
+
+
+/**
+ * Body of a script, stored once whatever the number of tasks using it.
+ * <p>
+ * Script bodies are identified by the hash of their content and referenced by
+ * {@link ScriptData} and {@link SelectionScriptData}. A body is removed when
+ * the last script referencing it is removed.
+ */
+@Entity
+@NamedQueries({ @NamedQuery(name = "findScriptContentHashesInBulk", query = "select distinct script.scriptContent.hash from ScriptData script " +
+                                                                            "where script.taskData.id.jobId in :jobIdList"),
+                @NamedQuery(name = "findSelectionScriptContentHashesInBulk", query = "select distinct script.scriptContent.hash from SelectionScriptData script " +
+                                                                                     "where script.taskData.id.jobId in :jobIdList"),
+                @NamedQuery(name = "deleteUnreferencedScriptContentData", query = "delete from ScriptContentData content where content.hash in :hashes " +
+                                                                                  "and not exists (select script.id from ScriptData script where script.scriptContent = content) " +
+                                                                                  "and not exists (select script.id from SelectionScriptData script where script.scriptContent = content)"),
+                @NamedQuery(name = "countScriptContentData", query = "select count (*) from ScriptContentData") })
+@Table(name = "SCRIPT_CONTENT_DATA")
+@BatchSize(size = 100)
+public class ScriptContentData {
+
+    private String hash;
+
+    private String content;
+
+    public ScriptContentData() {
+    }
+
+    ScriptContentData(String content) {
+        this.hash = hash(content);
+        this.content = content;
+    }
+
+    static String hash(String content) {
+        return Hashing.sha256().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    @Id
+    @Column(name = "HASH", length = 64)
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    @Column(name = "CONTENT", length = Integer.MAX_VALUE)
+    @Lob
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.exception.ConstraintViolationException;
+
+import com.google.common.collect.Lists;
+
+
+/**
+ * Moves the bodies of the scripts of the tasks saved in a transaction to
+ * {@link ScriptContentData}, so that a body shared by many tasks (e.g. the
+ * replicas of a task) is only inserted once.
+ * <p>
+ * Missing bodies are inserted in their own transaction, so that a body inserted
+ * meanwhile by another transaction (e.g. the submission of an identical job) is
+ * reused instead of failing the transaction saving the tasks.
+ * <p>
+ * An instance must only be used within the transaction of its session.
+ */
+class ScriptContents {
+
+    private static final int MAX_HASHES_PER_QUERY = 1000;
+
+    private final Session session;
+
+    private final Set<String> storedHashes = new HashSet<>();
+
+    ScriptContents(Session session) {
+        this.session = session;
+    }
+
+    void store(TaskData taskData) {
+        store(taskData.getScript());
+        store(taskData.getPreScript());
+        store(taskData.getPostScript());
+        store(taskData.getCleanScript());
+        store(taskData.getFlowScript());
+        store(taskData.getEnvScript());
+        if (taskData.getSelectionScripts() != null) {
+            for (SelectionScriptData scriptData : taskData.getSelectionScripts()) {
+                if (scriptData.getScript() != null) {
+                    scriptData.setScriptContent(reference(scriptData.getScript()));
+                    scriptData.setScript(null);
+                }
+            }
+        }
+    }
+
+    private void store(ScriptData scriptData) {
+        if (scriptData != null && scriptData.getScript() != null) {
+            scriptData.setScriptContent(reference(scriptData.getScript()));
+            scriptData.setScript(null);
+        }
+    }
+
+    private ScriptContentData reference(String content) {
+        String hash = ScriptContentData.hash(content);
+        if (!storedHashes.contains(hash)) {
+            if (session.get(ScriptContentData.class, hash) == null) {
+                insertIfAbsent(session.getSessionFactory(), content);
+            }
+            storedHashes.add(hash);
+        }
+        // the session may have been cleared since the content was stored
+        return session.load(ScriptContentData.class, hash);
+    }
+
+    /**
+     * Inserts the given script body unless it is already stored, the primary key
+     * on its hash detecting the bodies inserted by concurrent transactions.
+     *
+     * @return true if the body was inserted
+     */
+    static boolean insertIfAbsent(SessionFactory sessionFactory, String content) {
+        Session insertSession = sessionFactory.openSession();
+        try {
+            insertSession.beginTransaction();
+            insertSession.save(new ScriptContentData(content));
+            insertSession.getTransaction().commit();
+            return true;
+        } catch (ConstraintViolationException e) {
+            // inserted by another transaction since it was looked up
+            return false;
+        } finally {
+            if (insertSession.getTransaction().isActive()) {
+                insertSession.getTransaction().rollback();
+            }
+            insertSession.close();
+        }
+    }
+
+    /**
+     * Returns the hashes of the script bodies referenced by the given jobs,
+     * to be given to {@link #removeUnreferenced(Session, Collection)} once
+     * the scripts of these jobs have been removed.
+     */
+    static Set<String> findHashes(Session session, List<Long> jobIdList) {
+        Set<String> hashes = new HashSet<>();
+        hashes.addAll(session.getNamedQuery("findScriptContentHashesInBulk")
+                             .setParameterList("jobIdList", jobIdList)
+                             .list());
+        hashes.addAll(session.getNamedQuery("findSelectionScriptContentHashesInBulk")
+                             .setParameterList("jobIdList", jobIdList)
+                             .list());
+        return hashes;
+    }
+
+    /**
+     * Removes the script bodies, among the given ones, which are not referenced
+     * by any script anymore.
+     */
+    static void removeUnreferenced(Session session, Collection<String> hashes) {
+        for (List<String> chunk : Lists.partition(new ArrayList<>(hashes), MAX_HASHES_PER_QUERY)) {
+            session.getNamedQuery("deleteUnreferencedScriptContentData")
+                   .setParameterList("hashes", chunk)
+                   .executeUpdate();
+        }
+    }
+
+}
@@ -49,6 +49,7 @@ import org.ow2.proactive.scripting.SimpleScript;
 @NamedQueries({ @NamedQuery(name = "deleteScriptData", query = "delete from ScriptData where taskData.id.jobId = :jobId"),
                 @NamedQuery(name = "deleteScriptDataInBulk", query = "delete from ScriptData where taskData.id.jobId in :jobIdList"),
                 @NamedQuery(name = "countScriptData", query = "select count (*) from ScriptData") })
+@Table(indexes = { @Index(name = "SCRIPT_DATA_SCRIPT_CONTENT_HASH", columnList = "SCRIPT_CONTENT_HASH") })
 @BatchSize(size = 100)
 public class ScriptData {
 
@@ -58,6 +59,8 @@ public class ScriptData {
 
     private String script;
 
+    private ScriptContentData scriptContent;
+
     private String url;
 
     private List<Serializable> scriptParameters;
@@ -109,30 +112,31 @@ public class ScriptData {
         if (flowScriptActionType.equals(FlowActionType.CONTINUE.toString())) {
             return FlowScript.createContinueFlowScript();
         } else if (flowScriptActionType.equals(FlowActionType.IF.toString())) {
-            return FlowScript.createIfFlowScript(getScript(),
+            return FlowScript.createIfFlowScript(scriptText(),
                                                  getScriptEngine(),
                                                  getFlowScriptTarget(),
                                                  getFlowScriptTargetElse(),
                                                  getFlowScriptTargetContinuation());
         } else if (flowScriptActionType.equals(FlowActionType.LOOP.toString())) {
-            return FlowScript.createLoopFlowScript(getScript(), getScriptEngine(), getFlowScriptTarget());
+            return FlowScript.createLoopFlowScript(scriptText(), getScriptEngine(), getFlowScriptTarget());
         }
         if (flowScriptActionType.equals(FlowActionType.REPLICATE.toString())) {
-            return FlowScript.createReplicateFlowScript(getScript(), getScriptEngine());
+            return FlowScript.createReplicateFlowScript(scriptText(), getScriptEngine());
         } else {
             throw new DatabaseManagerException("Invalid flow script action: " + flowScriptActionType);
         }
     }
 
     SimpleScript createSimpleScript() throws InvalidScriptException {
-        if (script == null && url != null) {
+        String text = scriptText();
+        if (text == null && url != null) {
             try {
                 return new SimpleScript(new URL(url), scriptEngine, parameters());
             } catch (MalformedURLException e) {
                 throw new InvalidScriptException(e);
             }
         } else {
-            return new SimpleScript(script, scriptEngine, parameters());
+            return new SimpleScript(text, scriptEngine, parameters());
         }
     }
 
@@ -186,6 +190,23 @@ public class ScriptData {
         this.script = script;
     }
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "SCRIPT_CONTENT_HASH")
+    public ScriptContentData getScriptContent() {
+        return scriptContent;
+    }
+
+    public void setScriptContent(ScriptContentData scriptContent) {
+        this.scriptContent = scriptContent;
+    }
+
+    private String scriptText() {
+        if (scriptContent != null) {
+            return scriptContent.getContent();
+        }
+        return script;
+    }
+
     @Column(name = "URL", length = Integer.MAX_VALUE)
     @Lob
     public String getURL() {
@@ -47,7 +47,8 @@ import org.ow2.proactive.scripting.SelectionScript;
                 @NamedQuery(name = "deleteSelectionScriptDataInBulk", query = "delete from SelectionScriptData where taskData.id.jobId in :jobIdList"),
                 @NamedQuery(name = "countSelectionScriptData", query = "select count (*) from SelectionScriptData") })
 @Table(name = "SELECTION_SCRIPT_DATA", indexes = { @Index(name = "SELECTION_SCRIPT_DATA_JOB_ID", columnList = "JOB_ID"),
-                                                   @Index(name = "SELECTION_SCRIPT_DATA_TASK_ID", columnList = "TASK_ID") })
+                                                   @Index(name = "SELECTION_SCRIPT_DATA_TASK_ID", columnList = "TASK_ID"),
+                                                   @Index(name = "SELECTION_SCRIPT_DATA_SCRIPT_CONTENT_HASH", columnList = "SCRIPT_CONTENT_HASH") })
 @BatchSize(size = 100)
 public class SelectionScriptData {
 
@@ -57,6 +58,8 @@ public class SelectionScriptData {
 
     private String script;
 
+    private ScriptContentData scriptContent;
+
     private String url;
 
     private List<Serializable> scriptParameters;
@@ -85,14 +88,15 @@ public class SelectionScriptData {
     }
 
     SelectionScript createSelectionScript() throws InvalidScriptException {
-        if (script == null && url != null) {
+        String text = scriptText();
+        if (text == null && url != null) {
             try {
                 return new SelectionScript(new URL(url), getScriptEngine(), parameters(), isSelectionScriptDynamic());
             } catch (MalformedURLException e) {
                 throw new InvalidScriptException(e);
             }
         } else {
-            return new SelectionScript(getScript(), getScriptEngine(), parameters(), isSelectionScriptDynamic());
+            return new SelectionScript(text, getScriptEngine(), parameters(), isSelectionScriptDynamic());
         }
     }
 
@@ -146,6 +150,23 @@ public class SelectionScriptData {
         this.script = script;
     }
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "SCRIPT_CONTENT_HASH")
+    public ScriptContentData getScriptContent() {
+        return scriptContent;
+    }
+
+    public void setScriptContent(ScriptContentData scriptContent) {
+        this.scriptContent = scriptContent;
+    }
+
+    private String scriptText() {
+        if (scriptContent != null) {
+            return scriptContent.getContent();
+        }
+        return script;
+    }
+
     @Column(name = "URL", length = Integer.MAX_VALUE)
     @Lob
     public String getURL() {
@@ -0,0 +1,164 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.task.TaskLogs;
+import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+
+
+/**
+ * In memory cache of the task results saved in the database, bounded by the
+ * estimated number of bytes of the cached results.
+ * <p>
+ * Results are cached when a task terminates, so that the tasks depending on it
+ * can be started without reading the result again from the database. The
+ * propagated variables of a result are deserialized once, when it is cached.
+ * <p>
+ * Cached results are shared between the callers and must not be modified.
+ * Entries are keyed by database task id, as {@link org.ow2.proactive.scheduler.common.task.TaskId}
+ * equality does not take the job into account.
+ */
+public class TaskResultCache {
+
+    private static final Logger logger = Logger.getLogger(TaskResultCache.class);
+
+    /**
+     * Estimated size of a result besides its serialized value, exception, variables and logs
+     */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<TaskData.DBTaskId, CachedTaskResult> cache;
+
+    public TaskResultCache(long maximumBytes) {
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumWeight(Math.max(0, maximumBytes))
+                                 .weigher(new Weigher<TaskData.DBTaskId, CachedTaskResult>() {
+                                     @Override
+                                     public int weigh(TaskData.DBTaskId key, CachedTaskResult value) {
+                                         return value.weight;
+                                     }
+                                 })
+                                 .recordStats()
+                                 .build();
+    }
+
+    /**
+     * Caches the given result, replacing any previous result of the same task.
+     * Results whose propagated variables cannot be deserialized are not cached.
+     */
+    void put(TaskData.DBTaskId taskId, TaskResultImpl result) {
+        Map<String, Serializable> propagatedVariables;
+        try {
+            Map<String, byte[]> serializedVariables = result.getPropagatedVariables();
+            propagatedVariables = Collections.unmodifiableMap(SerializationUtil.deserializeVariableMap(serializedVariables));
+        } catch (Exception e) {
+            logger.debug("Result of task " + result.getTaskId() + " not cached, its variables cannot be deserialized",
+                         e);
+            cache.invalidate(taskId);
+            return;
+        }
+        cache.put(taskId, new CachedTaskResult(result, propagatedVariables));
+    }
+
+    TaskResultImpl getResult(TaskData.DBTaskId taskId) {
+        CachedTaskResult cached = cache.getIfPresent(taskId);
+        return cached != null ? cached.result : null;
+    }
+
+    /**
+     * @return the deserialized propagated variables of the cached result of the given
+     * task, or null if it is not cached
+     */
+    Map<String, Serializable> getPropagatedVariables(TaskData.DBTaskId taskId) {
+        CachedTaskResult cached = cache.getIfPresent(taskId);
+        return cached != null ? cached.propagatedVariables : null;
+    }
+
+    void invalidateJobs(Collection<Long> jobIds) {
+        Set<Long> removedJobIds = new HashSet<>(jobIds);
+        Iterator<TaskData.DBTaskId> iterator = cache.asMap().keySet().iterator();
+        while (iterator.hasNext()) {
+            if (removedJobIds.contains(iterator.next().getJobId())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static final class CachedTaskResult {
+
+        private final TaskResultImpl result;
+
+        private final Map<String, Serializable> propagatedVariables;
+
+        private final int weight;
+
+        private CachedTaskResult(TaskResultImpl result, Map<String, Serializable> propagatedVariables) {
+            this.result = result;
+            this.propagatedVariables = propagatedVariables;
+            this.weight = (int) Math.min(Integer.MAX_VALUE, estimateSize(result));
+        }
+
+        private static long estimateSize(TaskResultImpl result) {
+            long size = ENTRY_OVERHEAD + length(result.getSerializedValue()) +
+                        length(result.getSerializedException());
+            if (result.getPropagatedVariables() != null) {
+                // counted twice, serialized and deserialized
+                for (Map.Entry<String, byte[]> variable : result.getPropagatedVariables().entrySet()) {
+                    size += 2 * (2L * variable.getKey().length() + length(variable.getValue()));
+                }
+            }
+            TaskLogs logs = result.getOutput();
+            if (logs != null) {
+                String allLogs = logs.getAllLogs(false);
+                size += allLogs != null ? 2L * allLogs.length() : 0;
+            }
+            return size;
+        }
+
+        private static long length(byte[] bytes) {
+            return bytes != null ? bytes.length : 0;
+        }
+    }
+}
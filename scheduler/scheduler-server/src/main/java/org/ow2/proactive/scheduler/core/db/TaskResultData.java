@@ -60,6 +60,8 @@ public class TaskResultData {
 
     private byte[] serializedValue;
 
+    private String valueReference;
+
     private byte[] serializedException;
 
     private Boolean isRaw;
@@ -84,6 +86,7 @@ public class TaskResultData {
                                                    getPropagatedVariables(),
                                                    isRaw());
 
+        result.setValueReference(getValueReference());
         result.setPreviewerClassName(getPreviewerClassName());
         FlowActionData actionData = getFlowAction();
         if (actionData != null) {
@@ -107,6 +110,7 @@ public class TaskResultData {
         resultData.setPropagatedVariables(result.getPropagatedVariables());
         resultData.setSerializedException(result.getSerializedException());
         resultData.setSerializedValue(result.getSerializedValue());
+        resultData.setValueReference(result.getValueReference());
         resultData.setResultTime(System.currentTimeMillis());
         resultData.setRaw(result.isRaw());
 
@@ -186,6 +190,15 @@ public class TaskResultData {
         this.serializedValue = serializedValue;
     }
 
+    @Column(name = "RESULT_VALUE_REFERENCE", length = 1000)
+    public String getValueReference() {
+        return valueReference;
+    }
+
+    public void setValueReference(String valueReference) {
+        this.valueReference = valueReference;
+    }
+
     @Lob
     @Type(type = "org.hibernate.type.BinaryType")
     @Column(name = "RESULT_EXCEPTION", length = Integer.MAX_VALUE)
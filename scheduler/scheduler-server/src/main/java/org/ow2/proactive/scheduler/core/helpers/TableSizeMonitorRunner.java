@@ -60,6 +60,7 @@ public class TableSizeMonitorRunner implements Runnable {
                                                                                      "EnvironmentModifierData",
                                                                                      "ScriptData",
                                                                                      "SelectionScriptData",
+                                                                                     "ScriptContentData",
                                                                                      "TaskDataVariable",
                                                                                      "TaskResultData",
                                                                                      "ThirdPartyCredentialData"));
@@ -99,6 +100,7 @@ public class TableSizeMonitorRunner implements Runnable {
         counts.put("EnvironmentModifierData", getCount("countEnvironmentModifierData"));
         counts.put("ScriptData", getCount("countScriptData"));
         counts.put("SelectionScriptData", getCount("countSelectionScriptData"));
+        counts.put("ScriptContentData", getCount("countScriptContentData"));
         counts.put("TaskDataVariable", getCount("countTaskDataVariable"));
         counts.put("TaskResultData", getCount("countTaskResultData"));
         counts.put("ThirdPartyCredentialData", getCount("countThirdPartyCredentialData"));
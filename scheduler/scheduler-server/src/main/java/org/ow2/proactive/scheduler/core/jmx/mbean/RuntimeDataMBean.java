@@ -107,6 +107,76 @@ public interface RuntimeDataMBean {
      */
     int getFinishedTasksCount();
 
+    /**
+     * Returns the number of jobs waiting to be removed by the running housekeeping.
+     *
+     * @return the number of jobs waiting to be removed by the running housekeeping.
+     */
+    long getHousekeepingPendingJobsCount();
+
+    /**
+     * Returns the number of jobs removed by the housekeeping since the scheduler started.
+     *
+     * @return the number of jobs removed by the housekeeping since the scheduler started.
+     */
+    long getHousekeepingRemovedJobsCount();
+
+    /**
+     * Returns the number of tasks removed by the housekeeping since the scheduler started.
+     *
+     * @return the number of tasks removed by the housekeeping since the scheduler started.
+     */
+    long getHousekeepingRemovedTasksCount();
+
+    /**
+     * Returns the duration of the last transaction of the housekeeping, in milliseconds.
+     *
+     * @return the duration of the last transaction of the housekeeping, in milliseconds.
+     */
+    long getHousekeepingLastBatchDuration();
+
+    /**
+     * Returns the pause following the last transaction of the housekeeping, in milliseconds.
+     *
+     * @return the pause following the last transaction of the housekeeping, in milliseconds.
+     */
+    long getHousekeepingLastPause();
+
+    /**
+     * Returns the number of compiled scripts kept in the cache of the scheduler.
+     *
+     * @return the number of compiled scripts kept in the cache of the scheduler.
+     */
+    long getCompiledScriptsCount();
+
+    /**
+     * Returns the ratio of the script executions which reused a compiled script.
+     *
+     * @return the ratio of the script executions which reused a compiled script.
+     */
+    double getCompiledScriptsHitRate();
+
+    /**
+     * Returns the number of scripts compiled since the scheduler started.
+     *
+     * @return the number of scripts compiled since the scheduler started.
+     */
+    long getScriptCompilationsCount();
+
+    /**
+     * Returns the total time spent compiling scripts since the scheduler started, in milliseconds.
+     *
+     * @return the total time spent compiling scripts since the scheduler started, in milliseconds.
+     */
+    long getScriptCompilationTime();
+
+    /**
+     * Returns the average time spent compiling a script, in milliseconds.
+     *
+     * @return the average time spent compiling a script, in milliseconds.
+     */
+    double getAverageScriptCompilationTime();
+
     /**
      * @return current mean job pending time as integer
      */
@@ -37,6 +37,7 @@ import org.ow2.proactive.scheduler.common.SchedulerUsers;
 import org.ow2.proactive.scheduler.common.job.UserIdentification;
 import org.ow2.proactive.scheduler.core.db.SchedulerDBManager;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
+import org.ow2.proactive.scripting.CompiledScriptCache;
 import org.ow2.proactive.utils.Tools;
 
 
@@ -149,6 +150,76 @@ public final class RuntimeDataMBeanImpl extends StandardMBean implements Runtime
         return (int) dbManager.getTotalTasksCount();
     }
 
+    /**
+     * @return current number of jobs waiting to be removed by the housekeeping
+     */
+    public long getHousekeepingPendingJobsCount() {
+        return dbManager.getHousekeeping().getPendingJobsCount();
+    }
+
+    /**
+     * @return number of jobs removed by the housekeeping
+     */
+    public long getHousekeepingRemovedJobsCount() {
+        return dbManager.getHousekeeping().getRemovedJobsCount();
+    }
+
+    /**
+     * @return number of tasks removed by the housekeeping
+     */
+    public long getHousekeepingRemovedTasksCount() {
+        return dbManager.getHousekeeping().getRemovedTasksCount();
+    }
+
+    /**
+     * @return duration of the last housekeeping transaction in milliseconds
+     */
+    public long getHousekeepingLastBatchDuration() {
+        return dbManager.getHousekeeping().getLastBatchDuration();
+    }
+
+    /**
+     * @return pause following the last housekeeping transaction in milliseconds
+     */
+    public long getHousekeepingLastPause() {
+        return dbManager.getHousekeeping().getLastPause();
+    }
+
+    /**
+     * @return number of compiled scripts kept in the cache
+     */
+    public long getCompiledScriptsCount() {
+        return CompiledScriptCache.getInstance().getStatistics().getSize();
+    }
+
+    /**
+     * @return ratio of the script executions which reused a compiled script
+     */
+    public double getCompiledScriptsHitRate() {
+        return CompiledScriptCache.getInstance().getStatistics().getHitRate();
+    }
+
+    /**
+     * @return number of compiled scripts
+     */
+    public long getScriptCompilationsCount() {
+        return CompiledScriptCache.getInstance().getStatistics().getCompilationCount();
+    }
+
+    /**
+     * @return total time spent compiling scripts in milliseconds
+     */
+    public long getScriptCompilationTime() {
+        return CompiledScriptCache.getInstance().getStatistics().getCompilationTime();
+    }
+
+    /**
+     * @return average time spent compiling a script in milliseconds
+     */
+    public double getAverageScriptCompilationTime() {
+        return CompiledScriptCache.getInstance().getStatistics().getAverageCompilationTime();
+    }
+
     /**
      * @return current status of the Scheduler as String
      */
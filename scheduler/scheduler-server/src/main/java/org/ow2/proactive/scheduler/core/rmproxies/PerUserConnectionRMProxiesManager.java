@@ -27,50 +27,104 @@ package org.ow2.proactive.scheduler.core.rmproxies;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 import org.ow2.proactive.authentication.crypto.Credentials;
-import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 
 
-public final class PerUserConnectionRMProxiesManager extends RMProxiesManager {
+/**
+ * Gives each scheduler user its own connection to the RM.
+ * <p>
+ * The proxies are kept in a concurrent registry: the proxy of a user is created
+ * only once, by the first thread asking for it, and only the threads asking for
+ * the same user wait for its connection to the RM. The proxies share the RM
+ * authentication object of the manager, and the proxies of the users who did not
+ * request nodes for a while, do not hold any node and have no running task are closed.
+ */
+public class PerUserConnectionRMProxiesManager extends RMProxiesManager {
 
-    private final Map<URI, RMAuthentication> rmAuthentifications = new HashMap<>(2);
+    private static final Logger logger = Logger.getLogger(PerUserConnectionRMProxiesManager.class);
 
-    private final Map<String, RMProxy> userProxiesMap = new HashMap<>();
+    private final ConcurrentMap<String, UserRMProxy> userProxies = new ConcurrentHashMap<>();
 
     private final RMProxy schedulerRMProxy;
 
-    private Connection currentRMConnection;
+    /** serializes the operations applied to all the proxies */
+    private final Object connectionStateLock = new Object();
 
-    private RMProxyActiveObject rmProxyActiveObject;
+    private final long idleTimeout;
 
-    private final Object connectionStateLock = new Object();
+    private final ScheduledExecutorService evictionTimer;
 
-    private URI rmURI;
+    private volatile URI rmURI;
 
     public PerUserConnectionRMProxiesManager(URI rmURI, Credentials schedulerProxyCredentials)
             throws RMException, RMProxyCreationException, URISyntaxException {
+        this(rmURI,
+             schedulerProxyCredentials,
+             TimeUnit.SECONDS.toMillis(PASchedulerProperties.RESOURCE_MANAGER_USER_CONNECTION_IDLE_TIMEOUT.getValueAsInt()));
+    }
+
+    /**
+     * @param idleTimeout time in milliseconds after which the proxy of a user who does not hold
+     *                    any node is closed, 0 to keep the proxies open
+     */
+    PerUserConnectionRMProxiesManager(URI rmURI, Credentials schedulerProxyCredentials, long idleTimeout)
+            throws RMException, RMProxyCreationException {
         super(schedulerProxyCredentials);
         this.rmURI = rmURI;
-        schedulerRMProxy = new RMProxy(rmURI, schedulerProxyCredentials);
+        this.idleTimeout = idleTimeout;
+        schedulerRMProxy = createRMProxy(rmURI, schedulerProxyCredentials);
+        if (idleTimeout > 0) {
+            evictionTimer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("RM proxies eviction",
+                                                                                              true));
+            long period = Math.max(1, idleTimeout / 2);
+            evictionTimer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    evictIdleProxies();
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            evictionTimer = null;
+        }
+    }
+
+    /**
+     * Creates a proxy connected to the RM at the given URI.
+     */
+    RMProxy createRMProxy(URI rmURI, Credentials credentials) throws RMException, RMProxyCreationException {
+        return new RMProxy(rmURI, credentials, this);
     }
 
     @Override
     public URI getRmUrl() {
-        synchronized (connectionStateLock) {
-            return rmURI;
-        }
+        return rmURI;
     }
 
     @Override
     public void rebindRMProxiesManager(URI rmURI) throws RMException, RMProxyCreationException {
         synchronized (connectionStateLock) {
-            synchronized (userProxiesMap) {
-                for (RMProxy userProxy : userProxiesMap.values()) {
-                    userProxy.rebind(rmURI);
+            this.rmURI = rmURI;
+            invalidateRMAuthentications();
+            for (UserRMProxy userProxy : userProxies.values()) {
+                RMProxy proxy = userProxy.getIfCreated();
+                if (proxy != null) {
+                    proxy.rebind(rmURI);
                 }
             }
             schedulerRMProxy.rebind(rmURI);
@@ -79,17 +133,29 @@ public final class PerUserConnectionRMProxiesManager extends RMProxiesManager {
 
     @Override
     public RMProxy getUserRMProxy(String user, Credentials credentials) throws RMProxyCreationException {
-        synchronized (userProxiesMap) {
-            RMProxy proxy = userProxiesMap.get(user);
-            if (proxy == null) {
-                try {
-                    proxy = new RMProxy(rmURI, credentials);
-                    userProxiesMap.put(user, proxy);
-                } catch (RMException e) {
-                    throw new RMProxyCreationException(e);
+        while (true) {
+            UserRMProxy userProxy = userProxies.get(user);
+            if (userProxy == null) {
+                UserRMProxy newUserProxy = new UserRMProxy(credentials);
+                userProxy = userProxies.putIfAbsent(user, newUserProxy);
+                if (userProxy == null) {
+                    userProxy = newUserProxy;
+                    userProxy.create();
                 }
             }
-            return proxy;
+            if (!userProxy.touch()) {
+                // evicted in the meantime, get a new one
+                continue;
+            }
+            try {
+                return userProxy.get();
+            } catch (RMProxyCreationException e) {
+                if (!Thread.currentThread().isInterrupted()) {
+                    // let the next request try again
+                    userProxies.remove(user, userProxy);
+                }
+                throw e;
+            }
         }
     }
 
@@ -100,25 +166,129 @@ public final class PerUserConnectionRMProxiesManager extends RMProxiesManager {
 
     @Override
     public void terminateRMProxy(String user) {
-        synchronized (userProxiesMap) {
-            RMProxy proxy = userProxiesMap.remove(user);
-            if (proxy != null) {
-                proxy.terminate();
-            }
+        UserRMProxy userProxy = userProxies.remove(user);
+        if (userProxy != null) {
+            userProxy.terminate();
         }
     }
 
     @Override
     public void terminateAllProxies() {
+        if (evictionTimer != null) {
+            evictionTimer.shutdownNow();
+        }
         schedulerRMProxy.terminate();
         synchronized (connectionStateLock) {
-            synchronized (userProxiesMap) {
-                for (RMProxy userProxy : userProxiesMap.values()) {
-                    userProxy.terminate();
+            for (String user : new ArrayList<>(userProxies.keySet())) {
+                terminateRMProxy(user);
+            }
+        }
+    }
+
+    /**
+     * Closes the proxies which were not requested during the idle timeout, do not hold any node
+     * and whose user has no running task. Closing the connection of a user releases the nodes the
+     * RM still considers as used by this user, e.g. those of the tasks recovered after a restart.
+     */
+    void evictIdleProxies() {
+        long idleSince = System.currentTimeMillis() - idleTimeout;
+        Set<String> runningTasksOwners;
+        try {
+            runningTasksOwners = getRunningTasksOwners();
+        } catch (RuntimeException e) {
+            logger.warn("Cannot get the users having running tasks, no RM connection is closed", e);
+            return;
+        }
+        for (Map.Entry<String, UserRMProxy> entry : userProxies.entrySet()) {
+            if (runningTasksOwners.contains(entry.getKey())) {
+                continue;
+            }
+            UserRMProxy userProxy = entry.getValue();
+            if (userProxy.evictIfIdle(idleSince) && userProxies.remove(entry.getKey(), userProxy)) {
+                logger.debug("Closing the idle RM connection of user " + entry.getKey());
+                userProxy.terminate();
+            }
+        }
+    }
+
+    int getUserProxiesCount() {
+        return userProxies.size();
+    }
+
+    /**
+     * Entry of the registry, holding the proxy of a user once created.
+     */
+    private final class UserRMProxy {
+
+        private final FutureTask<RMProxy> creation;
+
+        private long lastAccessTime = System.currentTimeMillis();
+
+        private boolean evicted = false;
+
+        UserRMProxy(final Credentials credentials) {
+            this.creation = new FutureTask<>(new Callable<RMProxy>() {
+                @Override
+                public RMProxy call() throws Exception {
+                    return createRMProxy(rmURI, credentials);
+                }
+            });
+        }
+
+        void create() {
+            creation.run();
+        }
+
+        synchronized boolean touch() {
+            if (evicted) {
+                return false;
+            }
+            lastAccessTime = System.currentTimeMillis();
+            return true;
+        }
+
+        synchronized boolean evictIfIdle(long idleSince) {
+            if (!evicted && creation.isDone() && lastAccessTime < idleSince) {
+                RMProxy proxy = getIfCreated();
+                evicted = proxy == null || !proxy.holdsNodes();
+            }
+            return evicted;
+        }
+
+        RMProxy get() throws RMProxyCreationException {
+            try {
+                return creation.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RMProxyCreationException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RMProxyCreationException) {
+                    throw (RMProxyCreationException) e.getCause();
                 }
-                userProxiesMap.clear();
+                throw new RMProxyCreationException(e.getCause());
             }
         }
 
+        /**
+         * @return the proxy if it was successfully created, null otherwise
+         */
+        RMProxy getIfCreated() {
+            if (!creation.isDone()) {
+                return null;
+            }
+            try {
+                return creation.get();
+            } catch (InterruptedException | ExecutionException e) {
+                return null;
+            }
+        }
+
+        void terminate() {
+            try {
+                get().terminate();
+            } catch (RMProxyCreationException e) {
+                // not connected, nothing to terminate
+            }
+        }
     }
 }
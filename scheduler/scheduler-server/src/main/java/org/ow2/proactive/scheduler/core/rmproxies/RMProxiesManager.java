@@ -27,10 +27,15 @@ package org.ow2.proactive.scheduler.core.rmproxies;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
 import org.ow2.proactive.resourcemanager.exception.RMException;
+import org.ow2.proactive.resourcemanager.frontend.RMConnection;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 
 
@@ -64,6 +69,15 @@ public abstract class RMProxiesManager {
 
     }
 
+    /**
+     * Gives the users having running tasks, whose connections to the RM must stay open.
+     */
+    public interface RunningTasksOwners {
+
+        Set<String> getRunningTasksOwners();
+
+    }
+
     /**
      * Create a RMProxiesManager using RM's URI (example : "rmi://localhost:1099/" ).
      *
@@ -91,10 +105,61 @@ public abstract class RMProxiesManager {
 
     protected final Credentials schedulerProxyCredentials;
 
+    /** RM authentication objects shared by the proxies, per RM URI */
+    private final ConcurrentMap<URI, RMAuthentication> rmAuthentications = new ConcurrentHashMap<>(2);
+
+    private volatile RunningTasksOwners runningTasksOwners;
+
     public RMProxiesManager(Credentials schedulerProxyCredentials) throws RMException, RMProxyCreationException {
         this.schedulerProxyCredentials = schedulerProxyCredentials;
     }
 
+    /**
+     * Sets where the owners of the running tasks are looked up, their proxies are never closed
+     * while they are idle.
+     */
+    public void setRunningTasksOwners(RunningTasksOwners runningTasksOwners) {
+        this.runningTasksOwners = runningTasksOwners;
+    }
+
+    /**
+     * @return the users having running tasks, empty if not known
+     */
+    Set<String> getRunningTasksOwners() {
+        RunningTasksOwners owners = runningTasksOwners;
+        return owners != null ? owners.getRunningTasksOwners() : Collections.<String> emptySet();
+    }
+
+    /**
+     * Returns the authentication object of the RM at the given URI, joining the RM
+     * only if no proxy has joined it yet.
+     */
+    RMAuthentication getRMAuthentication(URI rmURI) throws RMException {
+        RMAuthentication rmAuthentication = rmAuthentications.get(rmURI);
+        if (rmAuthentication == null) {
+            rmAuthentication = RMConnection.join(rmURI.toString());
+            RMAuthentication existing = rmAuthentications.putIfAbsent(rmURI, rmAuthentication);
+            if (existing != null) {
+                rmAuthentication = existing;
+            }
+        }
+        return rmAuthentication;
+    }
+
+    /**
+     * Forgets the given authentication object, so that the RM is joined again by the next proxy.
+     */
+    void invalidateRMAuthentication(URI rmURI, RMAuthentication rmAuthentication) {
+        rmAuthentications.remove(rmURI, rmAuthentication);
+    }
+
+    /**
+     * Forgets all the authentication objects, e.g. when the RM is restarted.
+     */
+    void invalidateRMAuthentications() {
+        rmAuthentications.clear();
+    }
+
     public abstract URI getRmUrl();
 
     /**
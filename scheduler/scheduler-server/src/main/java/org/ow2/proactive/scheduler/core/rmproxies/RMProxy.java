@@ -26,10 +26,15 @@
 package org.ow2.proactive.scheduler.core.rmproxies;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
+import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.util.wrapper.BooleanWrapper;
 import org.ow2.proactive.authentication.crypto.Credentials;
 import org.ow2.proactive.resourcemanager.authentication.RMAuthentication;
@@ -61,15 +66,39 @@ public class RMProxy {
 
     private Credentials creds;
 
+    private final RMProxiesManager proxiesManager;
+
+    /** urls of the nodes obtained through this proxy and not released yet */
+    private final Set<String> heldNodeUrls = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
     RMProxy(URI rmURL, Credentials creds) throws RMException, RMProxyCreationException {
+        this(rmURL, creds, null);
+    }
+
+    /**
+     * Creates a proxy looking up the RM authentication through the given manager,
+     * so that the proxies of a manager share the same RM connection.
+     */
+    RMProxy(URI rmURL, Credentials creds, RMProxiesManager proxiesManager)
+            throws RMException, RMProxyCreationException {
         this.rmURL = rmURL;
         this.creds = creds;
+        this.proxiesManager = proxiesManager;
         init();
     }
 
     public synchronized void init() throws RMException, RMProxyCreationException {
-        RMAuthentication auth = RMConnection.join(rmURL.toString());
-        proxyActiveObject = RMProxyActiveObject.createAOProxy(auth, creds);
+        RMAuthentication auth = proxiesManager != null ? proxiesManager.getRMAuthentication(rmURL)
+                                                       : RMConnection.join(rmURL.toString());
+        try {
+            proxyActiveObject = RMProxyActiveObject.createAOProxy(auth, creds);
+        } catch (RMProxyCreationException e) {
+            if (proxiesManager != null) {
+                // the shared connection may be stale, join the RM again next time
+                proxiesManager.invalidateRMAuthentication(rmURL, auth);
+            }
+            throw e;
+        }
         currentRMConnection = new RMProxiesManager.Connection(rmURL, auth);
     }
 
@@ -118,9 +147,46 @@ public class RMProxy {
 
     public NodeSet getNodes(Criteria criteria) throws RMProxyCreationException {
         NodeSet nodeSet = proxyActiveObject.getNodes(criteria);
+        if (nodeSet != null) {
+            for (String nodeUrl : getNodeUrls(nodeSet)) {
+                heldNodeUrls.add(nodeUrl);
+            }
+        }
         return nodeSet;
     }
 
+    /**
+     * @return true if nodes obtained through this proxy have not been released yet
+     */
+    public boolean holdsNodes() {
+        return !heldNodeUrls.isEmpty();
+    }
+
+    private static List<String> getNodeUrls(NodeSet nodeSet) {
+        List<String> nodeUrls = new ArrayList<>(nodeSet.size());
+        for (Node node : nodeSet) {
+            nodeUrls.add(node.getNodeInformation().getURL());
+        }
+        if (nodeSet.getExtraNodes() != null) {
+            for (Node node : nodeSet.getExtraNodes()) {
+                nodeUrls.add(node.getNodeInformation().getURL());
+            }
+        }
+        return nodeUrls;
+    }
+
+    /**
+     * Sends to the RM the memory reserved on the given nodes, the reservations are kept by
+     * the RM until the nodes are released.
+     */
+    public void reserveNodesMemory(Map<String, Long> memoryByNodeUrl) {
+        if (proxyActiveObject != null) {
+            proxyActiveObject.reserveNodesMemory(memoryByNodeUrl);
+        } else {
+            logger.warn("Didn't find RM to reserve memory on nodes " + memoryByNodeUrl.keySet());
+        }
+    }
+
     public void releaseNodes(NodeSet nodeSet) {
         releaseNodes(nodeSet, null, null, null, null, null);
     }
@@ -139,6 +205,8 @@ public class RMProxy {
         }
 
         if (proxyActiveObject != null) {
+            // nodes this proxy did not obtain, e.g. those of the tasks recovered after a restart, are ignored
+            heldNodeUrls.removeAll(getNodeUrls(nodeSet));
             proxyActiveObject.releaseNodes(nodeSet, cleaningScript, variables, genericInformation, taskId, creds);
         } else {
             logger.warn("Didn't find RM to release NodeSet (RM is down or all NodeSet's Nodes are down)");
@@ -124,6 +124,11 @@ public class RMProxyActiveObject {
         return rm.getNodes(criteria);
     }
 
+    @ImmediateService
+    public BooleanWrapper reserveNodesMemory(Map<String, Long> memoryByNodeUrl) {
+        return rm.reserveNodesMemory(memoryByNodeUrl);
+    }
+
     @ImmediateService
     public BooleanWrapper releaseNode(Node node) {
         return rm.releaseNode(node);
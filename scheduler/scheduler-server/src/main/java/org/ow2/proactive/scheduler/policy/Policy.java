@@ -38,6 +38,7 @@ import org.objectweb.proactive.annotation.PublicAPI;
 import org.ow2.proactive.resourcemanager.common.RMState;
 import org.ow2.proactive.scheduler.common.JobDescriptor;
 import org.ow2.proactive.scheduler.common.Scheduler;
+import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.utils.NodeSet;
@@ -102,6 +103,16 @@ public abstract class Policy implements Serializable {
         return true;
     }
 
+    /**
+     * Called when a task does not run anymore: it has terminated, has been killed or restarted, or it could not be
+     * started after being accepted by {@link #isTaskExecutable(NodeSet, EligibleTaskDescriptor)}.
+     * Overriding this method allows to release the resources the policy booked for the task.
+     *
+     * @param taskId id of the task which does not run anymore
+     */
+    public void taskTerminated(TaskId taskId) {
+    }
+
     /**
      * Set the RM state
      *
@@ -25,23 +25,32 @@
  */
 package org.ow2.proactive.scheduler.policy.license;
 
-import java.util.*;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.apache.log4j.Logger;
-import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
 import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
 import org.ow2.proactive.scheduler.policy.ExtendedSchedulerPolicy;
 import org.ow2.proactive.utils.NodeSet;
+import org.ow2.proactive.utils.TaskIdWrapper;
+
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 
 /**
  * 
  * This Policy is designed to manage software licenses.
- * When a task contains the generic information REQUIRE_LICENSES,
+ * When a task contains the generic information REQUIRED_LICENSES,
  * this policy will check if there is an available license per
  * software to return true
+ * <p>
+ * The licenses of a task are reserved all together when the task is accepted,
+ * and given back once the task does not run anymore, see {@link #taskTerminated(TaskId)}.
  *
  */
 public class LicenseSchedulingPolicy extends ExtendedSchedulerPolicy {
@@ -50,104 +59,78 @@ public class LicenseSchedulingPolicy extends ExtendedSchedulerPolicy {
 
     private static final String REQUIRED_LICENSES = "REQUIRED_LICENSES";
 
-    // A map of fixed size lists. A map entry per software license and a list per map entry to handle tasks using this software license.
-    private static Map<String, LinkedBlockingQueue<EligibleTaskDescriptor>> eligibleTasksDescriptorsLicenses = null;
-
-    // Will be initialize with the license properties file which includes the maximum licenses numbers per software
-    private static Properties properties = null;
-
-    private static void initialize() {
-        if (eligibleTasksDescriptorsLicenses == null) {
-            // Map initialization
-            eligibleTasksDescriptorsLicenses = new HashMap<String, LinkedBlockingQueue<EligibleTaskDescriptor>>();
-            // Retrieve properties from the license properties file ...
-            properties = LicenseConfiguration.getConfiguration().getProperties();
-            // ... and per software license, create a list handling all tasks using a this software license
-            Enumeration e = properties.propertyNames();
-            while (e.hasMoreElements()) {
-                String software = (String) e.nextElement();
-                int numberOfLicenses = Integer.parseInt(properties.getProperty(software));
-                eligibleTasksDescriptorsLicenses.put(software,
-                                                     new LinkedBlockingQueue<EligibleTaskDescriptor>(numberOfLicenses));
-            }
-        }
-    }
+    private static final Splitter LICENSES_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
 
-    @Override
-    public boolean isTaskExecutable(NodeSet selectedNodes, EligibleTaskDescriptor task) {
+    // Will be initialized with the license properties file which includes the maximum licenses numbers per software
+    private static LicenseTokens sharedTokens = null;
 
-        logger.debug("Selected Nodes: " + selectedNodes);
+    // Required licenses per task, so that pending tasks are not analysed again at each scheduling loop
+    private static final Cache<TaskIdWrapper, List<String>> requiredLicensesCache = CacheBuilder.newBuilder()
+                                                                                                 .maximumSize(100000)
+                                                                                                 .build();
 
-        logger.debug("Analysing task: " + ((EligibleTaskDescriptorImpl) task).getInternal().getName());
+    private final transient LicenseTokens tokens;
 
-        // Retrieve required licenses names from the task generic informations
-        final String requiredLicenses = ((EligibleTaskDescriptorImpl) task).getInternal()
-                                                                           .getRuntimeGenericInformation()
-                                                                           .get(REQUIRED_LICENSES);
-
-        // If it requires software licenses
-        if (requiredLicenses != null) {
-
-            initialize();
-            logger.debug("Need to check licenses with " + properties.toString());
-
-            // Iterate over required software licenses
-            final String[] requiredLicensesArray = requiredLicenses.split(",");
-            for (int i = 0; i < requiredLicensesArray.length; i++) {
-                // Retrieve the current software license name and its available number
-                final String currentRequiredLicense = requiredLicensesArray[i];
+    public LicenseSchedulingPolicy() {
+        this(null);
+    }
 
-                // To be executed (ie return true), a task must get a license per requiring software license
-                if (!canGetLicense(currentRequiredLicense)) {
-                    logger.debug("License for " + currentRequiredLicense + " not available, keep task pending");
-                    return false;
-                }
-            }
-            // Here we manage to give a license for all required software licenses
-            for (int i = 0; i < requiredLicensesArray.length; i++) {
-                eligibleTasksDescriptorsLicenses.get(requiredLicensesArray[i]).add(task);
-            }
-            logger.debug("All licenses are available, executing task");
-            return true;
+    LicenseSchedulingPolicy(LicenseTokens tokens) {
+        this.tokens = tokens;
+    }
 
-        } else {
-            return true;
+    private static synchronized LicenseTokens getSharedTokens() {
+        if (sharedTokens == null) {
+            sharedTokens = new LicenseTokens(LicenseConfiguration.getConfiguration().getProperties());
         }
+        return sharedTokens;
+    }
 
+    private LicenseTokens getTokens() {
+        return tokens != null ? tokens : getSharedTokens();
     }
 
-    private void removeFinishedTasks(LinkedBlockingQueue<EligibleTaskDescriptor> eligibleTasksDescriptorsLicense) {
-        Iterator<EligibleTaskDescriptor> iter = eligibleTasksDescriptorsLicense.iterator();
-        EligibleTaskDescriptorImpl current_task;
-        while (iter.hasNext()) {
-            current_task = (EligibleTaskDescriptorImpl) iter.next();
+    @Override
+    public boolean isTaskExecutable(NodeSet selectedNodes, EligibleTaskDescriptor task) {
+
+        List<String> requiredLicenses = getRequiredLicenses(task);
 
-            if (current_task.getInternal().getStatus().equals(TaskStatus.FINISHED)) {
-                iter.remove();
+        // If it requires software licenses, a task must get a license per required software to be executed
+        if (!requiredLicenses.isEmpty()) {
+            if (!getTokens().reserve(task.getTaskId(), requiredLicenses)) {
+                logger.debug("Licenses " + requiredLicenses + " not available, keep task " + task.getTaskId() +
+                             " pending");
+                return false;
             }
+            logger.debug("All licenses are available, executing task " + task.getTaskId());
         }
+        return true;
     }
 
-    private boolean canGetLicense(String currentRequiredLicense) {
-
-        // If the required software is not specified in the license properties file
-        if (!eligibleTasksDescriptorsLicenses.containsKey(currentRequiredLicense))
-            return false;
-
-        LinkedBlockingQueue<EligibleTaskDescriptor> eligibleTasksDescriptorsLicense = eligibleTasksDescriptorsLicenses.get(currentRequiredLicense);
-        // if there are still remaining licenses return true
-        if (eligibleTasksDescriptorsLicense.remainingCapacity() > 0) {
-            return true;
+    @Override
+    public void taskTerminated(TaskId taskId) {
+        requiredLicensesCache.invalidate(TaskIdWrapper.wrap(taskId));
+        if (getTokens().release(taskId)) {
+            logger.debug("Licenses released by task " + taskId);
         }
-        // otherwise remove all terminated tasks and check again if there are remaining licenses
-        else {
-            removeFinishedTasks(eligibleTasksDescriptorsLicense);
+    }
 
-            if (eligibleTasksDescriptorsLicense.remainingCapacity() > 0) {
-                return true;
+    private List<String> getRequiredLicenses(EligibleTaskDescriptor task) {
+        TaskIdWrapper key = TaskIdWrapper.wrap(task.getTaskId());
+        List<String> requiredLicenses = requiredLicensesCache.getIfPresent(key);
+        if (requiredLicenses == null) {
+            // Retrieve required licenses names from the task generic informations
+            String value = ((EligibleTaskDescriptorImpl) task).getInternal()
+                                                              .getRuntimeGenericInformation()
+                                                              .get(REQUIRED_LICENSES);
+            if (value == null) {
+                requiredLicenses = Collections.emptyList();
+            } else {
+                requiredLicenses = Collections.unmodifiableList(new ArrayList<>(LICENSES_SPLITTER.splitToList(value)));
             }
-            return false;
+            requiredLicensesCache.put(key, requiredLicenses);
         }
+        return requiredLicenses;
     }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy.license;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.utils.TaskIdWrapper;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+
+
+/**
+ * Counts the licenses available per software.
+ * <p>
+ * All the licenses required by a task are reserved at once, or none of them
+ * is, and they are given back when the task is released. Reserving licenses
+ * for a task which already holds some is a no-op, so does releasing a task
+ * which holds none.
+ */
+final class LicenseTokens {
+
+    private static final Logger logger = Logger.getLogger(LicenseTokens.class);
+
+    // number of licenses not yet reserved, per software
+    private final Map<String, Integer> available = new HashMap<>();
+
+    // licenses reserved, per task
+    private final Map<TaskIdWrapper, Multiset<String>> reservations = new HashMap<>();
+
+    /**
+     * @param properties the maximum number of licenses per software
+     */
+    LicenseTokens(Properties properties) {
+        for (String software : properties.stringPropertyNames()) {
+            try {
+                available.put(software, Integer.parseInt(properties.getProperty(software).trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid number of licenses for software " + software + ": " +
+                            properties.getProperty(software));
+            }
+        }
+    }
+
+    /**
+     * Reserves the given licenses for the task, a software appearing several
+     * times requires as many licenses.
+     *
+     * @return true if the task holds the licenses, false if at least one of
+     *         them is not available, in which case nothing is reserved
+     */
+    synchronized boolean reserve(TaskId taskId, Collection<String> softwares) {
+        TaskIdWrapper key = TaskIdWrapper.wrap(taskId);
+        if (reservations.containsKey(key)) {
+            return true;
+        }
+        Multiset<String> required = HashMultiset.create(softwares);
+        for (Multiset.Entry<String> entry : required.entrySet()) {
+            Integer remaining = available.get(entry.getElement());
+            if (remaining == null || remaining < entry.getCount()) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("License for " + entry.getElement() + " not available for task " + taskId);
+                }
+                return false;
+            }
+        }
+        for (Multiset.Entry<String> entry : required.entrySet()) {
+            available.put(entry.getElement(), available.get(entry.getElement()) - entry.getCount());
+        }
+        reservations.put(key, required);
+        return true;
+    }
+
+    /**
+     * Gives back the licenses held by the task.
+     *
+     * @return true if the task was holding licenses
+     */
+    synchronized boolean release(TaskId taskId) {
+        Multiset<String> held = reservations.remove(TaskIdWrapper.wrap(taskId));
+        if (held == null) {
+            return false;
+        }
+        for (Multiset.Entry<String> entry : held.entrySet()) {
+            available.put(entry.getElement(), available.get(entry.getElement()) + entry.getCount());
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of licenses not yet reserved for the software, or -1
+     *         if the software is not managed
+     */
+    synchronized int getAvailable(String software) {
+        Integer remaining = available.get(software);
+        return remaining == null ? -1 : remaining;
+    }
+
+}
@@ -41,9 +41,16 @@ import org.ow2.proactive.utils.NodeSet;
  * This Policy is designed to handle preallocation of RAM into a node machine. 
  * When the task contains the generic information ALLOC_RAM_GIGABYTES, 
  * this policy will return false if there is not enough RAM available 
- * or true if there is RAM available (in this last case it will set the ALLOC_RAM_GIGABYTES property at node level to book the RAM in the node machine)
+ * or true if there is RAM available (in this last case the RAM is booked in the node machine)
  * 
- * It's important to set the ALLOC_RAM_GIGABYTES task property to 0 in the clean script to release the preallocation. For example for a groovy clean script :
+ * The RAM of the node machines is pushed by the nodes to the resource manager, which gives the RAM available on
+ * each machine in its state, so that the decision does not require to contact the node. The RAM booked for a task is
+ * kept by the resource manager until the node is released.
+ * 
+ * For nodes which do not push the RAM of their machine, the RAM available is read on the node, and the
+ * ALLOC_RAM_GIGABYTES property is set at node level to book the RAM. In this case, it's important to set the
+ * ALLOC_RAM_GIGABYTES task property to 0 in the clean script to release the preallocation. For example for a groovy
+ * clean script :
  * org.objectweb.proactive.api.PAActiveObject.getNode().setProperty("ALLOC_RAM_GIGABYTES","0");
  *
  */
@@ -53,12 +60,15 @@ public class RamSchedulingPolicy extends ExtendedSchedulerPolicy {
 
     public static final String RAM_VARIABLE_NAME = "ALLOC_RAM_GIGABYTES";
 
+    private static final long GIGABYTE = (1024L * 1024L * 1024L);
+
     @Override
     public boolean isTaskExecutable(NodeSet selectedNodes, EligibleTaskDescriptor task) {
 
-        logger.debug("Selected Nodes: " + selectedNodes);
-
-        logger.debug("Analysing task: " + ((EligibleTaskDescriptorImpl) task).getInternal().getName());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Selected Nodes: " + selectedNodes);
+            logger.debug("Analysing task: " + ((EligibleTaskDescriptorImpl) task).getInternal().getName());
+        }
         String allocRam = ((EligibleTaskDescriptorImpl) task).getInternal()
                                                              .getRuntimeGenericInformation()
                                                              .get(RAM_VARIABLE_NAME);
@@ -78,6 +88,18 @@ public class RamSchedulingPolicy extends ExtendedSchedulerPolicy {
 
     private boolean canRunTaskOnNode(NodeSet selectedNodes, EligibleTaskDescriptor task, double neededRam) {
         Node n = selectedNodes.get(0);
+        String nodeUrl = n.getNodeInformation().getURL();
+        if (RMState != null && RMState.getAvailableMemory(nodeUrl) >= 0) {
+            // the RAM of the node machine is known by the resource manager
+            long neededBytes = (long) (neededRam * GIGABYTE);
+            boolean reserved = RMState.reserveMemory(nodeUrl, neededBytes);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Task " + ((EligibleTaskDescriptorImpl) task).getInternal().getName() +
+                             (reserved ? " can" : " cannot") + " execute on " + nodeUrl + " , neededRam : " +
+                             neededRam);
+            }
+            return reserved;
+        }
         try {
             double freeRam = getFreeRamFromNode(n);
             logger.debug("Free Ram for node (" + n.getNodeInformation().getName() + ") : " + freeRam +
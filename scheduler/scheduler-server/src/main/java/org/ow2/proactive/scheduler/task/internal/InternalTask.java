@@ -28,6 +28,7 @@ package org.ow2.proactive.scheduler.task.internal;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -46,20 +47,20 @@ import org.apache.commons.collections4.ListUtils;
 import org.objectweb.proactive.ActiveObjectCreationException;
 import org.objectweb.proactive.core.node.Node;
 import org.objectweb.proactive.core.node.NodeException;
-import org.objectweb.proactive.core.util.converter.ProActiveMakeDeepCopy;
 import org.ow2.proactive.scheduler.common.exception.ExecutableCreationException;
 import org.ow2.proactive.scheduler.common.job.JobInfo;
 import org.ow2.proactive.scheduler.common.task.ForkEnvironment;
 import org.ow2.proactive.scheduler.common.task.Task;
 import org.ow2.proactive.scheduler.common.task.TaskId;
 import org.ow2.proactive.scheduler.common.task.TaskInfo;
-import org.ow2.proactive.scheduler.common.task.TaskResult;
 import org.ow2.proactive.scheduler.common.task.TaskState;
 import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.common.task.TaskVariable;
+import org.ow2.proactive.scheduler.common.task.UpdatableProperties;
 import org.ow2.proactive.scheduler.common.task.flow.FlowAction;
 import org.ow2.proactive.scheduler.common.task.flow.FlowActionType;
 import org.ow2.proactive.scheduler.common.task.flow.FlowBlock;
-import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
+import org.ow2.proactive.scheduler.common.task.flow.FlowScript;
 import org.ow2.proactive.scheduler.core.SchedulingService;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.InternalJob;
@@ -69,6 +70,7 @@ import org.ow2.proactive.scheduler.task.TaskLauncher;
 import org.ow2.proactive.scheduler.task.TaskLauncherInitializer;
 import org.ow2.proactive.scheduler.task.containers.ExecutableContainer;
 import org.ow2.proactive.scheduler.util.TaskLogger;
+import org.ow2.proactive.scripting.InvalidScriptException;
 import org.ow2.proactive.scripting.Script;
 import org.ow2.proactive.utils.NodeSet;
 
@@ -83,7 +85,7 @@ import org.ow2.proactive.utils.NodeSet;
  * @since ProActive Scheduling 0.9
  */
 @XmlAccessorType(XmlAccessType.FIELD)
-public abstract class InternalTask extends TaskState {
+public abstract class InternalTask extends TaskState implements Cloneable {
 
     @XmlTransient
     public static final transient TaskLogger logger = TaskLogger.getInstance();
@@ -166,12 +168,14 @@ public abstract class InternalTask extends TaskState {
     @Override
     public TaskState replicate() throws ExecutableCreationException {
         /*
-         * this implementation deep copies everything using serialization. however the new
-         * InternalTask cannot be strictly identical and we have to handle the following special
+         * this implementation is a copy-on-write clone of this task: replicas share everything
+         * that is never modified once the task has been submitted (scripts, selection scripts,
+         * fork and parallel environments, input and output selectors), and own a copy of the
+         * state which is specific to each replica. We have to handle the following special
          * cases:
          *
-         * - ExecutableContainer is transient and not copied during serialization. It needs to be
-         * manually copied, and added to the InternalTask replica
+         * - ExecutableContainer is transient and is not shared. It is loaded from the task the
+         * replica has been replicated from when the replica is inserted in DB
          *
          * - Using the TaskInfo of _this_ gives us a FINISHED task, need to explicitely create a new
          * clean one.
@@ -179,22 +183,18 @@ public abstract class InternalTask extends TaskState {
          * - InternalTask dependencies need to be nulled as they contain references to other
          * InternalTasks, and will be rewritten later anyway
          *
-         * - Most of the objects down the object graph contain Hibernate @Id fields. If all those
-         * fields are not set to 0 when inserting the object in DB, insertion will fail.
+         * - The task id and the flow script are renamed when the replication and iteration indexes
+         * of the replica are set, the variables can be updated by each replica: they are copied.
          *
-         * - Collections are mapped to specific Hibernate internal collections at runtime, which
-         * contain references to the @Id fields mentionned above. They need to be reset too.
+         * - Collections are copied so that adding an element to the collection of a replica
+         * does not affect the others.
          */
 
-        InternalTask replicatedTask = null;
-        // SCHEDULING-1373 remains, but not replicating the container make the core hangs,
-        // while replicating it "only" loses tasks args in db...
-        //ExecutableContainer replicatedContainer = null;
+        InternalTask replicatedTask;
         try {
-            // Deep copy of the InternalTask using proactive serialization
-            replicatedTask = (InternalTask) ProActiveMakeDeepCopy.WithProActiveObjectStream.makeDeepCopy(this);
-        } catch (Throwable t) {
-            throw new ExecutableCreationException("Failed to serialize task", t);
+            replicatedTask = (InternalTask) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new ExecutableCreationException("Failed to replicate task", e);
         }
 
         replicatedTask.internalJob = internalJob;
@@ -202,22 +202,58 @@ public abstract class InternalTask extends TaskState {
         // internalTasksDependencies contain references to other InternalTasks, it needs to be removed.
         // anyway, dependencies for the new task will not be the same as the original
         replicatedTask.internalTasksDependencies = null;
+        replicatedTask.executerInformation = null;
+        replicatedTask.nodeExclusion = null;
+        replicatedTask.executableContainer = null;
+        replicatedTask.joinedBranches = null;
+        replicatedTask.ifBranch = null;
+        replicatedTask.updatedVariables = null;
 
         // the taskinfo needs to be cleaned so that we don't tag this task as finished
-        TaskId repId = replicatedTask.taskInfo.getTaskId();
+        TaskId id = taskInfo.getTaskId();
+        TaskId repId = id == null ? null
+                                  : TaskIdImpl.createTaskId(id.getJobId(),
+                                                            id.getReadableName(),
+                                                            id.longValue(),
+                                                            id.getTag());
         replicatedTask.taskInfo = new TaskInfoImpl();
         replicatedTask.taskInfo.setTaskId(repId); // we only need this id for the HashSet comparisons...
         replicatedTask.taskInfo.setNumberOfExecutionLeft(getMaxNumberOfExecution());
         replicatedTask.taskInfo.setNumberOfExecutionOnFailureLeft(getMaxNumberOfExecutionOnFailure());
 
-        replicatedTask.setReplicatedFrom(this);
+        if (flowScript != null) {
+            try {
+                replicatedTask.flowScript = new FlowScript(flowScript);
+            } catch (InvalidScriptException e) {
+                throw new ExecutableCreationException("Failed to replicate the flow script of the task", e);
+            }
+        }
+        Map<String, TaskVariable> replicatedVariables = new LinkedHashMap<>(variables.size());
+        synchronized (variables) {
+            for (TaskVariable variable : variables.values()) {
+                replicatedVariables.put(variable.getName(),
+                                        new TaskVariable(variable.getName(),
+                                                         variable.getValue(),
+                                                         variable.getModel(),
+                                                         variable.isJobInherited()));
+            }
+        }
+        replicatedTask.variables = Collections.synchronizedMap(replicatedVariables);
+        replicatedTask.genericInformation = new HashMap<>(genericInformation);
+        replicatedTask.restartTaskOnError = copyOf(restartTaskOnError);
+        replicatedTask.maxNumberOfExecution = copyOf(maxNumberOfExecution);
+        replicatedTask.onTaskError = copyOf(onTaskError);
+        if (sScripts != null) {
+            replicatedTask.sScripts = new ArrayList<>(sScripts);
+        }
+        if (inputFiles != null) {
+            replicatedTask.inputFiles = new ArrayList<>(inputFiles);
+        }
+        if (outputFiles != null) {
+            replicatedTask.outputFiles = new ArrayList<>(outputFiles);
+        }
 
-        /*
-         * uncomment this to have a close look at the serialized graph you will need to add some
-         * jars (http://xstream.codehaus.org/) to the classpath XStream x = new XStream(); String sx
-         * = x.toXML(replicatedTask); System.out.println("----------"); System.out.println(sx);
-         * System.out.println("----------");
-         */
+        replicatedTask.setReplicatedFrom(this);
 
         // We cannot register the newly created InternalTask for DB insertion now,
         // since it only makes sense to hibernate once it's added to the parent InternalJob
@@ -225,6 +261,17 @@ public abstract class InternalTask extends TaskState {
         return replicatedTask;
     }
 
+    private static <T> UpdatableProperties<T> copyOf(UpdatableProperties<T> property) {
+        if (property == null) {
+            return null;
+        }
+        UpdatableProperties<T> copy = new UpdatableProperties<>(property.getValue());
+        if (property.isSet()) {
+            copy.setValue(property.getValue());
+        }
+        return copy;
+    }
+
     /**
      * Accumulates in <code>acc</code>  replications of all the tasks that recursively
      * depend on <code>this</code> until <code>target</code> is met
@@ -1134,6 +1181,7 @@ public abstract class InternalTask extends TaskState {
 
         tli.setPingPeriod(PASchedulerProperties.SCHEDULER_NODE_PING_FREQUENCY.getValueAsInt());
         tli.setPingAttempts(PASchedulerProperties.SCHEDULER_NODE_PING_ATTEMPTS.getValueAsInt());
+        tli.setResultReferenceThreshold(PASchedulerProperties.DATASPACE_TASK_RESULT_REFERENCE_THRESHOLD.getValueAsInt());
 
         return tli;
     }
@@ -1182,18 +1230,19 @@ public abstract class InternalTask extends TaskState {
                                                              .getFirstNotSkippedParentTaskIds(parentTask));
                 }
 
-                // Batch fetching of parent tasks results
-                Map<TaskId, TaskResult> taskResults = new HashMap<>();
+                // Batch fetching of parent tasks propagated variables
+                Map<TaskId, Map<String, Serializable>> taskVariables = new HashMap<>();
                 for (List<TaskId> parentsSubList : ListUtils.partition(new ArrayList<>(parentIds),
                                                                        PASchedulerProperties.SCHEDULER_DB_FETCH_TASK_RESULTS_BATCH_SIZE.getValueAsInt())) {
 
-                    taskResults.putAll(schedulingService.getInfrastructure()
-                                                        .getDBManager()
-                                                        .loadTasksResults(internalJob.getId(), parentsSubList));
+                    taskVariables.putAll(schedulingService.getInfrastructure()
+                                                          .getDBManager()
+                                                          .loadTasksPropagatedVariables(internalJob.getId(),
+                                                                                        parentsSubList));
 
                 }
-                if (!parentIds.isEmpty()) {
-                    updateVariablesWithTaskResults(taskResults);
+                for (Map<String, Serializable> propagatedVariables : taskVariables.values()) {
+                    updateInheritedPropagatedVariables(propagatedVariables);
                 }
             }
 
@@ -1201,22 +1250,6 @@ public abstract class InternalTask extends TaskState {
         }
     }
 
-    private void updateVariablesWithTaskResults(Map<TaskId, TaskResult> taskResults) {
-        for (TaskResult taskResult : taskResults.values()) {
-            Map<String, Serializable> propagatedVariables = new HashMap<>();
-            if (taskResult.getPropagatedVariables() != null) {
-                try {
-                    propagatedVariables = SerializationUtil.deserializeVariableMap(taskResult.getPropagatedVariables());
-                    if (propagatedVariables != null) {
-                        updateInheritedPropagatedVariables(propagatedVariables);
-                    }
-                } catch (Exception e) {
-                    throw new IllegalStateException("Could not deserialize variable map", e);
-                }
-            }
-        }
-    }
-
     private void updateInheritedPropagatedVariables(Map<String, Serializable> propagatedVariables) {
         for (Map.Entry<String, Serializable> propagatedVariable : propagatedVariables.entrySet()) {
             if (variables.get(propagatedVariable.getKey()) == null ||
@@ -0,0 +1,170 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package functionaltests.db.schedulerdb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.TaskFlowJob;
+import org.ow2.proactive.scheduler.core.db.ChunkedHousekeeping;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
+import org.ow2.proactive.scheduler.job.InternalJob;
+
+
+public class TestHousekeeping extends BaseSchedulerDBTest {
+
+    private static final Logger logger = Logger.getLogger(TestHousekeeping.class);
+
+    private static final String BENCHMARK_TASKS_PROPERTY = "pa.scheduler.housekeeping.benchmark.tasks";
+
+    private static final int BENCHMARK_TASKS_PER_JOB = 100;
+
+    @BeforeClass
+    public static void setBatchProperties() {
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_JOBS.updateProperty("2");
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_TASKS.updateProperty("5");
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_PAUSE_PERCENT.updateProperty("50");
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_PAUSE.updateProperty("100");
+    }
+
+    @AfterClass
+    public static void resetBatchProperties() {
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_JOBS.updateProperty("100");
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_TASKS.updateProperty("10000");
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_PAUSE_PERCENT.updateProperty("100");
+        PASchedulerProperties.SCHEDULER_HOUSEKEEPING_BATCH_MAX_PAUSE.updateProperty("5000");
+    }
+
+    @Test
+    public void testJobsAreRemovedInBatches() throws Exception {
+        List<Long> jobIds = submitJobs(5, 3);
+
+        dbManager.executeHousekeepingInDB(jobIds, true);
+
+        Assert.assertEquals(0, count("JobData"));
+        Assert.assertEquals(0, count("TaskData"));
+
+        // a job holds more tasks than half a batch, so each job is removed in its own transaction
+        ChunkedHousekeeping housekeeping = dbManager.getHousekeeping();
+        Assert.assertEquals(5, housekeeping.getBatchesCount());
+        Assert.assertEquals(5, housekeeping.getRemovedJobsCount());
+        Assert.assertEquals(15, housekeeping.getRemovedTasksCount());
+        Assert.assertEquals(0, housekeeping.getPendingJobsCount());
+    }
+
+    @Test
+    public void testJobsAreMarkedAsRemovedInBatches() throws Exception {
+        List<Long> jobIds = submitJobs(3, 1);
+
+        dbManager.executeHousekeepingInDB(jobIds, false);
+
+        Assert.assertEquals(3, count("JobData"));
+        Assert.assertEquals(0, count("JobData where removedTime <= 0"));
+        Assert.assertEquals(2, dbManager.getHousekeeping().getBatchesCount());
+        Assert.assertEquals(3, dbManager.getHousekeeping().getRemovedTasksCount());
+    }
+
+    /**
+     * Measures the latency of job submissions while a large number of tasks is
+     * purged. The number of purged tasks is given by the
+     * pa.scheduler.housekeeping.benchmark.tasks system property (e.g. 1000000).
+     */
+    @Test
+    public void testSubmissionLatencyDuringHousekeeping() throws Exception {
+        int tasks = Integer.getInteger(BENCHMARK_TASKS_PROPERTY, 1000);
+        final List<Long> jobIds = submitJobs(Math.max(1, tasks / BENCHMARK_TASKS_PER_JOB), BENCHMARK_TASKS_PER_JOB);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        long purgeStart = System.currentTimeMillis();
+        Future<Void> purge = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                dbManager.executeHousekeepingInDB(jobIds, true);
+                return null;
+            }
+        });
+
+        List<Long> latencies = new ArrayList<>();
+        do {
+            long start = System.nanoTime();
+            defaultSubmitJob(createJob(1));
+            latencies.add((System.nanoTime() - start) / 1000000);
+        } while (!purge.isDone());
+        purge.get();
+        long purgeDuration = System.currentTimeMillis() - purgeStart;
+        executor.shutdown();
+
+        long max = 0;
+        long total = 0;
+        for (long latency : latencies) {
+            max = Math.max(max, latency);
+            total += latency;
+        }
+        logger.info("Housekeeping of " + jobIds.size() * BENCHMARK_TASKS_PER_JOB + " tasks took " + purgeDuration +
+                    " ms in " + dbManager.getHousekeeping().getBatchesCount() + " batches, " + latencies.size() +
+                    " jobs submitted meanwhile (mean latency " + total / latencies.size() + " ms, max latency " + max +
+                    " ms)");
+
+        Assert.assertEquals(jobIds.size(), dbManager.getHousekeeping().getRemovedJobsCount());
+        Assert.assertEquals(latencies.size(), count("JobData"));
+    }
+
+    private List<Long> submitJobs(int jobs, int tasksPerJob) throws Exception {
+        List<Long> jobIds = new ArrayList<>(jobs);
+        for (int i = 0; i < jobs; i++) {
+            InternalJob job = defaultSubmitJob(createJob(tasksPerJob));
+            jobIds.add(job.getId().longValue());
+        }
+        return jobIds;
+    }
+
+    private TaskFlowJob createJob(int tasks) throws Exception {
+        TaskFlowJob job = new TaskFlowJob();
+        for (int i = 0; i < tasks; i++) {
+            job.addTask(createDefaultTask("task" + i));
+        }
+        return job;
+    }
+
+    private long count(String query) {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            return (Long) session.createQuery("select count(*) from " + query).uniqueResult();
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -28,8 +28,11 @@ package functionaltests.db.schedulerdb;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.hibernate.Session;
@@ -47,8 +50,10 @@ import org.ow2.proactive.scheduler.common.task.dataspaces.OutputAccessMode;
 import org.ow2.proactive.scheduler.common.task.flow.FlowScript;
 import org.ow2.proactive.scheduler.core.db.JobContent;
 import org.ow2.proactive.scheduler.core.db.JobData;
+import org.ow2.proactive.scheduler.core.db.ScriptContentData;
 import org.ow2.proactive.scheduler.core.db.TaskData;
 import org.ow2.proactive.scheduler.core.db.TaskResultData;
+import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.task.TaskResultImpl;
 import org.ow2.proactive.scripting.SelectionScript;
@@ -187,6 +192,58 @@ public class TestJobRemove extends BaseSchedulerDBTest {
         removeScenario(100);
     }
 
+    @Test
+    public void testScriptContentSharedBetweenJobs() throws Exception {
+        InternalJob job1 = defaultSubmitJob(createJob(1));
+        int scriptContents = countScriptContents();
+        Assert.assertTrue(scriptContents > 0);
+
+        InternalJob job2 = defaultSubmitJob(createJob(1));
+        Assert.assertEquals("Identical scripts should be stored once", scriptContents, countScriptContents());
+
+        dbManager.removeJob(job1.getId(), 0, true);
+        Assert.assertEquals("Scripts still used by a job should be kept", scriptContents, countScriptContents());
+
+        dbManager.removeJob(job2.getId(), 0, true);
+        checkAllEntitiesDeleted();
+    }
+
+    @Test
+    public void testIdenticalScriptContentsInsertedConcurrently() throws Exception {
+        int threadCount = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        String maximumRetries = PASchedulerProperties.SCHEDULER_DB_TRANSACTION_MAXIMUM_RETRIES.getValueAsString();
+        // a submission failing on the primary key of a script content must not be hidden by a retry
+        PASchedulerProperties.SCHEDULER_DB_TRANSACTION_MAXIMUM_RETRIES.updateProperty("0");
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<InternalJob>> submissions = new ArrayList<>(threadCount);
+            for (int i = 0; i < threadCount; i++) {
+                submissions.add(executorService.submit(new Callable<InternalJob>() {
+                    @Override
+                    public InternalJob call() throws Exception {
+                        TaskFlowJob jobDef = createJob(1);
+                        start.await();
+                        return defaultSubmitJob(jobDef);
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<InternalJob> jobs = new ArrayList<>(threadCount);
+            for (Future<InternalJob> submission : submissions) {
+                jobs.add(submission.get(30, TimeUnit.SECONDS));
+            }
+            int scriptContents = countScriptContents();
+            dbManager.removeJob(jobs.get(0).getId(), 0, true);
+            defaultSubmitJob(createJob(1));
+            Assert.assertEquals("Identical scripts should be stored once", scriptContents, countScriptContents());
+        } finally {
+            executorService.shutdownNow();
+            PASchedulerProperties.SCHEDULER_DB_TRANSACTION_MAXIMUM_RETRIES.updateProperty(maximumRetries);
+        }
+    }
+
     private TaskFlowJob createJob(int tasksNumber) throws Exception {
         ForkEnvironment forkEnvironment = new ForkEnvironment();
         forkEnvironment.addAdditionalClasspath("lib/ProActive/ProActive.jar", "compile/lib/ant.jar");
@@ -316,6 +373,15 @@ public class TestJobRemove extends BaseSchedulerDBTest {
         task.addOutputFiles("f3", OutputAccessMode.TransferToUserSpace);
     }
 
+    private int countScriptContents() {
+        Session session = dbManager.getSessionFactory().openSession();
+        try {
+            return session.createCriteria(ScriptContentData.class).list().size();
+        } finally {
+            session.close();
+        }
+    }
+
     private void checkAllEntitiesDeleted(String... skipClasses) {
         Set<String> skip = ImmutableSet.copyOf(skipClasses);
 
@@ -0,0 +1,152 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.db.SortOrder;
+import org.ow2.proactive.db.SortParameter;
+import org.ow2.proactive.scheduler.common.JobSortParameter;
+import org.ow2.proactive.scheduler.common.Page;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.job.JobInfoImpl;
+
+
+public class JobsListingIndexTest {
+
+    private JobsListingIndex index;
+
+    @Before
+    public void setUp() {
+        index = new JobsListingIndex();
+        index.jobUpdated(job(1, "alice", JobStatus.FINISHED, JobPriority.NORMAL));
+        index.jobUpdated(job(2, "bob", JobStatus.RUNNING, JobPriority.LOW));
+        index.jobUpdated(job(3, "alice", JobStatus.PENDING, JobPriority.HIGH));
+        index.jobUpdated(job(4, "alice", JobStatus.IN_ERROR, JobPriority.NORMAL));
+        index.jobUpdated(job(5, "bob", JobStatus.PAUSED, JobPriority.IDLE));
+        index.jobUpdated(job(6, "bob", JobStatus.PENDING, JobPriority.NORMAL));
+    }
+
+    @Test
+    public void testDefaultListingIsGroupedByStateThenSortedById() {
+        Page<JobInfo> page = index.getJobs(0,
+                                           10,
+                                           null,
+                                           true,
+                                           true,
+                                           true,
+                                           sort(JobSortParameter.STATE,
+                                                SortOrder.ASC,
+                                                JobSortParameter.ID,
+                                                SortOrder.DESC));
+
+        // in-error jobs are grouped with the finished ones, as in the database
+        assertThat(ids(page)).containsExactly(6L, 3L, 5L, 2L, 4L, 1L).inOrder();
+        assertThat(page.getSize()).isEqualTo(6);
+    }
+
+    @Test
+    public void testPagesAreFilteredByStatusAndOwner() {
+        Page<JobInfo> page = index.getJobs(1,
+                                           1,
+                                           "alice",
+                                           true,
+                                           true,
+                                           false,
+                                           sort(JobSortParameter.ID, SortOrder.ASC));
+
+        assertThat(ids(page)).containsExactly(4L);
+        assertThat(page.getSize()).isEqualTo(2);
+        assertThat(index.getJobs(0, 10, "carol", true, true, true, null).getSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void testOtherSortParametersAreSupported() {
+        Page<JobInfo> page = index.getJobs(0,
+                                           0,
+                                           null,
+                                           true,
+                                           true,
+                                           true,
+                                           sort(JobSortParameter.PRIORITY,
+                                                SortOrder.DESC,
+                                                JobSortParameter.OWNER,
+                                                SortOrder.ASC));
+
+        assertThat(ids(page)).containsExactly(3L, 1L, 4L, 6L, 2L, 5L).inOrder();
+    }
+
+    @Test
+    public void testJobsAreReindexedAndRemoved() {
+        index.jobUpdated(job(3, "alice", JobStatus.RUNNING, JobPriority.HIGH));
+        index.jobRemoved(JobIdImpl.makeJobId("1"));
+
+        assertThat(ids(index.getJobs(0, 10, null, true, false, false, null))).containsExactly(6L);
+        assertThat(ids(index.getJobs(0, 10, "alice", false, true, true, null))).containsExactly(3L, 4L).inOrder();
+        assertThat(index.size()).isEqualTo(5);
+    }
+
+    private static List<Long> ids(Page<JobInfo> page) {
+        List<Long> ids = new ArrayList<>();
+        for (JobInfo jobInfo : page.getList()) {
+            ids.add(jobInfo.getJobId().longValue());
+        }
+        return ids;
+    }
+
+    private static List<SortParameter<JobSortParameter>> sort(Object... parametersAndOrders) {
+        List<SortParameter<JobSortParameter>> sortParameters = new ArrayList<>();
+        for (int i = 0; i < parametersAndOrders.length; i += 2) {
+            sortParameters.add(new SortParameter<>((JobSortParameter) parametersAndOrders[i],
+                                                   (SortOrder) parametersAndOrders[i + 1]));
+        }
+        return sortParameters;
+    }
+
+    private static JobState job(long id, String owner, JobStatus status, JobPriority priority) {
+        JobInfoImpl jobInfo = new JobInfoImpl();
+        jobInfo.setJobId(new JobIdImpl(id, "job" + id));
+        jobInfo.setJobOwner(owner);
+        jobInfo.setStatus(status);
+        jobInfo.setPriority(priority);
+        JobState job = mock(JobState.class);
+        when(job.getJobInfo()).thenReturn(jobInfo);
+        when(job.getOwner()).thenReturn(owner);
+        return job;
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.NotificationData;
+import org.ow2.proactive.scheduler.common.SchedulerEvent;
+import org.ow2.proactive.scheduler.common.SchedulerEventListener;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.threading.ReifiedMethodCall;
+
+
+public class ListenerEventQueueTest {
+
+    private static final Map<String, Method> eventMethods = new HashMap<>();
+
+    static {
+        for (Method m : SchedulerEventListener.class.getMethods()) {
+            eventMethods.put(m.getName(), m);
+        }
+    }
+
+    private final JobId jobId = JobIdImpl.makeJobId("1");
+
+    @Test
+    public void testTaskUpdatesAreConflated() {
+        ListenerEventQueue queue = new ListenerEventQueue(100);
+        ReifiedMethodCall jobEvent = jobEvent(SchedulerEvent.JOB_PENDING_TO_RUNNING);
+        ReifiedMethodCall firstProgressEvent = taskEvent("A", SchedulerEvent.TASK_PROGRESS);
+        ReifiedMethodCall lastProgressEvent = taskEvent("A", SchedulerEvent.TASK_PROGRESS);
+        ReifiedMethodCall otherTaskEvent = taskEvent("B", SchedulerEvent.TASK_PROGRESS);
+
+        queue.add(firstProgressEvent);
+        queue.add(jobEvent);
+        queue.add(otherTaskEvent);
+        queue.add(lastProgressEvent);
+
+        assertThat(queue.poll(10)).containsExactly(jobEvent, otherTaskEvent, lastProgressEvent).inOrder();
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testTransitionsAreNotConflated() {
+        ListenerEventQueue queue = new ListenerEventQueue(100);
+        ReifiedMethodCall startEvent = taskEvent("A", SchedulerEvent.TASK_PENDING_TO_RUNNING);
+        ReifiedMethodCall progressEvent = taskEvent("A", SchedulerEvent.TASK_PROGRESS);
+        ReifiedMethodCall endEvent = taskEvent("A", SchedulerEvent.TASK_RUNNING_TO_FINISHED);
+
+        queue.add(startEvent);
+        queue.add(progressEvent);
+        queue.add(endEvent);
+
+        assertThat(queue.poll(10)).containsExactly(startEvent, progressEvent, endEvent).inOrder();
+    }
+
+    @Test
+    public void testEventsAreSentByBatches() {
+        ListenerEventQueue queue = new ListenerEventQueue(100);
+        for (int i = 0; i < 5; i++) {
+            queue.add(schedulerEvent(SchedulerEvent.PAUSED));
+        }
+
+        assertThat(queue.poll(3)).hasSize(3);
+        assertThat(queue.poll(3)).hasSize(2);
+    }
+
+    @Test
+    public void testLaggingListenerIsResynchronized() {
+        ListenerEventQueue queue = new ListenerEventQueue(2);
+        ReifiedMethodCall stateEvent = schedulerEvent(SchedulerEvent.PAUSED);
+        queue.add(stateEvent);
+        queue.add(taskEvent("A", SchedulerEvent.TASK_PENDING_TO_RUNNING));
+        assertThat(queue.isResyncNeeded()).isFalse();
+
+        queue.add(taskEvent("B", SchedulerEvent.TASK_PENDING_TO_RUNNING));
+        assertThat(queue.isResyncNeeded()).isTrue();
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.getJobsToResynchronize()).containsExactly(jobId);
+
+        ReifiedMethodCall snapshotEvent = new ReifiedMethodCall(eventMethods.get("jobUpdatedFullDataEvent"),
+                                                                new Object[] { jobState() });
+        queue.resynchronize(Collections.singletonList(snapshotEvent));
+
+        assertThat(queue.isResyncNeeded()).isFalse();
+        assertThat(queue.getJobsToResynchronize()).isEmpty();
+        List<ReifiedMethodCall> events = queue.poll(10);
+        assertThat(events).containsExactly(snapshotEvent, stateEvent).inOrder();
+    }
+
+    @Test
+    public void testJobRemovalIsKeptOnResync() {
+        ListenerEventQueue queue = new ListenerEventQueue(1);
+        ReifiedMethodCall removalEvent = jobEvent(SchedulerEvent.JOB_REMOVE_FINISHED);
+        queue.add(removalEvent);
+        queue.add(taskEvent("A", SchedulerEvent.TASK_PENDING_TO_RUNNING));
+
+        queue.resynchronize(Collections.<ReifiedMethodCall> emptyList());
+
+        assertThat(queue.poll(10)).containsExactly(removalEvent);
+    }
+
+    private ReifiedMethodCall schedulerEvent(SchedulerEvent event) {
+        return new ReifiedMethodCall(eventMethods.get("schedulerStateUpdatedEvent"), new Object[] { event });
+    }
+
+    private ReifiedMethodCall jobEvent(SchedulerEvent event) {
+        JobInfo jobInfo = mock(JobInfo.class);
+        when(jobInfo.getJobId()).thenReturn(jobId);
+        return new ReifiedMethodCall(eventMethods.get("jobStateUpdatedEvent"),
+                                     new Object[] { new NotificationData<JobInfo>(event, jobInfo) });
+    }
+
+    private ReifiedMethodCall taskEvent(String taskName, SchedulerEvent event) {
+        TaskInfo taskInfo = mock(TaskInfo.class);
+        when(taskInfo.getTaskId()).thenReturn(TaskIdImpl.createTaskId(jobId, taskName, taskName.hashCode()));
+        when(taskInfo.getJobId()).thenReturn(jobId);
+        return new ReifiedMethodCall(eventMethods.get("taskStateUpdatedEvent"),
+                                     new Object[] { new NotificationData<TaskInfo>(event, taskInfo) });
+    }
+
+    private JobState jobState() {
+        JobState jobState = mock(JobState.class);
+        when(jobState.getId()).thenReturn(jobId);
+        return jobState;
+    }
+}
@@ -26,10 +26,14 @@
 package org.ow2.proactive.scheduler.core;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Collections;
 import java.util.Vector;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -41,11 +45,17 @@ import java.util.concurrent.TimeoutException;
 
 import org.junit.Test;
 import org.objectweb.proactive.core.UniqueID;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
 import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
 import org.ow2.proactive.scheduler.core.jmx.SchedulerJMXHelper;
 import org.ow2.proactive.scheduler.core.jmx.mbean.RuntimeDataMBeanImpl;
 import org.ow2.proactive.scheduler.core.properties.PASchedulerProperties;
 import org.ow2.proactive.scheduler.job.ClientJobState;
+import org.ow2.proactive.scheduler.job.IdentifiedJob;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
 import org.ow2.proactive.scheduler.job.UserIdentificationImpl;
 import org.ow2.tests.ProActiveTestClean;
@@ -114,4 +124,89 @@ public class SchedulerFrontendStateTest extends ProActiveTestClean {
         assertEquals(schedulerFrontendState.getIdentifiedJob(jobId).getJobId(), (jobId));
 
     }
+
+    @Test
+    public void lookupOfAJobStillBeingRecoveredWaitsForItsBatch() throws Exception {
+        final SchedulerFrontendState schedulerFrontendState = recoveringFrontendState();
+        final JobIdImpl jobId = new JobIdImpl(1234L, "job name");
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<IdentifiedJob> lookup = executor.submit(new Callable<IdentifiedJob>() {
+                @Override
+                public IdentifiedJob call() throws Exception {
+                    return schedulerFrontendState.getIdentifiedJob(jobId);
+                }
+            });
+            Thread.sleep(500);
+            assertFalse(lookup.isDone());
+
+            // the lookup is answered as soon as the batch of its job is loaded, before the end of the recovery
+            schedulerFrontendState.jobsRecovered(Collections.singletonList(internalJob(jobId)), false);
+
+            assertEquals(jobId, lookup.get(5, TimeUnit.SECONDS).getJobId());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lookupOfAnUnknownJobFailsOnceTheRecoveryIsFinished() throws Exception {
+        final SchedulerFrontendState schedulerFrontendState = recoveringFrontendState();
+        final JobIdImpl jobId = new JobIdImpl(1234L, "job name");
+
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try {
+            Future<IdentifiedJob> lookup = executor.submit(new Callable<IdentifiedJob>() {
+                @Override
+                public IdentifiedJob call() throws Exception {
+                    return schedulerFrontendState.getIdentifiedJob(jobId);
+                }
+            });
+            schedulerFrontendState.jobsRecovered(Collections.singletonList(internalJob(new JobIdImpl(1L, "other"))),
+                                                 true);
+            Thread.sleep(500);
+            assertFalse(lookup.isDone());
+
+            schedulerFrontendState.recoveryFinished();
+
+            try {
+                lookup.get(5, TimeUnit.SECONDS);
+                fail("The job should be unknown");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof UnknownJobException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void jobsAreNotListedWhileTheyAreRecovered() throws Exception {
+        SchedulerFrontendState schedulerFrontendState = recoveringFrontendState();
+        schedulerFrontendState.jobsRecovered(Collections.singletonList(internalJob(new JobIdImpl(1L, "job name"))),
+                                             false);
+
+        assertNull(schedulerFrontendState.getJobs(0, 10, null, true, true, true, null));
+
+        schedulerFrontendState.recoveryFinished();
+
+        assertEquals(1, schedulerFrontendState.getJobs(0, 10, null, true, true, true, null).getSize());
+    }
+
+    private SchedulerFrontendState recoveringFrontendState() throws Exception {
+        SchedulerJMXHelper mockJMX = mock(SchedulerJMXHelper.class);
+        when(mockJMX.getSchedulerRuntimeMBean()).thenReturn(new RuntimeDataMBeanImpl(null));
+        return new SchedulerFrontendState(new SchedulerStateImpl<ClientJobState>(), mockJMX, true);
+    }
+
+    private InternalJob internalJob(JobIdImpl jobId) {
+        InternalJob job = new InternalTaskFlowJob(jobId.getReadableName(),
+                                                  JobPriority.NORMAL,
+                                                  OnTaskError.CANCEL_JOB,
+                                                  "description");
+        job.setId(jobId);
+        job.setOwner("admin");
+        return job;
+    }
 }
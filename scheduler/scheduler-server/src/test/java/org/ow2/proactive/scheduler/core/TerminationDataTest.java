@@ -51,6 +51,7 @@ import org.ow2.proactive.scheduler.core.rmproxies.RMProxyCreationException;
 import org.ow2.proactive.scheduler.job.InternalJob;
 import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
 import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.policy.Policy;
 import org.ow2.proactive.scheduler.task.TaskIdImpl;
 import org.ow2.proactive.scheduler.task.TaskLauncher;
 import org.ow2.proactive.scheduler.task.internal.ExecuterInformation;
@@ -164,6 +165,27 @@ public class TerminationDataTest extends ProActiveTestClean {
         Mockito.verify(launcher, Mockito.times(1)).kill();
     }
 
+    @Test
+    public void testHandleTerminationNotifiesPolicy() throws IOException, ClassNotFoundException {
+        Policy policy = Mockito.mock(Policy.class);
+        Mockito.when(service.getPolicy()).thenReturn(policy);
+        InternalJob job = new InternalTaskFlowJob("test-name",
+                                                  JobPriority.NORMAL,
+                                                  OnTaskError.CANCEL_JOB,
+                                                  "description");
+        JobId jobId = new JobIdImpl(666, "readableName");
+        InternalTask internalTask = new InternalScriptTask(job);
+        TaskId taskId = TaskIdImpl.createTaskId(jobId, "task-name", 777L);
+        internalTask.setId(taskId);
+        internalTask.setName("task-name");
+        internalTask.setStatus(TaskStatus.RUNNING);
+        internalTask.setExecuterInformation(Mockito.mock(ExecuterInformation.class));
+        RunningTaskData taskData = new RunningTaskData(internalTask, "user", null, launcher);
+        terminationData.addTaskData(null, taskData, TerminationData.TerminationStatus.NORMAL, null);
+        terminationData.handleTermination(service);
+        Mockito.verify(policy, Mockito.times(1)).taskTerminated(taskId);
+    }
+
     @Test
     public void testHandleTerminationForTaskNodeFailureTermination() throws IOException, ClassNotFoundException {
         InternalJob job = new InternalTaskFlowJob("test-name",
@@ -0,0 +1,114 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.db;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.util.SerializationUtil;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scheduler.task.TaskResultImpl;
+
+
+public class TaskResultCacheTest {
+
+    @Test
+    public void testResultsAreCachedWithDeserializedVariables() {
+        TaskResultCache cache = new TaskResultCache(1024 * 1024);
+        Map<String, Serializable> variables = new HashMap<>();
+        variables.put("foo", "bar");
+
+        cache.put(dbTaskId(1, 1), result(1, 1, 10, variables));
+
+        assertThat(cache.getResult(dbTaskId(1, 1))).isNotNull();
+        assertThat(cache.getPropagatedVariables(dbTaskId(1, 1))).containsEntry("foo", "bar");
+    }
+
+    @Test
+    public void testTasksOfDifferentJobsAreNotMixed() {
+        TaskResultCache cache = new TaskResultCache(1024 * 1024);
+
+        cache.put(dbTaskId(1, 1), result(1, 1, 10, Collections.<String, Serializable> emptyMap()));
+
+        assertThat(cache.getResult(dbTaskId(2, 1))).isNull();
+    }
+
+    @Test
+    public void testCacheIsBoundedInBytes() {
+        TaskResultCache cache = new TaskResultCache(10 * 1024);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(dbTaskId(1, i), result(1, i, 4 * 1024, Collections.<String, Serializable> emptyMap()));
+        }
+
+        int cached = 0;
+        for (int i = 0; i < 10; i++) {
+            if (cache.getResult(dbTaskId(1, i)) != null) {
+                cached++;
+            }
+        }
+        assertThat(cached).isAtMost(2);
+        assertThat(cache.stats().evictionCount()).isAtLeast(8L);
+    }
+
+    @Test
+    public void testRemovedJobsAreInvalidated() {
+        TaskResultCache cache = new TaskResultCache(1024 * 1024);
+        cache.put(dbTaskId(1, 1), result(1, 1, 10, Collections.<String, Serializable> emptyMap()));
+        cache.put(dbTaskId(2, 1), result(2, 1, 10, Collections.<String, Serializable> emptyMap()));
+
+        cache.invalidateJobs(Collections.singletonList(1L));
+
+        assertThat(cache.getResult(dbTaskId(1, 1))).isNull();
+        assertThat(cache.getResult(dbTaskId(2, 1))).isNotNull();
+    }
+
+    private static TaskData.DBTaskId dbTaskId(long jobId, long taskId) {
+        TaskData.DBTaskId id = new TaskData.DBTaskId();
+        id.setJobId(jobId);
+        id.setTaskId(taskId);
+        return id;
+    }
+
+    private static TaskResultImpl result(long jobId, long taskId, int valueSize,
+            Map<String, Serializable> variables) {
+        TaskId id = TaskIdImpl.createTaskId(new JobIdImpl(jobId, "job"), "task" + taskId, taskId);
+        return new TaskResultImpl(id,
+                                  new byte[valueSize],
+                                  null,
+                                  null,
+                                  Collections.<String, String> emptyMap(),
+                                  SerializationUtil.serializeVariableMap(variables),
+                                  false);
+    }
+}
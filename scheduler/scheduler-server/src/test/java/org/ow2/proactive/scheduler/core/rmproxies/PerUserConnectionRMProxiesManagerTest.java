@@ -0,0 +1,276 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.core.rmproxies;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+import org.ow2.proactive.authentication.crypto.Credentials;
+
+
+public class PerUserConnectionRMProxiesManagerTest {
+
+    private static final Logger logger = Logger.getLogger(PerUserConnectionRMProxiesManagerTest.class);
+
+    private static final URI RM_URI = URI.create("pnp://localhost:64738/");
+
+    private static final String BENCHMARK_USERS_PROPERTY = "pa.scheduler.rmproxies.benchmark.users";
+
+    private final ConcurrentMap<Credentials, AtomicInteger> creations = new ConcurrentHashMap<>();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testProxyIsCreatedOncePerUser() throws Exception {
+        final PerUserConnectionRMProxiesManager manager = createManager(50, null);
+        final Credentials credentials = mock(Credentials.class);
+
+        List<Future<RMProxy>> proxies = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            proxies.add(executor.submit(new Callable<RMProxy>() {
+                @Override
+                public RMProxy call() throws Exception {
+                    return manager.getUserRMProxy("user", credentials);
+                }
+            }));
+        }
+
+        RMProxy proxy = proxies.get(0).get();
+        for (Future<RMProxy> other : proxies) {
+            assertThat(other.get()).isSameAs(proxy);
+        }
+        assertThat(creations.get(credentials).get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSlowConnectionDoesNotBlockOtherUsers() throws Exception {
+        CountDownLatch slowUserConnection = new CountDownLatch(1);
+        final Credentials slowCredentials = mock(Credentials.class);
+        final PerUserConnectionRMProxiesManager manager = createManager(0, slowUserConnection, slowCredentials);
+
+        Future<RMProxy> slowProxy = executor.submit(new Callable<RMProxy>() {
+            @Override
+            public RMProxy call() throws Exception {
+                return manager.getUserRMProxy("slow", slowCredentials);
+            }
+        });
+        Future<RMProxy> otherProxy = executor.submit(new Callable<RMProxy>() {
+            @Override
+            public RMProxy call() throws Exception {
+                return manager.getUserRMProxy("other", mock(Credentials.class));
+            }
+        });
+
+        assertThat(otherProxy.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(slowProxy.isDone()).isFalse();
+
+        slowUserConnection.countDown();
+        assertThat(slowProxy.get(5, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    @Test
+    public void testFailedConnectionIsRetried() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final Credentials userCredentials = mock(Credentials.class);
+        PerUserConnectionRMProxiesManager manager = new PerUserConnectionRMProxiesManager(RM_URI,
+                                                                                          mock(Credentials.class),
+                                                                                          0) {
+            @Override
+            RMProxy createRMProxy(URI rmURI, Credentials credentials) throws RMProxyCreationException {
+                if (credentials == userCredentials && attempts.incrementAndGet() == 1) {
+                    throw new RMProxyCreationException("RM not reachable");
+                }
+                return mock(RMProxy.class);
+            }
+        };
+
+        try {
+            manager.getUserRMProxy("user", userCredentials);
+        } catch (RMProxyCreationException expected) {
+            // first attempt fails
+        }
+
+        assertThat(manager.getUserRMProxy("user", userCredentials)).isNotNull();
+        assertThat(attempts.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testIdleProxiesWithoutNodesAreClosed() throws Exception {
+        PerUserConnectionRMProxiesManager manager = createManager(0, null);
+        RMProxy idleProxy = manager.getUserRMProxy("idle", mock(Credentials.class));
+        RMProxy busyProxy = manager.getUserRMProxy("busy", mock(Credentials.class));
+        when(busyProxy.holdsNodes()).thenReturn(true);
+
+        Thread.sleep(10);
+        manager.evictIdleProxies();
+
+        verify(idleProxy).terminate();
+        verify(busyProxy, never()).terminate();
+        assertThat(manager.getUserProxiesCount()).isEqualTo(1);
+        assertThat(manager.getUserRMProxy("idle", mock(Credentials.class))).isNotSameAs(idleProxy);
+    }
+
+    @Test
+    public void testProxiesOfUsersWithRunningTasksAreKept() throws Exception {
+        PerUserConnectionRMProxiesManager manager = createManager(0, null);
+        RMProxy idleProxy = manager.getUserRMProxy("idle", mock(Credentials.class));
+        // e.g. a task recovered after a restart, whose nodes were not obtained through this proxy
+        RMProxy runningProxy = manager.getUserRMProxy("running", mock(Credentials.class));
+        manager.setRunningTasksOwners(new RMProxiesManager.RunningTasksOwners() {
+            @Override
+            public Set<String> getRunningTasksOwners() {
+                return Collections.singleton("running");
+            }
+        });
+
+        Thread.sleep(10);
+        manager.evictIdleProxies();
+
+        verify(idleProxy).terminate();
+        verify(runningProxy, never()).terminate();
+        assertThat(manager.getUserRMProxy("running", mock(Credentials.class))).isSameAs(runningProxy);
+    }
+
+    @Test
+    public void testTerminateAllProxies() throws Exception {
+        PerUserConnectionRMProxiesManager manager = createManager(0, null);
+        RMProxy proxy1 = manager.getUserRMProxy("user1", mock(Credentials.class));
+        RMProxy proxy2 = manager.getUserRMProxy("user2", mock(Credentials.class));
+
+        manager.terminateAllProxies();
+
+        verify(proxy1).terminate();
+        verify(proxy2).terminate();
+        verify(manager.getRmProxy()).terminate();
+        assertThat(manager.getUserProxiesCount()).isEqualTo(0);
+    }
+
+    /**
+     * Measures the time taken by many users to get their proxy concurrently. Only runs when the
+     * number of users is given by the pa.scheduler.rmproxies.benchmark.users system property (e.g. 300).
+     */
+    @Test
+    public void benchmarkConcurrentUsers() throws Exception {
+        int users = Integer.getInteger(BENCHMARK_USERS_PROPERTY, 0);
+        Assume.assumeTrue(users > 0);
+        int requestsPerUser = 20;
+        long connectionTime = 20;
+        final PerUserConnectionRMProxiesManager manager = createManager(connectionTime, null);
+        ExecutorService submitters = Executors.newFixedThreadPool(100);
+        try {
+            List<Callable<RMProxy>> requests = new ArrayList<>(users * requestsPerUser);
+            for (int i = 0; i < users; i++) {
+                final String user = "user" + i;
+                final Credentials credentials = mock(Credentials.class);
+                for (int j = 0; j < requestsPerUser; j++) {
+                    requests.add(new Callable<RMProxy>() {
+                        @Override
+                        public RMProxy call() throws Exception {
+                            return manager.getUserRMProxy(user, credentials);
+                        }
+                    });
+                }
+            }
+
+            long start = System.nanoTime();
+            for (Future<RMProxy> proxy : submitters.invokeAll(requests)) {
+                assertThat(proxy.get()).isNotNull();
+            }
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            logger.info(String.format("%d users sent %d proxy requests in %d ms (%d ms per connection)",
+                                      users,
+                                      users * requestsPerUser,
+                                      elapsed,
+                                      connectionTime));
+            assertThat(manager.getUserProxiesCount()).isEqualTo(users);
+            for (AtomicInteger count : creations.values()) {
+                assertThat(count.get()).isEqualTo(1);
+            }
+            // connections are made in parallel, not one after the other
+            assertThat(elapsed).isLessThan(users * connectionTime / 2);
+        } finally {
+            submitters.shutdownNow();
+        }
+    }
+
+    private PerUserConnectionRMProxiesManager createManager(long connectionTime, CountDownLatch latch)
+            throws Exception {
+        return createManager(connectionTime, latch, null);
+    }
+
+    /**
+     * Creates a manager whose proxy creations take the given time, and wait for the latch
+     * when using the given credentials.
+     */
+    private PerUserConnectionRMProxiesManager createManager(final long connectionTime, final CountDownLatch latch,
+            final Credentials slowCredentials) throws Exception {
+        return new PerUserConnectionRMProxiesManager(RM_URI, mock(Credentials.class), 0) {
+            @Override
+            RMProxy createRMProxy(URI rmURI, Credentials credentials) throws RMProxyCreationException {
+                try {
+                    if (latch != null && credentials == slowCredentials) {
+                        latch.await();
+                    }
+                    Thread.sleep(connectionTime);
+                } catch (InterruptedException e) {
+                    throw new RMProxyCreationException(e);
+                }
+                AtomicInteger count = new AtomicInteger();
+                AtomicInteger existing = creations.putIfAbsent(credentials, count);
+                (existing != null ? existing : count).incrementAndGet();
+                return mock(RMProxy.class);
+            }
+        };
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy.license;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class LicenseSchedulingPolicyTest extends ProActiveTestClean {
+
+    private static final Logger logger = Logger.getLogger(LicenseSchedulingPolicyTest.class);
+
+    private static final String BENCHMARK_TASKS_PROPERTY = "pa.scheduler.license.benchmark.tasks";
+
+    private static int jobId = 0;
+
+    private LicenseTokens tokens;
+
+    private LicenseSchedulingPolicy policy;
+
+    @Before
+    public void setUp() {
+        Properties licenses = new Properties();
+        licenses.setProperty("software_A", "2");
+        licenses.setProperty("software_B", "1");
+        tokens = new LicenseTokens(licenses);
+        policy = new LicenseSchedulingPolicy(tokens);
+    }
+
+    @Test
+    public void testTaskWithoutLicensesIsExecutable() {
+        assertThat(policy.isTaskExecutable(null, createTask(null))).isTrue();
+    }
+
+    @Test
+    public void testUnknownSoftwareIsNeverExecutable() {
+        assertThat(policy.isTaskExecutable(null, createTask("software_C"))).isFalse();
+    }
+
+    @Test
+    public void testLicensesAreReservedTogether() {
+        assertThat(policy.isTaskExecutable(null, createTask("software_B"))).isTrue();
+
+        // software_B is not available, so no software_A license is taken either
+        assertThat(policy.isTaskExecutable(null, createTask("software_A, software_B"))).isFalse();
+        assertThat(tokens.getAvailable("software_A")).isEqualTo(2);
+        assertThat(tokens.getAvailable("software_B")).isEqualTo(0);
+    }
+
+    @Test
+    public void testSoftwareRequiredTwiceTakesTwoLicenses() {
+        assertThat(policy.isTaskExecutable(null, createTask("software_B,software_B"))).isFalse();
+        assertThat(policy.isTaskExecutable(null, createTask("software_A,software_A"))).isTrue();
+        assertThat(tokens.getAvailable("software_A")).isEqualTo(0);
+    }
+
+    @Test
+    public void testTerminationReleasesLicenses() {
+        EligibleTaskDescriptor first = createTask("software_A,software_B");
+        EligibleTaskDescriptor second = createTask("software_B");
+
+        assertThat(policy.isTaskExecutable(null, first)).isTrue();
+        // accepting the same task again does not take more licenses
+        assertThat(policy.isTaskExecutable(null, first)).isTrue();
+        assertThat(tokens.getAvailable("software_A")).isEqualTo(1);
+        assertThat(policy.isTaskExecutable(null, second)).isFalse();
+
+        policy.taskTerminated(first.getTaskId());
+        assertThat(tokens.getAvailable("software_A")).isEqualTo(2);
+        assertThat(policy.isTaskExecutable(null, second)).isTrue();
+
+        // a second notification for the same task has no effect
+        policy.taskTerminated(first.getTaskId());
+        assertThat(tokens.getAvailable("software_B")).isEqualTo(0);
+    }
+
+    @Test
+    public void testLicensesAreReleasedBetweenSchedulingLoops() {
+        runSchedulingLoops(20, 5);
+    }
+
+    /**
+     * Measures the license checks of many pending tasks. Only runs when the number of pending
+     * tasks is given by the pa.scheduler.license.benchmark.tasks system property (e.g. 5000).
+     */
+    @Test
+    public void benchmarkLicenseGatedPendingTasks() {
+        int pendingTasks = Integer.getInteger(BENCHMARK_TASKS_PROPERTY, 0);
+        int schedulingLoops = Math.min(100, pendingTasks / 2);
+        Assume.assumeTrue(schedulingLoops > 0);
+
+        long start = System.nanoTime();
+        long checks = runSchedulingLoops(pendingTasks, schedulingLoops);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        logger.info(String.format("%d license checks over %d scheduling loops in %d ms",
+                                  checks,
+                                  schedulingLoops,
+                                  elapsed));
+    }
+
+    /**
+     * Starts the executable pending tasks and terminates them, for each scheduling loop.
+     *
+     * @return the number of license checks
+     */
+    private long runSchedulingLoops(int pendingTasks, int schedulingLoops) {
+        List<EligibleTaskDescriptor> pending = new LinkedList<>();
+        for (int i = 0; i < pendingTasks; i++) {
+            pending.add(createTask(i % 2 == 0 ? "software_A" : "software_A,software_B"));
+        }
+
+        long checks = 0;
+        for (int loop = 0; loop < schedulingLoops; loop++) {
+            List<EligibleTaskDescriptor> started = new ArrayList<>();
+            for (Iterator<EligibleTaskDescriptor> it = pending.iterator(); it.hasNext();) {
+                EligibleTaskDescriptor task = it.next();
+                checks++;
+                if (policy.isTaskExecutable(null, task)) {
+                    started.add(task);
+                    it.remove();
+                }
+            }
+            // only one task of each kind can hold the licenses at the same time
+            assertThat(started).hasSize(2);
+            for (EligibleTaskDescriptor task : started) {
+                policy.taskTerminated(task.getTaskId());
+            }
+        }
+
+        assertThat(pending).hasSize(pendingTasks - 2 * schedulingLoops);
+        assertThat(tokens.getAvailable("software_A")).isEqualTo(2);
+        assertThat(tokens.getAvailable("software_B")).isEqualTo(1);
+        return checks;
+    }
+
+    private EligibleTaskDescriptor createTask(String requiredLicenses) {
+        InternalTaskFlowJob job = new InternalTaskFlowJob("test", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "");
+        job.setId(JobIdImpl.makeJobId(Integer.toString(jobId++)));
+        InternalTask task = new InternalScriptTask(job);
+        if (requiredLicenses != null) {
+            task.addGenericInformation("REQUIRED_LICENSES", requiredLicenses);
+        }
+        job.addTask(task);
+        return new EligibleTaskDescriptorImpl(task);
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.policy.ram;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.objectweb.proactive.core.node.Node;
+import org.objectweb.proactive.core.node.NodeInformation;
+import org.ow2.proactive.resourcemanager.common.RMState;
+import org.ow2.proactive.resourcemanager.common.RMStateNodeUrls;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptor;
+import org.ow2.proactive.scheduler.descriptor.EligibleTaskDescriptorImpl;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.internal.InternalScriptTask;
+import org.ow2.proactive.scheduler.task.internal.InternalTask;
+import org.ow2.proactive.utils.NodeSet;
+import org.ow2.tests.ProActiveTestClean;
+
+
+public class RamSchedulingPolicyTest extends ProActiveTestClean {
+
+    private static final Logger logger = Logger.getLogger(RamSchedulingPolicyTest.class);
+
+    private static final String BENCHMARK_DECISIONS_PROPERTY = "pa.scheduler.ram.benchmark.decisions";
+
+    private static final long GIGABYTE = 1024L * 1024L * 1024L;
+
+    private RamSchedulingPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new RamSchedulingPolicy();
+    }
+
+    @Test
+    public void testTaskWithoutRamIsExecutable() {
+        policy.setRMState(state(1, 1, 4));
+
+        assertThat(policy.isTaskExecutable(nodeSet("node0"), createTask(null))).isTrue();
+    }
+
+    @Test
+    public void testRamIsReservedOnTheHostOfTheNode() {
+        RMState state = state(1, 2, 4);
+        policy.setRMState(state);
+
+        assertThat(policy.isTaskExecutable(nodeSet("node0"), createTask("3"))).isTrue();
+        // both nodes are on the same host, which has only 1 GB left
+        assertThat(policy.isTaskExecutable(nodeSet("node1"), createTask("2"))).isFalse();
+        assertThat(policy.isTaskExecutable(nodeSet("node1"), createTask("0.5"))).isTrue();
+
+        assertThat(state.getAvailableMemory("node0")).isEqualTo(GIGABYTE / 2);
+        assertThat(state.getMemoryReservations().get("node0")).isEqualTo(3 * GIGABYTE);
+        assertThat(state.getMemoryReservations().get("node1")).isEqualTo(GIGABYTE / 2);
+    }
+
+    /**
+     * Measures the latency of the RAM decisions. Only runs when the number of decisions is
+     * given by the pa.scheduler.ram.benchmark.decisions system property (e.g. 100000).
+     */
+    @Test
+    public void benchmarkDecisionLatency() {
+        int decisions = Integer.getInteger(BENCHMARK_DECISIONS_PROPERTY, 0);
+        Assume.assumeTrue(decisions > 0);
+        int hosts = 100;
+        int nodesPerHost = 8;
+        RMState state = state(hosts, nodesPerHost, 64);
+        policy.setRMState(state);
+
+        List<NodeSet> nodeSets = new ArrayList<>();
+        for (int i = 0; i < hosts * nodesPerHost; i++) {
+            nodeSets.add(nodeSet("node" + i));
+        }
+        EligibleTaskDescriptor task = createTask("0.001");
+
+        int accepted = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < decisions; i++) {
+            if (policy.isTaskExecutable(nodeSets.get(i % nodeSets.size()), task)) {
+                accepted++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        logger.info(String.format("%d decisions in %d ms (%d ns per decision)",
+                                  decisions,
+                                  TimeUnit.NANOSECONDS.toMillis(elapsed),
+                                  elapsed / decisions));
+        assertThat(accepted).isEqualTo(decisions);
+    }
+
+    private RMState state(int hosts, int nodesPerHost, long memoryInGB) {
+        Set<String> nodeUrls = new HashSet<>();
+        Map<String, String> nodesHosts = new HashMap<>();
+        Map<String, Long> hostsMemory = new HashMap<>();
+        for (int host = 0; host < hosts; host++) {
+            hostsMemory.put("host" + host, memoryInGB * GIGABYTE);
+            for (int node = 0; node < nodesPerHost; node++) {
+                String nodeUrl = "node" + (host * nodesPerHost + node);
+                nodeUrls.add(nodeUrl);
+                nodesHosts.put(nodeUrl, "host" + host);
+            }
+        }
+        return new RMState(new RMStateNodeUrls(nodeUrls, nodeUrls, nodeUrls), -1L, nodesHosts, hostsMemory);
+    }
+
+    private NodeSet nodeSet(String nodeUrl) {
+        NodeInformation nodeInformation = mock(NodeInformation.class);
+        when(nodeInformation.getURL()).thenReturn(nodeUrl);
+        Node node = mock(Node.class);
+        when(node.getNodeInformation()).thenReturn(nodeInformation);
+        NodeSet nodeSet = new NodeSet();
+        nodeSet.add(node);
+        return nodeSet;
+    }
+
+    private EligibleTaskDescriptor createTask(String allocRam) {
+        InternalTaskFlowJob job = new InternalTaskFlowJob("test", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "");
+        job.setId(JobIdImpl.makeJobId("1"));
+        InternalTask task = new InternalScriptTask(job);
+        if (allocRam != null) {
+            task.addGenericInformation(RamSchedulingPolicy.RAM_VARIABLE_NAME, allocRam);
+        }
+        job.addTask(task);
+        return new EligibleTaskDescriptorImpl(task);
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.task.internal;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.ow2.proactive.scheduler.common.job.JobPriority;
+import org.ow2.proactive.scheduler.common.task.OnTaskError;
+import org.ow2.proactive.scheduler.common.task.TaskId;
+import org.ow2.proactive.scheduler.common.task.TaskVariable;
+import org.ow2.proactive.scheduler.common.task.flow.FlowScript;
+import org.ow2.proactive.scheduler.job.InternalJob;
+import org.ow2.proactive.scheduler.job.InternalTaskFlowJob;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+import org.ow2.proactive.scripting.SelectionScript;
+import org.ow2.proactive.scripting.SimpleScript;
+import org.ow2.tests.ProActiveTestClean;
+
+
+/**
+ * Checks what is shared and what is owned by the replicas created by {@link InternalTask#replicate()},
+ * and measures the throughput of large replications and loop expansions.
+ */
+public class InternalTaskReplicationTest extends ProActiveTestClean {
+
+    private static final Logger logger = Logger.getLogger(InternalTaskReplicationTest.class);
+
+    private static final String BENCHMARK_REPLICAS_PROPERTY = "pa.scheduler.replication.benchmark.replicas";
+
+    private static final int LOOP_BLOCK_SIZE = 50;
+
+    private InternalJob job;
+
+    @Before
+    public void init() {
+        job = new InternalTaskFlowJob("replication", JobPriority.NORMAL, OnTaskError.CANCEL_JOB, "description");
+    }
+
+    @Test
+    public void testReplicaSharesScriptsAndOwnsItsState() throws Exception {
+        InternalTask task = createTask("task", 1L);
+        task.setFlowScript(FlowScript.createLoopFlowScript("loop = false", "task"));
+
+        InternalTask replica = (InternalTask) task.replicate();
+
+        assertThat(replica.getPreScript()).isSameAs(task.getPreScript());
+        assertThat(replica.getSelectionScripts().get(0)).isSameAs(task.getSelectionScripts().get(0));
+        assertThat(replica.getReplicatedFrom()).isSameAs(task);
+        assertThat(replica.getTaskInfo()).isNotSameAs(task.getTaskInfo());
+        assertThat(replica.getId()).isNotSameAs(task.getId());
+        assertThat(replica.getId()).isEqualTo(task.getId());
+        assertThat(replica.getFlowScript()).isNotSameAs(task.getFlowScript());
+        assertThat(replica.getVariables()).isNotSameAs(task.getVariables());
+
+        replica.setReplicationIndex(3);
+        replica.getVariables().get("var").setValue("replica");
+        replica.addGenericInformation("info", "replica");
+        replica.getFlowScript().setActionTarget("other");
+
+        assertThat(task.getName()).isEqualTo("task");
+        assertThat(task.getId().getReadableName()).isEqualTo("task");
+        assertThat(replica.getName()).isEqualTo("task*3");
+        assertThat(task.getVariables().get("var").getValue()).isEqualTo("value");
+        assertThat(task.getGenericInformation().get("info")).isEqualTo("value");
+        assertThat(task.getFlowScript().getActionTarget()).isEqualTo("task");
+    }
+
+    @Test
+    public void testReplicaIsNotFinished() throws Exception {
+        InternalTask task = createTask("task", 1L);
+        task.setMaxNumberOfExecution(3);
+        task.setNumberOfExecutionLeft(0);
+
+        InternalTask replica = (InternalTask) task.replicate();
+
+        assertThat(replica.getNumberOfExecutionLeft()).isEqualTo(3);
+        assertThat(replica.getIDependences()).isNull();
+        assertThat(replica.getExecutableContainer()).isNull();
+    }
+
+    @Test
+    public void testReplicasDoNotChangeTheOriginalTask() throws Exception {
+        InternalTask task = createTask("task", 1L);
+
+        replicate(task, 10);
+
+        assertThat(task.getReplicationIndex()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLoopExpansionReplicatesTheWholeBlock() throws Exception {
+        expandLoop(2);
+    }
+
+    /**
+     * Measures the throughput of a large replication. Only runs when the number of replicas
+     * is given by the pa.scheduler.replication.benchmark.replicas system property (e.g. 10000).
+     */
+    @Test
+    public void benchmarkReplicateFanOut() throws Exception {
+        int fanOut = Integer.getInteger(BENCHMARK_REPLICAS_PROPERTY, 0);
+        Assume.assumeTrue(fanOut > 0);
+        InternalTask task = createTask("task", 1L);
+
+        long elapsed = replicate(task, fanOut);
+
+        logger.info(String.format("Replicated %d tasks in %d ms (%.0f replicas/s)",
+                                  fanOut,
+                                  elapsed / 1000000,
+                                  fanOut * 1e9 / elapsed));
+    }
+
+    /**
+     * Measures the throughput of loop expansions. Only runs when the number of replicas is
+     * given by the pa.scheduler.replication.benchmark.replicas system property (e.g. 10000).
+     */
+    @Test
+    public void benchmarkLoopExpansion() throws Exception {
+        int iterations = Integer.getInteger(BENCHMARK_REPLICAS_PROPERTY, 0) / LOOP_BLOCK_SIZE;
+        Assume.assumeTrue(iterations > 0);
+
+        long elapsed = expandLoop(iterations);
+
+        int replicated = LOOP_BLOCK_SIZE * iterations;
+        logger.info(String.format("Expanded %d iterations of a %d tasks loop in %d ms (%.0f replicas/s)",
+                                  iterations,
+                                  LOOP_BLOCK_SIZE,
+                                  elapsed / 1000000,
+                                  replicated * 1e9 / elapsed));
+    }
+
+    private long replicate(InternalTask task, int fanOut) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 1; i <= fanOut; i++) {
+            InternalTask replica = (InternalTask) task.replicate();
+            replica.setReplicationIndex(i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long expandLoop(int iterations) throws Exception {
+        InternalTask first = createTask("task0", 0L);
+        InternalTask last = first;
+        for (int i = 1; i < LOOP_BLOCK_SIZE; i++) {
+            InternalTask task = createTask("task" + i, i);
+            task.addDependence(last);
+            last = task;
+        }
+        last.setFlowScript(FlowScript.createLoopFlowScript("loop = true", first.getName()));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Map<TaskId, InternalTask> replicas = new HashMap<>();
+            last.replicateTree(replicas, first.getId(), true, 0, i);
+            assertThat(replicas).hasSize(LOOP_BLOCK_SIZE);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertThat(last.getFlowScript().getActionTarget()).isEqualTo("task0");
+        return elapsed;
+    }
+
+    private InternalTask createTask(String name, long id) throws Exception {
+        InternalTask task = new InternalScriptTask(job);
+        task.setName(name);
+        task.setId(TaskIdImpl.createTaskId(new JobIdImpl(666L, "replication"), name, id));
+        task.setPreScript(new SimpleScript("println 'pre'", "groovy"));
+        task.addSelectionScript(new SelectionScript("selected = true", "groovy"));
+        task.setVariables(Collections.singletonMap("var", new TaskVariable("var", "value")));
+        Map<String, String> genericInformation = new HashMap<>();
+        genericInformation.put("info", "value");
+        task.setGenericInformation(genericInformation);
+        return task;
+    }
+}
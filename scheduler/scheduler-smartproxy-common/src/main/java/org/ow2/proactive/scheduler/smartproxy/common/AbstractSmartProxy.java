@@ -32,6 +32,7 @@ import static com.google.common.base.Throwables.propagateIfInstanceOf;
 import java.io.File;
 import java.security.KeyException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -40,8 +41,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 
 import javax.security.auth.login.LoginException;
@@ -60,6 +64,7 @@ import org.ow2.proactive.scheduler.common.SchedulerEvent;
 import org.ow2.proactive.scheduler.common.SchedulerEventListener;
 import org.ow2.proactive.scheduler.common.SchedulerState;
 import org.ow2.proactive.scheduler.common.SchedulerStatus;
+import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
 import org.ow2.proactive.scheduler.common.TaskDescriptor;
 import org.ow2.proactive.scheduler.common.exception.JobAlreadyFinishedException;
 import org.ow2.proactive.scheduler.common.exception.JobCreationException;
@@ -111,6 +116,17 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
 
     public static final int MAX_NB_OF_DATA_TRANSFER_THREADS = 3 * Runtime.getRuntime().availableProcessors();
 
+    /**
+     * Number of finished tasks fetched per request when synchronizing awaited jobs
+     */
+    private static final int SYNC_PAGE_SIZE = 1000;
+
+    /**
+     * Tasks finished slightly before the last synchronization revision are fetched again, in case
+     * they were not yet visible to the scheduler database when the revision was taken
+     */
+    private static final long SYNC_REVISION_MARGIN = 60000;
+
     protected static final SchedulerEvent[] PROXY_SCHED_EVENTS = SchedulerEvent.values();
 
     protected SchedulerEvent[] configuredEvents = PROXY_SCHED_EVENTS;
@@ -418,13 +434,119 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
      * contact the scheduler and checks the current state of every job being
      * handled. It is called either during the proxy initialization, or after a
      * manual reconnection.
+     * <p>
+     * The tasks finished since the last synchronization are fetched in bulk,
+     * then awaited jobs are synchronized in parallel on the data transfer
+     * thread pool.
      */
     public void syncAwaitedJobs() {
         // we make a copy of the awaitedJobsIds set in order to iterate over it.
         Set<String> awaitedJobsIds = jobTracker.getAwaitedJobsIds();
-        for (String id : awaitedJobsIds) {
-            syncAwaitedJob(id);
+        if (awaitedJobsIds.isEmpty()) {
+            return;
+        }
+
+        long revision = jobTracker.getSyncRevision();
+        Map<String, List<TaskState>> finishedTasks = null;
+        if (revision > 0) {
+            try {
+                finishedTasks = getFinishedTasksSince(revision, awaitedJobsIds);
+            } catch (Exception e) {
+                log.warn("Could not fetch the tasks finished since the last synchronization, " +
+                         "synchronizing awaited jobs one by one", e);
+            }
         }
+
+        List<Callable<JobSync>> syncs = new ArrayList<>(awaitedJobsIds.size());
+        for (final String id : awaitedJobsIds) {
+            final List<TaskState> jobFinishedTasks = finishedTasks == null ? null
+                                                                           : getOrEmpty(finishedTasks.get(id));
+            syncs.add(new Callable<JobSync>() {
+                @Override
+                public JobSync call() {
+                    return syncAwaitedJob(id, jobFinishedTasks);
+                }
+            });
+        }
+
+        long latestFinishedTime = revision;
+        long firstUnhandledFinishedTime = Long.MAX_VALUE;
+        boolean complete = true;
+        try {
+            for (Future<JobSync> sync : threadPool.invokeAll(syncs)) {
+                try {
+                    JobSync jobSync = sync.get();
+                    if (jobSync == null) {
+                        complete = false;
+                    } else {
+                        latestFinishedTime = Math.max(latestFinishedTime, jobSync.latestFinishedTime);
+                        firstUnhandledFinishedTime = Math.min(firstUnhandledFinishedTime,
+                                                              jobSync.firstUnhandledFinishedTime);
+                    }
+                } catch (ExecutionException e) {
+                    complete = false;
+                    log.error("Unexpected error while synchronizing awaited jobs", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // tasks of an unsynchronized job may have finished before the new revision, and the
+        // tasks whose results are not transferred yet must be fetched again by the next synchronization
+        long newRevision = Math.min(latestFinishedTime, firstUnhandledFinishedTime - 1);
+        if (complete && newRevision > revision) {
+            jobTracker.setSyncRevision(newRevision);
+        }
+    }
+
+    /**
+     * Fetches, in pages, the tasks of the current user finished since the given
+     * revision and groups those belonging to the given jobs by job id.
+     * <p>
+     * The revision is a finished time given by the scheduler, so that the
+     * clocks of the proxy and of the scheduler do not need to be synchronized.
+     */
+    private Map<String, List<TaskState>> getFinishedTasksSince(long revision, Set<String> jobIds)
+            throws NotConnectedException, PermissionException {
+        SortSpecifierContainer sortParams = new SortSpecifierContainer();
+        sortParams.add("finishedTime", "ascending");
+        sortParams.add("id.jobId", "ascending");
+        sortParams.add("id.taskId", "ascending");
+
+        Map<String, List<TaskState>> finishedTasks = new HashMap<>();
+        int offset = 0;
+        Page<TaskState> page;
+        do {
+            page = getTaskStates(null,
+                                 Math.max(1, revision - SYNC_REVISION_MARGIN),
+                                 0,
+                                 true,
+                                 false,
+                                 false,
+                                 true,
+                                 offset,
+                                 SYNC_PAGE_SIZE,
+                                 sortParams);
+            for (TaskState taskState : page.getList()) {
+                String jobId = taskState.getJobId().value();
+                if (jobIds.contains(jobId)) {
+                    List<TaskState> jobFinishedTasks = finishedTasks.get(jobId);
+                    if (jobFinishedTasks == null) {
+                        jobFinishedTasks = new ArrayList<>();
+                        finishedTasks.put(jobId, jobFinishedTasks);
+                    }
+                    jobFinishedTasks.add(taskState);
+                }
+            }
+            offset += page.getList().size();
+        } while (!page.getList().isEmpty() && offset < page.getSize());
+        return finishedTasks;
+    }
+
+    private static List<TaskState> getOrEmpty(List<TaskState> tasks) {
+        return tasks != null ? tasks : Collections.<TaskState> emptyList();
     }
 
     /**
@@ -432,32 +554,39 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
      * given job
      *
      * @param id job ID
+     * @param finishedTasks tasks of the job finished since the last synchronization,
+     *                      or null if they must be read from the job state
+     * @return the finished times seen for this job, or null if the job could not be synchronized
      */
-    private void syncAwaitedJob(String id) {
+    private JobSync syncAwaitedJob(String id, List<TaskState> finishedTasks) {
         AwaitedJob awaitedJob = jobTracker.getAwaitedJob(id);
+        if (awaitedJob == null) {
+            return new JobSync();
+        }
 
         try {
-            JobState js = getJobState(id);
-            for (TaskState ts : js.getTasks()) {
+            JobInfo jobInfo;
+            if (finishedTasks == null) {
+                JobState js = getJobState(id);
+                jobInfo = js.getJobInfo();
+                finishedTasks = js.getTasks();
+            } else {
+                jobInfo = getJobInfo(id);
+            }
+
+            JobSync jobSync = new JobSync();
+            for (TaskState ts : finishedTasks) {
+                if (ts.getStatus().isTaskAlive()) {
+                    continue;
+                }
+                jobSync.latestFinishedTime = Math.max(jobSync.latestFinishedTime, ts.getFinishedTime());
                 String tname = ts.getName();
                 AwaitedTask at = awaitedJob.getAwaitedTask(tname);
                 if ((at != null) && (!at.isTransferring())) {
-                    TaskResult tres = null;
                     try {
-                        tres = getTaskResult(id, tname);
-                        if (tres != null) {
-                            log.debug("Synchonizing task " + tname + " of job " + id);
-                            taskStateUpdatedEvent(new NotificationData<>(SchedulerEvent.TASK_RUNNING_TO_FINISHED,
-                                                                         ts.getTaskInfo()));
-                        }
-                    } catch (NotConnectedException e) {
-                        e.printStackTrace();
-                    } catch (UnknownJobException e) {
-                        log.error("Could not retrieve output data for job " + id +
-                                  " because this job is not known by the Scheduler. \n ", e);
-                    } catch (UnknownTaskException e) {
-                        log.error("Could not retrieve output data for task " + tname + " of job " + id +
-                                  " because this task is not known by the Scheduler. \n ", e);
+                        log.debug("Synchonizing task " + tname + " of job " + id);
+                        taskStateUpdatedEvent(new NotificationData<>(SchedulerEvent.TASK_RUNNING_TO_FINISHED,
+                                                                     ts.getTaskInfo()));
                     } catch (Exception e) {
                         log.error("Unexpected error while getting the output data for task " + tname + " of job " + id,
                                   e);
@@ -465,9 +594,21 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
                 }
             }
 
-            if (js.isFinished()) {
-                jobStateUpdatedEvent(new NotificationData<>(SchedulerEvent.JOB_RUNNING_TO_FINISHED, js.getJobInfo()));
+            if (!jobInfo.getStatus().isJobAlive()) {
+                jobStateUpdatedEvent(new NotificationData<>(SchedulerEvent.JOB_RUNNING_TO_FINISHED, jobInfo));
             }
+
+            // the tasks still awaited are being transferred, or their transfer did not start
+            AwaitedJob syncedJob = jobTracker.getAwaitedJob(id);
+            if (syncedJob != null && syncedJob.isAutomaticTransfer()) {
+                for (TaskState ts : finishedTasks) {
+                    if (!ts.getStatus().isTaskAlive() && syncedJob.getAwaitedTask(ts.getName()) != null) {
+                        jobSync.firstUnhandledFinishedTime = Math.min(jobSync.firstUnhandledFinishedTime,
+                                                                      ts.getFinishedTime());
+                    }
+                }
+            }
+            return jobSync;
         } catch (NotConnectedException e) {
             log.error("A connection error occured while trying to download output data of Job " + id +
                       ". This job will remain in the list of awaited jobs. Another attempt to dowload the output data will be made next time the application is initialized. ",
@@ -479,11 +620,25 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
                      " will be removed from the known job list. The system will not attempt again to retrieve data for this job. You could try to manually copy the data from the location  " +
                      awaitedJob.getPullURL());
             jobTracker.removeAwaitedJob(id);
+            return new JobSync();
         } catch (PermissionException e) {
             log.error("Could not retrieve output data for job " + id +
                       " because you don't have permmission to access this job. You need to use the same connection credentials you used for submitting the job.  \n Another attempt to dowload the output data for this job will be made next time the application is initialized. ",
                       e);
         }
+        return null;
+    }
+
+    /**
+     * Finished times seen while synchronizing an awaited job
+     */
+    private static final class JobSync {
+
+        /** latest finished time of the tasks of the job */
+        private long latestFinishedTime;
+
+        /** earliest finished time of the tasks of the job whose results are not transferred yet */
+        private long firstUnhandledFinishedTime = Long.MAX_VALUE;
     }
 
     protected String getLocalUserSpace() throws NotConnectedException, PermissionException {
@@ -827,7 +982,7 @@ public abstract class AbstractSmartProxy<T extends JobTracker> implements Schedu
             return;
 
         at.setTaskId(tid.toString());
-        jobTracker.putAwaitedJob(id.toString(), aj);
+        jobTracker.setTaskId(id.toString(), tname, tid.toString());
 
         switch (status) {
             case ABORTED:
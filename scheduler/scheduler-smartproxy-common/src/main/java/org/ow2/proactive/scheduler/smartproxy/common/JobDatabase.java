@@ -25,11 +25,26 @@
  */
 package org.ow2.proactive.scheduler.smartproxy.common;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
 
 import org.apache.log4j.Logger;
+import org.objectweb.proactive.utils.NamedThreadFactory;
 
 import jdbm.PrimaryHashMap;
 import jdbm.RecordManager;
@@ -38,6 +53,16 @@ import jdbm.RecordManagerFactory;
 
 /**
  * Database in charge to persist references to awaited jobs in order to prevent data loss.
+ * <p>
+ * Awaited jobs are kept in memory, and every modification is appended to a journal file.
+ * The modifications of a single task are journaled as small task records, so that the
+ * whole job is not written again for each of them. Appended records survive a crash of the client process right away, and are forced to
+ * disk by a group commit: at most every {@link #COMMIT_INTERVAL_MS} milliseconds, or as
+ * soon as {@link #MAX_UNSYNCED_RECORDS} records are waiting. When the journal grows too
+ * big compared to the number of awaited jobs, it is compacted into a snapshot file.
+ * <p>
+ * On startup, the snapshot is loaded and the journal replayed on top of it, up to the
+ * last complete record.
  *
  * @author The ProActive Team
  */
@@ -55,19 +80,67 @@ public class JobDatabase {
     protected static String sessionName = DEFAULT_STATUS_FILENAME;
 
     /**
-     * File which persists the list of {@link AwaitedJob}
+     * File which persists the list of {@link AwaitedJob}, the journal and the snapshot
+     * files are named after it
      */
     public static File statusFile = new File(TMPDIR, sessionName);
 
     /**
-     * Name of the jobs backup table being recorded
+     * Name of the jobs backup table recorded by previous versions of the proxy
      */
     public static final String STATUS_RECORD_NAME = "AWAITED_JOBS";
 
     /**
-     * Object handling the AwaitedJobsFile connection
+     * Name of the synchronization state table recorded by previous versions of the proxy
+     */
+    public static final String SYNC_RECORD_NAME = "SYNC_STATE";
+
+    private static final String SYNC_REVISION_KEY = "FINISHED_TASKS_REVISION";
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * Maximum delay before appended records are forced to disk
      */
-    protected RecordManager recMan;
+    public static final long COMMIT_INTERVAL_MS = 200;
+
+    /**
+     * Maximum number of appended records which are not forced to disk yet
+     */
+    public static final int MAX_UNSYNCED_RECORDS = 1000;
+
+    /**
+     * The journal is compacted when it contains more records than this minimum and than
+     * {@link #COMPACTION_RATIO} times the number of awaited jobs
+     */
+    public static final int COMPACTION_MIN_RECORDS = 10000;
+
+    public static final int COMPACTION_RATIO = 4;
+
+    private static final int MAGIC = 0x50414a44;
+
+    /** version 2 adds the task records */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int HEADER_LENGTH = 16;
+
+    private static final byte PUT_JOB = 1;
+
+    private static final byte REMOVE_JOB = 2;
+
+    private static final byte CLEAR_JOBS = 3;
+
+    private static final byte SYNC_REVISION = 4;
+
+    private static final byte TASK_TRANSFERRING = 5;
+
+    private static final byte TASK_ID = 6;
+
+    private static final byte REMOVE_TASK = 7;
 
     ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
 
@@ -80,31 +153,47 @@ public class JobDatabase {
      * time a new job is sent to the scheduler for computation, it will be added
      * to this map, as an entry of (JobId, AwaitedJob), where JobId is given as
      * a string. When the output data related to this job has been transferred,
-     * the corresponding awaited job will be removed from this map. This map is
-     * persisted in the status file
+     * the corresponding awaited job will be removed from this map. Jobs are kept
+     * serialized, so that callers always work on their own copy.
      */
-    protected PrimaryHashMap<String, AwaitedJob> awaitedJobs;
+    protected Map<String, byte[]> awaitedJobs;
+
+    protected long syncRevision;
+
+    private FileChannel journal;
+
+    private long generation;
+
+    private int journalRecords;
+
+    private int unsyncedRecords;
+
+    private ScheduledExecutorService groupCommitter;
 
     public void cleanDataBase() {
         try {
             writeLock.lock();
 
-            if (recMan != null) {
+            if (journal != null) {
                 throw new IllegalStateException("Connection to a DB is established, cannot clean it");
             }
 
             log.info("Cleaning database");
 
             // delete all db files
-            File[] dbJobFiles = new File(TMPDIR).listFiles(new FilenameFilter() {
+            final String prefix = statusFile.getName();
+            File[] dbJobFiles = statusFile.getAbsoluteFile().getParentFile().listFiles(new FilenameFilter() {
                 @Override
                 public boolean accept(File dir, String name) {
-                    if (name.startsWith(sessionName)) {
+                    if (name.startsWith(prefix)) {
                         return true;
                     }
                     return false;
                 }
             });
+            if (dbJobFiles == null) {
+                return;
+            }
             for (File file : dbJobFiles) {
                 try {
                     log.info("Deleting " + file);
@@ -118,11 +207,34 @@ public class JobDatabase {
         }
     }
 
+    /**
+     * Forces to disk the records appended to the journal, without waiting for the next group commit.
+     */
     public void commit() throws IOException {
+        FileChannel channel;
+        int forcedRecords;
         try {
             writeLock.lock();
-
-            recMan.commit();
+            if (journal == null || unsyncedRecords == 0) {
+                return;
+            }
+            channel = journal;
+            forcedRecords = unsyncedRecords;
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // the journal has been compacted or closed, which forced it to disk
+            return;
+        }
+        try {
+            writeLock.lock();
+            if (journal == channel) {
+                // records appended during the force are left for the next commit
+                unsyncedRecords = Math.max(0, unsyncedRecords - forcedRecords);
+            }
         } finally {
             writeLock.unlock();
         }
@@ -137,7 +249,7 @@ public class JobDatabase {
             awaitedJobs.clear();
             log.info("Proxy's database has been reseted.");
             try {
-                recMan.commit();
+                append(encode(CLEAR_JOBS, null, null, 0));
             } catch (IOException e) {
                 log.error("Exception occured while closing connection to status file:", e);
             }
@@ -155,7 +267,7 @@ public class JobDatabase {
             if (awaitedJobs.containsKey(jobID)) {
                 awaitedJobs.remove(jobID);
                 try {
-                    recMan.commit();
+                    append(encode(REMOVE_JOB, jobID, null, 0));
                 } catch (IOException e) {
                     log.error("Exception occured while closing connection to status file:", e);
                 }
@@ -177,52 +289,79 @@ public class JobDatabase {
     }
 
     public AwaitedJob getAwaitedJob(String id) {
+        byte[] serializedJob;
         try {
             readLock.lock();
-            return awaitedJobs.get(id);
+            serializedJob = awaitedJobs.get(id);
         } finally {
             readLock.unlock();
         }
+        if (serializedJob == null) {
+            return null;
+        }
+        try {
+            return deserialize(serializedJob);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not read awaited job " + id, e);
+        }
     }
 
     /**
-     * load the awaited jobs from the status file
+     * load the awaited jobs from the snapshot and journal files
      * if a InvalidClassException occur, we clean the database
      */
     public void loadJobs() {
         try {
             writeLock.lock();
-            if (recMan != null) {
-                try {
-                    recMan.close();
-                } catch (Exception e) {
-                }
-            }
+            closeJournal();
+            awaitedJobs = new LinkedHashMap<>();
+            syncRevision = 0;
             try {
-                recMan = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
-                awaitedJobs = recMan.hashMap(STATUS_RECORD_NAME);
-                // This empty loop triggers InvalidClassException in case of serial version uid problems
-                for (Map.Entry<String, AwaitedJob> job : awaitedJobs.entrySet())
-                    ;
-                recMan.commit();
-            } catch (IOError e) {
-                // we track invalid class exceptions
-                if (e.getCause() instanceof InvalidClassException) {
-                    try {
-                        recMan.close();
-                    } catch (IOException e1) {
+                File snapshotFile = snapshotFile();
+                File journalFile = journalFile();
+                boolean imported = false;
+                if (!snapshotFile.exists() && !journalFile.exists()) {
+                    imported = importLegacyDatabase();
+                }
 
-                    }
-                    recMan = null;
-                    cleanDataBase();
-                    loadJobs();
-                } else {
-                    throw e;
+                long snapshotGeneration = 0;
+                if (snapshotFile.exists()) {
+                    snapshotGeneration = replay(snapshotFile, null).generation;
+                }
+                Replay journalReplay = null;
+                if (journalFile.exists()) {
+                    journalReplay = replay(journalFile, snapshotGeneration);
                 }
 
-            } catch (IOException e) {
+                // This loop triggers InvalidClassException in case of serial version uid problems
+                for (byte[] serializedJob : awaitedJobs.values()) {
+                    deserialize(serializedJob);
+                }
+
+                if (journalReplay != null && journalReplay.generation == snapshotGeneration) {
+                    openJournal(journalFile, snapshotGeneration, journalReplay.validLength);
+                    journalRecords = journalReplay.records;
+                } else {
+                    // the journal is older than the snapshot, its records are already part of it
+                    openJournal(journalFile, snapshotGeneration, -1);
+                }
+                if (imported || journalRecords > 0) {
+                    compact();
+                }
+                if (imported) {
+                    deleteLegacyDatabase();
+                }
+            } catch (InvalidClassException e) {
+                // we track invalid class exceptions
+                log.warn("Awaited jobs cannot be read with the current version, cleaning the database", e);
+                closeJournal();
+                cleanDataBase();
+                loadJobs();
+                return;
+            } catch (IOException | ClassNotFoundException e) {
                 throw new RuntimeException(e);
             }
+            startGroupCommitter();
         } finally {
             writeLock.unlock();
         }
@@ -236,10 +375,10 @@ public class JobDatabase {
                                                    awaitedJob.getJobId());
             }
 
-            this.awaitedJobs.put(id, awaitedJob);
-
             try {
-                this.recMan.commit();
+                byte[] serializedJob = serialize(awaitedJob);
+                this.awaitedJobs.put(id, serializedJob);
+                append(encode(PUT_JOB, id, serializedJob, 0));
             } catch (IOException e) {
                 log.error("Could not save status file after adding job on awaited jobs list " + awaitedJob.getJobId(),
                           e);
@@ -252,7 +391,45 @@ public class JobDatabase {
     public AwaitedJob removeAwaitedJob(String id) {
         try {
             writeLock.lock();
-            return this.awaitedJobs.remove(id);
+            byte[] serializedJob = this.awaitedJobs.remove(id);
+            if (serializedJob == null) {
+                return null;
+            }
+            try {
+                append(encode(REMOVE_JOB, id, null, 0));
+            } catch (IOException e) {
+                log.error("Could not save status file after removing job " + id, e);
+            }
+            return deserialize(serializedJob);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Could not read awaited job " + id, e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @return the scheduler time up to which finished tasks have already been
+     * synchronized, or 0 if no synchronization has been made yet
+     */
+    public long getSyncRevision() {
+        try {
+            readLock.lock();
+            return syncRevision;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    public void setSyncRevision(long revision) {
+        try {
+            writeLock.lock();
+            syncRevision = revision;
+            try {
+                append(encode(SYNC_REVISION, null, null, revision));
+            } catch (IOException e) {
+                log.error("Could not save status file after updating the synchronization revision", e);
+            }
         } finally {
             writeLock.unlock();
         }
@@ -294,46 +471,423 @@ public class JobDatabase {
     public void setTaskTransferring(String id, String taskName, boolean transferring) {
         try {
             writeLock.lock();
-            AwaitedJob aj = awaitedJobs.get(id);
-            if (aj == null) {
-                log.warn("Job " + id + " not in the awaited list");
-                return;
-            }
-
-            AwaitedTask at = aj.getAwaitedTask(taskName);
-
-            if (at == null) {
-                log.warn("Task " + taskName + " from Job " + id + " not in the awaited list");
-                return;
-            }
+            updateTask(TASK_TRANSFERRING, id, taskName, Boolean.toString(transferring));
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            at.setTransferring(transferring);
-            awaitedJobs.put(id, aj);
+    /**
+     * Records the scheduler id of the given task
+     *
+     * @param id       jobID
+     * @param taskName task name
+     * @param taskId   id of the task in the scheduler
+     */
+    public void setTaskId(String id, String taskName, String taskId) {
+        try {
+            writeLock.lock();
+            updateTask(TASK_ID, id, taskName, taskId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
 
-            try {
-                this.recMan.commit();
-            } catch (IOException e) {
-                log.error("Could not save status file after setting transferring mode to task Task " + taskName +
-                          " from Job" + id, e);
-            }
+    /**
+     * Removes the given task of the awaited job, the job stays awaited even if it has no more tasks
+     *
+     * @param id       jobID
+     * @param taskName task name
+     */
+    public void removeAwaitedTask(String id, String taskName) {
+        try {
+            writeLock.lock();
+            updateTask(REMOVE_TASK, id, taskName, null);
         } finally {
             writeLock.unlock();
         }
     }
 
+    /**
+     * Applies a modification of a task and journals it, must be called while holding the write lock.
+     */
+    private void updateTask(byte type, String id, String taskName, String value) {
+        try {
+            if (applyTaskUpdate(type, id, taskName, value)) {
+                append(encodeTaskUpdate(type, id, taskName, value));
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            log.error("Could not save status file after updating task " + taskName + " from Job " + id, e);
+        }
+    }
+
+    /**
+     * @return false if the job or the task is not awaited
+     */
+    private boolean applyTaskUpdate(byte type, String id, String taskName, String value)
+            throws IOException, ClassNotFoundException {
+        byte[] serializedJob = awaitedJobs.get(id);
+        if (serializedJob == null) {
+            log.warn("Job " + id + " not in the awaited list");
+            return false;
+        }
+        AwaitedJob aj = deserialize(serializedJob);
+        AwaitedTask at = aj.getAwaitedTask(taskName);
+        if (at == null) {
+            log.warn("Task " + taskName + " from Job " + id + " not in the awaited list");
+            return false;
+        }
+        switch (type) {
+            case TASK_TRANSFERRING:
+                at.setTransferring(Boolean.parseBoolean(value));
+                break;
+            case TASK_ID:
+                at.setTaskId(value);
+                break;
+            default:
+                aj.removeAwaitedTask(taskName);
+                break;
+        }
+        awaitedJobs.put(id, serialize(aj));
+        return true;
+    }
+
     public void close() {
         try {
             writeLock.lock();
-            if (recMan != null) {
+            closeJournal();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private File journalFile() {
+        return new File(statusFile.getPath() + JOURNAL_SUFFIX);
+    }
+
+    private File snapshotFile() {
+        return new File(statusFile.getPath() + SNAPSHOT_SUFFIX);
+    }
+
+    private void startGroupCommitter() {
+        groupCommitter = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("SmartProxyJobDatabaseCommitter",
+                                                                                           true));
+        groupCommitter.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
                 try {
-                    recMan.close();
-                    recMan = null;
+                    commit();
                 } catch (IOException e) {
+                    log.error("Could not force the awaited jobs journal to disk", e);
+                }
+            }
+        }, COMMIT_INTERVAL_MS, COMMIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void closeJournal() {
+        if (groupCommitter != null) {
+            groupCommitter.shutdownNow();
+            groupCommitter = null;
+        }
+        if (journal != null) {
+            try {
+                journal.force(false);
+                journal.close();
+            } catch (IOException e) {
+                log.warn("Could not close the awaited jobs journal", e);
+            }
+            journal = null;
+        }
+    }
+
+    /**
+     * Opens the journal for appending, either at the given position of an existing
+     * journal or, if the position is negative, as a new empty journal.
+     */
+    private void openJournal(File journalFile, long journalGeneration, long position) throws IOException {
+        if (position < 0) {
+            journal = FileChannel.open(journalFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE);
+            write(journal, header(journalGeneration));
+            journal.force(true);
+            journalRecords = 0;
+        } else {
+            journal = FileChannel.open(journalFile.toPath(), WRITE);
+            // drops a record partially written before a crash
+            journal.truncate(position);
+            journal.position(position);
+        }
+        generation = journalGeneration;
+        unsyncedRecords = 0;
+    }
+
+    /**
+     * Appends a record to the journal, must be called while holding the write lock.
+     */
+    private void append(byte[] payload) throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("The awaited jobs database has not been loaded");
+        }
+        write(journal, frame(payload));
+        journalRecords++;
+        if (++unsyncedRecords >= MAX_UNSYNCED_RECORDS) {
+            journal.force(false);
+            unsyncedRecords = 0;
+        }
+        if (journalRecords > Math.max(COMPACTION_MIN_RECORDS, COMPACTION_RATIO * awaitedJobs.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the current state into a new snapshot and starts a new journal. The
+     * generation number written in both files allows to ignore, after a crash, a
+     * journal older than the snapshot.
+     */
+    private void compact() throws IOException {
+        long newGeneration = generation + 1;
+        File snapshotFile = snapshotFile();
+        File tmpSnapshotFile = new File(snapshotFile.getPath() + TMP_SUFFIX);
+        try (FileChannel snapshot = FileChannel.open(tmpSnapshotFile.toPath(), CREATE, TRUNCATE_EXISTING, WRITE)) {
+            write(snapshot, header(newGeneration));
+            for (Map.Entry<String, byte[]> job : awaitedJobs.entrySet()) {
+                write(snapshot, frame(encode(PUT_JOB, job.getKey(), job.getValue(), 0)));
+            }
+            write(snapshot, frame(encode(SYNC_REVISION, null, null, syncRevision)));
+            snapshot.force(true);
+        }
+        Files.move(tmpSnapshotFile.toPath(), snapshotFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+
+        journal.close();
+        openJournal(journalFile(), newGeneration, -1);
+        log.debug("Awaited jobs journal compacted, " + awaitedJobs.size() + " jobs in snapshot");
+    }
+
+    private static class Replay {
+
+        long generation;
 
+        long validLength;
+
+        int records;
+    }
+
+    /**
+     * Applies the records of the given file. When an expected generation is given and
+     * the file does not match it, no record is applied. Reading stops at the first
+     * incomplete or corrupted record.
+     */
+    private Replay replay(File file, Long expectedGeneration) throws IOException {
+        Replay replay = new Replay();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            try {
+                int magic = in.readInt();
+                int version = in.readInt();
+                if (magic != MAGIC || version < 1 || version > FORMAT_VERSION) {
+                    throw new IOException("Unknown format for awaited jobs file " + file);
                 }
+                replay.generation = in.readLong();
+            } catch (EOFException e) {
+                // header not fully written, the file is empty
+                replay.generation = -1;
+                return replay;
+            }
+            replay.validLength = HEADER_LENGTH;
+            if (expectedGeneration != null && replay.generation != expectedGeneration) {
+                return replay;
+            }
+            long fileLength = file.length();
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] payload;
+                try {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length < 0 || replay.validLength + 8 + length > fileLength) {
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    crc.reset();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Corrupted record found in " + file + ", ignoring the following records");
+                        break;
+                    }
+                } catch (EOFException e) {
+                    break;
+                }
+                apply(payload);
+                replay.validLength += 8 + payload.length;
+                replay.records++;
+            }
+        }
+        return replay;
+    }
+
+    private void apply(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte type = in.readByte();
+        switch (type) {
+            case PUT_JOB: {
+                String id = in.readUTF();
+                byte[] serializedJob = new byte[in.readInt()];
+                in.readFully(serializedJob);
+                awaitedJobs.put(id, serializedJob);
+                break;
+            }
+            case REMOVE_JOB:
+                awaitedJobs.remove(in.readUTF());
+                break;
+            case CLEAR_JOBS:
+                awaitedJobs.clear();
+                break;
+            case SYNC_REVISION:
+                syncRevision = in.readLong();
+                break;
+            case TASK_TRANSFERRING:
+            case TASK_ID:
+            case REMOVE_TASK: {
+                String id = in.readUTF();
+                String taskName = in.readUTF();
+                String value = in.readBoolean() ? in.readUTF() : null;
+                try {
+                    applyTaskUpdate(type, id, taskName, value);
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Unknown awaited jobs record type " + type);
+        }
+    }
+
+    private static byte[] encode(byte type, String id, byte[] serializedJob, long revision) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        switch (type) {
+            case PUT_JOB:
+                out.writeUTF(id);
+                out.writeInt(serializedJob.length);
+                out.write(serializedJob);
+                break;
+            case REMOVE_JOB:
+                out.writeUTF(id);
+                break;
+            case SYNC_REVISION:
+                out.writeLong(revision);
+                break;
+            default:
+                break;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodeTaskUpdate(byte type, String id, String taskName, String value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type);
+        out.writeUTF(id);
+        out.writeUTF(taskName);
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer header(long generation) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH);
+        buffer.putInt(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putLong(generation);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static byte[] serialize(AwaitedJob awaitedJob) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(awaitedJob);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AwaitedJob deserialize(byte[] serializedJob) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedJob))) {
+            return (AwaitedJob) in.readObject();
+        }
+    }
+
+    /**
+     * Files of the JDBM database used by previous versions of the proxy
+     */
+    private File[] legacyDatabaseFiles() {
+        final String prefix = statusFile.getName() + ".";
+        File[] files = statusFile.getAbsoluteFile().getParentFile().listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith(prefix) && !name.endsWith(JOURNAL_SUFFIX) &&
+                       !name.endsWith(SNAPSHOT_SUFFIX) && !name.endsWith(SNAPSHOT_SUFFIX + TMP_SUFFIX);
             }
+        });
+        return files != null ? files : new File[0];
+    }
+
+    /**
+     * Reads the awaited jobs recorded by previous versions of the proxy, if any.
+     */
+    private boolean importLegacyDatabase() throws IOException {
+        if (legacyDatabaseFiles().length == 0) {
+            return false;
+        }
+        log.info("Importing awaited jobs from " + statusFile);
+        RecordManager recMan = RecordManagerFactory.createRecordManager(statusFile.getCanonicalPath());
+        try {
+            PrimaryHashMap<String, AwaitedJob> legacyJobs = recMan.hashMap(STATUS_RECORD_NAME);
+            for (Map.Entry<String, AwaitedJob> job : legacyJobs.entrySet()) {
+                awaitedJobs.put(job.getKey(), serialize(job.getValue()));
+            }
+            PrimaryHashMap<String, Long> legacySyncState = recMan.hashMap(SYNC_RECORD_NAME);
+            Long revision = legacySyncState.get(SYNC_REVISION_KEY);
+            if (revision != null) {
+                syncRevision = revision;
+            }
+        } catch (IOError e) {
+            log.warn("Could not import the awaited jobs recorded by a previous version", e);
+            awaitedJobs.clear();
+            syncRevision = 0;
         } finally {
-            writeLock.unlock();
+            recMan.close();
+        }
+        return true;
+    }
+
+    private void deleteLegacyDatabase() {
+        for (File file : legacyDatabaseFiles()) {
+            if (!file.delete()) {
+                log.warn("Could not delete " + file);
+            }
         }
     }
 
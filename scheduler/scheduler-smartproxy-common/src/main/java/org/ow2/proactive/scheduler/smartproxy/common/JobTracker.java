@@ -105,8 +105,20 @@ public abstract class JobTracker {
         jobDatabase.putAwaitedJob(id, aj);
     }
 
+    public long getSyncRevision() {
+        return jobDatabase.getSyncRevision();
+    }
+
+    public void setSyncRevision(long revision) {
+        jobDatabase.setSyncRevision(revision);
+    }
+
     public void setTaskTransferring(String id, String taskName, boolean transferring) {
         jobDatabase.setTaskTransferring(id, taskName, transferring);
     }
 
+    public void setTaskId(String id, String taskName, String taskId) {
+        jobDatabase.setTaskId(id, taskName, taskId);
+    }
+
 }
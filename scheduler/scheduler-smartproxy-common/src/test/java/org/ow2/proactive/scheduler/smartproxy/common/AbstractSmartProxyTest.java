@@ -0,0 +1,229 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.smartproxy.common;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.ow2.proactive.scheduler.common.Page;
+import org.ow2.proactive.scheduler.common.SortSpecifierContainer;
+import org.ow2.proactive.scheduler.common.exception.UnknownJobException;
+import org.ow2.proactive.scheduler.common.job.JobId;
+import org.ow2.proactive.scheduler.common.job.JobInfo;
+import org.ow2.proactive.scheduler.common.job.JobState;
+import org.ow2.proactive.scheduler.common.job.JobStatus;
+import org.ow2.proactive.scheduler.common.task.TaskInfo;
+import org.ow2.proactive.scheduler.common.task.TaskState;
+import org.ow2.proactive.scheduler.common.task.TaskStatus;
+import org.ow2.proactive.scheduler.job.JobIdImpl;
+import org.ow2.proactive.scheduler.task.TaskIdImpl;
+
+
+public class AbstractSmartProxyTest {
+
+    private JobTracker jobTracker;
+
+    private AbstractSmartProxy<JobTracker> proxy;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        jobTracker = mock(JobTracker.class);
+        proxy = mock(AbstractSmartProxy.class,
+                     withSettings().useConstructor().defaultAnswer(Mockito.CALLS_REAL_METHODS));
+        proxy.jobTracker = jobTracker;
+        // the output files are transferred at once
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                AwaitedJob awaitedJob = (AwaitedJob) invocation.getArguments()[0];
+                awaitedJob.removeAwaitedTask((String) invocation.getArguments()[2]);
+                return null;
+            }
+        }).when(proxy).downloadTaskOutputFiles(any(AwaitedJob.class), anyString(), anyString(), anyString());
+    }
+
+    @After
+    public void tearDown() {
+        proxy.threadPool.shutdownNow();
+    }
+
+    @Test
+    public void testJobFinishedWhileDisconnectedIsSynchronized() throws Exception {
+        AwaitedJob awaitedJob = awaitedJob("1", "A", "B");
+        awaitedJob.getAwaitedTask("B").setTransferring(true);
+        awaitJobs(0, awaitedJob);
+        JobState jobState = mock(JobState.class);
+        JobInfo jobInfo = jobInfo("1", JobStatus.FINISHED);
+        when(jobState.getJobInfo()).thenReturn(jobInfo);
+        when(jobState.getTasks()).thenReturn(Arrays.asList(taskState("1", "A", TaskStatus.FINISHED, 1000),
+                                                           taskState("1", "B", TaskStatus.FINISHED, 2000)));
+        doReturn(jobState).when(proxy).getJobState("1");
+
+        proxy.syncAwaitedJobs();
+
+        verify(proxy).downloadTaskOutputFiles(awaitedJob, "1", "A", "out");
+        // the output files of B are already being transferred
+        verify(proxy, never()).downloadTaskOutputFiles(awaitedJob, "1", "B", "out");
+        // B must be fetched again by the next synchronization in case its transfer fails
+        verify(jobTracker).setSyncRevision(1999);
+    }
+
+    @Test
+    public void testRevisionDoesNotPassTasksWhoseResultsAreNotTransferred() throws Exception {
+        AwaitedJob awaitedJob = awaitedJob("1", "A", "B");
+        awaitedJob.getAwaitedTask("B").setTransferring(true);
+        awaitJobs(5000, awaitedJob);
+        Page<TaskState> page = new Page<>(Arrays.asList(taskState("1", "B", TaskStatus.FINISHED, 6000),
+                                                        taskState("1", "A", TaskStatus.FINISHED, 7000)),
+                                          2);
+        doReturn(page).when(proxy).getTaskStates(anyString(),
+                                                 anyLong(),
+                                                 anyLong(),
+                                                 anyBoolean(),
+                                                 anyBoolean(),
+                                                 anyBoolean(),
+                                                 anyBoolean(),
+                                                 anyInt(),
+                                                 anyInt(),
+                                                 any(SortSpecifierContainer.class));
+        JobInfo jobInfo = jobInfo("1", JobStatus.RUNNING);
+        doReturn(jobInfo).when(proxy).getJobInfo("1");
+
+        proxy.syncAwaitedJobs();
+
+        verify(proxy).downloadTaskOutputFiles(awaitedJob, "1", "A", "out");
+        verify(jobTracker).setSyncRevision(5999);
+
+        // the transfer of B failed, it is announced again by the next synchronization
+        awaitedJob.getAwaitedTask("B").setTransferring(false);
+        proxy.syncAwaitedJobs();
+
+        verify(proxy).downloadTaskOutputFiles(awaitedJob, "1", "B", "out");
+    }
+
+    @Test
+    public void testTasksFinishedSinceTheLastRevisionAreFetchedInBulk() throws Exception {
+        AwaitedJob awaitedJob = awaitedJob("1", "A", "B");
+        awaitJobs(5000, awaitedJob);
+        Page<TaskState> page = new Page<>(Arrays.asList(taskState("1", "A", TaskStatus.FINISHED, 6000),
+                                                        taskState("3", "A", TaskStatus.FINISHED, 7000)),
+                                          2);
+        doReturn(page).when(proxy).getTaskStates(anyString(),
+                                                 anyLong(),
+                                                 anyLong(),
+                                                 anyBoolean(),
+                                                 anyBoolean(),
+                                                 anyBoolean(),
+                                                 anyBoolean(),
+                                                 anyInt(),
+                                                 anyInt(),
+                                                 any(SortSpecifierContainer.class));
+        JobInfo jobInfo = jobInfo("1", JobStatus.RUNNING);
+        doReturn(jobInfo).when(proxy).getJobInfo("1");
+
+        proxy.syncAwaitedJobs();
+
+        verify(proxy).downloadTaskOutputFiles(awaitedJob, "1", "A", "out");
+        verify(proxy, never()).downloadTaskOutputFiles(awaitedJob, "1", "B", "out");
+        verify(proxy, never()).getJobState(anyString());
+        // tasks of jobs which are not awaited do not move the revision
+        verify(jobTracker).setSyncRevision(6000);
+    }
+
+    @Test
+    public void testJobUnknownToTheSchedulerIsForgotten() throws Exception {
+        awaitJobs(0, awaitedJob("2", "A"));
+        doThrow(new UnknownJobException("2")).when(proxy).getJobState("2");
+
+        proxy.syncAwaitedJobs();
+
+        verify(jobTracker).removeAwaitedJob("2");
+        verify(proxy, never()).downloadTaskOutputFiles(any(AwaitedJob.class), anyString(), anyString(), anyString());
+        verify(jobTracker, never()).setSyncRevision(anyLong());
+    }
+
+    private void awaitJobs(long revision, AwaitedJob... awaitedJobs) {
+        HashSet<String> ids = new HashSet<>();
+        for (AwaitedJob awaitedJob : awaitedJobs) {
+            ids.add(awaitedJob.getJobId());
+            when(jobTracker.getAwaitedJob(awaitedJob.getJobId())).thenReturn(awaitedJob);
+        }
+        when(jobTracker.getAwaitedJobsIds()).thenReturn(ids);
+        when(jobTracker.getSyncRevision()).thenReturn(revision);
+    }
+
+    private AwaitedJob awaitedJob(String jobId, String... taskNames) {
+        HashMap<String, AwaitedTask> awaitedTasks = new HashMap<>();
+        for (String taskName : taskNames) {
+            awaitedTasks.put(taskName, new AwaitedTask(taskName, null));
+        }
+        return new AwaitedJob(jobId, "in", "in", "push", "out", "out", "pull", false, true, awaitedTasks);
+    }
+
+    private JobInfo jobInfo(String jobId, JobStatus status) {
+        JobInfo jobInfo = mock(JobInfo.class);
+        when(jobInfo.getJobId()).thenReturn(JobIdImpl.makeJobId(jobId));
+        when(jobInfo.getStatus()).thenReturn(status);
+        return jobInfo;
+    }
+
+    private TaskState taskState(String jobId, String taskName, TaskStatus status, long finishedTime) {
+        JobId id = JobIdImpl.makeJobId(jobId);
+        TaskInfo taskInfo = mock(TaskInfo.class);
+        when(taskInfo.getJobId()).thenReturn(id);
+        when(taskInfo.getTaskId()).thenReturn(TaskIdImpl.createTaskId(id, taskName, 0));
+        when(taskInfo.getStatus()).thenReturn(status);
+        TaskState taskState = mock(TaskState.class);
+        when(taskState.getJobId()).thenReturn(id);
+        when(taskState.getName()).thenReturn(taskName);
+        when(taskState.getStatus()).thenReturn(status);
+        when(taskState.getFinishedTime()).thenReturn(finishedTime);
+        when(taskState.getTaskInfo()).thenReturn(taskInfo);
+        return taskState;
+    }
+}
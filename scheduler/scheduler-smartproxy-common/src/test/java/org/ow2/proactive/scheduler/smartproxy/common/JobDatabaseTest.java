@@ -0,0 +1,163 @@
+/*
+ * ProActive Parallel Suite(TM):
+ * The Open Source library for parallel and distributed
+ * Workflows & Scheduling, Orchestration, Cloud Automation
+ * and Big Data Analysis on Enterprise Grids & Clouds.
+ *
+ * Copyright (c) 2007 - 2017 ActiveEon
+ * Contact: contact@activeeon.com
+ *
+ * This library is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Affero General Public License
+ * as published by the Free Software Foundation: version 3 of
+ * the License.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If needed, contact us to obtain a release under GPL Version 2 or 3
+ * or a different license than the AGPL.
+ */
+package org.ow2.proactive.scheduler.smartproxy.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+public class JobDatabaseTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File previousStatusFile;
+
+    private JobDatabase database;
+
+    @Before
+    public void setUp() throws Exception {
+        previousStatusFile = JobDatabase.statusFile;
+        JobDatabase.statusFile = new File(folder.getRoot(), "SmartProxyTest");
+        database = new JobDatabase();
+        database.loadJobs();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        JobDatabase.statusFile = previousStatusFile;
+    }
+
+    @Test
+    public void testJournalIsReplayedOnLoad() {
+        database.putAwaitedJob("1", awaitedJob("1"));
+        database.putAwaitedJob("2", awaitedJob("2"));
+        database.setTaskTransferring("2", "task", true);
+        database.removeAwaitedJob("1");
+        database.setSyncRevision(42);
+
+        reload();
+
+        assertEquals(1, database.getAwaitedJobsIds().size());
+        assertNull(database.getAwaitedJob("1"));
+        assertTrue(database.getAwaitedJob("2").getAwaitedTask("task").isTransferring());
+        assertEquals(42, database.getSyncRevision());
+    }
+
+    @Test
+    public void testTaskUpdatesAreJournaledAsTaskRecords() {
+        AwaitedJob job = awaitedJob("1");
+        job.putAwaitedTask("other", new AwaitedTask("other", null));
+        database.putAwaitedJob("1", job);
+        File journal = new File(JobDatabase.statusFile.getPath() + ".journal");
+        long jobRecordLength = journal.length();
+
+        database.setTaskId("1", "task", "1t0");
+        database.setTaskTransferring("1", "task", true);
+        database.removeAwaitedTask("1", "other");
+
+        assertTrue(journal.length() - jobRecordLength < jobRecordLength / 2);
+
+        reload();
+
+        AwaitedJob reloadedJob = database.getAwaitedJob("1");
+        assertEquals("1t0", reloadedJob.getAwaitedTask("task").getTaskId());
+        assertTrue(reloadedJob.getAwaitedTask("task").isTransferring());
+        assertNull(reloadedJob.getAwaitedTask("other"));
+    }
+
+    @Test
+    public void testIncompleteLastRecordIsIgnored() throws Exception {
+        database.putAwaitedJob("1", awaitedJob("1"));
+        database.putAwaitedJob("2", awaitedJob("2"));
+        database.close();
+
+        File journal = new File(JobDatabase.statusFile.getPath() + ".journal");
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        reload();
+
+        assertTrue(database.getAwaitedJobsIds().contains("1"));
+        assertFalse(database.getAwaitedJobsIds().contains("2"));
+
+        database.putAwaitedJob("3", awaitedJob("3"));
+        reload();
+
+        assertTrue(database.getAwaitedJobsIds().contains("3"));
+    }
+
+    @Test
+    public void testJournalIsCompacted() {
+        for (int i = 0; i <= JobDatabase.COMPACTION_MIN_RECORDS; i++) {
+            database.putAwaitedJob("1", awaitedJob("1"));
+        }
+        File journal = new File(JobDatabase.statusFile.getPath() + ".journal");
+        File snapshot = new File(JobDatabase.statusFile.getPath() + ".snapshot");
+
+        assertTrue(snapshot.exists());
+        assertTrue(journal.length() < snapshot.length());
+
+        reload();
+
+        assertEquals(1, database.getAwaitedJobsIds().size());
+    }
+
+    @Test
+    public void testDiscardAllJobs() {
+        database.putAwaitedJob("1", awaitedJob("1"));
+        database.discardAllJobs();
+
+        reload();
+
+        assertTrue(database.getAwaitedJobsIds().isEmpty());
+    }
+
+    private void reload() {
+        database.close();
+        database = new JobDatabase();
+        database.loadJobs();
+    }
+
+    private AwaitedJob awaitedJob(String jobId) {
+        HashMap<String, AwaitedTask> awaitedTasks = new HashMap<>();
+        awaitedTasks.put("task", new AwaitedTask("task", null));
+        return new AwaitedJob(jobId, "in", "in", "push", "out", "out", "pull", false, true, awaitedTasks);
+    }
+}
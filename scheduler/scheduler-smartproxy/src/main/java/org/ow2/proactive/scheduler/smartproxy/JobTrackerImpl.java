@@ -129,12 +129,6 @@ public class JobTrackerImpl extends JobTracker {
         }
 
         jobDatabase.removeAwaitedJob(id);
-
-        try {
-            jobDatabase.commit();
-        } catch (IOException e) {
-            logger.error("Could not save status file after removing job " + id, e);
-        }
     }
 
     /**
@@ -184,14 +178,7 @@ public class JobTrackerImpl extends JobTracker {
             removeAwaitedJob(id);
             return;
         } else {
-            // this is done to ensure persistence of the operation
-            jobDatabase.putAwaitedJob(id, awaitedJob);
-        }
-
-        try {
-            jobDatabase.commit();
-        } catch (IOException e) {
-            logger.error("Could not save status file after removing task Task " + taskName + " from Job" + id, e);
+            jobDatabase.removeAwaitedTask(id, taskName);
         }
     }
 
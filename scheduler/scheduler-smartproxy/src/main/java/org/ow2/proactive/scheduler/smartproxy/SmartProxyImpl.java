@@ -845,6 +845,16 @@ public class SmartProxyImpl extends AbstractSmartProxy<JobTrackerImpl> implement
         return schedulerProxy.getCurrentUserData();
     }
 
+    @Override
+    public List<JobInfo> getJobsInfoList(List<String> jobIds) throws NotConnectedException {
+        return schedulerProxy.getJobsInfoList(jobIds);
+    }
+
+    @Override
+    public boolean canHandleOtherUsersJobs() throws NotConnectedException {
+        return schedulerProxy.canHandleOtherUsersJobs();
+    }
+
     @Override
     public Map<String, Object> getSchedulerProperties() throws NotConnectedException, PermissionException {
         return schedulerProxy.getSchedulerProperties();